@@ -0,0 +1,333 @@
+package it.unimi.dsi.sux4j.bits;
+
+/*
+ * Sux4J: Succinct data structures for Java
+ *
+ * Copyright (C) 2017 Sebastiano Vigna
+ *
+ *  This library is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *
+ *  This library is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ *  or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ *  for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
+import it.unimi.dsi.bits.BitVector;
+import it.unimi.dsi.bits.Fast;
+import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+/** A select implementation based on a two-level inventory whose second level adapts to the span of each block,
+ * in the spirit of the <code>darray</code> of Okanohara and Sadakane (&ldquo;Practical entropy-compressed rank/select dictionary&rdquo;,
+ * <i>Proc. ALENEX 2007</i>).
+ *
+ * <p>As in {@link SimpleSelect}, the first-level inventory records the position of a one every {@link #onesPerInventory} ones,
+ * but blocks contain four times as many ones as in {@link SimpleSelect} (about one every 2<sup>15</sup> bits, and at least
+ * {@value #MIN_ONES_PER_INVENTORY} ones), so that the two longs of first-level inventory per block weigh less.
+ * The second level, moreover, does not use a fixed number of samples per block. For each block, we record the position (relative to the beginning of the block) of a one
+ * every 2<sup><var>t</var></sup> ones, where <var>t</var> is chosen so that consecutive samples are about
+ * 2<sup>{@value #LOG2_BITS_PER_SAMPLE}</sup> bits apart on average, and we use 16-, 32- or 64-bit offsets depending on
+ * the span of the block. Thus, dense blocks use few samples and sparse blocks use more samples
+ * (but never more than their number of ones).
+ *
+ * <p>Since the sampling rate depends only on the average density of a block, the ones following a sample might span
+ * a long gap (e.g., at the end of a cluster of ones). Thus, as in the <code>darray</code>, the positions
+ * of the ones following a sample are stored explicitly (spilled) if they span more than
+ * 2<sup>{@value #LOG2_MAX_SCAN}</sup> bits: in this case, the sample records the index of the spill instead of an offset. As a result,
+ * a selection scans at most 2<sup>{@value #LOG2_MAX_SCAN}</sup> bits, and about 2<sup>{@value #LOG2_BITS_PER_SAMPLE}</sup> bits on average.
+ *
+ * <p>The space used by the second level is about 2<sup>4&minus;{@value #LOG2_BITS_PER_SAMPLE}</sup> times the span of blocks
+ * spanning at most 2<sup>16</sup> bits (2<sup>15</sup> bits if they contain spills), and twice or four times as much for longer blocks, plus the spills.
+ * On evenly distributed bit arrays, this class uses between 5% and 8% additional space, and never more than {@link SimpleSelect}.
+ */
+
+public class AdaptiveSelect implements Select {
+	private static final boolean ASSERTS = false;
+	private static final long serialVersionUID = 1L;
+
+	/** The maximum number of ones per first-level inventory entry in {@link SimpleSelect}. */
+	private static final int MAX_ONES_PER_INVENTORY = 8192;
+	/** The base-2 logarithm of the ratio between the number of ones per first-level inventory entry and that of {@link SimpleSelect}. */
+	private static final int LOG2_INVENTORY_SCALE = 2;
+	/** The minimum number of ones per first-level inventory entry (if there are enough ones). */
+	private static final int MIN_ONES_PER_INVENTORY = 16;
+	/** The base-2 logarithm of the average number of bits between two consecutive samples. */
+	private static final int LOG2_BITS_PER_SAMPLE = 8;
+	/** The base-2 logarithm of the maximum number of bits spanned by the ones following a sample that are not spilled. */
+	private static final int LOG2_MAX_SCAN = 12;
+
+	/** The underlying bit vector. */
+	private final BitVector bitVector;
+	/** The number of ones in {@link #bitVector}. */
+	private final long numOnes;
+	/** The number of words in {@link #bitVector}. */
+	private final int numWords;
+	/** The cached result of {@link BitVector#bits() bitVector.bits()}. */
+	private transient long[] bits;
+	/** Two longs for each block of {@link #onesPerInventory} ones: the position of the first one, and
+	 * the index in {@link #subinventory} of the first sample (shifted left by 10), a bit set if the block has spills (shifted left by 9),
+	 * a bit set if the first ones of the block are spilled (shifted left by 8),
+	 * the base-2 logarithm of the offset width in short units (shifted left by 6) and the base-2 logarithm of the number of ones per sample.
+	 * The last element contains the length of {@link #bitVector}. */
+	private final long[] inventory;
+	/** The base-2 logarithm of the number of ones per {@link #inventory} entry. */
+	private final int log2OnesPerInventory;
+	/** The number of ones per {@link #inventory} entry. */
+	private final int onesPerInventory;
+	/** The mask associated to the number of ones per {@link #inventory} entry. */
+	private final int onesPerInventoryMask;
+	/** The samples and the spills of all blocks; the samples of each block start at a word boundary, and they are followed by the spills.
+	 * The sample of index <var>j</var> &minus; 1 of a block, <var>j</var> &gt; 0, is the offset of its one of index <var>j</var>2<sup><var>t</var></sup>, or, if the block has spills and the most significant bit of
+	 * the sample is set, the index <var>k</var> of a spill containing the offsets of the ones of index <var>j</var>2<sup><var>t</var></sup>,
+	 * <var>j</var>2<sup><var>t</var></sup> + 1, &hellip;, (<var>j</var> + 1)2<sup><var>t</var></sup> &minus; 1, which follow
+	 * the samples of the block after <var>k</var>2<sup><var>t</var></sup> other offsets. For <var>j</var> = 0 there is no sample, and the spill, if any, is the first one. */
+	private final long[] subinventory;
+
+	/** Creates a new selection structure using a bit vector specified by an array of longs and a number of bits.
+	 *
+	 * @param bits an array of longs representing a bit array.
+	 * @param length the number of bits to use from <code>bits</code>.
+	 */
+	public AdaptiveSelect(final long[] bits, final long length) {
+		this(LongArrayBitVector.wrap(bits, length));
+	}
+
+	/** Creates a new selection structure using the specified bit vector.
+	 *
+	 * @param bitVector a bit vector.
+	 */
+	public AdaptiveSelect(final BitVector bitVector) {
+		this.bitVector = bitVector;
+		final long[] bits = this.bits = bitVector.bits();
+		final long length = bitVector.length();
+
+		numWords = (int)((length + 63) / 64);
+
+		long d = 0;
+		for(int i = numWords; i-- != 0;) d += Long.bitCount(word(bits, i, length));
+		numOnes = d;
+
+		onesPerInventory = 1 << (log2OnesPerInventory = Math.max(Fast.mostSignificantBit(MIN_ONES_PER_INVENTORY), LOG2_INVENTORY_SCALE + Fast.mostSignificantBit(length == 0 ? 1 : (int)((numOnes * MAX_ONES_PER_INVENTORY + length - 1) / length))));
+		onesPerInventoryMask = onesPerInventory - 1;
+		final int inventorySize = (int)((numOnes + onesPerInventory - 1) >>> log2OnesPerInventory);
+
+		final long[] inventory = this.inventory = new long[inventorySize * 2 + 1];
+		inventory[inventorySize * 2] = length;
+
+		final LongArrayList subinventory = new LongArrayList();
+		// The positions of the ones of the current block, and the offsets to be stored for the block
+		final int maxOnes = numOnes == 0 ? 0 : onesPerInventory;
+		final long[] position = new long[maxOnes];
+		final long[] offset = new long[2 * maxOnes];
+		int ones = 0, block = 0;
+
+		for(int i = 0; i < numWords; i++) {
+			for(long word = word(bits, i, length); word != 0; word &= word - 1) {
+				position[ones++] = i * 64L + Long.numberOfTrailingZeros(word);
+				if (ones == onesPerInventory || (long)block * onesPerInventory + ones == numOnes) {
+					inventory[block * 2] = position[0];
+					inventory[block * 2 + 1] = block(position, ones, offset, subinventory);
+					block++;
+					ones = 0;
+				}
+			}
+		}
+
+		this.subinventory = subinventory.toLongArray();
+	}
+
+	/** Chooses the sampling rate and the offset width of a block, and appends its samples and spills to the subinventory.
+	 *
+	 * @param position the positions of the ones of the block.
+	 * @param ones the number of ones of the block.
+	 * @param offset a support array of length at least twice {@code ones}.
+	 * @param subinventory the subinventory.
+	 * @return the second long of the {@link #inventory} entry of the block.
+	 */
+	private static long block(final long[] position, final int ones, final long[] offset, final LongArrayList subinventory) {
+		final long start = position[0];
+		final long span = position[ones - 1] - start + 1;
+		// We round the logarithm to the nearest integer, so uniform blocks with a power-of-two density do not oscillate between two rates
+		final int log2OnesPerSample = Math.min(Fast.mostSignificantBit(ones), Math.max(0, Fast.mostSignificantBit(((long)ones << LOG2_BITS_PER_SAMPLE) * 3 / 2 / span)));
+		final int onesPerSample = 1 << log2OnesPerSample;
+
+		// The ones of the block are divided into intervals starting at a multiple of the number of ones per sample; each interval but the first has a sample
+		final int numSamples = ones - 1 >>> log2OnesPerSample;
+		boolean spills = false, firstSpilled = false;
+		int n = numSamples;
+		for(int j = 0; j <= numSamples; j++) {
+			final int first = j << log2OnesPerSample;
+			final int last = Math.min(first + onesPerSample, ones) - 1;
+			if (position[last] - position[first] <= 1 << LOG2_MAX_SCAN) {
+				if (j != 0) offset[j - 1] = position[first] - start;
+			}
+			else {
+				// Spill: the ones of the interval span too many bits, so we store their offsets explicitly (the sample is, for the time being, the complemented index of the spill)
+				spills = true;
+				if (j == 0) firstSpilled = true;
+				else offset[j - 1] = ~(n - numSamples >>> log2OnesPerSample);
+				// Only the last spill can be shorter than the number of ones per sample
+				for(int k = first; k <= last; k++) offset[n++] = position[k] - start;
+			}
+		}
+
+		// If there are spills, the most significant bit of an offset is reserved to mark them
+		final int log2ShortsPerOffset = span <= 1L << (spills ? 15 : 16) ? 0 : span <= 1L << (spills ? 31 : 32) ? 1 : 2;
+		final long spillMask = 1L << (16 << log2ShortsPerOffset) - 1;
+		for(int j = 0; j < numSamples; j++) if (offset[j] < 0) offset[j] = spillMask | ~offset[j];
+
+		final long pointer = subinventory.size();
+		if (pointer >= 1L << 31) throw new IllegalArgumentException("Too many samples: " + pointer);
+		final int offsetsPerWord = 4 >>> log2ShortsPerOffset;
+		final int offsetWidth = 16 << log2ShortsPerOffset;
+		for(int j = 0; j < n; j += offsetsPerWord) {
+			long word = 0;
+			for(int k = 0; k < offsetsPerWord && j + k < n; k++) word |= offset[j + k] << k * offsetWidth;
+			subinventory.add(word);
+		}
+
+		return pointer << 10 | (spills ? 1 : 0) << 9 | (firstSpilled ? 1 : 0) << 8 | log2ShortsPerOffset << 6 | log2OnesPerSample;
+	}
+
+	/** Returns an offset of the subinventory.
+	 *
+	 * @param pointer the index in {@link #subinventory} of the first offset of a block.
+	 * @param index the index of an offset of the block.
+	 * @param log2ShortsPerOffset the base-2 logarithm of the offset width of the block in short units.
+	 * @return the offset of given index of the block.
+	 */
+	private long offset(final int pointer, final int index, final int log2ShortsPerOffset) {
+		switch(log2ShortsPerOffset) {
+		case 0: return subinventory[pointer + (index >>> 2)] >>> (index & 3) * 16 & 0xFFFF;
+		case 1: return subinventory[pointer + (index >>> 1)] >>> (index & 1) * 32 & 0xFFFFFFFFL;
+		default: return subinventory[pointer + index];
+		}
+	}
+
+	/** Returns a word of a bit array, clearing the bits beyond a given length.
+	 *
+	 * @param bits a bit array.
+	 * @param i the index of a word.
+	 * @param length the length of the bit array.
+	 * @return the word of index {@code i} of {@code bits}, with the bits of index {@code length} or greater set to zero.
+	 */
+	private static long word(final long[] bits, final int i, final long length) {
+		return (i + 1) * 64L <= length ? bits[i] : bits[i] & (1L << length) - 1;
+	}
+
+	@Override
+	public long select(final long rank) {
+		if (rank >= numOnes) return -1;
+
+		final int inventoryIndex = (int)(rank >>> log2OnesPerInventory);
+		final long start = inventory[inventoryIndex * 2];
+		final int subrank = (int)(rank & onesPerInventoryMask);
+		if (subrank == 0) return start;
+
+		final long info = inventory[inventoryIndex * 2 + 1];
+		final int pointer = (int)(info >>> 10);
+		final int log2ShortsPerOffset = (int)(info >>> 6 & 3);
+		final int log2OnesPerSample = (int)(info & 63);
+		final int interval = subrank >>> log2OnesPerSample;
+		final int residual = subrank & (1 << log2OnesPerSample) - 1;
+		final long spillMask = (info & 1 << 9) == 0 ? 0 : 1L << (16 << log2ShortsPerOffset) - 1;
+		// The first interval starts at the beginning of the block, and if it is spilled its spill is the first one
+		final long offset = interval == 0 ? (info & 1 << 8) != 0 ? spillMask : 0 : offset(pointer, interval - 1, log2ShortsPerOffset);
+
+		if ((offset & spillMask) != 0) {
+			final int ones = (int)Math.min(numOnes - ((long)inventoryIndex << log2OnesPerInventory), onesPerInventory);
+			final int numSamples = ones - 1 >>> log2OnesPerSample;
+			return start + offset(pointer, numSamples + ((int)(offset ^ spillMask) << log2OnesPerSample) + residual, log2ShortsPerOffset);
+		}
+
+		final long pos = start + offset;
+		if (ASSERTS) assert pos >= start && pos < inventory[inventoryIndex * 2 + 2];
+		if (residual == 0) return pos;
+		return scan(pos, residual);
+	}
+
+	/** Returns the position of the one of given rank relative to a starting position, scanning the bit vector.
+	 *
+	 * @param start the position of a one.
+	 * @param residual the rank of the desired one relative to {@code start}.
+	 * @return the position of the one of rank {@code residual} counting from {@code start} (inclusive).
+	 */
+	private long scan(final long start, int residual) {
+		final long bits[] = this.bits;
+		int wordIndex = (int)(start / 64);
+		long word = bits[wordIndex] & -1L << start;
+
+		for(;;) {
+			final int bitCount = Long.bitCount(word);
+			if (residual < bitCount) break;
+			word = bits[++wordIndex];
+			residual -= bitCount;
+		}
+
+		return wordIndex * 64L + Fast.select(word, residual);
+	}
+
+	/** Performs a bulk select of consecutive ranks into a given array fragment.
+	 *
+	 * @param rank the first rank to select.
+	 * @param dest the destination array; it will be filled with {@code length} positions of consecutive bits starting at position {@code offset}.
+	 * @param offset the first bit position written in {@code dest}.
+	 * @param length the number of bit positions in {@code dest} starting at {@code offset}.
+	 * @return {@code dest}
+	 * @see #select(long, long[])
+	 */
+	public long[] select(final long rank, final long[] dest, final int offset, final int length) {
+		if (length == 0) return dest;
+		final long s = select(rank);
+		dest[offset] = s;
+		int curr = (int)(s / Long.SIZE);
+
+		long window = bits[curr] & -1L << s;
+		window &= window - 1;
+
+		for(int i = 1; i < length; i++) {
+			while(window == 0) window = bits[++curr];
+			dest[offset + i] = curr * Long.SIZE + Long.numberOfTrailingZeros(window);
+			window &= window - 1;
+		}
+
+		return dest;
+	}
+
+	/** Performs a bulk select of consecutive ranks into a given array.
+	 *
+	 * @param rank the first rank to select.
+	 * @param dest the destination array; it will be filled with position of consecutive bits.
+	 * @return {@code dest}
+	 * @see #select(long, long[], int, int)
+	 */
+	public long[] select(final long rank, final long[] dest) {
+		return select(rank, dest, 0, dest.length);
+	}
+
+	private void readObject(final ObjectInputStream s) throws IOException, ClassNotFoundException {
+		s.defaultReadObject();
+		bits = bitVector.bits();
+	}
+
+	@Override
+	public long numBits() {
+		return inventory.length * (long)Long.SIZE + subinventory.length * (long)Long.SIZE;
+	}
+
+	@Override
+	public BitVector bitVector() {
+		return bitVector;
+	}
+}
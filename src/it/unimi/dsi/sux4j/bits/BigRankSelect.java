@@ -0,0 +1,387 @@
+package it.unimi.dsi.sux4j.bits;
+
+/*
+ * Sux4J: Succinct data structures for Java
+ *
+ * Copyright (C) 2017 Sebastiano Vigna
+ *
+ *  This library is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *
+ *  This library is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ *  or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ *  for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+import static it.unimi.dsi.fastutil.BigArrays.SEGMENT_SIZE;
+import static it.unimi.dsi.fastutil.BigArrays.displacement;
+import static it.unimi.dsi.fastutil.BigArrays.segment;
+import static it.unimi.dsi.fastutil.BigArrays.start;
+
+import it.unimi.dsi.bits.BitVector;
+import it.unimi.dsi.bits.Fast;
+import it.unimi.dsi.fastutil.longs.LongBigArrayBigList;
+import it.unimi.dsi.fastutil.longs.LongBigArrays;
+
+/** A rank/select/zero-select structure for bit vectors stored in {@linkplain LongBigArrays big arrays}.
+ *
+ * <p>Structures such as {@link Rank9} or {@link SimpleSelect} index a single Java array of words, and thus
+ * cannot handle bit vectors longer than 2<sup>37</sup> bits. This class provides the same operations, with the same algorithms and the same
+ * space, as a {@link FusedRankSelect}&mdash;<code>rank9</code> counts for ranking, and two-level inventories in the style of
+ * {@link SimpleSelect} and {@link SimpleSelectZero} for selection&mdash;but the bit vector, the counts, the subinventories and the
+ * exact spills are big arrays indexed by longs, and it has the same speed as {@link Rank9}, {@link SimpleSelect} and {@link SimpleSelectZero}.
+ *
+ * <p>The two counts of a block always lie in the same segment, and so do the four 16-bit entries packed in a subinventory longword,
+ * and words are scanned within a segment, so the only additional cost of an access is an indirection through a small array of segments.
+ * The first-level inventories, which are accessed first by every selection, are instead standard arrays: since they contain at most an entry
+ * every 4096 bits, bit vectors of up to 2<sup>43</sup> bits are supported. Subinventory entries are extracted by shifts, rather than
+ * through a {@link it.unimi.dsi.fastutil.longs.LongBigList} view as in {@link SimpleSelect}, which compensates for the indirection.
+ *
+ * <p>A single class replaces big versions of {@link Rank9}, {@link SimpleSelect} and {@link SimpleSelectZero}, as the three
+ * would have to be built, stored and serialized together anyway.
+ * There are no big versions of {@link Rank11}, {@link Rank12} and {@link Rank16}, which trade ranking speed for space.
+ *
+ * <p>Since all data is contained in a single object, an instance can be serialized once.
+ */
+
+public class BigRankSelect extends AbstractRank implements Rank, Select, SelectZero {
+	private static final boolean ASSERTS = false;
+	private static final long serialVersionUID = 1L;
+
+	/** The bit vector, as a big array of words. */
+	protected final long[][] bits;
+	/** The length of the bit vector. */
+	protected final long length;
+	/** The <code>rank9</code> counts; the last element contains the number of ones. Unlike {@link Rank9},
+	 * subcounts of words beyond the end of the bit vector repeat the last count. */
+	protected final long[][] count;
+	protected final long numWords;
+	protected final long numOnes;
+	protected final long numZeros;
+	protected final long lastOne;
+	/** The first-level inventory of ones, as in {@link SimpleSelect}. */
+	private final long[] inventory;
+	/** The logarithm of the number of ones per {@link #inventory} entry. */
+	private final int log2OnesPerInventory;
+	/** The second-level inventory of ones, as in {@link SimpleSelect}. */
+	private final long[][] subinventory;
+	/** The logarithm of the number of longwords used in the part of {@link #subinventory} associated to an inventory entry. */
+	private final int log2LongwordsPerSubinventory;
+	/** The logarithm of the number of ones for each {@link #subinventory} short. */
+	private final int log2OnesPerSub16;
+	/** The number of ones for each {@link #subinventory} longword. */
+	private final int onesPerSub64;
+	/** The list of exact spills of ones. */
+	private final long[][] exactSpill;
+	/** The first-level inventory of zeroes, as in {@link SimpleSelectZero}. */
+	private final long[] zeroInventory;
+	/** The logarithm of the number of zeroes per {@link #zeroInventory} entry. */
+	private final int log2ZerosPerInventory;
+	/** The second-level inventory of zeroes, as in {@link SimpleSelectZero}. */
+	private final long[][] zeroSubinventory;
+	/** The logarithm of the number of longwords used in the part of {@link #zeroSubinventory} associated to an inventory entry. */
+	private final int log2LongwordsPerZeroSubinventory;
+	/** The logarithm of the number of zeroes for each {@link #zeroSubinventory} short. */
+	private final int log2ZerosPerSub16;
+	/** The number of zeroes for each {@link #zeroSubinventory} longword. */
+	private final int zerosPerSub64;
+	/** The list of exact spills of zeroes. */
+	private final long[][] zeroExactSpill;
+
+	/** Builds a two-level inventory of the ones (or of the zeroes) of a bit vector stored in a big array, with the same layout as that of
+	 * {@link SimpleSelect}. The result is copied into the fields of a {@link BigRankSelect}, so that selection does not go through a further object. */
+	private static final class Inventory {
+		private static final int MAX_ONES_PER_INVENTORY = 8192;
+		private static final int MAX_LOG2_LONGWORDS_PER_SUBINVENTORY = 3;
+		/** The maximum size of span to qualify for a subinventory made of 16-bit offsets. */
+		private static final int MAX_SPAN = (1 << 16);
+
+		private final long[] inventory;
+		private final int log2OnesPerInventory;
+		private final long[][] subinventory;
+		private final int log2LongwordsPerSubinventory;
+		private final int log2OnesPerSub16;
+		private final int onesPerSub64;
+		private final long[][] exactSpill;
+
+		/** Builds an inventory.
+		 *
+		 * @param bits the bit vector.
+		 * @param numWords the number of words of the bit vector.
+		 * @param length the length of the bit vector.
+		 * @param numOnes the number of ones (or zeroes).
+		 * @param flip zero to build an inventory of ones, &minus;1 to build an inventory of zeroes.
+		 */
+		private Inventory(final long[][] bits, final long numWords, final long length, final long numOnes, final long flip) {
+			log2OnesPerInventory = Fast.mostSignificantBit(length == 0 ? 1 : (numOnes * MAX_ONES_PER_INVENTORY + length - 1) / length);
+			final long onesPerInventory = 1L << log2OnesPerInventory;
+			final long onesPerInventoryMask = onesPerInventory - 1;
+			final long inventorySize = (numOnes + onesPerInventory - 1) >>> log2OnesPerInventory;
+			// This cannot happen if length is at most 2^43, as an entry is recorded at most every 4096 bits
+			if (inventorySize >= Integer.MAX_VALUE) throw new IllegalArgumentException("Bit vector too long: " + length);
+
+			inventory = new long[(int)inventorySize + 1];
+
+			// First phase: we build an inventory for each one out of onesPerInventory.
+			long d = 0;
+			for(long i = 0; i < numWords; i++)
+				for(long w = word(bits, i, length, flip); w != 0; w &= w - 1) {
+					if ((d & onesPerInventoryMask) == 0) inventory[(int)(d >>> log2OnesPerInventory)] = i * 64 + Long.numberOfTrailingZeros(w);
+					d++;
+				}
+
+			if (ASSERTS) assert d == numOnes;
+			inventory[(int)inventorySize] = length;
+
+			log2LongwordsPerSubinventory = Math.min(MAX_LOG2_LONGWORDS_PER_SUBINVENTORY, Math.max(0, log2OnesPerInventory - 2));
+			final int log2OnesPerSub64 = Math.max(0, log2OnesPerInventory - log2LongwordsPerSubinventory);
+			log2OnesPerSub16 = Math.max(0, log2OnesPerSub64 - 2);
+			onesPerSub64 = (1 << log2OnesPerSub64);
+			final int onesPerSub16 = (1 << log2OnesPerSub16);
+			final int onesPerSub16Mask = onesPerSub16 - 1;
+
+			if (onesPerInventory > 1) {
+				// We estimate the subinventory and exact spill size
+				long diff16 = 0, spilled = 0;
+				for(int inventoryIndex = 0; inventoryIndex < inventorySize; inventoryIndex++) {
+					final long span = inventory[inventoryIndex + 1] - inventory[inventoryIndex];
+					final long ones = Math.min(numOnes - ((long)inventoryIndex << log2OnesPerInventory), onesPerInventory);
+					// We must always count (possibly unused) diff16's. And we cannot store less then 4 diff16.
+					diff16 += Math.max(4, (ones + onesPerSub16 - 1) >>> log2OnesPerSub16);
+					if (span >= MAX_SPAN && onesPerSub64 > 1) spilled += ones;
+				}
+
+				subinventory = LongBigArrays.newBigArray((diff16 + 3) / 4);
+				exactSpill = LongBigArrays.newBigArray(spilled);
+
+				int inventoryIndex = 0;
+				long start = 0, span = 0, offset = 0;
+				spilled = 0;
+				d = 0;
+
+				for(long i = 0; i < numWords; i++)
+					for(long w = word(bits, i, length, flip); w != 0; w &= w - 1) {
+						final long pos = i * 64 + Long.numberOfTrailingZeros(w);
+						if ((d & onesPerInventoryMask) == 0) {
+							inventoryIndex = (int)(d >>> log2OnesPerInventory);
+							start = inventory[inventoryIndex];
+							span = inventory[inventoryIndex + 1] - start;
+							offset = 0;
+						}
+
+						if (span < MAX_SPAN) {
+							if (ASSERTS) assert pos - start <= MAX_SPAN;
+							if ((d & onesPerSub16Mask) == 0) {
+								final long index = ((long)inventoryIndex << log2LongwordsPerSubinventory + 2) + offset++;
+								LongBigArrays.set(subinventory, index >>> 2, LongBigArrays.get(subinventory, index >>> 2) | pos - start << ((index & 3) << 4));
+							}
+						}
+						else {
+							if (onesPerSub64 == 1) {
+								LongBigArrays.set(subinventory, ((long)inventoryIndex << log2LongwordsPerSubinventory) + offset++, pos);
+							}
+							else {
+								if ((d & onesPerInventoryMask) == 0) {
+									inventory[inventoryIndex] = start | 1L << 63;
+									LongBigArrays.set(subinventory, (long)inventoryIndex << log2LongwordsPerSubinventory, spilled);
+								}
+								LongBigArrays.set(exactSpill, spilled++, pos);
+							}
+						}
+
+						d++;
+					}
+			}
+			else subinventory = exactSpill = LongBigArrays.EMPTY_BIG_ARRAY;
+		}
+
+		/** Returns a word of the bit vector xor'd with a mask.
+		 *
+		 * @param bits the bit vector.
+		 * @param i the index of a word.
+		 * @param length the length of the bit vector.
+		 * @param flip a mask (zero or &minus;1).
+		 * @return the word of index {@code i} xor'd with {@code flip}, with the bits beyond {@code length} cleared.
+		 */
+		private static long word(final long[][] bits, final long i, final long length, final long flip) {
+			final long word = bits[segment(i)][displacement(i)] ^ flip;
+			return (i + 1) * 64 <= length ? word : word & (1L << length % 64) - 1;
+		}
+	}
+
+	/** Creates a new rank/select/zero-select structure.
+	 *
+	 * @param bits a big array of words containing the bit vector.
+	 * @param length the length of the bit vector.
+	 */
+	public BigRankSelect(final long[][] bits, final long length) {
+		if (length < 0) throw new IllegalArgumentException("Negative length: " + length);
+		this.bits = bits;
+		this.length = length;
+
+		numWords = (length + Long.SIZE - 1) / Long.SIZE;
+		if (LongBigArrays.length(bits) < numWords) throw new IllegalArgumentException("The big array contains " + LongBigArrays.length(bits) + " words, but a bit vector of length " + length + " needs " + numWords);
+		final long numBlocks = (numWords + 7) / 8;
+		count = LongBigArrays.newBigArray(numBlocks * 2 + 1);
+		numOnes = Rank9Counts.counts(i -> LongBigArrays.get(bits, i), numWords, LongBigArrayBigList.wrap(count, 0)::add);
+		numZeros = length - numOnes;
+
+		long l = -1;
+		for(long i = numWords; i-- != 0;) {
+			final long word = LongBigArrays.get(bits, i);
+			if (word != 0) {
+				l = i * 64 + Fast.mostSignificantBit(word);
+				break;
+			}
+		}
+		lastOne = l;
+
+		final Inventory ones = new Inventory(bits, numWords, length, numOnes, 0);
+		inventory = ones.inventory;
+		log2OnesPerInventory = ones.log2OnesPerInventory;
+		subinventory = ones.subinventory;
+		log2LongwordsPerSubinventory = ones.log2LongwordsPerSubinventory;
+		log2OnesPerSub16 = ones.log2OnesPerSub16;
+		onesPerSub64 = ones.onesPerSub64;
+		exactSpill = ones.exactSpill;
+
+		final Inventory zeroes = new Inventory(bits, numWords, length, numZeros, -1);
+		zeroInventory = zeroes.inventory;
+		log2ZerosPerInventory = zeroes.log2OnesPerInventory;
+		zeroSubinventory = zeroes.subinventory;
+		log2LongwordsPerZeroSubinventory = zeroes.log2LongwordsPerSubinventory;
+		log2ZerosPerSub16 = zeroes.log2OnesPerSub16;
+		zerosPerSub64 = zeroes.onesPerSub64;
+		zeroExactSpill = zeroes.exactSpill;
+	}
+
+	@Override
+	public long rank(final long pos) {
+		if (ASSERTS) assert pos >= 0;
+		if (ASSERTS) assert pos <= length;
+		if (pos > lastOne) return numOnes;
+
+		final long word = pos >>> 6;
+		final long block = word >>> 2 & ~1;
+		// The two counts of a block are in the same segment
+		final long[] count = this.count[segment(block)];
+		final int displacement = displacement(block);
+
+		return count[displacement] + Rank9Counts.subcount(count[displacement + 1], (int)word & 7) + Long.bitCount(bits[segment(word)][displacement(word)] & ((1L << pos) - 1));
+	}
+
+	@Override
+	public long select(final long rank) {
+		if (rank >= numOnes) return -1;
+		return select(rank, 0, inventory, log2OnesPerInventory, subinventory, log2LongwordsPerSubinventory, log2OnesPerSub16, onesPerSub64, exactSpill);
+	}
+
+	@Override
+	public long selectZero(final long zeroRank) {
+		if (zeroRank >= numZeros) return -1;
+		return select(zeroRank, -1, zeroInventory, log2ZerosPerInventory, zeroSubinventory, log2LongwordsPerZeroSubinventory, log2ZerosPerSub16, zerosPerSub64, zeroExactSpill);
+	}
+
+	/** Selects a one (or a zero) using the algorithm of {@link SimpleSelect} on an inventory built by {@link Inventory}.
+	 *
+	 * <p>The inventory is passed as a list of parameters, rather than as an object, so that each query
+	 * reads the parameters directly from the fields of this structure.
+	 *
+	 * @param rank the rank of a one (or of a zero) of the bit vector.
+	 * @param flip zero to select ones, &minus;1 to select zeroes.
+	 * The remaining parameters are the corresponding fields of an {@link Inventory}.
+	 * @return the position of the one (or zero) of given rank.
+	 */
+	private long select(final long rank, final long flip, final long[] inventory, final int log2OnesPerInventory, final long[][] subinventory, final int log2LongwordsPerSubinventory, final int log2OnesPerSub16, final int onesPerSub64, final long[][] exactSpill) {
+		final int inventoryIndex = (int)(rank >>> log2OnesPerInventory);
+
+		final long inventoryRank = inventory[inventoryIndex];
+		final int subrank = (int)(rank & (1L << log2OnesPerInventory) - 1);
+
+		if (subrank == 0) return inventoryRank & ~(1L << 63);
+
+		final long start;
+		final int residual;
+
+		if (inventoryRank >= 0) {
+			final long index = ((long)inventoryIndex << log2LongwordsPerSubinventory + 2) + (subrank >>> log2OnesPerSub16);
+			final long longword = index >>> 2;
+			start = inventoryRank + (subinventory[segment(longword)][displacement(longword)] >>> ((index & 3) << 4) & 0xFFFF);
+			residual = subrank & (1 << log2OnesPerSub16) - 1;
+		}
+		else {
+			final long index = (long)inventoryIndex << log2LongwordsPerSubinventory;
+			if (onesPerSub64 == 1) return subinventory[segment(index + subrank)][displacement(index + subrank)];
+			final long spill = subinventory[segment(index)][displacement(index)] + subrank;
+			return exactSpill[segment(spill)][displacement(spill)];
+		}
+
+		if (residual == 0) return start;
+		return scan(start, residual, flip);
+	}
+
+	/** Returns the position of the one (or zero) of given rank relative to a starting position, scanning the bit vector.
+	 *
+	 * @param start the position of a one (or zero).
+	 * @param residual the rank of the desired one (or zero) relative to {@code start}.
+	 * @param flip zero to scan ones, &minus;1 to scan zeroes.
+	 * @return the position of the one (or zero) of rank {@code residual} counting from {@code start} (inclusive).
+	 */
+	private long scan(final long start, int residual, final long flip) {
+		// We scan the words within a segment, moving to the next one only when necessary
+		final long[][] bits = this.bits;
+		int segment = segment(start >>> 6);
+		long[] words = bits[segment];
+		int displacement = displacement(start >>> 6);
+		long word = (words[displacement] ^ flip) & -1L << start;
+
+		for(;;) {
+			final int bitCount = Long.bitCount(word);
+			if (residual < bitCount) break;
+			if (++displacement == SEGMENT_SIZE) {
+				words = bits[++segment];
+				displacement = 0;
+			}
+			word = words[displacement] ^ flip;
+			residual -= bitCount;
+		}
+
+		return (start(segment) + displacement) * 64 + Fast.select(word, residual);
+	}
+
+	@Override
+	public long numBits() {
+		return (LongBigArrays.length(count) + inventory.length + LongBigArrays.length(subinventory) + LongBigArrays.length(exactSpill)
+				+ zeroInventory.length + LongBigArrays.length(zeroSubinventory) + LongBigArrays.length(zeroExactSpill)) * Long.SIZE;
+	}
+
+	@Override
+	public long count() {
+		return numOnes;
+	}
+
+	@Override
+	public long rank(final long from, final long to) {
+		return rank(to) - rank(from);
+	}
+
+	public long lastOne() {
+		return lastOne;
+	}
+
+	/** Returns a read-only view of the bit vector.
+	 *
+	 * @return a read-only view of the bit vector.
+	 */
+	@Override
+	public BitVector bitVector() {
+		return new LongBigListBitVector(LongBigArrayBigList.wrap(bits, numWords), length);
+	}
+}
@@ -0,0 +1,631 @@
+package it.unimi.dsi.sux4j.bits;
+
+/*
+ * Sux4J: Succinct data structures for Java
+ *
+ * Copyright (C) 2017 Sebastiano Vigna
+ *
+ *  This library is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *
+ *  This library is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ *  or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ *  for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import it.unimi.dsi.bits.AbstractBitVector;
+import it.unimi.dsi.bits.BitVector;
+import it.unimi.dsi.bits.Fast;
+
+/** A dynamic bit vector providing rank, selection and zero selection in logarithmic time.
+ *
+ * <p>All other structures in this package are static: if the indexed bit vector changes, they must be rebuilt.
+ * An instance of this class is instead a {@link BitVector} that can be modified by {@linkplain #set(long, boolean) setting},
+ * {@linkplain #add(long, boolean) inserting} and {@linkplain #removeBoolean(long) deleting} bits, and that
+ * provides at the same time {@linkplain #rank(long) ranking}, {@linkplain #select(long) selection}
+ * and {@linkplain #selectZero(long) zero selection}.
+ *
+ * <p>Bits are stored in a B+-tree. Leaves contain up to {@value #MAX_LEAF_WORDS} words of bits; internal nodes
+ * contain up to {@value #MAX_CHILDREN} children, and for each child the number of bits and the number of ones
+ * in its subtree, stored in parallel arrays so that a node can be searched without accessing its children.
+ * Leaves (internal nodes) that become smaller than a quarter of their capacity are merged with, or
+ * share the content of, a sibling. All operations require thus time logarithmic in the length of the
+ * bit vector, with a very small base; rank and selection are completed in a leaf by broadword computation.
+ *
+ * <p>Since the instance is both the structure and the indexed bit vector, {@link #bitVector()} returns {@code this}.
+ */
+
+public class DynamicRankSelect extends AbstractBitVector implements Rank, Select, SelectZero {
+	private static final long serialVersionUID = 1L;
+
+	/** The maximum number of words in a leaf. */
+	private static final int MAX_LEAF_WORDS = 32;
+	/** The maximum number of bits in a leaf. */
+	private static final int MAX_LEAF_BITS = MAX_LEAF_WORDS * Long.SIZE;
+	/** The minimum number of bits in a leaf other than the root. */
+	private static final int MIN_LEAF_BITS = MAX_LEAF_BITS / 4;
+	/** The maximum number of children of an internal node. */
+	private static final int MAX_CHILDREN = 32;
+	/** The minimum number of children of an internal node other than the root. */
+	private static final int MIN_CHILDREN = MAX_CHILDREN / 4;
+
+	/** A node of the tree. */
+	private abstract static class Node implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		/** Returns the number of bits in the subtree rooted at this node.
+		 *
+		 * @return the number of bits in the subtree rooted at this node.
+		 */
+		abstract long bits();
+
+		/** Returns the number of ones in the subtree rooted at this node.
+		 *
+		 * @return the number of ones in the subtree rooted at this node.
+		 */
+		abstract long ones();
+
+		/** Returns whether this node is too small, unless it is the root.
+		 *
+		 * @return whether this node is too small.
+		 */
+		abstract boolean underflow();
+
+		/** Sets a bit.
+		 *
+		 * @param pos a position in the subtree.
+		 * @param value the new value.
+		 * @return the previous value.
+		 */
+		abstract boolean set(long pos, boolean value);
+
+		/** Inserts a bit.
+		 *
+		 * @param pos a position in the subtree.
+		 * @param value the value to be inserted.
+		 * @return a new right sibling, if the node had to be split; {@code null} otherwise.
+		 */
+		abstract Node add(long pos, boolean value);
+
+		/** Removes a bit.
+		 *
+		 * @param pos a position in the subtree.
+		 * @return the removed bit.
+		 */
+		abstract boolean remove(long pos);
+
+		/** Merges the content of the right sibling into this node, if small enough, or divides the content evenly otherwise.
+		 *
+		 * @param right the right sibling of this node, of the same type.
+		 * @return true if {@code right} has been merged and must be removed.
+		 */
+		abstract boolean mergeOrBalance(Node right);
+
+		/** Returns the number of bits allocated by the subtree rooted at this node, excluding those used by the bit vector.
+		 *
+		 * @return the number of bits of overhead of the subtree rooted at this node.
+		 */
+		abstract long numBits();
+	}
+
+	/** A leaf, containing a segment of the bit vector. */
+	private final static class Leaf extends Node {
+		private static final long serialVersionUID = 1L;
+		/** The bits of the leaf; bits beyond {@link #length} are zero. */
+		private final long[] words = new long[MAX_LEAF_WORDS];
+		/** The number of bits in this leaf. */
+		private int length;
+		/** The number of ones in this leaf. */
+		private int ones;
+
+		@Override
+		long bits() {
+			return length;
+		}
+
+		@Override
+		long ones() {
+			return ones;
+		}
+
+		@Override
+		boolean underflow() {
+			return length < MIN_LEAF_BITS;
+		}
+
+		boolean get(final int pos) {
+			return (words[pos >>> 6] & 1L << pos) != 0;
+		}
+
+		@Override
+		boolean set(final long pos, final boolean value) {
+			final int p = (int)pos;
+			final long mask = 1L << p;
+			final long word = words[p >>> 6];
+			final boolean old = (word & mask) != 0;
+			if (old != value) {
+				words[p >>> 6] = word ^ mask;
+				ones += value ? 1 : -1;
+			}
+			return old;
+		}
+
+		@Override
+		Node add(final long pos, final boolean value) {
+			if (length == MAX_LEAF_BITS) {
+				// We split in two halves, word-aligned
+				final Leaf right = new Leaf();
+				final int half = MAX_LEAF_WORDS / 2;
+				System.arraycopy(words, half, right.words, 0, half);
+				Arrays.fill(words, half, MAX_LEAF_WORDS, 0);
+				right.length = length - half * Long.SIZE;
+				length = half * Long.SIZE;
+				right.ones = count(right.words, half);
+				ones -= right.ones;
+				if (pos <= length) insert((int)pos, value);
+				else right.insert((int)(pos - length), value);
+				return right;
+			}
+			insert((int)pos, value);
+			return null;
+		}
+
+		private void insert(final int pos, final boolean value) {
+			final long[] words = this.words;
+			final int w = pos >>> 6;
+			final long mask = (1L << pos) - 1;
+			long carry = words[w] >>> 63;
+			words[w] = words[w] & mask | (words[w] & ~mask) << 1 | (value ? 1L << pos : 0);
+			for(int i = w + 1, last = length >>> 6; i <= last; i++) {
+				final long next = words[i] >>> 63;
+				words[i] = words[i] << 1 | carry;
+				carry = next;
+			}
+			length++;
+			if (value) ones++;
+		}
+
+		@Override
+		boolean remove(final long pos) {
+			final long[] words = this.words;
+			final int p = (int)pos;
+			final int w = p >>> 6;
+			final int last = length - 1 >>> 6;
+			final boolean old = (words[w] & 1L << p) != 0;
+			final long mask = (1L << p) - 1;
+			words[w] = words[w] & mask | words[w] >>> 1 & ~mask | (w < last ? words[w + 1] << 63 : 0);
+			for(int i = w + 1; i <= last; i++) words[i] = words[i] >>> 1 | (i < last ? words[i + 1] << 63 : 0);
+			length--;
+			if (old) ones--;
+			return old;
+		}
+
+		@Override
+		boolean mergeOrBalance(final Node node) {
+			final Leaf right = (Leaf)node;
+			final int total = length + right.length;
+			// We gather all bits in a single array
+			final long[] all = new long[2 * MAX_LEAF_WORDS];
+			System.arraycopy(words, 0, all, 0, MAX_LEAF_WORDS);
+			final int shift = length & 63;
+			for(int i = 0, w = length >>> 6; i < (right.length + 63) >>> 6; i++, w++) {
+				all[w] |= right.words[i] << shift;
+				if (shift != 0) all[w + 1] |= right.words[i] >>> 64 - shift;
+			}
+
+			final boolean merge = total <= MAX_LEAF_BITS * 3 / 4;
+			final int leftLength = merge ? total : (total / 2) & ~63;
+			final int leftWords = leftLength + 63 >>> 6;
+			System.arraycopy(all, 0, words, 0, MAX_LEAF_WORDS);
+			Arrays.fill(words, leftWords, MAX_LEAF_WORDS, 0);
+			if (! merge) {
+				Arrays.fill(right.words, 0);
+				System.arraycopy(all, leftWords, right.words, 0, (total - leftLength + 63) >>> 6);
+				right.length = total - leftLength;
+				right.ones = count(right.words, MAX_LEAF_WORDS);
+			}
+			length = leftLength;
+			ones = count(words, leftWords);
+			return merge;
+		}
+
+		private static int count(final long[] words, final int n) {
+			int c = 0;
+			for(int i = n; i-- != 0;) c += Long.bitCount(words[i]);
+			return c;
+		}
+
+		@Override
+		long numBits() {
+			return (long)MAX_LEAF_WORDS * Long.SIZE - length + 2 * Integer.SIZE;
+		}
+	}
+
+	/** An internal node. */
+	private final static class Inner extends Node {
+		private static final long serialVersionUID = 1L;
+		/** The children; there is space for one more child than the maximum, as a node is split after insertion. */
+		private final Node[] child = new Node[MAX_CHILDREN + 1];
+		/** The number of bits in the subtree of each child. */
+		private final long[] childBits = new long[MAX_CHILDREN + 1];
+		/** The number of ones in the subtree of each child. */
+		private final long[] childOnes = new long[MAX_CHILDREN + 1];
+		/** The number of children. */
+		private int numChildren;
+
+		@Override
+		long bits() {
+			long b = 0;
+			for(int i = numChildren; i-- != 0;) b += childBits[i];
+			return b;
+		}
+
+		@Override
+		long ones() {
+			long o = 0;
+			for(int i = numChildren; i-- != 0;) o += childOnes[i];
+			return o;
+		}
+
+		@Override
+		boolean underflow() {
+			return numChildren < MIN_CHILDREN;
+		}
+
+		/** Inserts a child.
+		 *
+		 * @param i the index of the new child.
+		 * @param node the new child.
+		 */
+		void insert(final int i, final Node node) {
+			final int n = numChildren - i;
+			System.arraycopy(child, i, child, i + 1, n);
+			System.arraycopy(childBits, i, childBits, i + 1, n);
+			System.arraycopy(childOnes, i, childOnes, i + 1, n);
+			child[i] = node;
+			childBits[i] = node.bits();
+			childOnes[i] = node.ones();
+			numChildren++;
+		}
+
+		/** Removes a child.
+		 *
+		 * @param i the index of the child to be removed.
+		 */
+		void remove(final int i) {
+			final int n = numChildren - i - 1;
+			System.arraycopy(child, i + 1, child, i, n);
+			System.arraycopy(childBits, i + 1, childBits, i, n);
+			System.arraycopy(childOnes, i + 1, childOnes, i, n);
+			child[--numChildren] = null;
+		}
+
+		@Override
+		boolean set(long pos, final boolean value) {
+			int i = 0;
+			while(pos >= childBits[i]) pos -= childBits[i++];
+			final boolean old = child[i].set(pos, value);
+			if (old != value) childOnes[i] += value ? 1 : -1;
+			return old;
+		}
+
+		@Override
+		Node add(long pos, final boolean value) {
+			int i = 0;
+			while(i < numChildren - 1 && pos > childBits[i]) pos -= childBits[i++];
+			final Node newChild = child[i].add(pos, value);
+			if (newChild == null) {
+				childBits[i]++;
+				if (value) childOnes[i]++;
+				return null;
+			}
+
+			childBits[i] = child[i].bits();
+			childOnes[i] = child[i].ones();
+			insert(i + 1, newChild);
+			if (numChildren <= MAX_CHILDREN) return null;
+
+			// We split in two halves
+			final Inner right = new Inner();
+			final int half = numChildren / 2;
+			right.numChildren = numChildren - half;
+			System.arraycopy(child, half, right.child, 0, right.numChildren);
+			System.arraycopy(childBits, half, right.childBits, 0, right.numChildren);
+			System.arraycopy(childOnes, half, right.childOnes, 0, right.numChildren);
+			Arrays.fill(child, half, numChildren, null);
+			numChildren = half;
+			return right;
+		}
+
+		@Override
+		boolean remove(long pos) {
+			int i = 0;
+			while(pos >= childBits[i]) pos -= childBits[i++];
+			final boolean old = child[i].remove(pos);
+			childBits[i]--;
+			if (old) childOnes[i]--;
+
+			if (child[i].underflow() && numChildren > 1) {
+				final int left = i == 0 ? 0 : i - 1;
+				if (child[left].mergeOrBalance(child[left + 1])) remove(left + 1);
+				else {
+					childBits[left + 1] = child[left + 1].bits();
+					childOnes[left + 1] = child[left + 1].ones();
+				}
+				childBits[left] = child[left].bits();
+				childOnes[left] = child[left].ones();
+			}
+			return old;
+		}
+
+		@Override
+		boolean mergeOrBalance(final Node node) {
+			final Inner right = (Inner)node;
+			final int total = numChildren + right.numChildren;
+			if (total <= MAX_CHILDREN * 3 / 4) {
+				System.arraycopy(right.child, 0, child, numChildren, right.numChildren);
+				System.arraycopy(right.childBits, 0, childBits, numChildren, right.numChildren);
+				System.arraycopy(right.childOnes, 0, childOnes, numChildren, right.numChildren);
+				numChildren = total;
+				return true;
+			}
+
+			final int half = total / 2;
+			if (numChildren < half) {
+				// We move children from the right sibling
+				final int n = half - numChildren;
+				System.arraycopy(right.child, 0, child, numChildren, n);
+				System.arraycopy(right.childBits, 0, childBits, numChildren, n);
+				System.arraycopy(right.childOnes, 0, childOnes, numChildren, n);
+				for(int j = 0; j < n; j++) right.remove(0);
+				numChildren = half;
+			}
+			else {
+				// We move children to the right sibling
+				for(int j = numChildren; j-- != half;) {
+					right.insert(0, child[j]);
+					child[j] = null;
+				}
+				numChildren = half;
+			}
+			return false;
+		}
+
+		@Override
+		long numBits() {
+			long b = (MAX_CHILDREN + 1) * (2L * Long.SIZE + Long.SIZE) + Integer.SIZE;
+			for(int i = numChildren; i-- != 0;) b += child[i].numBits();
+			return b;
+		}
+	}
+
+	/** The root of the tree. */
+	private Node root;
+	/** The number of bits. */
+	private long length;
+	/** The number of ones. */
+	private long numOnes;
+
+	/** Creates a new empty dynamic bit vector. */
+	public DynamicRankSelect() {
+		root = new Leaf();
+	}
+
+	/** Creates a new dynamic bit vector with the same content as a given bit vector.
+	 *
+	 * <p>Leaves and internal nodes are filled to three quarters of their capacity.
+	 *
+	 * @param bitVector a bit vector.
+	 */
+	public DynamicRankSelect(final BitVector bitVector) {
+		final long length = bitVector.length();
+		final int leafWords = MAX_LEAF_WORDS * 3 / 4;
+		final long leafBits = leafWords * Long.SIZE;
+		final long numLeaves = Math.max(1, (length + leafBits - 1) / leafBits);
+		if (numLeaves > Integer.MAX_VALUE) throw new IllegalArgumentException("Bit vector too long: " + length);
+		Node[] level = new Node[(int)numLeaves];
+		for(int i = 0; i < numLeaves; i++) {
+			final Leaf leaf = new Leaf();
+			final long from = i * leafBits, to = Math.min(length, from + leafBits);
+			leaf.length = (int)(to - from);
+			for(int w = 0; w < leafWords && from + w * Long.SIZE < to; w++) {
+				final long word = bitVector.getLong(from + w * Long.SIZE, Math.min(to, from + (w + 1) * Long.SIZE));
+				leaf.words[w] = word;
+				leaf.ones += Long.bitCount(word);
+			}
+			level[i] = leaf;
+		}
+
+		final int fanout = MAX_CHILDREN * 3 / 4;
+		for(;;) {
+			// The last node might be too small; if so, it is merged with, or shares the content of, its left sibling
+			if (level.length > 1 && level[level.length - 1].underflow() && level[level.length - 2].mergeOrBalance(level[level.length - 1])) level = Arrays.copyOf(level, level.length - 1);
+			if (level.length == 1) break;
+			final Node[] upper = new Node[(level.length + fanout - 1) / fanout];
+			for(int i = 0; i < upper.length; i++) {
+				final Inner inner = new Inner();
+				for(int j = i * fanout; j < Math.min(level.length, (i + 1) * fanout); j++) inner.insert(inner.numChildren, level[j]);
+				upper[i] = inner;
+			}
+			level = upper;
+		}
+
+		root = level[0];
+		this.length = length;
+		numOnes = root.ones();
+	}
+
+	@Override
+	public long length() {
+		return length;
+	}
+
+	@Override
+	public boolean getBoolean(long index) {
+		ensureRestrictedIndex(index);
+		Node node = root;
+		while(node instanceof Inner) {
+			final Inner inner = (Inner)node;
+			final long[] childBits = inner.childBits;
+			int i = 0;
+			while(index >= childBits[i]) index -= childBits[i++];
+			node = inner.child[i];
+		}
+		return ((Leaf)node).get((int)index);
+	}
+
+	@Override
+	public boolean set(final long index, final boolean value) {
+		ensureRestrictedIndex(index);
+		final boolean old = root.set(index, value);
+		if (old != value) numOnes += value ? 1 : -1;
+		return old;
+	}
+
+	@Override
+	public void add(final long index, final boolean value) {
+		ensureIndex(index);
+		final Node newChild = root.add(index, value);
+		if (newChild != null) {
+			final Inner newRoot = new Inner();
+			newRoot.insert(0, root);
+			newRoot.insert(1, newChild);
+			root = newRoot;
+		}
+		length++;
+		if (value) numOnes++;
+	}
+
+	@Override
+	public boolean removeBoolean(final long index) {
+		ensureRestrictedIndex(index);
+		final boolean old = root.remove(index);
+		if (root instanceof Inner && ((Inner)root).numChildren == 1) root = ((Inner)root).child[0];
+		length--;
+		if (old) numOnes--;
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		root = new Leaf();
+		length = numOnes = 0;
+	}
+
+	@Override
+	public long count() {
+		return numOnes;
+	}
+
+	@Override
+	public long rank(long pos) {
+		if (pos >= length) return numOnes;
+		long rank = 0;
+		Node node = root;
+		while(node instanceof Inner) {
+			final Inner inner = (Inner)node;
+			final long[] childBits = inner.childBits;
+			int i = 0;
+			while(pos >= childBits[i]) {
+				pos -= childBits[i];
+				rank += inner.childOnes[i++];
+			}
+			node = inner.child[i];
+		}
+
+		final long[] words = ((Leaf)node).words;
+		final int p = (int)pos;
+		for(int w = p >>> 6; w-- != 0;) rank += Long.bitCount(words[w]);
+		return rank + Long.bitCount(words[p >>> 6] & (1L << p) - 1);
+	}
+
+	@Override
+	public long rank(final long from, final long to) {
+		return to <= from ? 0 : rank(to) - rank(from);
+	}
+
+	@Override
+	public long rankZero(final long pos) {
+		return Math.min(pos, length) - rank(pos);
+	}
+
+	@Override
+	public long rankZero(final long from, final long to) {
+		return to <= from ? 0 : rankZero(to) - rankZero(from);
+	}
+
+	@Override
+	public long select(long rank) {
+		if (rank < 0 || rank >= numOnes) return -1;
+		long pos = 0;
+		Node node = root;
+		while(node instanceof Inner) {
+			final Inner inner = (Inner)node;
+			final long[] childOnes = inner.childOnes;
+			int i = 0;
+			while(rank >= childOnes[i]) {
+				rank -= childOnes[i];
+				pos += inner.childBits[i++];
+			}
+			node = inner.child[i];
+		}
+
+		final long[] words = ((Leaf)node).words;
+		for(int w = 0;; w++) {
+			final int bitCount = Long.bitCount(words[w]);
+			if (rank < bitCount) return pos + w * Long.SIZE + Fast.select(words[w], (int)rank);
+			rank -= bitCount;
+		}
+	}
+
+	@Override
+	public long selectZero(long zeroRank) {
+		if (zeroRank < 0 || zeroRank >= length - numOnes) return -1;
+		long pos = 0;
+		Node node = root;
+		while(node instanceof Inner) {
+			final Inner inner = (Inner)node;
+			final long[] childBits = inner.childBits, childOnes = inner.childOnes;
+			int i = 0;
+			while(zeroRank >= childBits[i] - childOnes[i]) {
+				zeroRank -= childBits[i] - childOnes[i];
+				pos += childBits[i++];
+			}
+			node = inner.child[i];
+		}
+
+		// Bits beyond the end of the leaf are zero, but the desired zero is within the leaf
+		final long[] words = ((Leaf)node).words;
+		for(int w = 0;; w++) {
+			final int bitCount = Long.bitCount(~words[w]);
+			if (zeroRank < bitCount) return pos + w * Long.SIZE + Fast.select(~words[w], (int)zeroRank);
+			zeroRank -= bitCount;
+		}
+	}
+
+	/** Returns the number of bits used by the tree, excluding the bits of the bit vector.
+	 *
+	 * <p>The result includes the unused space in the leaves, and an estimate of the space used by the internal nodes.
+	 *
+	 * @return the number of bits used by the tree, excluding the bits of the bit vector.
+	 */
+	@Override
+	public long numBits() {
+		return root.numBits();
+	}
+
+	@Override
+	public BitVector bitVector() {
+		return this;
+	}
+}
@@ -0,0 +1,158 @@
+package it.unimi.dsi.sux4j.bits;
+
+/*
+ * Sux4J: Succinct data structures for Java
+ *
+ * Copyright (C) 2017 Sebastiano Vigna
+ *
+ *  This library is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *
+ *  This library is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ *  or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ *  for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
+import it.unimi.dsi.bits.BitVector;
+import it.unimi.dsi.bits.Fast;
+import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+/** A fused rank/select/zero-select structure sharing the bit vector and the <code>rank9</code> counts.
+ *
+ * <p>Combining a {@link Rank9}, a {@link Select9} and a {@link SimpleSelectZero} (e.g., in a {@link RankSelect} container) yields
+ * three independent auxiliary structures, and {@link Select9} adds to the <code>rank9</code> counts an inventory
+ * of its own. Instances of this class, in the spirit of <code>poppy</code> and <code>cs-poppy</code>
+ * (Zhou, Andersen and Kaminsky, &ldquo;Space-efficient, high-performance rank and select structures on uncompressed
+ * bit sequences&rdquo;, <i>Experimental Algorithms</i>, LNCS 7933, 2013), compute the <code>rank9</code> counts
+ * (25% additional space) once, and use them for ranking and for checking the results of selection; ones and zeroes
+ * are selected using a two-level inventory and subinventory in the style of {@link SimpleSelect} and {@link SimpleSelectZero}
+ * (about 7% additional space each on evenly distributed bit arrays), which record directly the position
+ * of every sampled bit.
+ *
+ * <p>Selection thus requires the same memory accesses, and has the same speed, as with a {@link SimpleSelect} or a {@link SimpleSelectZero};
+ * ranking has the same speed as with a {@link Rank9}. Searching the counts between sparse samples of block indices
+ * (as {@link MappedRankSelect} and {@link BigRankSelect} do) would save most of the space of the inventories, but it
+ * adds an access to the counts to each selection, making it 15&ndash;25% slower.
+ *
+ * <p>Since all data is contained in a single object, an instance can be serialized once.
+ */
+
+public class FusedRankSelect extends AbstractRank implements Rank, Select, SelectZero {
+	private static final boolean ASSERTS = false;
+	private static final long serialVersionUID = 1L;
+
+	protected transient long[] bits;
+	protected final BitVector bitVector;
+	/** The <code>rank9</code> counts; the last element contains the number of ones. Unlike {@link Rank9},
+	 * subcounts of words beyond the end of the bit vector repeat the last count. */
+	protected final long[] count;
+	protected final int numWords;
+	protected final long numOnes;
+	protected final long numZeros;
+	protected final long lastOne;
+	/** The inventories used to select ones. */
+	private final SimpleSelect select;
+	/** The inventories used to select zeroes. */
+	private final SimpleSelectZero selectZero;
+
+	public FusedRankSelect(final long[] bits, final long length) {
+		this(LongArrayBitVector.wrap(bits, length));
+	}
+
+	public FusedRankSelect(final BitVector bitVector) {
+		this.bitVector = bitVector;
+		final long[] bits = this.bits = bitVector.bits();
+		final long length = bitVector.length();
+
+		numWords = (int)((length + Long.SIZE - 1) / Long.SIZE);
+		final int numBlocks = (numWords + 7) / 8;
+		count = new long[numBlocks * 2 + 1];
+		numOnes = Rank9Counts.counts(i -> bits[(int)i], numWords, LongArrayList.wrap(count, 0)::add);
+		numZeros = length - numOnes;
+
+		long l = -1;
+		for(int i = numWords; i-- != 0;) if (bits[i] != 0) {
+			l = i * 64L + Fast.mostSignificantBit(bits[i]);
+			break;
+		}
+		lastOne = l;
+
+		select = new SimpleSelect(bitVector);
+		selectZero = new SimpleSelectZero(bitVector);
+	}
+
+	@Override
+	public long rank(final long pos) {
+		if (ASSERTS) assert pos >= 0;
+		if (ASSERTS) assert pos <= bitVector.length();
+		if (pos > lastOne) return numOnes;
+
+		final int word = (int)(pos / 64);
+		final int block = word / 4 & ~1;
+
+		return count[block] + Rank9Counts.subcount(count[block + 1], word % 8) + Long.bitCount(bits[word] & ((1L << pos % 64) - 1));
+	}
+
+	@Override
+	public long select(final long rank) {
+		final long result = select.select(rank);
+		if (ASSERTS) assert result == -1 || rank(result) == rank && bitVector.getBoolean(result) : rank;
+		return result;
+	}
+
+	@Override
+	public void select(final long[] ranks, final long[] out) {
+		select.select(ranks, out);
+	}
+
+	@Override
+	public long selectZero(final long zeroRank) {
+		final long result = selectZero.selectZero(zeroRank);
+		if (ASSERTS) assert result == -1 || rankZero(result) == zeroRank && ! bitVector.getBoolean(result) : zeroRank;
+		return result;
+	}
+
+	@Override
+	public void selectZero(final long[] zeroRanks, final long[] out) {
+		selectZero.selectZero(zeroRanks, out);
+	}
+
+	@Override
+	public long numBits() {
+		return count.length * (long)Long.SIZE + select.numBits() + selectZero.numBits();
+	}
+	@Override
+	public long count() {
+		return numOnes;
+	}
+
+	@Override
+	public long rank(final long from, final long to) {
+		return rank(to) - rank(from);
+	}
+
+	public long lastOne() {
+		return lastOne;
+	}
+
+	private void readObject(final ObjectInputStream s) throws IOException, ClassNotFoundException {
+		s.defaultReadObject();
+		bits = bitVector.bits();
+	}
+
+	@Override
+	public BitVector bitVector() {
+		return bitVector;
+	}
+}
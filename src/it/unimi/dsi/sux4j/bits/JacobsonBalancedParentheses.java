@@ -5,6 +5,9 @@ import java.io.ObjectInputStream;
 import java.util.Arrays;
 import java.util.Collections;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /*
  * Sux4J: Succinct data structures for Java
  *
@@ -55,6 +58,7 @@ public class JacobsonBalancedParentheses implements BalancedParentheses {
 	}
 
 	private static final long serialVersionUID = 1L;
+	private static final Logger LOGGER = LoggerFactory.getLogger(JacobsonBalancedParentheses.class);
 	private static final boolean ASSERTS = false;
 	private static final boolean DEBUG = false;
 	private static final boolean DDEBUG = false;
@@ -447,6 +451,179 @@ public class JacobsonBalancedParentheses implements BalancedParentheses {
 
 	}
 
+	/** The system property used to choose the in-word primitives used by {@link #findClose(long)}: its value
+	 * can be {@code broadword} (the default), {@code loop}, {@code table}, or {@code calibrate}, in which case
+	 * the fastest variant of each primitive is chosen by timing them on random words at class-loading time.
+	 * Unknown values are logged and replaced by {@code broadword}. */
+	public static final String IN_WORD_PROPERTY = "it.unimi.dsi.sux4j.bits.balparen.inword";
+
+	/** The broadword variant of an in-word primitive ({@link #findNearClose(long)} or {@link #findFarClose(long, int)}). */
+	public static final int BROADWORD = 0;
+	/** The bit-by-bit variant of an in-word primitive ({@link #findNearClose2(long)} or {@link #findFarClose2(long, int)}). */
+	public static final int LOOP = 1;
+	/** The byte-by-byte, table-based variant of an in-word primitive ({@link #findNearCloseTable(long)} or {@link #findFarCloseTable(long, int)}). */
+	public static final int TABLE = 2;
+	/** The names of the variants, as accepted by {@link #IN_WORD_PROPERTY}. */
+	public static final String[] VARIANT_NAME = { "broadword", "loop", "table" };
+
+	/** For each drop 0 &le; <var>d</var> &le; 8 and each byte <var>b</var>, the entry <var>d</var>&middot;256 + <var>b</var>
+	 * contains the first bit of <var>b</var> after which the excess is at most &minus;<var>d</var> (or 8 if there is no such bit). */
+	private static final byte[] BYTE_DROP = new byte[9 * 256];
+
+	static {
+		for(int b = 0; b < 256; b++) {
+			int e = 0;
+			for(int d = 0; d <= 8; d++) BYTE_DROP[d << 8 | b] = 8;
+			for(int i = 0; i < 8; i++) {
+				e += (b & 1 << i) != 0 ? 1 : -1;
+				for(int d = 0; d <= -e; d++) if (BYTE_DROP[d << 8 | b] == 8) BYTE_DROP[d << 8 | b] = (byte)i;
+			}
+		}
+	}
+
+	/** Returns the first bit of a word after which the excess is at most a given negative threshold.
+	 *
+	 * @param word a word.
+	 * @param d a nonnegative integer.
+	 * @return the first bit of {@code word} after which the excess is at most &minus;{@code d}, or {@link Long#SIZE} if there is no such bit.
+	 */
+	private static int findDrop(final long word, final int d) {
+		int e = 0;
+		for(int shift = 0; shift < Long.SIZE; shift += 8) {
+			final int b = (int)(word >>> shift) & 0xFF;
+			final int need = e + d;
+			if (RangeMinBalancedParentheses.BYTE_MIN[b] <= -need) return shift + BYTE_DROP[need << 8 | b];
+			e += RangeMinBalancedParentheses.BYTE_EXCESS[b];
+		}
+		return Long.SIZE;
+	}
+
+	/** A table-based version of {@link #findNearClose(long)} that scans the word byte by byte.
+	 *
+	 * @param word a word whose lowest bit is an open parenthesis.
+	 * @return the position of the matching closed parenthesis, or {@link Long#SIZE} if it is not in {@code word}.
+	 */
+	public final static int findNearCloseTable(final long word) {
+		return findDrop(word, 0);
+	}
+
+	/** A table-based version of {@link #findFarClose(long, int)} that scans the word byte by byte.
+	 *
+	 * @param word a word.
+	 * @param k the index of a far closed parenthesis (starting from 0).
+	 * @return the position of the {@code k}-th far closed parenthesis of {@code word}, or {@link Long#SIZE} if there is no such parenthesis.
+	 */
+	public final static int findFarCloseTable(final long word, final int k) {
+		return findDrop(word, k + 1);
+	}
+
+	/** The variant of the near-close primitive used by {@link #nearClose(long)}. */
+	public static final int NEAR_CLOSE_VARIANT;
+	/** The variant of the far-close primitive used by {@link #farClose(long, int)}. */
+	public static final int FAR_CLOSE_VARIANT;
+
+	static {
+		final String variant = System.getProperty(IN_WORD_PROPERTY, VARIANT_NAME[BROADWORD]);
+		if ("calibrate".equals(variant)) {
+			final long[] time = calibrate();
+			NEAR_CLOSE_VARIANT = time[0] <= time[1] && time[0] <= time[2] ? BROADWORD : time[1] <= time[2] ? LOOP : TABLE;
+			FAR_CLOSE_VARIANT = time[3] <= time[4] && time[3] <= time[5] ? BROADWORD : time[4] <= time[5] ? LOOP : TABLE;
+		}
+		else {
+			int v = Arrays.asList(VARIANT_NAME).indexOf(variant);
+			if (v == -1) {
+				LOGGER.warn("Unknown value for property " + IN_WORD_PROPERTY + ": " + variant + "; using " + VARIANT_NAME[BROADWORD]);
+				v = BROADWORD;
+			}
+			NEAR_CLOSE_VARIANT = FAR_CLOSE_VARIANT = v;
+		}
+	}
+
+	/** The number of untimed rounds run by {@link #calibrate()} before timing. */
+	private static final int CALIBRATION_WARMUP_ROUNDS = 20;
+
+	/** Times the variants of the in-word primitives on random words.
+	 *
+	 * <p>Timed rounds are preceded by {@link #CALIBRATION_WARMUP_ROUNDS} untimed rounds, so that the primitives
+	 * have been compiled by the JIT when they are timed. The result is nonetheless a rough heuristic, as it
+	 * depends on the load of the machine at class-loading time and on the inlining decisions taken in the context
+	 * of this method, which may differ from those taken in the context of {@link #findClose(long)}.
+	 *
+	 * @return the best time in nanoseconds of the broadword, loop and table near-close primitive, followed by the
+	 * best time of the broadword, loop and table far-close primitive.
+	 */
+	private static long[] calibrate() {
+		final int n = 1 << 12;
+		// Random words starting with an open parenthesis, and random words with a random valid far-close index
+		final long[] nearWord = new long[n], farWord = new long[n];
+		final int[] k = new int[n];
+		long x = 0x9E3779B97F4A7C15L;
+		for(int i = 0; i < n; i++) {
+			x ^= x << 13;
+			x ^= x >>> 7;
+			x ^= x << 17;
+			nearWord[i] = x | 1;
+			farWord[i] = x & -2;
+			k[i] = (int)((x >>> 32) % countFarClose(farWord[i], Long.SIZE));
+		}
+
+		final long[] best = new long[6];
+		Arrays.fill(best, Long.MAX_VALUE);
+		long sink = 0;
+		// Rounds with a negative index warm up the JIT and are not timed
+		for(int round = -CALIBRATION_WARMUP_ROUNDS; round < 50; round++) {
+			for(int v = 0; v < 6; v++) {
+				long t = - System.nanoTime();
+				switch(v) {
+				case 0: for(int i = 0; i < n; i++) sink += findNearClose(nearWord[i]); break;
+				case 1: for(int i = 0; i < n; i++) sink += findNearClose2(nearWord[i]); break;
+				case 2: for(int i = 0; i < n; i++) sink += findNearCloseTable(nearWord[i]); break;
+				case 3: for(int i = 0; i < n; i++) sink += findFarClose(farWord[i], k[i]); break;
+				case 4: for(int i = 0; i < n; i++) sink += findFarClose2(farWord[i], k[i]); break;
+				default: for(int i = 0; i < n; i++) sink += findFarCloseTable(farWord[i], k[i]); break;
+				}
+				t += System.nanoTime();
+				if (round >= 0) best[v] = Math.min(best[v], t);
+			}
+		}
+		calibrationSink = sink;
+		return best;
+	}
+
+	/** A sink for the results computed during calibration, so that they cannot be optimized away. */
+	@SuppressWarnings("unused")
+	private static long calibrationSink;
+
+	/** Returns the position of the closed parenthesis matching the lowest bit of a word using the variant
+	 * specified by {@link #NEAR_CLOSE_VARIANT}.
+	 *
+	 * @param word a word whose lowest bit is an open parenthesis.
+	 * @return the position of the matching closed parenthesis; a value greater than or equal to {@link Long#SIZE}
+	 * minus the number of trailing zeroes added by a shift if the match is not in {@code word}.
+	 */
+	public final static int nearClose(final long word) {
+		switch(NEAR_CLOSE_VARIANT) {
+		case LOOP: return findNearClose2(word);
+		case TABLE: return findNearCloseTable(word);
+		default: return findNearClose(word);
+		}
+	}
+
+	/** Returns the position of a far closed parenthesis of a word using the variant
+	 * specified by {@link #FAR_CLOSE_VARIANT}.
+	 *
+	 * @param word a word.
+	 * @param k the index of a far closed parenthesis of {@code word} (starting from 0).
+	 * @return the position of the {@code k}-th far closed parenthesis of {@code word}.
+	 */
+	public final static int farClose(final long word, final int k) {
+		switch(FAR_CLOSE_VARIANT) {
+		case LOOP: return findFarClose2(word, k);
+		case TABLE: return findFarCloseTable(word, k);
+		default: return findFarClose(word, k);
+		}
+	}
+
 	public JacobsonBalancedParentheses(final BitVector bv) {
 		this(bv, true, true, true);
 	}
@@ -593,7 +770,7 @@ public class JacobsonBalancedParentheses implements BalancedParentheses {
 		final int bit = (int)(pos & LongArrayBitVector.WORD_MASK);
 		if ((bits[word] & 1L << bit) == 0) throw new IllegalArgumentException();
 
-		final int result = findNearClose(bits[word] >>> bit);
+		final int result = nearClose(bits[word] >>> bit);
 
 		if (ASSERTS) {
 			int c = 1;
@@ -644,7 +821,7 @@ public class JacobsonBalancedParentheses implements BalancedParentheses {
 		final int numFarClose = matchBit - 2 * Long.bitCount(bits[matchWord] & (1L << matchBit) - 1);
 
 		if (DEBUG) System.err.println("far close before match: " + numFarClose);
-		return matchWord * (long)Long.SIZE + findFarClose(bits[matchWord], numFarClose - e);
+		return matchWord * (long)Long.SIZE + farClose(bits[matchWord], numFarClose - e);
 	}
 
 	@Override
@@ -0,0 +1,92 @@
+package it.unimi.dsi.sux4j.bits;
+
+/*
+ * Sux4J: Succinct data structures for Java
+ *
+ * Copyright (C) 2017 Sebastiano Vigna
+ *
+ *  This library is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *
+ *  This library is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ *  or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ *  for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+import it.unimi.dsi.bits.AbstractBitVector;
+import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.fastutil.longs.LongBigList;
+
+/** A read-only bit vector backed by a {@linkplain LongBigList big list} of longs.
+ *
+ * <p>Bits are laid out in the words of the list as in a {@link LongArrayBitVector}, but since the words are accessed
+ * through a {@link LongBigList} their number is not limited by the size of a Java array, and
+ * they can be stored, for instance, in a {@linkplain it.unimi.dsi.fastutil.longs.LongBigArrayBigList big array}
+ * or in a {@linkplain it.unimi.dsi.util.ByteBufferLongBigList memory-mapped file}.
+ *
+ * <p>Bits beyond {@link #length()} in the last word must be zero.
+ */
+
+public class LongBigListBitVector extends AbstractBitVector {
+	/** The words containing the bits. */
+	private final LongBigList words;
+	/** The length of this bit vector. */
+	private final long length;
+
+	/** Creates a new bit vector.
+	 *
+	 * @param words a big list of longs containing the bits.
+	 * @param length the number of bits in this vector.
+	 */
+	public LongBigListBitVector(final LongBigList words, final long length) {
+		if (length < 0) throw new IllegalArgumentException("Negative length: " + length);
+		if (words.size64() < (length + Long.SIZE - 1) / Long.SIZE) throw new IllegalArgumentException("Too few words (" + words.size64() + ") for " + length + " bits");
+		this.words = words;
+		this.length = length;
+	}
+
+	/** Returns the big list of words backing this bit vector.
+	 *
+	 * @return the big list of words backing this bit vector.
+	 */
+	public LongBigList words() {
+		return words;
+	}
+
+	@Override
+	public boolean getBoolean(final long index) {
+		if (index >= length) throw new IndexOutOfBoundsException("Index (" + index + ") is greater than or equal to length (" + length + ")");
+		return (words.getLong(index >>> 6) >>> index & 1) != 0;
+	}
+
+	@Override
+	public long getLong(final long from, final long to) {
+		if (to - from > Long.SIZE) throw new IllegalArgumentException("Range too large for a long: [" + from + ".." + to + ")");
+		if (from == to) return 0;
+		final long l = Long.SIZE - (to - from);
+		final long startWord = from >>> 6;
+		final long endWord = to - 1 >>> 6;
+		final int startBit = (int)(from & 63);
+		if (startWord == endWord) return words.getLong(startWord) << l - startBit >>> l;
+		return words.getLong(startWord) >>> startBit | words.getLong(endWord) << Long.SIZE + l - startBit >>> l;
+	}
+
+	@Override
+	public long count() {
+		long c = 0;
+		for(long i = (length + Long.SIZE - 1) / Long.SIZE; i-- != 0;) c += Long.bitCount(words.getLong(i));
+		return c;
+	}
+
+	@Override
+	public long length() {
+		return length;
+	}
+}
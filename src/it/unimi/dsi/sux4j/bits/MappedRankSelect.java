@@ -0,0 +1,327 @@
+package it.unimi.dsi.sux4j.bits;
+
+/*
+ * Sux4J: Succinct data structures for Java
+ *
+ * Copyright (C) 2017 Sebastiano Vigna
+ *
+ *  This library is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *
+ *  This library is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ *  or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ *  for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+import static it.unimi.dsi.sux4j.bits.Rank9Counts.MAX_LINEAR_SPAN;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongUnaryOperator;
+
+import it.unimi.dsi.bits.BitVector;
+import it.unimi.dsi.bits.Fast;
+import it.unimi.dsi.fastutil.io.FastBufferedOutputStream;
+import it.unimi.dsi.fastutil.longs.LongBigList;
+import it.unimi.dsi.util.ByteBufferLongBigList;
+
+/** A memory-mapped rank/select/zero-select structure.
+ *
+ * <p>This class provides rank, selection and zero selection using the <code>rank9</code> counts and two sparse inventories
+ * sampling, about every 2048 bits, the index of the block containing a one (or a zero): to select, the counts between two consecutive
+ * samples are searched. The code computing the counts is shared with {@link FusedRankSelect} and {@link BigRankSelect}, but
+ * the bit vector, the <code>rank9</code> counts and the select inventories are stored in a file that is
+ * {@linkplain ByteBufferLongBigList memory mapped} and accessed through 64-bit indices. Thus, an instance
+ * can index a bit vector longer than the 2<sup>37</sup> bits of a {@link it.unimi.dsi.bits.LongArrayBitVector}, can be opened instantly, and
+ * several instances (even in different JVMs) opening the same file share the same pages of memory.
+ *
+ * <p>This is the only mappable structure of this package: {@link Rank9}, {@link Rank16}, {@link SimpleSelect}, {@link Select9},
+ * {@link SparseRank}, {@link SparseSelect} and {@link JacobsonBalancedParentheses} still index the
+ * heap array returned by {@link BitVector#bits()}, and keep their auxiliary data on the heap. An existing {@link Rank9}
+ * or {@link SimpleSelect}, however, can be converted into a mapped file using {@link #store(Rank9, CharSequence)}
+ * or {@link #store(SimpleSelect, CharSequence)}: the resulting instance ranks as the {@link Rank9}, and selects as the
+ * {@link SimpleSelect} (and as a {@link SimpleSelectZero} on the same bit vector). The counts of a {@link Rank9} are copied into the file,
+ * whereas the inventories of a {@link SimpleSelect} are not, as the mapped inventories sample block indices
+ * rather than positions; the other structures of this package can be converted by storing their {@linkplain Rank#bitVector() bit vector}.
+ *
+ * <p>A file is created by {@link #store(BitVector, CharSequence)}, which reads the bit vector sequentially
+ * a few times and never keeps more than a buffer in memory, and it is opened by the {@linkplain #MappedRankSelect(CharSequence) constructor}.
+ * Serializing an instance serializes just the name of the file, which is mapped again at deserialization time: thus,
+ * the file must be available under the same name when deserializing.
+ *
+ * <p>The file is made of little-endian longs (the native byte order of most current architectures, which is thus read
+ * without swapping bytes): a header containing the length of the bit vector, the number of ones, and the base-2 logarithms of the number
+ * of ones and zeroes per inventory sample; the words of the bit vector; the <code>rank9</code> counts (a cumulative
+ * count and seven 9-bit subcounts for each block of eight words, followed by the number of ones);
+ * the select inventory and the zero-select inventory (the index of the block containing a sampled bit, followed
+ * by the index of the last block). Inventory entries are longs.
+ */
+
+public class MappedRankSelect extends AbstractRank implements Rank, Select, SelectZero {
+	private static final long serialVersionUID = 1L;
+
+	/** The number of longs in the header. */
+	private static final int HEADER_SIZE = 4;
+
+	/** The name of the mapped file. */
+	private final String filename;
+	/** The mapped file. */
+	private transient LongBigList data;
+	/** The number of bits in the bit vector. */
+	private transient long length;
+	/** The number of ones in the bit vector. */
+	private transient long numOnes;
+	/** The number of zeroes in the bit vector. */
+	private transient long numZeros;
+	/** The base-2 logarithm of the number of ones per inventory sample. */
+	private transient int log2OnesPerInventory;
+	/** The base-2 logarithm of the number of zeroes per inventory sample. */
+	private transient int log2ZerosPerInventory;
+	/** The number of words of the bit vector. */
+	private transient long numWords;
+	/** The number of blocks. */
+	private transient long numBlocks;
+	/** The position of the counts in {@link #data}. */
+	private transient long countStart;
+	/** The position of the select inventory in {@link #data}. */
+	private transient long inventoryStart;
+	/** The position of the zero-select inventory in {@link #data}. */
+	private transient long zeroInventoryStart;
+	/** The position of the end of the zero-select inventory in {@link #data}. */
+	private transient long end;
+
+	/** Maps a file created by {@link #store(BitVector, CharSequence)}.
+	 *
+	 * @param filename the name of the file.
+	 */
+	public MappedRankSelect(final CharSequence filename) throws IOException {
+		this.filename = filename.toString();
+		map();
+	}
+
+	private void map() throws IOException {
+		try(final FileChannel fileChannel = FileChannel.open(new File(filename).toPath(), StandardOpenOption.READ)) {
+			data = ByteBufferLongBigList.map(fileChannel, ByteOrder.LITTLE_ENDIAN, MapMode.READ_ONLY);
+		}
+		length = data.getLong(0);
+		numOnes = data.getLong(1);
+		numZeros = length - numOnes;
+		log2OnesPerInventory = (int)data.getLong(2);
+		log2ZerosPerInventory = (int)data.getLong(3);
+		numWords = (length + Long.SIZE - 1) / Long.SIZE;
+		numBlocks = (numWords + 7) / 8;
+		countStart = HEADER_SIZE + numWords;
+		inventoryStart = countStart + 2 * numBlocks + 1;
+		zeroInventoryStart = inventoryStart + Rank9Counts.inventorySize(numOnes, log2OnesPerInventory) + 1;
+		end = zeroInventoryStart + Rank9Counts.inventorySize(numZeros, log2ZerosPerInventory) + 1;
+		if (data.size64() != end) throw new IOException("File " + filename + " has size " + data.size64() * Long.BYTES + ", but it should be " + end * Long.BYTES);
+	}
+
+	/** Returns a word of a bit vector.
+	 *
+	 * @param bitVector a bit vector.
+	 * @param i the index of a word.
+	 * @return the word of index {@code i} of {@code bitVector}.
+	 */
+	private static long word(final BitVector bitVector, final long i) {
+		return bitVector.getLong(i * Long.SIZE, Math.min(bitVector.length(), (i + 1) * Long.SIZE));
+	}
+
+	/** Writes a file that can be {@linkplain #MappedRankSelect(CharSequence) mapped} to provide rank and selection
+	 * over a given bit vector.
+	 *
+	 * @param bitVector a bit vector.
+	 * @param filename the name of the file that will be written.
+	 */
+	public static void store(final BitVector bitVector, final CharSequence filename) throws IOException {
+		final long numWords = (bitVector.length() + Long.SIZE - 1) / Long.SIZE;
+		store(bitVector, bitVector.count(), out -> Rank9Counts.counts(i -> word(bitVector, i), numWords, out), filename);
+	}
+
+	/** Writes a file that can be {@linkplain #MappedRankSelect(CharSequence) mapped} to provide rank and selection
+	 * over the bit vector of a {@link Rank9}, copying its counts.
+	 *
+	 * @param rank9 a {@link Rank9}.
+	 * @param filename the name of the file that will be written.
+	 */
+	public static void store(final Rank9 rank9, final CharSequence filename) throws IOException {
+		final long[] count = rank9.count;
+		final int numWords = rank9.numWords;
+		final int numBlocks = count.length >>> 1;
+		store(rank9.bitVector, rank9.numOnes, out -> {
+			for(int b = 0; b < numBlocks; b++) {
+				out.accept(count[2 * b]);
+				long subcounts = count[2 * b + 1];
+				// Rank9 sets to 0x1FF the subcounts of words beyond the end of the bit vector, whereas we repeat the last count
+				for(int j = numWords - 8 * b + 1; j < 8; j++) subcounts = subcounts & ~(0x1FFL << 9 * (j - 1)) | count[2 * numBlocks] - count[2 * b] << 9 * (j - 1);
+				out.accept(subcounts);
+			}
+			out.accept(count[2 * numBlocks]);
+		}, filename);
+	}
+
+	/** Writes a file that can be {@linkplain #MappedRankSelect(CharSequence) mapped} to provide rank and selection
+	 * over the bit vector of a {@link SimpleSelect}.
+	 *
+	 * <p>The inventories of {@code simpleSelect} are not copied, as the mapped inventories have a different structure.
+	 *
+	 * @param simpleSelect a {@link SimpleSelect}.
+	 * @param filename the name of the file that will be written.
+	 */
+	public static void store(final SimpleSelect simpleSelect, final CharSequence filename) throws IOException {
+		store(simpleSelect.bitVector(), filename);
+	}
+
+	/** Writes a file that can be {@linkplain #MappedRankSelect(CharSequence) mapped} using given counts.
+	 *
+	 * @param bitVector a bit vector.
+	 * @param numOnes the number of ones in {@code bitVector}.
+	 * @param counts a consumer that will pass the <code>rank9</code> counts of {@code bitVector} to its argument,
+	 * in the format of {@link Rank9Counts#counts(LongUnaryOperator, long, LongConsumer)}.
+	 * @param filename the name of the file that will be written.
+	 */
+	private static void store(final BitVector bitVector, final long numOnes, final Consumer<LongConsumer> counts, final CharSequence filename) throws IOException {
+		final long length = bitVector.length();
+		final long numWords = (length + Long.SIZE - 1) / Long.SIZE;
+		final long numZeros = length - numOnes;
+		final int log2OnesPerInventory = Rank9Counts.log2PerInventory(numOnes, length);
+		final int log2ZerosPerInventory = Rank9Counts.log2PerInventory(numZeros, length);
+		final LongUnaryOperator word = i -> word(bitVector, i);
+
+		try(final DataOutputStream dos = new DataOutputStream(new FastBufferedOutputStream(new FileOutputStream(filename.toString())))) {
+			// DataOutputStream writes big-endian longs
+			final LongConsumer out = x -> {
+				try {
+					dos.writeLong(Long.reverseBytes(x));
+				}
+				catch(final IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			};
+
+			out.accept(length);
+			out.accept(numOnes);
+			out.accept(log2OnesPerInventory);
+			out.accept(log2ZerosPerInventory);
+			for(long i = 0; i < numWords; i++) out.accept(word.applyAsLong(i));
+			counts.accept(out);
+			Rank9Counts.inventory(word, numWords, length, false, log2OnesPerInventory, out);
+			Rank9Counts.inventory(word, numWords, length, true, log2ZerosPerInventory, out);
+		}
+		catch(final UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	@Override
+	public long rank(final long pos) {
+		if (pos >= length) return numOnes;
+
+		final LongBigList data = this.data;
+		final long word = pos >>> 6;
+		final long block = countStart + (word >>> 3 << 1);
+
+		return data.getLong(block) + Rank9Counts.subcount(data.getLong(block + 1), (int)(word & 7)) + Long.bitCount(data.getLong(HEADER_SIZE + word) & ((1L << pos) - 1));
+	}
+
+	@Override
+	public long select(final long rank) {
+		if (rank >= numOnes) return -1;
+
+		final LongBigList data = this.data;
+		final long countStart = this.countStart;
+		final long inventoryIndex = inventoryStart + (rank >>> log2OnesPerInventory);
+		long blockLeft = data.getLong(inventoryIndex);
+		long blockRight = data.getLong(inventoryIndex + 1);
+
+		// We look for the last block in [blockLeft..blockRight] whose count does not exceed rank
+		if (blockRight - blockLeft <= MAX_LINEAR_SPAN) {
+			while(blockLeft < blockRight && data.getLong(countStart + (blockLeft + 1 << 1)) <= rank) blockLeft++;
+		}
+		else {
+			while(blockLeft < blockRight) {
+				final long blockMiddle = blockLeft + blockRight + 1 >>> 1;
+				if (data.getLong(countStart + (blockMiddle << 1)) <= rank) blockLeft = blockMiddle;
+				else blockRight = blockMiddle - 1;
+			}
+		}
+
+		final long rankInBlock = rank - data.getLong(countStart + (blockLeft << 1));
+		final int select = Rank9Counts.select(rankInBlock, data.getLong(countStart + (blockLeft << 1) + 1));
+		final long word = blockLeft * 8 + (select >>> 6);
+		return word * 64 + Fast.select(data.getLong(HEADER_SIZE + word), select & 0x3F);
+	}
+
+	@Override
+	public long selectZero(final long zeroRank) {
+		if (zeroRank >= numZeros) return -1;
+
+		final LongBigList data = this.data;
+		final long countStart = this.countStart;
+		final long inventoryIndex = zeroInventoryStart + (zeroRank >>> log2ZerosPerInventory);
+		long blockLeft = data.getLong(inventoryIndex);
+		long blockRight = data.getLong(inventoryIndex + 1);
+
+		// We look for the last block in [blockLeft..blockRight] whose zero count does not exceed zeroRank
+		if (blockRight - blockLeft <= MAX_LINEAR_SPAN) {
+			while(blockLeft < blockRight && (blockLeft + 1) * 512 - data.getLong(countStart + (blockLeft + 1 << 1)) <= zeroRank) blockLeft++;
+		}
+		else {
+			while(blockLeft < blockRight) {
+				final long blockMiddle = blockLeft + blockRight + 1 >>> 1;
+				if (blockMiddle * 512 - data.getLong(countStart + (blockMiddle << 1)) <= zeroRank) blockLeft = blockMiddle;
+				else blockRight = blockMiddle - 1;
+			}
+		}
+
+		final long rankInBlock = zeroRank - (blockLeft * 512 - data.getLong(countStart + (blockLeft << 1)));
+		final int select = Rank9Counts.select(rankInBlock, Rank9Counts.zeroSubcounts(data.getLong(countStart + (blockLeft << 1) + 1)));
+		final long word = blockLeft * 8 + (select >>> 6);
+		return word * 64 + Fast.select(~data.getLong(HEADER_SIZE + word), select & 0x3F);
+	}
+
+	/** Returns the number of bits used by the counts and the inventories stored in the mapped file.
+	 *
+	 * @return the number of bits used by the counts and the inventories.
+	 */
+	@Override
+	public long numBits() {
+		return (end - countStart) * Long.SIZE;
+	}
+
+	@Override
+	public long count() {
+		return numOnes;
+	}
+
+	/** Returns a read-only view of the mapped bit vector.
+	 *
+	 * @return a read-only view of the mapped bit vector.
+	 */
+	@Override
+	public BitVector bitVector() {
+		return new LongBigListBitVector(data.subList(HEADER_SIZE, HEADER_SIZE + numWords), length);
+	}
+
+	private void readObject(final ObjectInputStream s) throws IOException, ClassNotFoundException {
+		s.defaultReadObject();
+		map();
+	}
+}
@@ -0,0 +1,419 @@
+package it.unimi.dsi.sux4j.bits;
+
+/*
+ * Sux4J: Succinct data structures for Java
+ *
+ * Copyright (C) 2017 Sebastiano Vigna
+ *
+ *  This library is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *
+ *  This library is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ *  or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ *  for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
+import it.unimi.dsi.bits.BitVector;
+import it.unimi.dsi.bits.LongArrayBitVector;
+
+/** A balanced-parentheses structure based on a range-min tree.
+ *
+ * <p>This class implements all {@linkplain BalancedParentheses balanced-parentheses primitives} using
+ * a simplified version of the <em>range min-max tree</em> of Sadakane and Navarro (&ldquo;Fully-functional succinct trees&rdquo;,
+ * <i>Proc. SODA 2010</i>). The <em>excess</em> <var>E</var>(<var>p</var>) at position <var>p</var> is the number of open parentheses minus the number of
+ * closed parentheses in the first <var>p</var> bits. The bit vector is divided in blocks of {@value #BLOCK_BITS} bits; for each block
+ * we store the excess at its start and (as a short) the minimum excess in the block relative to its start, and we build on the blocks
+ * a tree with fan-out {@value #FANOUT} recording minima. Since all primitives search for the nearest position, forward or backward,
+ * at which the excess drops below a threshold, there is no need to store maxima.
+ *
+ * <p>A search scans the block of the starting position byte by byte, using tables containing the excess and the minimum
+ * excess of each byte; if the search fails, it climbs the tree and descends it to find the nearest block
+ * containing a suitable minimum, which is then scanned. The time is thus constant within a block (and in practice very fast),
+ * and logarithmic with base {@value #FANOUT} otherwise.
+ * The additional space is about 17%, most of which is used by the excess at the start of each block.
+ *
+ * <p>Besides the {@link BalancedParentheses} primitives, this class provides {@linkplain #excess(long) excess computation},
+ * {@linkplain #forwardSearch(long, long) forward} and {@linkplain #backwardSearch(long, long) backward} search and {@linkplain #rangeMinExcess(long, long) range-minimum queries}
+ * on the excess, which are used by {@link SuccinctTree}.
+ */
+
+public class RangeMinBalancedParentheses implements BalancedParentheses {
+	private static final long serialVersionUID = 1L;
+
+	/** The base-2 logarithm of {@link #BLOCK_BITS}. */
+	private static final int LOG2_BLOCK_BITS = 9;
+	/** The number of bits in a block. */
+	private static final int BLOCK_BITS = 1 << LOG2_BLOCK_BITS;
+	/** The base-2 logarithm of {@link #FANOUT}. */
+	private static final int LOG2_FANOUT = 3;
+	/** The fan-out of the tree of minima. */
+	private static final int FANOUT = 1 << LOG2_FANOUT;
+
+	/** For each byte, the number of ones minus the number of zeroes (shared with {@link JacobsonBalancedParentheses}). */
+	static final byte[] BYTE_EXCESS = new byte[256];
+	/** For each byte, the minimum excess after one, two, &hellip;, eight bits (shared with {@link JacobsonBalancedParentheses}). */
+	static final byte[] BYTE_MIN = new byte[256];
+
+	static {
+		for(int b = 0; b < 256; b++) {
+			int e = 0, min = Integer.MAX_VALUE;
+			for(int i = 0; i < 8; i++) min = Math.min(min, e += (b & 1 << i) != 0 ? 1 : -1);
+			BYTE_EXCESS[b] = (byte)e;
+			BYTE_MIN[b] = (byte)min;
+		}
+	}
+
+	/** The underlying bit vector. */
+	private final BitVector bitVector;
+	/** The cached result of {@link BitVector#bits() bitVector.bits()}. */
+	private transient long[] bits;
+	/** The length of {@link #bitVector}. */
+	private final long length;
+	/** The number of blocks. */
+	private final int numBlocks;
+	/** The excess at the start of each block, followed by the excess at the end of the bit vector. */
+	private final long[] blockExcess;
+	/** The minimum excess of each block relative to {@link #blockExcess} (the excess at the start of the block is not considered). */
+	private final short[] blockMin;
+	/** For each level of the tree of minima except the first one, the minimum excess of each node. */
+	private final long[][] levelMin;
+
+	/** Creates a new balanced-parentheses structure using a bit vector specified by an array of longs and a number of bits.
+	 *
+	 * @param bits an array of longs representing a bit array.
+	 * @param length the number of bits to use from <code>bits</code>.
+	 */
+	public RangeMinBalancedParentheses(final long[] bits, final long length) {
+		this(LongArrayBitVector.wrap(bits, length));
+	}
+
+	/** Creates a new balanced-parentheses structure using the specified bit vector.
+	 *
+	 * @param bitVector a bit vector containing correctly nested parentheses.
+	 */
+	public RangeMinBalancedParentheses(final BitVector bitVector) {
+		this.bitVector = bitVector;
+		final long[] bits = this.bits = bitVector.bits();
+		final long length = this.length = bitVector.length();
+		if ((length + BLOCK_BITS - 1) >>> LOG2_BLOCK_BITS > Integer.MAX_VALUE - 1) throw new IllegalArgumentException("Bit vector too long: " + length);
+		numBlocks = (int)((length + BLOCK_BITS - 1) >>> LOG2_BLOCK_BITS);
+		blockExcess = new long[numBlocks + 1];
+		blockMin = new short[numBlocks];
+
+		long e = 0;
+		for(int b = 0; b < numBlocks; b++) {
+			final long start = blockExcess[b] = e;
+			long min = Long.MAX_VALUE;
+			final long limit = Math.min(length, (long)(b + 1) << LOG2_BLOCK_BITS);
+			long p = (long)b << LOG2_BLOCK_BITS;
+			for(; p + 8 <= limit; p += 8) {
+				final int currByte = (int)(bits[(int)(p >>> 6)] >>> p) & 0xFF;
+				min = Math.min(min, e + BYTE_MIN[currByte]);
+				e += BYTE_EXCESS[currByte];
+			}
+			for(; p < limit; p++) min = Math.min(min, e += (bits[(int)(p >>> 6)] & 1L << p) != 0 ? 1 : -1);
+			if (min < 0) throw new IllegalArgumentException("Unbalanced parentheses");
+			blockMin[b] = (short)(min - start);
+		}
+
+		if (e != 0) throw new IllegalArgumentException("Unbalanced parentheses");
+		blockExcess[numBlocks] = e;
+
+		int numLevels = 1;
+		for(long size = numBlocks; size > FANOUT; size = (size + FANOUT - 1) >>> LOG2_FANOUT) numLevels++;
+		levelMin = new long[numLevels][];
+		for(int level = 1, size = numBlocks; level < numLevels; level++) {
+			final int childSize = size;
+			size = (size + FANOUT - 1) >>> LOG2_FANOUT;
+			final long[] min = levelMin[level] = new long[size];
+			for(int j = 0; j < size; j++) {
+				min[j] = Long.MAX_VALUE;
+				for(int c = j << LOG2_FANOUT; c < Math.min(childSize, (j + 1) << LOG2_FANOUT); c++) min[j] = Math.min(min[j], minAt(level - 1, c));
+			}
+		}
+	}
+
+	private int levelSize(final int level) {
+		return level == 0 ? numBlocks : levelMin[level].length;
+	}
+
+	private long minAt(final int level, final int j) {
+		return level == 0 ? blockExcess[j] + blockMin[j] : levelMin[level][j];
+	}
+
+	/** Returns the excess at a given position.
+	 *
+	 * @param pos a position between 0 and the length of the bit vector (inclusive).
+	 * @return the number of ones minus the number of zeroes preceding {@code pos}.
+	 */
+	public long excess(final long pos) {
+		final int block = (int)(pos >>> LOG2_BLOCK_BITS);
+		if (block == numBlocks) return blockExcess[numBlocks];
+		final long[] bits = this.bits;
+		int ones = 0;
+		final int lastWord = (int)(pos >>> 6);
+		for(int w = block << LOG2_BLOCK_BITS - 6; w < lastWord; w++) ones += Long.bitCount(bits[w]);
+		if ((pos & 63) != 0) ones += Long.bitCount(bits[lastWord] & (1L << pos) - 1);
+		return blockExcess[block] + 2 * ones - (pos - ((long)block << LOG2_BLOCK_BITS));
+	}
+
+	/** Scans forward a segment of the bit vector looking for a position with excess at most a given threshold.
+	 *
+	 * @param p a starting position.
+	 * @param e the excess at {@code p}.
+	 * @param limit the last position to be examined.
+	 * @param target a threshold.
+	 * @return the smallest position in ({@code p}..{@code limit}] with excess at most {@code target}, or -1.
+	 */
+	private long scanForward(long p, long e, final long limit, final long target) {
+		final long[] bits = this.bits;
+		for(; p < limit && (p & 7) != 0; p++) if ((e += (bits[(int)(p >>> 6)] & 1L << p) != 0 ? 1 : -1) <= target) return p + 1;
+		for(; p + 8 <= limit; p += 8) {
+			final int currByte = (int)(bits[(int)(p >>> 6)] >>> p) & 0xFF;
+			if (e + BYTE_MIN[currByte] <= target) {
+				for(int i = 0;; i++) if ((e += (currByte & 1 << i) != 0 ? 1 : -1) <= target) return p + i + 1;
+			}
+			e += BYTE_EXCESS[currByte];
+		}
+		for(; p < limit; p++) if ((e += (bits[(int)(p >>> 6)] & 1L << p) != 0 ? 1 : -1) <= target) return p + 1;
+		return -1;
+	}
+
+	/** Scans backward a segment of the bit vector looking for a position with excess at most a given threshold.
+	 *
+	 * @param p a starting position.
+	 * @param e the excess at {@code p}.
+	 * @param limit the last position to be examined.
+	 * @param target a threshold.
+	 * @return the largest position in [{@code limit}..{@code p}) with excess at most {@code target}, or -1.
+	 */
+	private long scanBackward(long p, long e, final long limit, final long target) {
+		final long[] bits = this.bits;
+		while(p > limit && (p & 7) != 0) {
+			p--;
+			if ((e -= (bits[(int)(p >>> 6)] & 1L << p) != 0 ? 1 : -1) <= target) return p;
+		}
+		for(; p - 8 >= limit; p -= 8) {
+			final int currByte = (int)(bits[(int)(p - 8 >>> 6)] >>> p - 8) & 0xFF;
+			final long start = e - BYTE_EXCESS[currByte];
+			if (Math.min(start, start + BYTE_MIN[currByte]) <= target) {
+				for(int i = 8; i-- != 0;) if ((e -= (currByte & 1 << i) != 0 ? 1 : -1) <= target) return p - 8 + i;
+			}
+			e = start;
+		}
+		while(p > limit) {
+			p--;
+			if ((e -= (bits[(int)(p >>> 6)] & 1L << p) != 0 ? 1 : -1) <= target) return p;
+		}
+		return -1;
+	}
+
+	/** Returns the first block after a given one whose minimum excess is at most a given threshold.
+	 *
+	 * @param block a block.
+	 * @param target a threshold.
+	 * @return the first block after {@code block} with minimum excess at most {@code target}, or -1.
+	 */
+	private int forwardBlock(final int block, final long target) {
+		int level = 0, j = block + 1;
+		search: for(;;) {
+			final int end = Math.min(levelSize(level), (j & -FANOUT) + FANOUT);
+			for(; j < end; j++) if (minAt(level, j) <= target) break search;
+			if (level == levelMin.length - 1) return -1;
+			j = (j - 1 >>> LOG2_FANOUT) + 1;
+			level++;
+		}
+
+		while(level-- != 0) {
+			j <<= LOG2_FANOUT;
+			while(minAt(level, j) > target) j++;
+		}
+		return j;
+	}
+
+	/** Returns the last block before a given one whose minimum excess is at most a given threshold.
+	 *
+	 * @param block a block.
+	 * @param target a threshold.
+	 * @return the last block before {@code block} with minimum excess at most {@code target}, or -1.
+	 */
+	private int backwardBlock(final int block, final long target) {
+		int level = 0, j = block - 1;
+		search: for(;;) {
+			if (j < 0) return -1;
+			final int start = j & -FANOUT;
+			for(; j >= start; j--) if (minAt(level, j) <= target) break search;
+			if (level == levelMin.length - 1) return -1;
+			j = (start >>> LOG2_FANOUT) - 1;
+			level++;
+		}
+
+		while(level-- != 0) {
+			j = Math.min(levelSize(level) - 1, (j << LOG2_FANOUT) + FANOUT - 1);
+			while(minAt(level, j) > target) j--;
+		}
+		return j;
+	}
+
+	/** Returns the first position, starting from a given one, at which the excess is at most a given threshold.
+	 *
+	 * @param pos a position between 0 and the length of the bit vector (inclusive).
+	 * @param target a threshold.
+	 * @return the smallest position greater than or equal to {@code pos} at which the excess is at most {@code target}, or -1.
+	 */
+	public long forwardSearch(final long pos, final long target) {
+		final long e = excess(pos);
+		if (e <= target) return pos;
+		final int block = (int)(pos >>> LOG2_BLOCK_BITS);
+		if (block < numBlocks) {
+			final long result = scanForward(pos, e, Math.min(length, (long)(block + 1) << LOG2_BLOCK_BITS), target);
+			if (result != -1) return result;
+		}
+		final int next = forwardBlock(block, target);
+		if (next == -1) return -1;
+		final long start = (long)next << LOG2_BLOCK_BITS;
+		return scanForward(start, blockExcess[next], Math.min(length, start + BLOCK_BITS), target);
+	}
+
+	/** Returns the last position, up to a given one, at which the excess is at most a given threshold.
+	 *
+	 * @param pos a position between 0 and the length of the bit vector (inclusive).
+	 * @param target a threshold.
+	 * @return the largest position smaller than or equal to {@code pos} at which the excess is at most {@code target}, or -1.
+	 */
+	public long backwardSearch(final long pos, final long target) {
+		final long e = excess(pos);
+		if (e <= target) return pos;
+		final int block = (int)(pos >>> LOG2_BLOCK_BITS);
+		final long blockStart = (long)block << LOG2_BLOCK_BITS;
+		final long result = scanBackward(pos, e, blockStart, target);
+		if (result != -1) return result;
+		final int previous = backwardBlock(Math.min(block, numBlocks), target);
+		// Position 0 does not belong to the range of any block
+		if (previous == -1) return block > 0 && target >= 0 ? 0 : -1;
+		final long end = (long)(previous + 1) << LOG2_BLOCK_BITS;
+		// The excess at the end of the block was not considered by the following block
+		if (blockExcess[previous + 1] <= target) return end;
+		return scanBackward(end, blockExcess[previous + 1], end - BLOCK_BITS, target);
+	}
+
+	/** Returns the minimum excess in a range of positions.
+	 *
+	 * @param from the first position of the range.
+	 * @param to the last position of the range (inclusive).
+	 * @return the minimum excess at positions between {@code from} and {@code to} (both included).
+	 */
+	public long rangeMinExcess(final long from, final long to) {
+		if (from > to) throw new IllegalArgumentException("Empty range [" + from + ".." + to + "]");
+		final int fromBlock = (int)(from >>> LOG2_BLOCK_BITS), toBlock = (int)(to >>> LOG2_BLOCK_BITS);
+		final long e = excess(from);
+		if (fromBlock == toBlock) return Math.min(e, minForward(from, e, to));
+
+		long min = Math.min(e, minForward(from, e, (long)(fromBlock + 1) << LOG2_BLOCK_BITS));
+		min = Math.min(min, blockRangeMin(fromBlock + 1, toBlock - 1));
+		final long toStart = (long)toBlock << LOG2_BLOCK_BITS;
+		return Math.min(min, Math.min(blockExcess[toBlock], minForward(toStart, blockExcess[toBlock], to)));
+	}
+
+	/** Returns the minimum excess in a range of positions, excluding the first one.
+	 *
+	 * @param p a starting position.
+	 * @param e the excess at {@code p}.
+	 * @param limit the last position to be examined.
+	 * @return the minimum excess at positions in ({@code p}..{@code limit}], or {@link Long#MAX_VALUE} if the range is empty.
+	 */
+	private long minForward(long p, long e, final long limit) {
+		final long[] bits = this.bits;
+		long min = Long.MAX_VALUE;
+		for(; p < limit && (p & 7) != 0; p++) min = Math.min(min, e += (bits[(int)(p >>> 6)] & 1L << p) != 0 ? 1 : -1);
+		for(; p + 8 <= limit; p += 8) {
+			final int currByte = (int)(bits[(int)(p >>> 6)] >>> p) & 0xFF;
+			min = Math.min(min, e + BYTE_MIN[currByte]);
+			e += BYTE_EXCESS[currByte];
+		}
+		for(; p < limit; p++) min = Math.min(min, e += (bits[(int)(p >>> 6)] & 1L << p) != 0 ? 1 : -1);
+		return min;
+	}
+
+	/** Returns the minimum excess in a range of blocks.
+	 *
+	 * @param from the first block.
+	 * @param to the last block (inclusive).
+	 * @return the minimum excess of blocks between {@code from} and {@code to} (both included), or {@link Long#MAX_VALUE} if the range is empty.
+	 */
+	private long blockRangeMin(int from, int to) {
+		long min = Long.MAX_VALUE;
+		for(int level = 0; from <= to; level++) {
+			if (from >>> LOG2_FANOUT == to >>> LOG2_FANOUT || level == levelMin.length - 1) {
+				while(from <= to) min = Math.min(min, minAt(level, from++));
+				break;
+			}
+			while((from & FANOUT - 1) != 0) min = Math.min(min, minAt(level, from++));
+			while((to & FANOUT - 1) != FANOUT - 1) min = Math.min(min, minAt(level, to--));
+			from >>>= LOG2_FANOUT;
+			to >>>= LOG2_FANOUT;
+		}
+		return min;
+	}
+
+	@Override
+	public long findClose(final long pos) {
+		final long[] bits = this.bits;
+		final int word = (int)(pos >>> 6);
+		final int bit = (int)(pos & 63);
+		if ((bits[word] & 1L << bit) == 0) throw new IllegalArgumentException("No open parenthesis at position " + pos);
+		final int result = JacobsonBalancedParentheses.nearClose(bits[word] >>> bit);
+		if (result < Long.SIZE - bit) return pos + result;
+		return forwardSearch(pos + 1, excess(pos)) - 1;
+	}
+
+	@Override
+	public long findOpen(final long pos) {
+		if (bitVector.getBoolean(pos)) throw new IllegalArgumentException("No closed parenthesis at position " + pos);
+		return backwardSearch(pos, excess(pos) - 1);
+	}
+
+	/** Returns the position of the open parenthesis of the pair that most tightly encloses the given position.
+	 *
+	 * <p>If {@code pos} contains an open (closed) parenthesis, the result is the open parenthesis of the pair
+	 * enclosing the pair starting (ending) at {@code pos}. In tree terms, the result is the parent of the node
+	 * represented by the pair.
+	 *
+	 * @param pos a position in the bit vector.
+	 * @return the position of the open parenthesis of the pair that most tightly encloses the given position,
+	 * or -1 if there is no such pair.
+	 */
+	@Override
+	public long enclose(final long pos) {
+		final long target = excess(pos) - (bitVector.getBoolean(pos) ? 1 : 2);
+		if (target < 0) return -1;
+		return backwardSearch(pos, target);
+	}
+
+	@Override
+	public long numBits() {
+		long numBits = blockExcess.length * (long)Long.SIZE + blockMin.length * (long)Short.SIZE;
+		for(int level = 1; level < levelMin.length; level++) numBits += levelMin[level].length * (long)Long.SIZE;
+		return numBits;
+	}
+
+	private void readObject(final ObjectInputStream s) throws IOException, ClassNotFoundException {
+		s.defaultReadObject();
+		bits = bitVector.bits();
+	}
+
+	@Override
+	public BitVector bitVector() {
+		return bitVector;
+	}
+}
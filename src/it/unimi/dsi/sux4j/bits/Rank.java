@@ -62,6 +62,19 @@ public interface Rank extends Serializable {
 	 */
 	public long rank(long pos);
 
+	/** Ranks a batch of positions.
+	 *
+	 * <p>The result is the same as that of calling {@link #rank(long)} on each element of {@code positions},
+	 * but implementations may organize the computation so that the memory accesses of different queries overlap.
+	 *
+	 * @param positions an array of positions in the bit vector.
+	 * @param out an array, distinct from {@code positions} and at least as long, that will be filled
+	 * with the number of ones preceding each position in {@code positions}.
+	 */
+	public default void rank(final long[] positions, final long[] out) {
+		for(int i = positions.length; i-- != 0;) out[i] = rank(positions[i]);
+	}
+
 	/** Returns the number of ones in the specified interval.
 	 *
 	 * @param from a position in the bit vector.
@@ -91,6 +91,30 @@ public class Rank16 extends AbstractRank implements Rank {
 				superCount[block] + (count[offset] & 0xFFFF) + Long.bitCount(bits[word - 1]) + Long.bitCount(bits[word] & (1L << pos % 64) - 1);
 	}
 
+	/** Ranks a batch of positions.
+	 *
+	 * <p>As in {@link Rank9#rank(long[], long[])}, the loads of consecutive queries are independent, so
+	 * a single pass lets the processor overlap their cache misses.
+	 */
+	@Override
+	public void rank(final long[] positions, final long[] out) {
+		final long[] superCount = this.superCount, bits = this.bits;
+		final short[] count = this.count;
+		final long lastOne = this.lastOne, numOnes = this.numOnes;
+		for(int i = 0; i < positions.length; i++) {
+			final long pos = positions[i];
+			if (pos > lastOne) {
+				out[i] = numOnes;
+				continue;
+			}
+			final int word = (int)(pos / Long.SIZE);
+			final long partial = superCount[word / BLOCK_LENGTH] + (count[word / 2] & 0xFFFF);
+			out[i] = word % 2 == 0 ?
+					partial + Long.bitCount(bits[word] & ((1L << pos % 64) - 1)) :
+					partial + Long.bitCount(bits[word - 1]) + Long.bitCount(bits[word] & (1L << pos % 64) - 1);
+		}
+	}
+
 	@Override
 	public long numBits() {
 		return count.length * (long)Short.SIZE + superCount.length * (long)Long.SIZE;
@@ -93,6 +93,29 @@ public class Rank9 extends AbstractRank implements Rank {
 		return count[block] + (count[block + 1] >>> (offset + (offset >>> 32 - 4 & 0x8)) * 9 & 0x1FF) + Long.bitCount(bits[word] & ((1L << pos % 64) - 1));
 	}
 
+	/** Ranks a batch of positions.
+	 *
+	 * <p>Each rank needs a count and a word of the bit vector whose addresses depend only on the position, so
+	 * the loads of consecutive queries are independent and the processor overlaps their cache misses
+	 * even in a single pass; splitting the loads in two phases is, in fact, slower.
+	 */
+	@Override
+	public void rank(final long[] positions, final long[] out) {
+		final long[] count = this.count, bits = this.bits;
+		final long lastOne = this.lastOne, numOnes = this.numOnes;
+		for(int i = 0; i < positions.length; i++) {
+			final long pos = positions[i];
+			if (pos > lastOne) {
+				out[i] = numOnes;
+				continue;
+			}
+			final int word = (int)(pos / 64);
+			final int block = word / 4 & ~1;
+			final int offset = word % 8 - 1;
+			out[i] = count[block] + (count[block + 1] >>> (offset + (offset >>> 32 - 4 & 0x8)) * 9 & 0x1FF) + Long.bitCount(bits[word] & ((1L << pos % 64) - 1));
+		}
+	}
+
 	@Override
 	public long numBits() {
 		return count.length * (long)Long.SIZE;
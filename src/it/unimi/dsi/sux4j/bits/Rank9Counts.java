@@ -0,0 +1,153 @@
+package it.unimi.dsi.sux4j.bits;
+
+/*
+ * Sux4J: Succinct data structures for Java
+ *
+ * Copyright (C) 2017 Sebastiano Vigna
+ *
+ *  This library is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *
+ *  This library is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ *  or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ *  for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+import java.util.function.LongConsumer;
+import java.util.function.LongUnaryOperator;
+
+import it.unimi.dsi.bits.Fast;
+
+/** Constants and static methods shared by the structures that use the <code>rank9</code> counts
+ * ({@link FusedRankSelect}, {@link BigRankSelect} and {@link MappedRankSelect}).
+ *
+ * <p>Each structure stores the counts in its own way; the code in this class, which does not depend on storage,
+ * computes the counts from a sequence of words and extracts subcounts. For {@link MappedRankSelect}, which selects
+ * by searching the counts, it also computes the samples of sparse inventories of blocks, and locates a bit of given rank inside a block.
+ */
+
+final class Rank9Counts {
+
+	private Rank9Counts() {}
+
+	static final long ONES_STEP_9 = 1L << 0 | 1L << 9 | 1L << 18 | 1L << 27 | 1L << 36 | 1L << 45 | 1L << 54;
+	static final long MSBS_STEP_9 = 0x100L * ONES_STEP_9;
+	/** The number of bits in a block (the <var>j</var>-th 9-bit field, <var>j</var> &ge; 0, of this constant contains 64(<var>j</var> + 1)). */
+	static final long BITS_STEP_9 = 64L * (1L << 0 | 2L << 9 | 3L << 18 | 4L << 27 | 5L << 36 | 6L << 45 | 7L << 54);
+	/** The approximate number of bits between two consecutive samples of the inventories. */
+	static final int BITS_PER_INVENTORY = 2048;
+	/** The maximum span (in blocks) between two samples that will be scanned linearly. */
+	static final int MAX_LINEAR_SPAN = 8;
+
+	/** Computes the <code>rank9</code> counts of a sequence of words.
+	 *
+	 * <p>For each block of eight words, the cumulative count of ones before the block and the
+	 * seven 9-bit subcounts are passed to {@code count}, followed at the end by the number of ones. Unlike {@link Rank9},
+	 * subcounts of words beyond the end of the sequence repeat the last count.
+	 *
+	 * @param word a function returning the word of given index.
+	 * @param numWords the number of words.
+	 * @param count a consumer that will receive the counts.
+	 * @return the number of ones.
+	 */
+	static long counts(final LongUnaryOperator word, final long numWords, final LongConsumer count) {
+		long c = 0;
+		for(long i = 0; i < numWords; i += 8) {
+			final long countAtStart = c;
+			long subcounts = 0;
+			for(int j = 0; j < 8; j++) {
+				if (j != 0) subcounts |= c - countAtStart << 9 * (j - 1);
+				if (i + j < numWords) c += Long.bitCount(word.applyAsLong(i + j));
+			}
+			count.accept(countAtStart);
+			count.accept(subcounts);
+		}
+		count.accept(c);
+		return c;
+	}
+
+	/** Returns the base-2 logarithm of the number of ones (or zeroes) per inventory sample.
+	 *
+	 * @param n the number of ones (or zeroes).
+	 * @param length the length of the bit vector.
+	 * @return the base-2 logarithm of a number of ones (or zeroes) spanning approximately {@link #BITS_PER_INVENTORY} bits.
+	 */
+	static int log2PerInventory(final long n, final long length) {
+		return length == 0 ? 0 : Fast.mostSignificantBit(Math.max(1, (n * BITS_PER_INVENTORY + length - 1) / length));
+	}
+
+	/** Returns the number of samples of an inventory, excluding the final entry.
+	 *
+	 * @param n the number of ones (or zeroes).
+	 * @param log2PerInventory the base-2 logarithm of the number of ones (or zeroes) per sample.
+	 * @return the number of samples.
+	 */
+	static long inventorySize(final long n, final int log2PerInventory) {
+		return (n + (1L << log2PerInventory) - 1) >>> log2PerInventory;
+	}
+
+	/** Computes the samples of an inventory of a sequence of words.
+	 *
+	 * <p>The samples are the indices of the blocks containing the ones (or zeroes) whose rank is a multiple of
+	 * 2<sup>{@code log2PerInventory}</sup>; they are passed to {@code inventory} in order, followed at the end by the index of the last block.
+	 *
+	 * @param word a function returning the word of given index.
+	 * @param numWords the number of words.
+	 * @param length the length of the bit vector.
+	 * @param zeroes whether to sample zeroes instead of ones.
+	 * @param log2PerInventory the base-2 logarithm of the number of ones (or zeroes) per sample.
+	 * @param inventory a consumer that will receive the samples.
+	 */
+	static void inventory(final LongUnaryOperator word, final long numWords, final long length, final boolean zeroes, final int log2PerInventory, final LongConsumer inventory) {
+		final long perInventory = 1L << log2PerInventory;
+		long count = 0;
+		for(long i = 0; i < numWords; i++) {
+			final int ones = Long.bitCount(word.applyAsLong(i));
+			final long nextCount = count + (zeroes ? Math.min(length, (i + 1) * Long.SIZE) - i * Long.SIZE - ones : ones);
+			for(long r = count + perInventory - 1 & -perInventory; r < nextCount; r += perInventory) inventory.accept(i / 8);
+			count = nextCount;
+		}
+		inventory.accept(Math.max(0, (numWords + 7) / 8 - 1));
+	}
+
+	/** Returns the subcount of a word in a block.
+	 *
+	 * @param subcounts the subcounts of a block.
+	 * @param wordInBlock the index of a word in the block (between 0 and 7).
+	 * @return the number of ones in the block before the specified word.
+	 */
+	static int subcount(final long subcounts, final int wordInBlock) {
+		final int offset = wordInBlock - 1;
+		return (int)(subcounts >>> (offset + (offset >>> 32 - 4 & 0x8)) * 9 & 0x1FF);
+	}
+
+	/** Returns the subcounts of zeroes of a block.
+	 *
+	 * @param subcounts the subcounts of a block.
+	 * @return the subcounts of zeroes of the block.
+	 */
+	static long zeroSubcounts(final long subcounts) {
+		// Since the j-th subcount is at most 64(j + 1), there are no borrows
+		return BITS_STEP_9 - subcounts;
+	}
+
+	/** Locates a bit of given rank in a block.
+	 *
+	 * @param rankInBlock the rank of a bit in a block (less than the number of bits of the same kind in the block).
+	 * @param subcounts the subcounts (of ones or of zeroes) of the block.
+	 * @return the index of the word of the block containing the bit, shifted left by six, or-ed with the
+	 * rank of the bit in the word.
+	 */
+	static int select(final long rankInBlock, final long subcounts) {
+		final long rankInBlockStep9 = rankInBlock * ONES_STEP_9;
+		final int offsetInBlock = (int)(((((((rankInBlockStep9 | MSBS_STEP_9) - (subcounts & ~MSBS_STEP_9)) | (subcounts ^ rankInBlockStep9)) ^ (subcounts & ~rankInBlockStep9)) & MSBS_STEP_9) >>> 8) * ONES_STEP_9 >>> 54 & 0x7);
+		return offsetInBlock << 6 | (int)(rankInBlock - (subcounts >>> (offsetInBlock - 1 & 7) * 9 & 0x1FF));
+	}
+}
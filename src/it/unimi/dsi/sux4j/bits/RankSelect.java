@@ -34,6 +34,8 @@ import it.unimi.dsi.bits.BitVector;
  *  all structures related to a bit vector. For convenience, it provides also delegate methods, albeit
  *  the suggested usage is deserialisation and extraction of non-{@code null} structures.
  *
+ *  <p>If you need rank, selection and zero selection on the same bit vector, a {@link FusedRankSelect}
+ *  provides all of them sharing the bit vector and a single set of counts.
  */
 public class RankSelect implements Rank, Select, SelectZero, Serializable {
 
@@ -86,6 +88,11 @@ public class RankSelect implements Rank, Select, SelectZero, Serializable {
 		return rank.rank(pos);
 	}
 
+	@Override
+	public void rank(final long[] positions, final long[] out) {
+		rank.rank(positions, out);
+	}
+
 	@Override
 	public long rankZero(final long from, final long to) {
 		return rank.rankZero(from, to);
@@ -101,11 +108,21 @@ public class RankSelect implements Rank, Select, SelectZero, Serializable {
 		return select.select(rank);
 	}
 
+	@Override
+	public void select(final long[] ranks, final long[] out) {
+		select.select(ranks, out);
+	}
+
 	@Override
 	public long selectZero(final long rank) {
 		return selectZero.selectZero(rank);
 	}
 
+	@Override
+	public void selectZero(final long[] zeroRanks, final long[] out) {
+		selectZero.selectZero(zeroRanks, out);
+	}
+
 	@Override
 	public BitVector bitVector() {
 		if (rank != null) return rank.bitVector();
@@ -56,6 +56,19 @@ public interface Select extends Serializable {
 	 */
 	public long select(long rank);
 
+	/** Selects a batch of ranks.
+	 *
+	 * <p>The result is the same as that of calling {@link #select(long)} on each element of {@code ranks},
+	 * but implementations may organize the computation so that the memory accesses of different queries overlap.
+	 *
+	 * @param ranks an array of ranks.
+	 * @param out an array, distinct from {@code ranks} and at least as long, that will be filled
+	 * with the position of the bit of each rank in {@code ranks} (or &minus;1 if no such position exists).
+	 */
+	public default void select(final long[] ranks, final long[] out) {
+		for(int i = ranks.length; i-- != 0;) out[i] = select(ranks[i]);
+	}
+
 	/** Returns the bit vector indexed by this structure.
 	 *
 	 * <p>Note that you are not supposed to modify the returned vector.
@@ -49,6 +49,8 @@ public class Select9 implements Select {
 	private final static int LOG2_ONES_PER_INVENTORY = 9;
 	private final static int ONES_PER_INVENTORY = 1 << LOG2_ONES_PER_INVENTORY;
 	private final static int INVENTORY_MASK = ONES_PER_INVENTORY - 1;
+	/** The number of queries processed together by {@link #select(long[], long[])}. */
+	private final static int BATCH_SIZE = 64;
 
 	private final long[] inventory;
 	private final long[] subinventory;
@@ -179,8 +181,20 @@ public class Select9 implements Select {
 	}
 
 	@Override
-	public long select(long rank) {
+	public long select(final long rank) {
 		if (rank >= numOnes) return -1;
+		final long located = locate(rank);
+		return located >= 0 ? located : selectInWord(~located);
+	}
+
+	/** Locates the one of given rank using the inventories and the counts, without accessing the bit vector.
+	 *
+	 * @param rank a rank smaller than the number of ones.
+	 * @return the position of the one of given rank, if the inventories contain it; otherwise, the bitwise negation
+	 * of the index of the word containing the one multiplied by 64, plus the rank of the one in the word, to be passed
+	 * to {@link #selectInWord(long)}.
+	 */
+	private long locate(final long rank) {
 
 		final int inventoryIndexLeft = (int)(rank >> LOG2_ONES_PER_INVENTORY);
 
@@ -269,7 +283,33 @@ public class Select9 implements Select {
 		if (ASSERTS) assert rankInWord < 64;
 		if (ASSERTS) assert rankInWord >= 0;
 
-		return word * 64L + Fast.select(bits[word], rankInWord);
+		return ~(word * 64L + rankInWord);
+	}
+
+	/** Completes a selection located by {@link #locate(long)}.
+	 *
+	 * @param wordAndRank the index of a word multiplied by 64, plus a rank in the word.
+	 * @return the position of the one of given rank in the word.
+	 */
+	private long selectInWord(final long wordAndRank) {
+		return (wordAndRank & -Long.SIZE) + Fast.select(bits[(int)(wordAndRank >>> 6)], (int)(wordAndRank & 0x3F));
+	}
+
+	/** Selects a batch of ranks.
+	 *
+	 * <p>Queries are processed in groups of {@value #BATCH_SIZE}: first all queries of a group are
+	 * {@linkplain #locate(long) located} using the inventories and the counts, and then the
+	 * selections are completed by accessing the bit vector, so that the cache misses of different queries overlap.
+	 */
+	@Override
+	public void select(final long[] ranks, final long[] out) {
+		for(int start = 0; start < ranks.length; start += BATCH_SIZE) {
+			final int end = Math.min(ranks.length, start + BATCH_SIZE);
+			// First phase: the result, or the negation of the word and of the rank in the word
+			for(int i = start; i < end; i++) out[i] = ranks[i] < numOnes ? locate(ranks[i]) : -1;
+			// Second phase: access to the bit vector
+			for(int i = start; i < end; i++) if (out[i] < 0 && ranks[i] < numOnes) out[i] = selectInWord(~out[i]);
+		}
 	}
 
 	@Override
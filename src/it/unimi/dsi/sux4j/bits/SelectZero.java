@@ -44,6 +44,19 @@ public interface SelectZero extends Serializable {
 	 */
 	public long selectZero(long zeroRank);
 
+	/** Selects a batch of zero ranks.
+	 *
+	 * <p>The result is the same as that of calling {@link #selectZero(long)} on each element of {@code zeroRanks},
+	 * but implementations may organize the computation so that the memory accesses of different queries overlap.
+	 *
+	 * @param zeroRanks an array of zero ranks.
+	 * @param out an array, distinct from {@code zeroRanks} and at least as long, that will be filled
+	 * with the position of the bit of each zero rank in {@code zeroRanks} (or &minus;1 if no such position exists).
+	 */
+	public default void selectZero(final long[] zeroRanks, final long[] out) {
+		for(int i = zeroRanks.length; i-- != 0;) out[i] = selectZero(zeroRanks[i]);
+	}
+
 	/** Returns the bit vector indexed by this structure.
 	 *
 	 * <p>Note that you are not supposed to modify the returned vector.
@@ -51,6 +51,8 @@ public class SimpleSelect implements Select {
 
 	/** The maximum size of span to qualify for a subinventory made of 16-bit offsets. */
 	private static final int MAX_SPAN = (1 << 16);
+	/** The number of queries processed together by {@link #select(long[], long[])}. */
+	private static final int BATCH_SIZE = 64;
 
 	/** The underlying bit vector. */
 	private final BitVector bitVector;
@@ -244,7 +246,16 @@ public class SimpleSelect implements Select {
 		}
 
 		if (residual == 0) return start;
+		return scan(start, residual);
+	}
 
+	/** Returns the position of the one of given rank relative to a starting position, scanning the bit vector.
+	 *
+	 * @param start the position of a one.
+	 * @param residual the rank of the desired one relative to {@code start}.
+	 * @return the position of the one of rank {@code residual} counting from {@code start} (inclusive).
+	 */
+	private long scan(final long start, int residual) {
 		final long bits[] = this.bits;
 		int wordIndex = (int)(start / 64);
 		long word = bits[wordIndex] & -1L << start;
@@ -259,6 +270,45 @@ public class SimpleSelect implements Select {
 		return wordIndex * 64L + Fast.select(word, residual);
 	}
 
+	/** Selects a batch of ranks.
+	 *
+	 * <p>Queries are processed in groups of {@value #BATCH_SIZE}: first the inventories are
+	 * accessed for all queries of a group, and then the bit vector is scanned, so that the cache misses
+	 * of different queries overlap.
+	 */
+	@Override
+	public void select(final long[] ranks, final long[] out) {
+		final long[] inventory = this.inventory;
+		for(int start = 0; start < ranks.length; start += BATCH_SIZE) {
+			final int end = Math.min(ranks.length, start + BATCH_SIZE);
+			// First phase: the result, or the position from which the bit vector must be scanned
+			for(int i = start; i < end; i++) {
+				final long rank = ranks[i];
+				if (rank >= numOnes) {
+					out[i] = -1;
+					continue;
+				}
+				final int inventoryIndex = (int)(rank >>> log2OnesPerInventory);
+				final long inventoryRank = inventory[inventoryIndex];
+				final int subrank = (int)(rank & onesPerInventoryMask);
+
+				if (subrank == 0) out[i] = inventoryRank & ~(1L<<63);
+				else if (inventoryRank >= 0) out[i] = inventoryRank + subinventory16.getLong((inventoryIndex << log2LongwordsPerSubinventory + 2) + (subrank >>> log2OnesPerSub16));
+				else if (onesPerSub64 == 1) out[i] = subinventory[(inventoryIndex << log2LongwordsPerSubinventory) + subrank];
+				else out[i] = exactSpill[(int)(subinventory[inventoryIndex << log2LongwordsPerSubinventory] + subrank)];
+			}
+			// Second phase: scanning
+			for(int i = start; i < end; i++) {
+				final long rank = ranks[i];
+				if (rank >= numOnes) continue;
+				final int subrank = (int)(rank & onesPerInventoryMask);
+				final int residual = subrank & onesPerSub16Mask;
+				if (residual == 0 || inventory[(int)(rank >>> log2OnesPerInventory)] < 0) continue;
+				out[i] = scan(out[i], residual);
+			}
+		}
+	}
+
 	/** Performs a bulk select of consecutive ranks into a given array fragment.
 	 *
 	 * @param rank the first rank to select.
@@ -35,6 +35,8 @@ import it.unimi.dsi.sux4j.util.EliasFanoMonotoneLongBigList;
 
 public class SparseRank extends AbstractRank {
 	private static final long serialVersionUID = 2L;
+	/** The number of words of upper bits scanned backwards by {@link #rank(long)} to find the start of a bucket before resorting to selection. */
+	private static final int MAX_BACKWARD_WORDS = 2;
 
 	/** The length of the underlying bit array. */
 	protected final long n;
@@ -138,16 +140,37 @@ public class SparseRank extends AbstractRank {
 		if (pos >= n) return m;
 		final long posShiftrL = pos >>> l;
 
-		long upperPos = selectZeroUpper.selectZero(posShiftrL);
-	    long rank = upperPos - (posShiftrL);
-	    final long posLowerBits = pos & lowerLBitsMask;
+		final long upperPos = selectZeroUpper.selectZero(posShiftrL);
+		// The ones of the bucket of pos are those between the zero ending the previous bucket and upperPos.
+		// We look for that zero in the words preceding upperPos, and select it only if the bucket is longer.
+		long zero = -1;
+		if (posShiftrL != 0) {
+			// The bits are available, as selectZeroUpper has been built on them
+			final long[] upper = upperBits.bits();
+			int word = (int)(upperPos - 1 >>> LongArrayBitVector.LOG2_BITS_PER_WORD);
+			long w = ~upper[word] & -1L >>> ~(upperPos - 1);
+			for(int words = MAX_BACKWARD_WORDS; ; w = ~upper[--word]) {
+				if (w != 0) {
+					zero = (long)word * Long.SIZE + Fast.mostSignificantBit(w);
+					break;
+				}
+				if (--words == 0) {
+					zero = selectZeroUpper.selectZero(posShiftrL - 1);
+					break;
+				}
+			}
+		}
 
-	    do {
-	    	rank--;
-	    	upperPos--;
-	    } while(upperPos >= 0 && upperBits.getBoolean(upperPos) && extractLowerBits(rank) >= posLowerBits);
+		// Binary search for the first element of the bucket whose lower bits are not smaller than those of pos
+		long lo = zero + 1 - posShiftrL, hi = upperPos - posShiftrL;
+		final long posLowerBits = pos & lowerLBitsMask;
+		while(lo < hi) {
+			final long mid = lo + hi >>> 1;
+			if (extractLowerBits(mid) < posLowerBits) lo = mid + 1;
+			else hi = mid;
+		}
 
-	    return ++rank;
+		return lo;
 	}
 
 	@Override
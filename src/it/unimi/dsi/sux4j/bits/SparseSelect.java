@@ -154,6 +154,32 @@ public class SparseSelect extends EliasFanoMonotoneLongBigList implements Select
 		return upperBits << l | (totalOffset <= Long.SIZE ? result : result | lowerBits[startWord + 1] << -startBit) & lowerBitsMask;
 	}
 
+	/** Selects a batch of ranks.
+	 *
+	 * <p>The upper bits are selected in a batch using {@link SimpleSelect#select(long[], long[])}, and then
+	 * the lower bits are added.
+	 */
+	@Override
+	public void select(final long[] ranks, final long[] out) {
+		selectUpper.select(ranks, out);
+		final int l = this.l;
+		final long[] lowerBits = this.lowerBits;
+		for(int i = 0; i < ranks.length; i++) {
+			final long rank = ranks[i];
+			if (rank >= length) continue;
+			final long upperBits = out[i] - rank;
+			if (l == 0) {
+				out[i] = upperBits;
+				continue;
+			}
+			final long position = rank * l;
+			final int startWord = (int)(position / Long.SIZE);
+			final int startBit = (int)(position % Long.SIZE);
+			final long result = lowerBits[startWord] >>> startBit;
+			out[i] = upperBits << l | (startBit + l <= Long.SIZE ? result : result | lowerBits[startWord + 1] << -startBit) & lowerBitsMask;
+		}
+	}
+
 	/** Returns the bit vector indexed; since the bits are not stored in this data structure,
 	 * a copy is built on purpose and returned.
 	 *
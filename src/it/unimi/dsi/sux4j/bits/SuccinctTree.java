@@ -0,0 +1,192 @@
+package it.unimi.dsi.sux4j.bits;
+
+/*
+ * Sux4J: Succinct data structures for Java
+ *
+ * Copyright (C) 2017 Sebastiano Vigna
+ *
+ *  This library is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *
+ *  This library is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ *  or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ *  for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+import java.io.Serializable;
+
+import it.unimi.dsi.bits.BitVector;
+
+/** An ordinal tree represented by balanced parentheses.
+ *
+ * <p>An ordinal tree with <var>n</var> nodes is represented by a string of 2<var>n</var> balanced parentheses
+ * obtained by a depth-first visit emitting an open parenthesis (a one) when a node is entered and a closed parenthesis (a zero)
+ * when it is exited. A node is identified by the position of its open parenthesis, so the root is node 0.
+ *
+ * <p>Navigation is implemented using a {@link RangeMinBalancedParentheses} structure:
+ * {@linkplain #parent(long) parents} are computed by {@link RangeMinBalancedParentheses#enclose(long) enclose()},
+ * {@linkplain #nextSibling(long) next siblings} and {@linkplain #subtreeSize(long) subtree sizes} by {@link RangeMinBalancedParentheses#findClose(long) findClose()},
+ * {@linkplain #depth(long) depths} by {@link RangeMinBalancedParentheses#excess(long) excess()}, and
+ * {@linkplain #lca(long, long) lowest common ancestors} by a {@linkplain RangeMinBalancedParentheses#rangeMinExcess(long, long) range-minimum query}
+ * followed by a {@linkplain RangeMinBalancedParentheses#backwardSearch(long, long) backward search}.
+ */
+
+public class SuccinctTree implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/** The underlying balanced parentheses. */
+	private final RangeMinBalancedParentheses balancedParentheses;
+	/** The underlying bit vector. */
+	private final BitVector bitVector;
+	/** The length of {@link #bitVector}. */
+	private final long length;
+
+	/** Creates a new succinct tree using the specified bit vector.
+	 *
+	 * @param bitVector a bit vector containing the balanced-parentheses representation of a (nonempty) tree.
+	 */
+	public SuccinctTree(final BitVector bitVector) {
+		this(new RangeMinBalancedParentheses(bitVector));
+	}
+
+	/** Creates a new succinct tree using the specified balanced parentheses.
+	 *
+	 * @param balancedParentheses a balanced-parentheses structure representing a (nonempty) tree.
+	 */
+	public SuccinctTree(final RangeMinBalancedParentheses balancedParentheses) {
+		this.balancedParentheses = balancedParentheses;
+		this.bitVector = balancedParentheses.bitVector();
+		this.length = bitVector.length();
+		if (length == 0 || balancedParentheses.findClose(0) != length - 1) throw new IllegalArgumentException("The balanced parentheses do not represent a tree");
+	}
+
+	/** Returns the root.
+	 *
+	 * @return the root (always 0).
+	 */
+	public long root() {
+		return 0;
+	}
+
+	/** Returns the number of nodes.
+	 *
+	 * @return the number of nodes.
+	 */
+	public long numNodes() {
+		return length / 2;
+	}
+
+	/** Returns the parent of a node.
+	 *
+	 * @param node a node.
+	 * @return the parent of {@code node}, or -1 if {@code node} is the root.
+	 */
+	public long parent(final long node) {
+		return balancedParentheses.enclose(node);
+	}
+
+	/** Returns the first child of a node.
+	 *
+	 * @param node a node.
+	 * @return the first child of {@code node}, or -1 if {@code node} is a leaf.
+	 */
+	public long firstChild(final long node) {
+		return bitVector.getBoolean(node + 1) ? node + 1 : -1;
+	}
+
+	/** Returns the next sibling of a node.
+	 *
+	 * @param node a node.
+	 * @return the next sibling of {@code node}, or -1 if {@code node} is the last child of its parent.
+	 */
+	public long nextSibling(final long node) {
+		final long next = balancedParentheses.findClose(node) + 1;
+		return next < length && bitVector.getBoolean(next) ? next : -1;
+	}
+
+	/** Returns whether a node is a leaf.
+	 *
+	 * @param node a node.
+	 * @return true if {@code node} is a leaf.
+	 */
+	public boolean isLeaf(final long node) {
+		return ! bitVector.getBoolean(node + 1);
+	}
+
+	/** Returns the number of nodes in the subtree rooted at a node.
+	 *
+	 * @param node a node.
+	 * @return the number of nodes in the subtree rooted at {@code node} (including {@code node}).
+	 */
+	public long subtreeSize(final long node) {
+		return (balancedParentheses.findClose(node) - node + 1) / 2;
+	}
+
+	/** Returns the depth of a node.
+	 *
+	 * @param node a node.
+	 * @return the depth of {@code node} (the root has depth 0).
+	 */
+	public long depth(final long node) {
+		return balancedParentheses.excess(node);
+	}
+
+	/** Returns the preorder index of a node.
+	 *
+	 * @param node a node.
+	 * @return the index of {@code node} in preorder (the root has index 0).
+	 */
+	public long preorder(final long node) {
+		return (node + balancedParentheses.excess(node)) / 2;
+	}
+
+	/** Returns whether a node is an ancestor of another node.
+	 *
+	 * @param ancestor a node.
+	 * @param node a node.
+	 * @return true if {@code ancestor} is an ancestor of {@code node}; a node is an ancestor of itself.
+	 */
+	public boolean isAncestor(final long ancestor, final long node) {
+		return ancestor <= node && node <= balancedParentheses.findClose(ancestor);
+	}
+
+	/** Returns the lowest common ancestor of two nodes.
+	 *
+	 * @param u a node.
+	 * @param v a node.
+	 * @return the lowest common ancestor of {@code u} and {@code v}.
+	 */
+	public long lca(long u, long v) {
+		if (u > v) {
+			final long t = u;
+			u = v;
+			v = t;
+		}
+		if (isAncestor(u, v)) return u;
+		// The minimum excess is attained at the open parenthesis of the child of the ancestor containing v
+		return balancedParentheses.backwardSearch(u, balancedParentheses.rangeMinExcess(u, v) - 1);
+	}
+
+	/** Returns the underlying balanced parentheses.
+	 *
+	 * @return the underlying balanced parentheses.
+	 */
+	public RangeMinBalancedParentheses balancedParentheses() {
+		return balancedParentheses;
+	}
+
+	/** Returns the number of bits used by this structure.
+	 *
+	 * @return the number of bits used by this structure.
+	 */
+	public long numBits() {
+		return balancedParentheses.numBits();
+	}
+}
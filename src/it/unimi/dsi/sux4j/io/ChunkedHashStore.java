@@ -33,6 +33,10 @@ import java.nio.channels.WritableByteChannel;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.collections.Predicate;
 import org.apache.commons.math3.random.RandomGenerator;
@@ -43,6 +47,8 @@ import it.unimi.dsi.Util;
 import it.unimi.dsi.bits.LongArrayBitVector;
 import it.unimi.dsi.bits.TransformationStrategy;
 import it.unimi.dsi.fastutil.longs.AbstractLongBigList;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongMaps;
 import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongBigList;
 import it.unimi.dsi.fastutil.longs.LongBigLists;
@@ -106,6 +112,8 @@ import it.unimi.dsi.util.XoRoShiRo128PlusRandomGenerator;
  *
  * <p>If you specify so {@linkplain #ChunkedHashStore(TransformationStrategy, File, int, ProgressLogger) at construction time},
  * a chunked hash store will compute for you a {@linkplain #value2FrequencyMap() a map from values to their frequency}.
+ * Frequencies are not counted while adding elements: rather, when the map is requested for the first time
+ * the values stored in each disk chunk are counted in parallel, and the resulting maps are merged.
  *
  * <h2>Implementation details</h2>
  *
@@ -200,7 +208,9 @@ public class ChunkedHashStore<T> implements Serializable, SafelyCloseable, Itera
 	private boolean closed;
 	/** The wall time spent during quicksort. */
 	private long quickSortWallTime;
-	/** The optional map from values to count. */
+	/** Whether this store can compute a value frequency map. */
+	private final boolean countValues;
+	/** The value frequency map computed by {@link #value2FrequencyMap()}, or {@code null} if it must be (re)computed. */
 	private Long2LongOpenHashMap value2FrequencyMap;
 
 	/** Creates a chunked hash store with given transformation strategy.
@@ -257,7 +267,7 @@ public class ChunkedHashStore<T> implements Serializable, SafelyCloseable, Itera
 		this.tempDir = tempDir;
 
 		this.hashMask = hashWidthOrCountValues <= 0 ? 0 : -1L >>> Long.SIZE - hashWidthOrCountValues;
-		if (hashWidthOrCountValues < 0) value2FrequencyMap = new Long2LongOpenHashMap();
+		countValues = hashWidthOrCountValues < 0;
 
 		file = new File[DISK_CHUNKS];
 		writableByteChannel = new WritableByteChannel[DISK_CHUNKS];
@@ -317,11 +327,15 @@ public class ChunkedHashStore<T> implements Serializable, SafelyCloseable, Itera
 	}
 
 	/** Adds a triple to this store.
+	 *
+	 * <p>This method makes it possible to compute triples outside of the store (e.g., in parallel):
+	 * the triple must have been generated by {@link Hashes#spooky4(it.unimi.dsi.bits.BitVector, long, long[])}
+	 * using the seed passed to the last call to {@link #reset(long)}.
 	 *
 	 * @param triple the triple to be added.
 	 * @param value the associated value.
 	 */
-	private void add(final long[] triple, final long value) throws IOException {
+	public void add(final long[] triple, final long value) throws IOException {
 		final int chunk = (int)(triple[0] >>> DISK_CHUNKS_SHIFT);
 		count[chunk]++;
 		checkedForDuplicates = false;
@@ -331,7 +345,7 @@ public class ChunkedHashStore<T> implements Serializable, SafelyCloseable, Itera
 		writeLong(triple[2], byteBuffer[chunk], writableByteChannel[chunk]);
 		if (hashMask == 0) writeLong(value, byteBuffer[chunk], writableByteChannel[chunk]);
 		if (filteredSize != -1 && (filter == null || filter.evaluate(triple))) filteredSize++;
-		if (value2FrequencyMap != null) value2FrequencyMap.addTo(value, 1);
+		value2FrequencyMap = null;
 		size++;
 	}
 
@@ -417,18 +431,80 @@ public class ChunkedHashStore<T> implements Serializable, SafelyCloseable, Itera
 	/** Clears this store. After a call to this method, the store can be reused. */
 	public void clear() throws IOException {
 		locked = false;
-		if (value2FrequencyMap != null) value2FrequencyMap = new Long2LongOpenHashMap();
 		reset(0);
 	}
 
 	/** Return the current value frequency map.
+	 *
+	 * <p>The map is computed by counting in parallel the values in each disk chunk, and then merging the
+	 * resulting maps; it is cached until the store is modified. The number of threads is the same
+	 * used by {@link GOV3Function}. No frequency data is kept in memory during ingestion, as values
+	 * are read back from the disk chunks; the merged map, however, lives on the heap, as it is
+	 * the input of the codec builders.
 	 *
 	 * @return the current value frequency map.
 	 * @throws IllegalStateException if this chunked hash store does not contain a value frequency map.
+	 * @throws RuntimeException wrapping an {@link IOException} if reading the disk chunks fails.
 	 */
 	public Long2LongOpenHashMap value2FrequencyMap() {
-		if (value2FrequencyMap == null) throw new IllegalStateException("This chunked hash store does not contain a value frequency map");
-		return value2FrequencyMap;
+		if (! countValues) throw new IllegalStateException("This chunked hash store does not contain a value frequency map");
+		if (value2FrequencyMap != null) return value2FrequencyMap;
+
+		try {
+			flushAll();
+		}
+		catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+		final int numberOfThreads = Math.min(DISK_CHUNKS, Integer.parseInt(System.getProperty(GOV3Function.NUMBER_OF_THREADS_PROPERTY, Integer.toString(Math.min(16, Runtime.getRuntime().availableProcessors())))));
+		final ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+		final ExecutorCompletionService<Long2LongOpenHashMap> executorCompletionService = new ExecutorCompletionService<>(executorService);
+
+		for(int i = 0; i < DISK_CHUNKS; i++) {
+			final int chunk = i;
+			executorCompletionService.submit(() -> {
+				final Long2LongOpenHashMap map = new Long2LongOpenHashMap();
+				final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.nativeOrder());
+				try (final ReadableByteChannel channel = new FileInputStream(file[chunk]).getChannel()) {
+					buffer.clear().flip();
+					for(int j = count[chunk]; j-- != 0;) {
+						// Skip the triple
+						readLong(buffer, channel);
+						readLong(buffer, channel);
+						readLong(buffer, channel);
+						map.addTo(readLong(buffer, channel), 1);
+					}
+				}
+				return map;
+			});
+		}
+
+		Long2LongOpenHashMap result = new Long2LongOpenHashMap();
+		try {
+			for(int i = DISK_CHUNKS; i-- != 0;) {
+				Long2LongOpenHashMap map = executorCompletionService.take().get();
+				// We merge the smaller map into the larger one
+				if (map.size() > result.size()) {
+					final Long2LongOpenHashMap t = map;
+					map = result;
+					result = t;
+				}
+				for(final Long2LongMap.Entry e : Long2LongMaps.fastIterable(map)) result.addTo(e.getLongKey(), e.getLongValue());
+			}
+		}
+		catch(final InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+		catch(final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+			throw new RuntimeException(cause);
+		}
+		finally {
+			executorService.shutdownNow();
+		}
+
+		return value2FrequencyMap = result;
 	}
 
 	private static void writeLong(final long value, final ByteBuffer byteBuffer, final WritableByteChannel channel) throws IOException {
@@ -519,6 +595,7 @@ public class ChunkedHashStore<T> implements Serializable, SafelyCloseable, Itera
 		filteredSize = 0;
 		this.seed = seed;
 		checkedForDuplicates = false;
+		value2FrequencyMap = null;
 		Arrays.fill(count, 0);
 		for (int i = 0; i < DISK_CHUNKS; i++) {
 			writableByteChannel[i].close();
@@ -0,0 +1,184 @@
+package it.unimi.dsi.sux4j.io;
+
+/*
+ * Sux4J: Succinct data structures for Java
+ *
+ * Copyright (C) 2008-2017 Sebastiano Vigna
+ *
+ *  This library is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *
+ *  This library is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ *  or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ *  for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+
+import it.unimi.dsi.fastutil.io.FastBufferedInputStream.LineTerminator;
+import it.unimi.dsi.lang.MutableString;
+import it.unimi.dsi.sux4j.util.EliasFanoMonotoneLongBigList;
+
+/** A thread-safe, lock-free reader of the lines of a file, used by {@link FileLinesList} and {@link FileLinesBigList} in concurrent mode.
+ *
+ * <p>Lines are read using positional reads on a {@link FileChannel}, which is opened lazily (in particular,
+ * after deserialization), and decoded using thread-local buffers.
+ */
+
+final class ConcurrentLineReader implements Serializable, Closeable {
+	private static final long serialVersionUID = 1L;
+	/** The filename upon which this reader is based. */
+	private final String filename;
+	/** The name of the charset used to decode lines. */
+	private final String encoding;
+	/** The number of lines. */
+	private final long size;
+	/** The length of the file. */
+	private final long fileLength;
+	/** The terminators that must be used to separate the file lines. */
+	private final EnumSet<LineTerminator> terminators;
+	/** A sparse selection structure keeping track of the start of each line in the file. */
+	private final EliasFanoMonotoneLongBigList borders;
+	/** The initial size of the thread-local buffers. */
+	private final int bufferLength;
+	/** The file channel, or {@code null} if it has not been opened yet. */
+	private transient volatile FileChannel fileChannel;
+	/** The thread-local buffers. */
+	private transient ThreadLocal<DecodingBuffers> decodingBuffers;
+
+	/** A set of buffers used by a thread to read lines. */
+	private final static class DecodingBuffers {
+		/** A byte buffer for character decoding. */
+		private ByteBuffer byteBuffer;
+		/** A character buffer for character decoding. */
+		private CharBuffer charBuffer;
+		/** A decoder used exclusively by a thread. */
+		private final CharsetDecoder decoder;
+
+		private DecodingBuffers(final CharsetDecoder decoder, final int size) {
+			this.decoder = decoder;
+			byteBuffer = ByteBuffer.wrap(new byte[size]);
+			charBuffer = CharBuffer.wrap(new char[size]);
+		}
+	}
+
+	/** Creates a concurrent line reader.
+	 *
+	 * @param filename a filename.
+	 * @param charset the charset used to decode lines.
+	 * @param size the number of lines.
+	 * @param fileLength the length of the file.
+	 * @param terminators a set of line terminators.
+	 * @param borders the start of each line in the file.
+	 * @param maxLineLength the maximum length of a line in the file, excluding its terminator.
+	 */
+	ConcurrentLineReader(final String filename, final Charset charset, final long size, final long fileLength, final EnumSet<LineTerminator> terminators, final EliasFanoMonotoneLongBigList borders, final int maxLineLength) {
+		this.filename = filename;
+		this.encoding = charset.name();
+		this.size = size;
+		this.fileLength = fileLength;
+		this.terminators = terminators;
+		this.borders = borders;
+		// Lines read by positional reads include their terminator
+		this.bufferLength = maxLineLength + 2;
+		decodingBuffers = newDecodingBuffers();
+	}
+
+	private ThreadLocal<DecodingBuffers> newDecodingBuffers() {
+		final Charset charset = Charset.forName(encoding);
+		return ThreadLocal.withInitial(() -> new DecodingBuffers(charset.newDecoder(), bufferLength));
+	}
+
+	/** Returns the file channel, opening it if necessary.
+	 *
+	 * @return the file channel.
+	 */
+	private FileChannel fileChannel() throws IOException {
+		final FileChannel fileChannel = this.fileChannel;
+		if (fileChannel != null) return fileChannel;
+		synchronized(this) {
+			if (this.fileChannel == null) this.fileChannel = FileChannel.open(new File(filename).toPath(), StandardOpenOption.READ);
+			return this.fileChannel;
+		}
+	}
+
+	/** Returns a line using a positional read and thread-local buffers.
+	 *
+	 * @param index the index of a line.
+	 * @return the line of given index.
+	 */
+	public MutableString get(final long index) {
+		if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index (" + index + ") is not in [0.." + size + ")");
+		final long start = borders.getLong(index);
+		int length = (int)((index == size - 1 ? fileLength : borders.getLong(index + 1)) - start);
+		final DecodingBuffers buffers = decodingBuffers.get();
+		if (buffers.byteBuffer.capacity() < length) {
+			buffers.byteBuffer = ByteBuffer.wrap(new byte[length]);
+			buffers.charBuffer = CharBuffer.wrap(new char[length]);
+		}
+
+		final ByteBuffer byteBuffer = buffers.byteBuffer;
+		final CharBuffer charBuffer = buffers.charBuffer;
+		byteBuffer.clear();
+		byteBuffer.limit(length);
+		try {
+			final FileChannel fileChannel = fileChannel();
+			for(long position = start; byteBuffer.hasRemaining();) {
+				final int result = fileChannel.read(byteBuffer, position);
+				if (result == -1) throw new EOFException();
+				position += result;
+			}
+		}
+		catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+
+		// Strip the line terminator, if any (the last line might have none)
+		final byte[] a = byteBuffer.array();
+		if (length > 0) {
+			if (a[length - 1] == '\n') {
+				if (terminators.contains(LineTerminator.CR_LF) && length > 1 && a[length - 2] == '\r') length -= 2;
+				else if (terminators.contains(LineTerminator.LF)) length--;
+			}
+			else if (a[length - 1] == '\r' && terminators.contains(LineTerminator.CR)) length--;
+		}
+
+		byteBuffer.position(0);
+		byteBuffer.limit(length);
+		charBuffer.clear();
+		buffers.decoder.reset();
+		buffers.decoder.decode(byteBuffer, charBuffer, true);
+		return new MutableString(charBuffer.array(), 0, charBuffer.position());
+	}
+
+	/** Closes the file channel, if it has been opened. */
+	@Override
+	public synchronized void close() throws IOException {
+		if (fileChannel != null) fileChannel.close();
+	}
+
+	private void readObject(final ObjectInputStream s) throws IOException, ClassNotFoundException {
+		s.defaultReadObject();
+		// The file channel will be opened at the first access
+		decodingBuffers = newDecodingBuffers();
+	}
+}
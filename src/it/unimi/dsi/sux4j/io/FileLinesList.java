@@ -4,9 +4,11 @@ import java.io.Closeable;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.util.EnumSet;
@@ -64,6 +66,12 @@ import it.unimi.dsi.sux4j.util.EliasFanoMonotoneLongBigList;
  * streams, and can be accessed concurrently, but all calls to {@link #get(int)} refer to the
  * same input stream.
  *
+ * <p>If you need concurrent random access, you can create an instance in <em>concurrent mode</em> using
+ * {@link #FileLinesList(CharSequence, String, int, EnumSet, boolean)}: in this case, {@link #get(int)} reads lines using
+ * positional reads on a {@link FileChannel} and decodes them using thread-local buffers,
+ * so any number of threads can retrieve lines at the same time without contention. The file channel
+ * is opened lazily (e.g., after deserialization) and it is released by {@link #close()}.
+ *
  * <h2>Implementation details</h2>
  *
  * <p>Instances of this class perform a full scan of the specified file at construction time, representing
@@ -73,7 +81,7 @@ import it.unimi.dsi.sux4j.util.EliasFanoMonotoneLongBigList;
  * @author Sebastiano Vigna
  * @since 1.1
  */
-public class FileLinesList extends AbstractObjectList<MutableString> implements RandomAccess, Serializable {
+public class FileLinesList extends AbstractObjectList<MutableString> implements RandomAccess, Serializable, Closeable {
 	private static final long serialVersionUID = 1L;
 	/** The filename upon which this file-lines collection is based. */
 	private final String filename;
@@ -83,18 +91,26 @@ public class FileLinesList extends AbstractObjectList<MutableString> implements
 	private final int bufferSize;
 	/** The terminators that must be used to separate the file lines. */
 	private final EnumSet<LineTerminator> terminators;
+	/** The length of {@link #byteBuffer} and {@link #charBuffer}. */
+	private final int bufferLength;
 	/** A byte buffer for character decoding. It is enough large to hold any line in the file. */
-	private final ByteBuffer byteBuffer;
+	private transient ByteBuffer byteBuffer;
 	/** A character buffer for character decoding. It is enough large to hold any line in the file. */
-	private final CharBuffer charBuffer;
+	private transient CharBuffer charBuffer;
 	/** A sparse selection structure keeping track of the start of each line in the file. */
 	private final EliasFanoMonotoneLongBigList borders;
 	/** The fast buffered input stream used by {@link #get(int)}. */
-	private final FastBufferedInputStream inputStream;
+	private transient FastBufferedInputStream inputStream;
 	/** A decoder used by {@link #get(int)}. */
-	private final CharsetDecoder decoder;
+	private transient CharsetDecoder decoder;
+	/** The name of the charset specified at construction time. */
+	private final String encoding;
 	/** The charset specified at construction time. */
-	private final Charset charset;
+	private transient Charset charset;
+	/** The length of the file. */
+	private final long fileLength;
+	/** The reader used by {@link #get(int)} in concurrent mode, or {@code null}. */
+	private final ConcurrentLineReader concurrentLineReader;
 
 	/** Creates a file-lines collection for the specified filename with the specified encoding, buffer size and terminator set.
 	 *
@@ -104,9 +120,23 @@ public class FileLinesList extends AbstractObjectList<MutableString> implements
 	 * @param terminators a set of line terminators.
 	 */
 	public FileLinesList(final CharSequence filename, final String encoding, final int bufferSize, final EnumSet<FastBufferedInputStream.LineTerminator> terminators) throws IOException {
+		this(filename, encoding, bufferSize, terminators, false);
+	}
+
+	/** Creates a file-lines collection for the specified filename with the specified encoding, buffer size and terminator set,
+	 * possibly in concurrent mode.
+	 *
+	 * @param filename a filename.
+	 * @param encoding an encoding.
+	 * @param bufferSize the buffer size for {@link FastBufferedInputStream}.
+	 * @param terminators a set of line terminators.
+	 * @param concurrent if true, {@link #get(int)} will be thread safe and lock free.
+	 */
+	public FileLinesList(final CharSequence filename, final String encoding, final int bufferSize, final EnumSet<FastBufferedInputStream.LineTerminator> terminators, final boolean concurrent) throws IOException {
 		this.bufferSize = bufferSize;
 		this.terminators = terminators;
 		this.filename = filename.toString();
+		this.encoding = encoding;
 
 		inputStream = new FastBufferedInputStream(new FileInputStream(this.filename), bufferSize);
 		decoder = (charset = Charset.forName(encoding)).newDecoder();
@@ -125,11 +155,13 @@ public class FileLinesList extends AbstractObjectList<MutableString> implements
 		}
 
 		size = count;
+		bufferLength = array.length;
 		byteBuffer = ByteBuffer.wrap(array);
 		charBuffer = CharBuffer.wrap(new char[array.length]);
 
 		inputStream.position(0);
-		borders = new EliasFanoMonotoneLongBigList(count, inputStream.length(), new LongIterator() {
+		fileLength = inputStream.length();
+		borders = new EliasFanoMonotoneLongBigList(count, fileLength, new LongIterator() {
 			long pos = 0;
 			byte[] buffer = byteBuffer.array();
 
@@ -152,6 +184,8 @@ public class FileLinesList extends AbstractObjectList<MutableString> implements
 				}
 			}
 		});
+
+		concurrentLineReader = concurrent ? new ConcurrentLineReader(this.filename, charset, size, fileLength, terminators, borders, bufferLength) : null;
 	}
 
 	/** Creates a file-lines collection for the specified filename with the specified encoding, buffer size and with all terminators.
@@ -180,6 +214,7 @@ public class FileLinesList extends AbstractObjectList<MutableString> implements
 
 	@Override
 	public MutableString get(final int index) {
+		if (concurrentLineReader != null) return concurrentLineReader.get(index);
 		return get(index, inputStream, byteBuffer, charBuffer, decoder);
 	}
 
@@ -286,7 +321,7 @@ public class FileLinesList extends AbstractObjectList<MutableString> implements
 	@Override
 	public FileLinesIterator listIterator(final int index) {
 		try {
-			return new FileLinesIterator(this, index, new FastBufferedInputStream(new FileInputStream(filename), bufferSize), charset.newDecoder(), ByteBuffer.wrap(new byte[byteBuffer.array().length]), CharBuffer.wrap(new char[charBuffer.array().length]));
+			return new FileLinesIterator(this, index, new FastBufferedInputStream(new FileInputStream(filename), bufferSize), charset.newDecoder(), ByteBuffer.wrap(new byte[bufferLength]), CharBuffer.wrap(new char[bufferLength]));
 		}
 		catch (final FileNotFoundException e) {
 			throw new RuntimeException(e);
@@ -300,4 +335,25 @@ public class FileLinesList extends AbstractObjectList<MutableString> implements
 		for(final MutableString l: this) s.append(l).append(separator);
 		return s.toString();
 	}
+
+	/** Closes the file channel used in concurrent mode, if it has been opened, and the input stream used by {@link #get(int)}.
+	 * This list should not be accessed after closing it. */
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			inputStream.close();
+		}
+		finally {
+			if (concurrentLineReader != null) concurrentLineReader.close();
+		}
+	}
+
+	private void readObject(final ObjectInputStream s) throws IOException, ClassNotFoundException {
+		s.defaultReadObject();
+		charset = Charset.forName(encoding);
+		decoder = charset.newDecoder();
+		byteBuffer = ByteBuffer.wrap(new byte[bufferLength]);
+		charBuffer = CharBuffer.wrap(new char[bufferLength]);
+		inputStream = new FastBufferedInputStream(new FileInputStream(filename), bufferSize);
+	}
 }
@@ -0,0 +1,45 @@
+package it.unimi.dsi.sux4j.mph;
+
+/*
+ * Sux4J: Succinct data structures for Java
+ *
+ * Copyright (C) 2017 Sebastiano Vigna
+ *
+ *  This library is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *
+ *  This library is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ *  or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ *  for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+import it.unimi.dsi.bits.LongArrayBitVector;
+
+/** Static methods extracting bit ranges from arrays of longs, shared by compressed functions. */
+
+final class BitRanges {
+
+	private BitRanges() {}
+
+	/** Returns the bits of a bit array in a given range, assuming that the range is within the array.
+	 *
+	 * @param bits a bit array, in the format of {@link LongArrayBitVector#bits()}.
+	 * @param from the starting position of the range.
+	 * @param w the width of the range (at most {@link Long#SIZE}).
+	 * @param mask a mask containing the {@code w} lowest bits set.
+	 * @return the bits in the range [{@code from}..{@code from + w}), as in {@link LongArrayBitVector#getLong(long, long)}.
+	 */
+	static long getLong(final long[] bits, final long from, final int w, final long mask) {
+		final int word = (int)(from >>> LongArrayBitVector.LOG2_BITS_PER_WORD);
+		final int bit = (int)(from & LongArrayBitVector.WORD_MASK);
+		if (bit + w <= Long.SIZE) return bits[word] >>> bit & mask;
+		return (bits[word] >>> bit | bits[word + 1] << -bit) & mask;
+	}
+}
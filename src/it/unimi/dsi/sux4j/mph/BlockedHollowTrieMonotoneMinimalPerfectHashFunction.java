@@ -0,0 +1,321 @@
+package it.unimi.dsi.sux4j.mph;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.zip.GZIPInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.martiansoftware.jsap.FlaggedOption;
+import com.martiansoftware.jsap.JSAP;
+import com.martiansoftware.jsap.JSAPException;
+import com.martiansoftware.jsap.JSAPResult;
+import com.martiansoftware.jsap.Parameter;
+import com.martiansoftware.jsap.SimpleJSAP;
+import com.martiansoftware.jsap.Switch;
+import com.martiansoftware.jsap.UnflaggedOption;
+import com.martiansoftware.jsap.stringparsers.ForNameStringParser;
+
+/*
+ * Sux4J: Succinct data structures for Java
+ *
+ * Copyright (C) 2017 Sebastiano Vigna
+ *
+ *  This library is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *
+ *  This library is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ *  or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ *  for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+import it.unimi.dsi.bits.BitVector;
+import it.unimi.dsi.bits.Fast;
+import it.unimi.dsi.bits.HuTuckerTransformationStrategy;
+import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.bits.TransformationStrategies;
+import it.unimi.dsi.bits.TransformationStrategy;
+import it.unimi.dsi.fastutil.Size64;
+import it.unimi.dsi.fastutil.io.BinIO;
+import it.unimi.dsi.io.FastBufferedReader;
+import it.unimi.dsi.io.FileLinesCollection;
+import it.unimi.dsi.io.LineIterator;
+import it.unimi.dsi.lang.MutableString;
+import it.unimi.dsi.logging.ProgressLogger;
+import it.unimi.dsi.sux4j.bits.JacobsonBalancedParentheses;
+import it.unimi.dsi.sux4j.util.EliasFanoLongBigList;
+
+/** A hollow trie laid out for fast access.
+ *
+ * <p>This class computes the same function as a {@link HollowTrieMonotoneMinimalPerfectHashFunction}
+ * (in fact, it is built starting from one), but it trades space for speed. In a hollow trie, at each level of
+ * the descent we need to solve a {@link JacobsonBalancedParentheses#findClose(long) findClose()} query and to
+ * access an {@link EliasFanoLongBigList} of skips: for long keys, each lookup incurs thus in several
+ * dependent cache misses per level.
+ *
+ * <p>In this class, instead, the internal nodes of the trie are stored in preorder as fixed-width records
+ * containing the skip, two bits telling whether the children are internal nodes and the number
+ * of leaves of the left subtree (which is also the distance in records of the right child). Records
+ * are packed into blocks of {@value #BLOCK_SIZE} bits (the size of a typical cache line) and never
+ * cross a block boundary, so each level of the descent touches at most two cache lines (arrays of longs
+ * are not guaranteed to be aligned to cache lines), and
+ * left children, which are stored right after their parents, are usually in the same block.
+ *
+ * <p>The price to pay is that each internal node uses approximately the logarithm of the
+ * maximum skip plus the logarithm of the number of keys bits, instead of the few bits per key
+ * of a {@link HollowTrieMonotoneMinimalPerfectHashFunction}.
+ */
+
+public class BlockedHollowTrieMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFunction<T> implements Serializable, Size64 {
+	private static final Logger LOGGER = LoggerFactory.getLogger(BlockedHollowTrieMonotoneMinimalPerfectHashFunction.class);
+	private static final long serialVersionUID = 0L;
+
+	/** The size in bits of a block. */
+	public static final int BLOCK_SIZE = 512;
+	/** The mask for the flag telling whether the left child of a node is internal. */
+	private static final int LEFT_INTERNAL = 1;
+	/** The mask for the flag telling whether the right child of a node is internal. */
+	private static final int RIGHT_INTERNAL = 2;
+
+	/** The blocks containing the node records. */
+	protected final LongArrayBitVector blocks;
+	/** The width of the skip field of a record. */
+	private final int skipWidth;
+	/** The width of a record. */
+	private final int recordWidth;
+	/** The number of records in a block. */
+	private final int recordsPerBlock;
+	/** The transformation strategy. */
+	private final TransformationStrategy<? super T> transform;
+	/** The number of elements in this hollow trie. */
+	private final long size;
+
+	/** Creates a new blocked hollow trie for the given elements.
+	 *
+	 * @param iterable an iterable returning the elements, which must be lexicographically sorted and prefix-free.
+	 * @param transform a transformation strategy for the elements.
+	 */
+	public BlockedHollowTrieMonotoneMinimalPerfectHashFunction(final Iterable<? extends T> iterable, final TransformationStrategy<? super T> transform) {
+		this(iterable.iterator(), transform);
+	}
+
+	/** Creates a new blocked hollow trie for the given elements.
+	 *
+	 * @param iterator an iterator returning the elements, which must be lexicographically sorted and prefix-free.
+	 * @param transform a transformation strategy for the elements.
+	 */
+	public BlockedHollowTrieMonotoneMinimalPerfectHashFunction(final Iterator<? extends T> iterator, final TransformationStrategy<? super T> transform) {
+		this(new HollowTrieMonotoneMinimalPerfectHashFunction<>(iterator, transform));
+	}
+
+	/** Creates a new blocked hollow trie computing the same function of a given hollow trie.
+	 *
+	 * @param hollowTrie a hollow trie.
+	 */
+	public BlockedHollowTrieMonotoneMinimalPerfectHashFunction(final HollowTrieMonotoneMinimalPerfectHashFunction<T> hollowTrie) {
+		transform = hollowTrie.transform;
+		size = hollowTrie.size64();
+		defRetValue = -1;
+
+		if (size <= 1) {
+			blocks = LongArrayBitVector.getInstance(0);
+			skipWidth = recordWidth = recordsPerBlock = 0;
+			return;
+		}
+
+		final long numNodes = size - 1;
+		final EliasFanoLongBigList skips = hollowTrie.skips;
+		final LongArrayBitVector trie = hollowTrie.trie;
+		final JacobsonBalancedParentheses balParen = hollowTrie.balParen;
+		assert skips.size64() == numNodes;
+		assert trie.length() == 2 * numNodes + 2;
+
+		long maxSkip = 0;
+		for (long i = 0; i < numNodes; i++) maxSkip = Math.max(maxSkip, skips.getLong(i));
+
+		skipWidth = Fast.length(maxSkip);
+		recordWidth = skipWidth + 2 + Fast.length(size);
+		if (recordWidth - skipWidth > Long.SIZE) throw new IllegalArgumentException("Too many keys: " + size);
+		recordsPerBlock = BLOCK_SIZE / recordWidth;
+
+		final long numBlocks = (numNodes + recordsPerBlock - 1) / recordsPerBlock;
+		blocks = LongArrayBitVector.ofLength(numBlocks * BLOCK_SIZE);
+		final long[] bits = blocks.bits();
+
+		final ProgressLogger pl = new ProgressLogger(LOGGER);
+		pl.itemsName = "nodes";
+		pl.expectedUpdates = numNodes;
+		pl.start("Laying out nodes...");
+
+		// Internal nodes are the open parentheses (but the first, fake one), in preorder
+		long node = 0;
+		for (long p = 1; p < trie.length() - 1; p++) {
+			if (! trie.getBoolean(p)) continue;
+			final long q = balParen.findClose(p) + 1;
+			final long leftLeaves = (q - p) / 2;
+			final long pos = position(node);
+			setBits(bits, pos, skipWidth, skips.getLong(node));
+			setBits(bits, pos + skipWidth, recordWidth - skipWidth, leftLeaves << 2 | (trie.getBoolean(q) ? RIGHT_INTERNAL : 0) | (trie.getBoolean(p + 1) ? LEFT_INTERNAL : 0));
+			node++;
+			pl.lightUpdate();
+		}
+
+		pl.done();
+		assert node == numNodes;
+
+		LOGGER.info("Record width: " + recordWidth + " (skip width: " + skipWidth + ")");
+		LOGGER.info("Actual bit cost per element: " + (double)numBits() / size);
+	}
+
+	/** Stores a value in a zeroed bit field.
+	 *
+	 * @param bits an array of longs.
+	 * @param pos the starting position of the field.
+	 * @param width the width of the field (at most {@link Long#SIZE}).
+	 * @param value a value fitting {@code width} bits.
+	 */
+	private static void setBits(final long[] bits, final long pos, final int width, final long value) {
+		final int word = (int)(pos / Long.SIZE);
+		final int bit = (int)(pos % Long.SIZE);
+		bits[word] |= value << bit;
+		if (bit + width > Long.SIZE) bits[word + 1] |= value >>> Long.SIZE - bit;
+	}
+
+	/** Returns the position of the record of a node.
+	 *
+	 * @param node a node (i.e., its index in preorder).
+	 * @return the position in {@link #blocks} of the record of {@code node}.
+	 */
+	private long position(final long node) {
+		return node / recordsPerBlock * BLOCK_SIZE + node % recordsPerBlock * recordWidth;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public long getLong(final Object object) {
+		if (size <= 1) return size - 1;
+		final BitVector bitVector = transform.toBitVector((T)object).fast();
+		final long length = bitVector.length();
+		long index = 0;
+		long s = 0, node = 0;
+
+		for (;;) {
+			final long pos = position(node);
+			if ((s += blocks.getLong(pos, pos + skipWidth)) >= length) return defRetValue;
+			final long data = blocks.getLong(pos + skipWidth, pos + recordWidth);
+
+			if (bitVector.getBoolean(s)) {
+				final long leftLeaves = data >>> 2;
+				index += leftLeaves;
+				if ((data & RIGHT_INTERNAL) == 0) return index;
+				node += leftLeaves;
+			}
+			else {
+				if ((data & LEFT_INTERNAL) == 0) return index;
+				node++;
+			}
+
+			s++;
+		}
+	}
+
+	/** Returns the number of internal nodes visited by {@link #getLong(Object)}.
+	 *
+	 * <p>This method is mainly useful for diagnostic and benchmarking purposes.
+	 *
+	 * @param object a key.
+	 * @return the number of internal nodes visited when looking up {@code object}.
+	 */
+	@SuppressWarnings("unchecked")
+	public int depth(final Object object) {
+		if (size <= 1) return 0;
+		final BitVector bitVector = transform.toBitVector((T)object).fast();
+		final long length = bitVector.length();
+		long s = 0, node = 0;
+
+		for (int depth = 1;; depth++) {
+			final long pos = position(node);
+			if ((s += blocks.getLong(pos, pos + skipWidth)) >= length) return depth;
+			final long data = blocks.getLong(pos + skipWidth, pos + recordWidth);
+
+			if (bitVector.getBoolean(s)) {
+				if ((data & RIGHT_INTERNAL) == 0) return depth;
+				node += data >>> 2;
+			}
+			else {
+				if ((data & LEFT_INTERNAL) == 0) return depth;
+				node++;
+			}
+
+			s++;
+		}
+	}
+
+	@Override
+	public long size64() {
+		return size;
+	}
+
+	public long numBits() {
+		return blocks.length() + transform.numBits();
+	}
+
+	public static void main(final String[] arg) throws NoSuchMethodException, IOException, JSAPException {
+
+		final SimpleJSAP jsap = new SimpleJSAP(BlockedHollowTrieMonotoneMinimalPerfectHashFunction.class.getName(), "Builds a monotone minimal perfect hash function based on a blocked hollow trie reading a newline-separated list of strings.",
+				new Parameter[] {
+						new FlaggedOption("encoding", ForNameStringParser.getParser(Charset.class), "UTF-8", JSAP.NOT_REQUIRED, 'e', "encoding", "The string file encoding."),
+						new Switch("huTucker", 'h', "hu-tucker", "Use Hu-Tucker coding to reduce string length."),
+						new Switch("iso", 'i', "iso", "Use ISO-8859-1 coding internally (i.e., just use the lower eight bits of each character)."),
+						new Switch("utf32", JSAP.NO_SHORTFLAG, "utf-32", "Use UTF-32 internally (handles surrogate pairs)."),
+						new Switch("zipped", 'z', "zipped", "The string list is compressed in gzip format."),
+						new UnflaggedOption("trie", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "The filename for the serialised blocked hollow trie."),
+						new UnflaggedOption("stringFile", JSAP.STRING_PARSER, "-", JSAP.NOT_REQUIRED, JSAP.NOT_GREEDY,
+								"The name of a file containing a newline-separated list of strings, or - for standard input; in the first case, strings will not be loaded into core memory."),
+				});
+
+		final JSAPResult jsapResult = jsap.parse(arg);
+		if (jsap.messagePrinted()) return;
+
+		final String trieName = jsapResult.getString("trie");
+		final String stringFile = jsapResult.getString("stringFile");
+		final Charset encoding = (Charset)jsapResult.getObject("encoding");
+		final boolean zipped = jsapResult.getBoolean("zipped");
+		final boolean iso = jsapResult.getBoolean("iso");
+		final boolean huTucker = jsapResult.getBoolean("huTucker");
+		final boolean utf32 = jsapResult.getBoolean("utf32");
+
+		final Collection<MutableString> collection;
+		if ("-".equals(stringFile)) {
+			final ProgressLogger pl = new ProgressLogger(LOGGER);
+			pl.displayLocalSpeed = true;
+			pl.displayFreeMemory = true;
+			pl.start("Loading strings...");
+			collection = new LineIterator(new FastBufferedReader(new InputStreamReader(zipped ? new GZIPInputStream(System.in) : System.in, encoding)), pl).allLines();
+			pl.done();
+		}
+		else collection = new FileLinesCollection(stringFile, encoding.toString(), zipped);
+		final TransformationStrategy<CharSequence> transformationStrategy = huTucker
+				? new HuTuckerTransformationStrategy(collection, true)
+				: iso
+					? TransformationStrategies.prefixFreeIso()
+					: utf32
+						? TransformationStrategies.prefixFreeUtf32()
+						: TransformationStrategies.prefixFreeUtf16();
+
+		BinIO.storeObject(new BlockedHollowTrieMonotoneMinimalPerfectHashFunction<CharSequence>(collection, transformationStrategy), trieName);
+		LOGGER.info("Completed.");
+	}
+}
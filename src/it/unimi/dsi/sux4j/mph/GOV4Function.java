@@ -29,6 +29,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
@@ -437,12 +438,15 @@ public class GOV4Function<T> extends AbstractObject2LongFunction<T> implements S
 				final ReorderingBlockingQueue<LongArrayBitVector> queue = new ReorderingBlockingQueue<>(numberOfThreads * 128);
 				final ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads + 2);
 				final ExecutorCompletionService<Void> executorCompletionService = new ExecutorCompletionService<>(executorService);
+				// Solution bit vectors are recycled once they have been consumed
+				final ConcurrentLinkedQueue<LongArrayBitVector> bitVectorPool = new ConcurrentLinkedQueue<>();
 
 				executorCompletionService.submit(() -> {
 					for(;;) {
 						final LongArrayBitVector data = queue.take();
 						if (data == END_OF_SOLUTION_QUEUE) return null;
 						offlineData.add(data);
+						bitVectorPool.offer(data);
 					}
 				});
 
@@ -472,6 +476,8 @@ public class GOV4Function<T> extends AbstractObject2LongFunction<T> implements S
 				for(int i = numberOfThreads; i-- != 0;) executorCompletionService.submit(() -> {
 					Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
 					long chunkTime = 0, outputTime = 0;
+					// Each thread resets and reuses the same solver for all its chunks
+					final Linear4SystemSolver solver = new Linear4SystemSolver(0, 0);
 					for(;;) {
 						long start = System.nanoTime();
 						final Chunk chunk = chunkQueue.take();
@@ -483,8 +489,7 @@ public class GOV4Function<T> extends AbstractObject2LongFunction<T> implements S
 							return null;
 						}
 						long seed = 0;
-						final Linear4SystemSolver solver =
-								new Linear4SystemSolver((int) (offsetAndSeed[chunk.index() + 1] - offsetAndSeed[chunk.index()] & OFFSET_MASK), chunk.size());
+						solver.reset((int) (offsetAndSeed[chunk.index() + 1] - offsetAndSeed[chunk.index()] & OFFSET_MASK), chunk.size());
 
 						for(;;) {
 							final boolean solved = solver.generateAndSolve(chunk, seed, chunk.valueList(indirect ? values : null));
@@ -498,7 +503,9 @@ public class GOV4Function<T> extends AbstractObject2LongFunction<T> implements S
 							offsetAndSeed[chunk.index()] |= seed;
 						}
 
-						final LongArrayBitVector dataBitVector = LongArrayBitVector.getInstance();
+						LongArrayBitVector dataBitVector = bitVectorPool.poll();
+						if (dataBitVector == null) dataBitVector = LongArrayBitVector.getInstance();
+						else dataBitVector.length(0);
 						final LongBigList data = dataBitVector.asLongBigList(width);
 						for(final long l : solver.solution) data.add(l);
 
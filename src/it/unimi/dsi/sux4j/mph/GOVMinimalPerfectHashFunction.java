@@ -29,6 +29,7 @@ import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
@@ -361,12 +362,15 @@ public class GOVMinimalPerfectHashFunction<T> extends AbstractHashFunction<T> im
 				final ReorderingBlockingQueue<LongArrayBitVector> queue = new ReorderingBlockingQueue<>(numberOfThreads * 128);
 				final ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads + 2);
 				final ExecutorCompletionService<Void> executorCompletionService = new ExecutorCompletionService<>(executorService);
+				// Solution bit vectors are recycled once they have been consumed
+				final ConcurrentLinkedQueue<LongArrayBitVector> bitVectorPool = new ConcurrentLinkedQueue<>();
 
 				executorCompletionService.submit(() -> {
 					for(;;) {
 						final LongArrayBitVector data = queue.take();
 						if (data == END_OF_SOLUTION_QUEUE) return null;
 						bitVector.append(data);
+						bitVectorPool.offer(data);
 					}
 				});
 
@@ -395,6 +399,8 @@ public class GOVMinimalPerfectHashFunction<T> extends AbstractHashFunction<T> im
 					Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
 					long chunkTime = 0;
 					final long outputTime = 0;
+					// Each thread resets and reuses the same solver for all its chunks
+					final Linear3SystemSolver solver = new Linear3SystemSolver(0, 0);
 					for(;;) {
 						final long start = System.nanoTime();
 						final Chunk chunk = chunkQueue.take();
@@ -408,8 +414,7 @@ public class GOVMinimalPerfectHashFunction<T> extends AbstractHashFunction<T> im
 						long seed = 0;
 
 						final long off = vertexOffset(edgeOffsetAndSeed[chunk.index()]);
-						final Linear3SystemSolver solver =
-								new Linear3SystemSolver((int)(vertexOffset(edgeOffsetAndSeed[chunk.index() + 1]) - off), chunk.size());
+						solver.reset((int)(vertexOffset(edgeOffsetAndSeed[chunk.index() + 1]) - off), chunk.size());
 
 						for(;;) {
 							final boolean solved = solver.generateAndSolve(chunk, seed, null);
@@ -425,7 +430,9 @@ public class GOVMinimalPerfectHashFunction<T> extends AbstractHashFunction<T> im
 						}
 
 						final long[] solution = solver.solution;
-						final LongArrayBitVector dataBitVector = LongArrayBitVector.ofLength(solution.length * 2);
+						LongArrayBitVector dataBitVector = bitVectorPool.poll();
+						if (dataBitVector == null) dataBitVector = LongArrayBitVector.ofLength(solution.length * 2);
+						else dataBitVector.length(solution.length * 2);
 						final LongBigList dataList = dataBitVector.asLongBigList(2);
 						for(int j = 0; j < solution.length; j++) dataList.set(j, solution[j]);
 						queue.put(dataBitVector, chunk.index());
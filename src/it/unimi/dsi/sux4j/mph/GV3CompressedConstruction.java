@@ -0,0 +1,286 @@
+package it.unimi.dsi.sux4j.mph;
+
+/*
+ * Sux4J: Succinct data structures for Java
+ *
+ * Copyright (C) 2017 Sebastiano Vigna
+ *
+ *  This library is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *
+ *  This library is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ *  or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ *  for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.math3.util.Pair;
+import org.slf4j.Logger;
+
+import it.unimi.dsi.Util;
+import it.unimi.dsi.bits.BitVector;
+import it.unimi.dsi.bits.BitVectors;
+import it.unimi.dsi.bits.Fast;
+import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.bits.TransformationStrategy;
+import it.unimi.dsi.fastutil.longs.LongBigList;
+import it.unimi.dsi.fastutil.longs.LongIterable;
+import it.unimi.dsi.io.OfflineIterable;
+import it.unimi.dsi.io.OfflineIterable.OfflineIterator;
+import it.unimi.dsi.logging.ProgressLogger;
+import it.unimi.dsi.sux4j.io.ChunkedHashStore;
+import it.unimi.dsi.sux4j.io.ChunkedHashStore.Chunk;
+import it.unimi.dsi.sux4j.io.ChunkedHashStore.DuplicateException;
+import it.unimi.dsi.sux4j.mph.codec.Codec;
+import it.unimi.dsi.sux4j.mph.solve.Linear3SystemSolver;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
+import it.unimi.dsi.util.concurrent.ReorderingBlockingQueue;
+
+/** The construction of a {@link GV3CompressedMultiFunction}, of which a {@link GV3CompressedFunction} is the single-column case.
+ *
+ * <p>An instance builds (if necessary) a {@link ChunkedHashStore}; once the coders of the columns are known,
+ * {@link #solve(LongIterable[], Codec.Coder[])} computes in parallel the data of each chunk, retrying with a new store
+ * in case of duplicates, and sets {@link #chunkShift}, {@link #globalSeed}, {@link #offsetAndSeed} and {@link #data}.
+ * Messages are logged using the logger of the {@link ProgressLogger} provided at construction time.
+ */
+
+final class GV3CompressedConstruction<T> {
+	private static final LongArrayBitVector END_OF_SOLUTION_QUEUE = LongArrayBitVector.getInstance();
+	private static final Pair<Chunk, Integer> END_OF_CHUNK_QUEUE = new Pair<>(new Chunk(), Integer.valueOf(0));
+	/** The local seed is generated using this step, so to be easily embeddable in {@link #offsetAndSeed}. */
+	private static final long SEED_STEP = 1L << Long.SIZE - GV3CompressedFunction.SEED_BITS;
+
+	/** The keys, or {@code null}. */
+	private final Iterable<? extends T> keys;
+	/** The values associated with the keys in {@link #chunkedHashStore}, or {@code null} if it associates ranks with keys. */
+	private final LongIterable storeValues;
+	/** Whether {@link #chunkedHashStore} was provided at construction time, and thus must not be closed. */
+	private final boolean givenChunkedHashStore;
+	private final ProgressLogger pl;
+	private final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom();
+
+	/** The store containing the keys. */
+	final ChunkedHashStore<T> chunkedHashStore;
+	/** The shift for chunks. */
+	int chunkShift;
+	/** The seed used to generate the initial hash triple. */
+	long globalSeed;
+	/** The offset and seed of each chunk, as in {@link GV3CompressedFunction#offsetAndSeed}. */
+	long[] offsetAndSeed;
+	/** The solutions of all chunks, concatenated. */
+	LongArrayBitVector data;
+
+	/** Creates a new construction, building a store if necessary.
+	 *
+	 * @param keys the keys in the domain of the function, or {@code null}.
+	 * @param transform a transformation strategy for the keys.
+	 * @param storeValues the values to be associated with the keys in a newly built store, or {@code null} to associate ranks.
+	 * @param tempDir a temporary directory for the store files, or {@code null} for the standard temporary directory.
+	 * @param chunkedHashStore a chunked hash store containing the keys, or {@code null}; the store can be unchecked,
+	 * but in this case <code>keys</code> must be non-{@code null}.
+	 * @param pl a progress logger.
+	 */
+	@SuppressWarnings("resource")
+	GV3CompressedConstruction(final Iterable<? extends T> keys, final TransformationStrategy<? super T> transform, final LongIterable storeValues, final File tempDir, ChunkedHashStore<T> chunkedHashStore, final ProgressLogger pl) throws IOException {
+		this.keys = keys;
+		this.storeValues = storeValues;
+		this.pl = pl;
+		givenChunkedHashStore = chunkedHashStore != null;
+		if (!givenChunkedHashStore) {
+			if (keys == null) throw new IllegalArgumentException("If you do not provide a chunked hash store, you must provide the keys");
+			chunkedHashStore = new ChunkedHashStore<>(transform, tempDir, -1, pl);
+			addAll(chunkedHashStore);
+		}
+		this.chunkedHashStore = chunkedHashStore;
+	}
+
+	private void addAll(final ChunkedHashStore<T> chunkedHashStore) throws IOException {
+		chunkedHashStore.reset(r.nextLong());
+		pl.itemsName = "keys";
+		if (storeValues == null) chunkedHashStore.addAll(keys.iterator());
+		else chunkedHashStore.addAll(keys.iterator(), storeValues.iterator());
+	}
+
+	/** Computes the data of all chunks.
+	 *
+	 * <p>The window of bits associated with a key is the concatenation of the windows of all columns, each
+	 * as wide as the maximum codeword length of the column.
+	 *
+	 * @param values the columns, each a {@link it.unimi.dsi.fastutil.longs.LongList LongList} or a {@link LongBigList} indexed by the ranks stored
+	 * in {@link #chunkedHashStore}, or {@code null} to use the values stored in {@link #chunkedHashStore}.
+	 * @param coder the coders, one per column.
+	 */
+	void solve(final LongIterable[] values, final Codec.Coder[] coder) throws IOException {
+		final Logger logger = pl.logger;
+		final int numColumns = values.length;
+		int w = 0;
+		for (final Codec.Coder c : coder) w += c.maxCodewordLength();
+		final int globalWidth = w;
+
+		final int log2NumChunks = Math.max(0, Fast.mostSignificantBit(chunkedHashStore.size() >> GV3CompressedFunction.LOG2_CHUNK_SIZE));
+		chunkShift = chunkedHashStore.log2Chunks(log2NumChunks);
+		final int numChunks = 1 << log2NumChunks;
+		logger.debug("Number of chunks: " + numChunks);
+		final long[] offsetAndSeed = this.offsetAndSeed = new long[numChunks + 1];
+
+		final OfflineIterable<BitVector, LongArrayBitVector> offlineData = new OfflineIterable<>(BitVectors.OFFLINE_SERIALIZER, LongArrayBitVector.getInstance());
+
+		int duplicates = 0;
+
+		for (;;) {
+			pl.expectedUpdates = numChunks;
+			pl.itemsName = "chunks";
+			pl.start("Analysing chunks... ");
+			final AtomicLong unsolvable = new AtomicLong();
+
+			try {
+				final int numberOfThreads = Integer.parseInt(System.getProperty(GV3CompressedFunction.NUMBER_OF_THREADS_PROPERTY, Integer.toString(Math.min(16, Runtime.getRuntime().availableProcessors()))));
+				final ArrayBlockingQueue<Pair<Chunk, Integer>> chunkQueue = new ArrayBlockingQueue<>(numberOfThreads);
+				final ReorderingBlockingQueue<LongArrayBitVector> queue = new ReorderingBlockingQueue<>(numberOfThreads * 128);
+				final ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads + 2);
+				final ExecutorCompletionService<Void> executorCompletionService = new ExecutorCompletionService<>(executorService);
+
+				executorCompletionService.submit(() -> {
+					for(;;) {
+						final LongArrayBitVector data = queue.take();
+						if (data == END_OF_SOLUTION_QUEUE) return null;
+						offlineData.add(data);
+					}
+				});
+
+				executorCompletionService.submit(() -> {
+					try {
+						final Iterator<Chunk> iterator = chunkedHashStore.iterator();
+						for(int i1 = 0; iterator.hasNext(); i1++) {
+							final Chunk chunk = new Chunk(iterator.next());
+							assert i1 == chunk.index();
+							long sumOfLengths = 0;
+							for (int c = 0; c < numColumns; c++) {
+								final LongBigList valueList = chunk.valueList(values[c]);
+								for(int i = 0; i < chunk.size(); i++) sumOfLengths += coder[c].codewordLength(valueList.getLong(i));
+							}
+
+							// We add the overall width of the windows to avoid wrapping up indices
+							assert (sumOfLengths * GV3CompressedFunction.DELTA_TIMES_256 >>> 8) + globalWidth <= Integer.MAX_VALUE;
+							synchronized(offsetAndSeed) {
+								offsetAndSeed[i1 + 1] = offsetAndSeed[i1] + (sumOfLengths * GV3CompressedFunction.DELTA_TIMES_256 >>> 8) + globalWidth;
+								assert offsetAndSeed[i1 + 1] <= GV3CompressedFunction.OFFSET_MASK + 1;
+							}
+							chunkQueue.put(new Pair<>(chunk, Integer.valueOf((int)sumOfLengths)));
+						}
+					}
+					finally {
+						for(int i2 = numberOfThreads; i2-- != 0;) chunkQueue.put(END_OF_CHUNK_QUEUE);
+					}
+					return null;
+				});
+
+				final AtomicInteger activeThreads = new AtomicInteger(numberOfThreads);
+				for(int i = numberOfThreads; i-- != 0;) executorCompletionService.submit(() -> {
+					Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
+					long chunkTime = 0;
+					long outputTime = 0;
+					final LongBigList[] valueList = new LongBigList[numColumns];
+					// Each thread resets and reuses the same solver for all its chunks
+					final Linear3SystemSolver solver = new Linear3SystemSolver(0, 0);
+					for(;;) {
+						long start = System.nanoTime();
+						final Pair<Chunk, Integer> chunkLength = chunkQueue.take();
+						chunkTime += System.nanoTime() - start;
+						if (chunkLength == END_OF_CHUNK_QUEUE) {
+							if (activeThreads.decrementAndGet() == 0) queue.put(END_OF_SOLUTION_QUEUE, numChunks);
+							logger.debug("Queue waiting time: " + Util.format(chunkTime / 1E9) + "s");
+							logger.debug("Output waiting time: " + Util.format(outputTime / 1E9) + "s");
+							return null;
+						}
+						final Chunk chunk = chunkLength.getFirst();
+						final int numEquations = chunkLength.getSecond().intValue();
+						final int numVariables = (int) (offsetAndSeed[chunk.index() + 1] - offsetAndSeed[chunk.index()] & GV3CompressedFunction.OFFSET_MASK);
+						for (int c = 0; c < numColumns; c++) valueList[c] = chunk.valueList(values[c]);
+						long seed = 0;
+						solver.reset(numVariables, numEquations);
+
+						for(;;) {
+							final boolean solved = solver.generateAndSolve(chunk, seed, valueList, coder, numVariables - globalWidth, globalWidth, GV3CompressedFunction.DELTA >= 1.23);
+							unsolvable.addAndGet(solver.unsolvable);
+							if (solved) break;
+							seed += SEED_STEP;
+							if (seed == 0) throw new AssertionError("Exhausted local seeds");
+						}
+
+						synchronized (offsetAndSeed) {
+							offsetAndSeed[chunk.index()] |= seed;
+						}
+
+						final LongArrayBitVector data = LongArrayBitVector.getInstance();
+						final long[] solution = solver.solution;
+						data.length(solution.length);
+						for (int j = 0; j < solution.length; j++) data.set(j, (int)solution[j]);
+
+						start = System.nanoTime();
+						queue.put(data, chunk.index());
+						outputTime += System.nanoTime() - start;
+						synchronized(pl) {
+							pl.update();
+						}
+					}
+				});
+
+				try {
+					for(int i = numberOfThreads + 2; i-- != 0;)
+						executorCompletionService.take().get();
+				} catch (final InterruptedException e) {
+					throw new RuntimeException(e);
+				} catch (final ExecutionException e) {
+					final Throwable cause = e.getCause();
+					if (cause instanceof DuplicateException) throw (DuplicateException)cause;
+					if (cause instanceof IOException) throw (IOException)cause;
+					throw new RuntimeException(cause);
+				}
+				finally {
+					executorService.shutdown();
+				}
+
+				logger.info("Unsolvable systems: " + unsolvable.get() + "/" + (unsolvable.get() + numChunks) + " (" + Util.format(100.0 * unsolvable.get() / (unsolvable.get() + numChunks)) + "%)");
+				pl.done();
+				break;
+			}
+			catch (final ChunkedHashStore.DuplicateException e) {
+				if (keys == null) throw new IllegalStateException("You provided no keys, but the chunked hash store was not checked");
+				if (duplicates++ > 3) throw new IllegalArgumentException("The input list contains duplicates");
+				logger.warn("Found duplicate. Recomputing triples...");
+				addAll(chunkedHashStore);
+			}
+		}
+
+		globalSeed = chunkedHashStore.seed();
+		data = LongArrayBitVector.getInstance();
+		final OfflineIterator<BitVector, LongArrayBitVector> iterator = offlineData.iterator();
+		while (iterator.hasNext()) data.append(iterator.next());
+		iterator.close();
+		offlineData.close();
+	}
+
+	/** Closes {@link #chunkedHashStore}, unless it was provided at construction time. */
+	void close() throws IOException {
+		if (!givenChunkedHashStore) chunkedHashStore.close();
+	}
+}
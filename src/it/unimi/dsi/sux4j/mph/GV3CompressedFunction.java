@@ -28,18 +28,10 @@ import java.io.Serializable;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.GZIPInputStream;
 
-import org.apache.commons.math3.util.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -54,11 +46,7 @@ import com.martiansoftware.jsap.UnflaggedOption;
 import com.martiansoftware.jsap.stringparsers.FileStringParser;
 import com.martiansoftware.jsap.stringparsers.ForNameStringParser;
 
-import it.unimi.dsi.Util;
 import it.unimi.dsi.big.io.FileLinesByteArrayCollection;
-import it.unimi.dsi.bits.BitVector;
-import it.unimi.dsi.bits.BitVectors;
-import it.unimi.dsi.bits.Fast;
 import it.unimi.dsi.bits.LongArrayBitVector;
 import it.unimi.dsi.bits.TransformationStrategies;
 import it.unimi.dsi.bits.TransformationStrategy;
@@ -72,18 +60,12 @@ import it.unimi.dsi.fastutil.objects.AbstractObject2LongFunction;
 import it.unimi.dsi.io.FastBufferedReader;
 import it.unimi.dsi.io.FileLinesCollection;
 import it.unimi.dsi.io.LineIterator;
-import it.unimi.dsi.io.OfflineIterable;
-import it.unimi.dsi.io.OfflineIterable.OfflineIterator;
 import it.unimi.dsi.lang.MutableString;
 import it.unimi.dsi.logging.ProgressLogger;
 import it.unimi.dsi.sux4j.io.ChunkedHashStore;
-import it.unimi.dsi.sux4j.io.ChunkedHashStore.Chunk;
-import it.unimi.dsi.sux4j.io.ChunkedHashStore.DuplicateException;
 import it.unimi.dsi.sux4j.mph.codec.Codec;
 import it.unimi.dsi.sux4j.mph.codec.Codec.Huffman;
 import it.unimi.dsi.sux4j.mph.solve.Linear3SystemSolver;
-import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
-import it.unimi.dsi.util.concurrent.ReorderingBlockingQueue;
 
 /** An immutable function stored in a compressed form.
  *
@@ -153,24 +135,17 @@ import it.unimi.dsi.util.concurrent.ReorderingBlockingQueue;
 
 public class GV3CompressedFunction<T> extends AbstractObject2LongFunction<T> implements Serializable, Size64 {
 	private static final long serialVersionUID = 1L;
-	private static final LongArrayBitVector END_OF_SOLUTION_QUEUE = LongArrayBitVector.getInstance();
-	private static final Pair<Chunk, Integer> END_OF_CHUNK_QUEUE = new Pair<>(new Chunk(), Integer.valueOf(0));
 	private static final Logger LOGGER = LoggerFactory.getLogger(GV3CompressedFunction.class);
 	private static final boolean DEBUG = false;
 	protected static final int SEED_BITS = 10;
 	protected static final int OFFSET_BITS = Long.SIZE - SEED_BITS;
 
-	/**
-	 * The local seed is generated using this step, so to be easily embeddable
-	 * in {@link #offsetAndSeed}.
-	 */
-	private static final long SEED_STEP = 1L << Long.SIZE - SEED_BITS;
 	/**
 	 * The lowest 54 bits of {@link #offsetAndSeed} contain the number of
 	 * keys stored up to the given chunk.
 	 */
-	private static final long OFFSET_MASK = -1L >>> SEED_BITS;
-	private static final long SEED_MASK = -1L << Long.SIZE - SEED_BITS;
+	static final long OFFSET_MASK = -1L >>> SEED_BITS;
+	static final long SEED_MASK = -1L << Long.SIZE - SEED_BITS;
 
 	/** The system property used to set the number of parallel threads. */
 	public static final String NUMBER_OF_THREADS_PROPERTY = "it.unimi.dsi.sux4j.mph.threads";
@@ -323,6 +298,8 @@ public class GV3CompressedFunction<T> extends AbstractObject2LongFunction<T> imp
 	public final static int DELTA_TIMES_256 = (int) Math.floor(DELTA * 256);
 	/** The logarithm of the desired chunk size. */
 	public final static int LOG2_CHUNK_SIZE = 10;
+	/** The number of keys processed at a time by {@link #getLongs(List, long[])}. */
+	private static final int BATCH_SIZE = 128;
 	/** The shift for chunks. */
 	private final int chunkShift;
 	/** The number of keys. */
@@ -383,16 +360,9 @@ public class GV3CompressedFunction<T> extends AbstractObject2LongFunction<T> imp
 		final ProgressLogger pl = new ProgressLogger(LOGGER);
 		pl.displayLocalSpeed = true;
 		pl.displayFreeMemory = true;
-		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom();
 		pl.itemsName = "keys";
-		final boolean givenChunkedHashStore = chunkedHashStore != null;
-		if (!givenChunkedHashStore) {
-			if (keys == null) throw new IllegalArgumentException("If you do not provide a chunked hash store, you must provide the keys");
-			chunkedHashStore = new ChunkedHashStore<>(transform, tempDir, -1, pl);
-			chunkedHashStore.reset(r.nextLong());
-			if (values == null || indirect) chunkedHashStore.addAll(keys.iterator());
-			else chunkedHashStore.addAll(keys.iterator(), values.iterator());
-		}
+		final GV3CompressedConstruction<T> construction = new GV3CompressedConstruction<>(keys, transform, values == null || indirect ? null : values, tempDir, chunkedHashStore, pl);
+		chunkedHashStore = construction.chunkedHashStore;
 		n = chunkedHashStore.size();
 		defRetValue = -1;
 		if (n == 0) {
@@ -400,7 +370,7 @@ public class GV3CompressedFunction<T> extends AbstractObject2LongFunction<T> imp
 			data = null;
 			offsetAndSeed = null;
 			decoder = null;
-			if (!givenChunkedHashStore) chunkedHashStore.close();
+			construction.close();
 			return;
 		}
 		final Long2LongOpenHashMap frequencies;
@@ -414,165 +384,21 @@ public class GV3CompressedFunction<T> extends AbstractObject2LongFunction<T> imp
 		globalMaxCodewordLength = coder.maxCodewordLength();
 		decoder = coder.getDecoder();
 
-		final int log2NumChunks = Math.max(0, Fast.mostSignificantBit(n >> LOG2_CHUNK_SIZE));
-		chunkShift = chunkedHashStore.log2Chunks(log2NumChunks);
-		final int numChunks = 1 << log2NumChunks;
-		LOGGER.debug("Number of chunks: " + numChunks);
-		offsetAndSeed = new long[numChunks + 1];
-
-		final OfflineIterable<BitVector, LongArrayBitVector> offlineData = new OfflineIterable<>(BitVectors.OFFLINE_SERIALIZER, LongArrayBitVector.getInstance());
-
-		int duplicates = 0;
-
-		for (;;) {
-			pl.expectedUpdates = numChunks;
-			pl.itemsName = "chunks";
-			pl.start("Analysing chunks... ");
-			final AtomicLong unsolvable = new AtomicLong();
-
-			try {
-				final int numberOfThreads = Integer.parseInt(System.getProperty(NUMBER_OF_THREADS_PROPERTY, Integer.toString(Math.min(16, Runtime.getRuntime().availableProcessors()))));
-				final ArrayBlockingQueue<Pair<Chunk, Integer>> chunkQueue = new ArrayBlockingQueue<>(numberOfThreads);
-				final ReorderingBlockingQueue<LongArrayBitVector> queue = new ReorderingBlockingQueue<>(numberOfThreads * 128);
-				final ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads + 2);
-				final ExecutorCompletionService<Void> executorCompletionService = new ExecutorCompletionService<>(executorService);
-
-				executorCompletionService.submit(() -> {
-					for(;;) {
-						final LongArrayBitVector data = queue.take();
-						if (data == END_OF_SOLUTION_QUEUE) return null;
-						offlineData.add(data);
-					}
-				});
-
-				final ChunkedHashStore<T> chs = chunkedHashStore;
-				executorCompletionService.submit(() -> {
-					try {
-						final Iterator<Chunk> iterator = chs.iterator();
-						for(int i1 = 0; iterator.hasNext(); i1++) {
-							final Chunk chunk = new Chunk(iterator.next());
-							assert i1 == chunk.index();
-							final LongBigList valueList = chunk.valueList(indirect ? values : null);
-							long sumOfLengths = 0;
-							for(int i = 0; i < chunk.size(); i++)
-								sumOfLengths += coder.codewordLength(valueList.getLong(i));
-
-							// We add the length of the longest keyword to avoid wrapping up indices
-							assert (sumOfLengths * DELTA_TIMES_256 >>> 8) + globalMaxCodewordLength <= Integer.MAX_VALUE;
-							synchronized(offsetAndSeed) {
-								offsetAndSeed[i1 + 1] = offsetAndSeed[i1] + (sumOfLengths * DELTA_TIMES_256 >>> 8) + globalMaxCodewordLength;
-								assert offsetAndSeed[i1 + 1] <= OFFSET_MASK + 1;
-							}
-							chunkQueue.put(new Pair<>(chunk, Integer.valueOf((int)sumOfLengths)));
-						}
-					}
-					finally {
-						for(int i2 = numberOfThreads; i2-- != 0;) chunkQueue.put(END_OF_CHUNK_QUEUE);
-					}
-					return null;
-				});
-
-				final AtomicInteger activeThreads = new AtomicInteger(numberOfThreads);
-				for(int i = numberOfThreads; i-- != 0;) executorCompletionService.submit(() -> {
-					Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
-					long chunkTime = 0;
-					long outputTime = 0;
-					for(;;) {
-						long start = System.nanoTime();
-						final Pair<Chunk, Integer> chunkLength = chunkQueue.take();
-						chunkTime += System.nanoTime() - start;
-						if (chunkLength == END_OF_CHUNK_QUEUE) {
-							if (activeThreads.decrementAndGet() == 0) queue.put(END_OF_SOLUTION_QUEUE, numChunks);
-							LOGGER.debug("Queue waiting time: " + Util.format(chunkTime / 1E9) + "s");
-							LOGGER.debug("Output waiting time: " + Util.format(outputTime / 1E9) + "s");
-							return null;
-						}
-						final Chunk chunk = chunkLength.getFirst();
-						final int numEquations = chunkLength.getSecond().intValue();
-						final int numVariables = (int) (offsetAndSeed[chunk.index() + 1] - offsetAndSeed[chunk.index()] & OFFSET_MASK);
-						long seed = 0;
-						final Linear3SystemSolver solver = new Linear3SystemSolver(numVariables, numEquations);
-
-						for(;;) {
-							final boolean solved = solver.generateAndSolve(chunk, seed, chunk.valueList(indirect ? values : null), coder, numVariables - globalMaxCodewordLength, globalMaxCodewordLength, DELTA >= 1.23);
-							unsolvable.addAndGet(solver.unsolvable);
-							if (solved) break;
-							seed += SEED_STEP;
-							if (seed == 0) throw new AssertionError("Exhausted local seeds");
-						}
-
-						synchronized (offsetAndSeed) {
-							offsetAndSeed[chunk.index()] |= seed;
-						}
-
-						final LongArrayBitVector data = LongArrayBitVector.getInstance();
-						final long[] solution = solver.solution;
-						data.length(solution.length);
-						for (int j = 0; j < solution.length; j++) data.set(j, (int)solution[j]);
-
-						start = System.nanoTime();
-						queue.put(data, chunk.index());
-						outputTime += System.nanoTime() - start;
-						synchronized(pl) {
-							pl.update();
-						}
-					}
-				});
-
-				try {
-					for(int i = numberOfThreads + 2; i-- != 0;)
-						executorCompletionService.take().get();
-				} catch (final InterruptedException e) {
-					throw new RuntimeException(e);
-				} catch (final ExecutionException e) {
-					final Throwable cause = e.getCause();
-					if (cause instanceof DuplicateException) throw (DuplicateException)cause;
-					if (cause instanceof IOException) throw (IOException)cause;
-					throw new RuntimeException(cause);
-				}
-				finally {
-					executorService.shutdown();
-				}
-
-				LOGGER.info("Unsolvable systems: " + unsolvable.get() + "/" + (unsolvable.get() + numChunks) + " (" + Util.format(100.0 * unsolvable.get() / (unsolvable.get() + numChunks)) + "%)");
-//				LOGGER.info("Mean node peeled for solved systems: " + Util.format((double) peeledSumSolved / totalNodesSolvable * 100) + "%");
-
-//				if (unsolvable == 0) {
-//					LOGGER.info("Mean node peeled for unsolved systems: " + 0 + "%");
-//				} else {
-//					LOGGER.info("Mean node peeled for unsolved systems: " + Util.format((double) peeledSumUnsolvable / totalNodesUnsolvable * 100) + "%");
-//
-//				}
-				pl.done();
-				break;
-			}
-			catch (final ChunkedHashStore.DuplicateException e) {
-				if (keys == null) throw new IllegalStateException("You provided no keys, but the chunked hash store was not checked");
-				if (duplicates++ > 3) throw new IllegalArgumentException("The input list contains duplicates");
-				LOGGER.warn("Found duplicate. Recomputing triples...");
-				chunkedHashStore.reset(r.nextLong());
-				pl.itemsName = "keys";
-				if (values == null || indirect) chunkedHashStore.addAll(keys.iterator());
-				else chunkedHashStore.addAll(keys.iterator(), values.iterator());
-			}
-		}
+		// This is the single-column case of a GV3CompressedMultiFunction
+		construction.solve(new LongIterable[] { indirect ? values : null }, new Codec.Coder[] { coder });
+		chunkShift = construction.chunkShift;
+		globalSeed = construction.globalSeed;
+		offsetAndSeed = construction.offsetAndSeed;
+		data = construction.data;
 
 		if (DEBUG) {
 			System.out.println("MaxCodeword: " + globalMaxCodewordLength);
 			System.out.println("Offsets: " + Arrays.toString(offsetAndSeed));
 		}
-		globalSeed = chunkedHashStore.seed();
-		final LongArrayBitVector dataBitVector = LongArrayBitVector.getInstance();
-		this.data = dataBitVector;
-		final OfflineIterator<BitVector, LongArrayBitVector> iterator = offlineData.iterator();
-		while (iterator.hasNext())
-			dataBitVector.append(iterator.next());
-		iterator.close();
-		offlineData.close();
 		LOGGER.info("Completed.");
 
 		LOGGER.info("Actual bit cost per element: " + (double) numBits() / n);
-		if (!givenChunkedHashStore) chunkedHashStore.close();
+		construction.close();
 	}
 
 	@Override
@@ -594,6 +420,68 @@ public class GV3CompressedFunction<T> extends AbstractObject2LongFunction<T> imp
 		return decoder.decode(data.getLong(e0, e0 + w) ^ data.getLong(e1, e1 + w) ^ data.getLong(e2, e2 + w));
 	}
 
+	/** Computes the values associated with a list of keys.
+	 *
+	 * <p>This method returns the same results of repeated calls to {@link #getLong(Object)}, but
+	 * it processes keys in blocks: it hashes all keys in a block, then computes all equations, then
+	 * reads all bit ranges, and finally decodes the values. In this way the cache misses of
+	 * different keys overlap, and no object is allocated per key.
+	 *
+	 * @param keys a list of keys.
+	 * @param result an array of at least {@code keys.size()} elements that will be filled with the values
+	 * associated with the keys.
+	 */
+	@SuppressWarnings("unchecked")
+	public void getLongs(final List<? extends T> keys, final long[] result) {
+		final int size = keys.size();
+		if (result.length < size) throw new IllegalArgumentException("The result array has length " + result.length + ", but there are " + size + " keys");
+		if (n == 0) {
+			Arrays.fill(result, 0, size, defRetValue);
+			return;
+		}
+
+		final int w = globalMaxCodewordLength;
+		final long mask = w == 0 ? 0 : -1L >>> Long.SIZE - w;
+		final long[] bits = data.bits();
+		final long[][] triple = new long[BATCH_SIZE][3];
+		final int[] chunk = new int[BATCH_SIZE];
+		final long[] position = new long[3 * BATCH_SIZE];
+		final long[] code = new long[BATCH_SIZE];
+		final int[] e = new int[3];
+		final long[] hash = new long[3];
+
+		for (int start = 0; start < size; start += BATCH_SIZE) {
+			final int length = Math.min(BATCH_SIZE, size - start);
+
+			// First pass: hashing
+			for (int i = 0; i < length; i++) {
+				final long[] h = triple[i];
+				Hashes.spooky4(transform.toBitVector((T)keys.get(start + i)), globalSeed, h);
+				chunk[i] = chunkShift == Long.SIZE ? 0 : (int)(h[0] >>> chunkShift);
+			}
+
+			// Second pass: equations
+			for (int i = 0, j = 0; i < length; i++, j += 3) {
+				final long olc = offsetAndSeed[chunk[i]];
+				final long chunkOffset = olc & OFFSET_MASK;
+				final long nextChunkOffset = offsetAndSeed[chunk[i] + 1] & OFFSET_MASK;
+				Linear3SystemSolver.tripleToEquation(triple[i], olc & SEED_MASK, (int)(nextChunkOffset - chunkOffset - w), e, hash);
+				if (e[0] == -1) position[j] = -1;
+				else {
+					position[j] = e[0] + chunkOffset;
+					position[j + 1] = e[1] + chunkOffset;
+					position[j + 2] = e[2] + chunkOffset;
+				}
+			}
+
+			// Third pass: gathering bit ranges
+			for (int i = 0, j = 0; i < length; i++, j += 3) if (position[j] != -1) code[i] = BitRanges.getLong(bits, position[j], w, mask) ^ BitRanges.getLong(bits, position[j + 1], w, mask) ^ BitRanges.getLong(bits, position[j + 2], w, mask);
+
+			// Fourth pass: decoding
+			for (int i = 0, j = 0; i < length; i++, j += 3) result[start + i] = position[j] == -1 ? defRetValue : decoder.decode(code[i]);
+		}
+	}
+
 	/**
 	 * Returns the number of keys in the function domain.
 	 *
@@ -636,8 +524,9 @@ public class GV3CompressedFunction<T> extends AbstractObject2LongFunction<T> imp
 							new Switch("utf32", JSAP.NO_SHORTFLAG, "utf-32", "Use UTF-32 internally (handles surrogate pairs)."),
 							new Switch("byteArray", 'b', "byte-array", "Create a function on byte arrays (no character encoding)."),
 							new Switch("zipped", 'z', "zipped", "The string list is compressed in gzip format."),
-							new FlaggedOption("codec", JSAP.STRING_PARSER, "HUFFMAN", JSAP.NOT_REQUIRED, 'C', "codec", "The name of the codec to use (UNARY, BINARY, GAMMA, HUFFMAN, LLHUFFMAN)."),
+							new FlaggedOption("codec", JSAP.STRING_PARSER, "HUFFMAN", JSAP.NOT_REQUIRED, 'C', "codec", "The name of the codec to use (UNARY, BINARY, GAMMA, DELTA, GOLOMB, RICE, HUFFMAN, LLHUFFMAN, BOUNDEDHUFFMAN, AUTO); LLHUFFMAN limits the length of the decoding table, whereas BOUNDEDHUFFMAN limits the length of codewords."),
 							new FlaggedOption("limit", JSAP.INTEGER_PARSER, "20", JSAP.NOT_REQUIRED, 'l', "limit", "Decoding-table length limit for the LLHUFFMAN codec."),
+							new FlaggedOption("lookupTableBits", JSAP.INTEGER_PARSER, "0", JSAP.NOT_REQUIRED, 't', "lookup-table-bits", "If positive, the HUFFMAN, LLHUFFMAN and BOUNDEDHUFFMAN codecs will decode short codewords using a lookup table indexed by this number of bits."),
 							new FlaggedOption("values", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.NOT_REQUIRED, 'v', "values", "A binary file in DataInput format containing a long for each string (otherwise, the values will be the ordinal positions of the strings)."),
 							new UnflaggedOption("function", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "The filename for the serialised GOV function."),
 							new UnflaggedOption("stringFile", JSAP.STRING_PARSER, "-", JSAP.NOT_REQUIRED, JSAP.NOT_GREEDY, "The name of a file containing a newline-separated list of strings, or - for standard input; in the first case, strings will not be loaded into core memory."),
@@ -655,6 +544,7 @@ public class GV3CompressedFunction<T> extends AbstractObject2LongFunction<T> imp
 		final boolean iso = jsapResult.getBoolean("iso");
 		final boolean utf32 = jsapResult.getBoolean("utf32");
 		final int limit = jsapResult.getInt("limit");
+		final int lookupTableBits = jsapResult.getInt("lookupTableBits");
 
 		Codec codec = null;
 		switch (jsapResult.getString("codec")) {
@@ -667,11 +557,26 @@ public class GV3CompressedFunction<T> extends AbstractObject2LongFunction<T> imp
 		case "GAMMA":
 			codec = new Codec.Gamma();
 			break;
+		case "DELTA":
+			codec = new Codec.Delta();
+			break;
+		case "GOLOMB":
+			codec = new Codec.Golomb();
+			break;
+		case "RICE":
+			codec = new Codec.Rice();
+			break;
 		case "HUFFMAN":
-			codec = new Codec.Huffman();
+			codec = new Codec.Huffman(Integer.MAX_VALUE, 1, lookupTableBits);
 			break;
 		case "LLHUFFMAN":
-			codec = new Codec.Huffman(limit);
+			codec = new Codec.Huffman(limit, 0.99, lookupTableBits);
+			break;
+		case "BOUNDEDHUFFMAN":
+			codec = new Codec.LengthLimitedHuffman(62, 0.01, lookupTableBits);
+			break;
+		case "AUTO":
+			codec = new Codec.Auto();
 			break;
 		default:
 			throw new IllegalArgumentException("Unknown codec \"" + jsapResult.getString("codec") + "\"");
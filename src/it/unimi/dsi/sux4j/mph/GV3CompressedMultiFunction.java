@@ -0,0 +1,421 @@
+package it.unimi.dsi.sux4j.mph;
+
+/*
+ * Sux4J: Succinct data structures for Java
+ *
+ * Copyright (C) 2017 Sebastiano Vigna
+ *
+ *  This library is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU Lesser General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *
+ *  This library is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ *  or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License
+ *  for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.bits.TransformationStrategies;
+import it.unimi.dsi.bits.TransformationStrategy;
+import it.unimi.dsi.fastutil.Size64;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongBigList;
+import it.unimi.dsi.fastutil.longs.LongIterable;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.logging.ProgressLogger;
+import it.unimi.dsi.sux4j.io.ChunkedHashStore;
+import it.unimi.dsi.sux4j.mph.codec.Codec;
+import it.unimi.dsi.sux4j.mph.codec.Codec.Huffman;
+import it.unimi.dsi.sux4j.mph.solve.Linear3SystemSolver;
+
+/** An immutable function mapping each key to several values (<em>columns</em>) stored in a compressed form.
+ *
+ * <p>Instances of this class behave like a list of {@linkplain GV3CompressedFunction compressed functions} on the same keys, one per column,
+ * but all columns share the same {@link ChunkedHashStore}, the same table of chunk offsets and seeds, and the same equations:
+ * a lookup hashes the key and accesses the table of chunk offsets and seeds just once, independently of the number of columns.
+ * The system associated with all columns is solved in a single pass.
+ *
+ * <p>Each column is coded using its own {@linkplain Codec codec}: a {@linkplain Codec.Binary binary} codec yields
+ * a fixed-width column, whereas, for instance, a {@linkplain Huffman Huffman} codec will use, for each key, a number of bits
+ * close to the empirical entropy of the column.
+ *
+ * <h2>Building a function</h2>
+ *
+ * <p>The construction is always indirect: the {@link ChunkedHashStore} associates each hash with the rank of the key, and
+ * {@linkplain Builder#values(LongIterable...) columns} are accessed randomly (thus, they must be either a {@link LongList} or a {@link LongBigList}).
+ * If you specify a store, it must associate ranks with hashes.
+ *
+ * <h2>Multithreading</h2>
+ *
+ * <p>This implementation is multithreaded: each chunk returned by the {@link ChunkedHashStore} is processed independently. By
+ * default, this class uses {@link Runtime#availableProcessors()} parallel threads, but never more than 16. If you wish to
+ * set a specific number of threads, you can do so through the system property {@value GV3CompressedFunction#NUMBER_OF_THREADS_PROPERTY}.
+ *
+ * <h2>Implementation Details</h2>
+ *
+ * <p>The construction is identical to that of a {@link GV3CompressedFunction}, but the window of bits associated with a key
+ * is the concatenation of the windows of all columns, each as wide as the maximum codeword length of the column. The codeword
+ * of each column starts at the highest bit of its window and proceeds towards lower bits (so shorter codewords leave
+ * the lowest bits of the window unconstrained), and the equations of all columns use the same three positions.
+ *
+ * @see GV3CompressedFunction
+ * @since 4.2.0
+ */
+
+public class GV3CompressedMultiFunction<T> implements Serializable, Size64 {
+	private static final long serialVersionUID = 0L;
+	private static final Logger LOGGER = LoggerFactory.getLogger(GV3CompressedMultiFunction.class);
+	public static class Builder<T> {
+		protected Iterable<? extends T> keys;
+		protected TransformationStrategy<? super T> transform;
+		protected File tempDir;
+		protected ChunkedHashStore<T> chunkedHashStore;
+		protected LongIterable[] values;
+		/** Whether {@link #build()} has already been called. */
+		protected boolean built;
+		protected Codec[] codecs;
+
+		/**
+		 * Specifies the keys of the function; if you have specified a
+		 * {@link #store(ChunkedHashStore) ChunkedHashStore}, it can be
+		 * {@code null}.
+		 *
+		 * @param keys
+		 *            the keys of the function.
+		 * @return this builder.
+		 */
+		public Builder<T> keys(final Iterable<? extends T> keys) {
+			this.keys = keys;
+			return this;
+		}
+
+		/**
+		 * Specifies the transformation strategy for the
+		 * {@linkplain #keys(Iterable) keys of the function}; the strategy can
+		 * be {@linkplain TransformationStrategies raw}.
+		 *
+		 * @param transform
+		 *            a transformation strategy for the
+		 *            {@linkplain #keys(Iterable) keys of the function}.
+		 * @return this builder.
+		 */
+		public Builder<T> transform(final TransformationStrategy<? super T> transform) {
+			this.transform = transform;
+			return this;
+		}
+
+		/**
+		 * Specifies a temporary directory for the
+		 * {@link #store(ChunkedHashStore) ChunkedHashStore}.
+		 *
+		 * @param tempDir
+		 *            a temporary directory for the
+		 *            {@link #store(ChunkedHashStore) ChunkedHashStore} files,
+		 *            or {@code null} for the standard temporary directory.
+		 * @return this builder.
+		 */
+		public Builder<T> tempDir(final File tempDir) {
+			this.tempDir = tempDir;
+			return this;
+		}
+
+		/**
+		 * Specifies a chunked hash store containing the keys associated with their ranks.
+		 *
+		 * @param chunkedHashStore
+		 *            a chunked hash store containing the keys associated with their
+		 *            ranks, or {@code null}; the
+		 *            store can be unchecked, but in this case you must
+		 *            specify {@linkplain #keys(Iterable) keys} and a
+		 *            {@linkplain #transform(TransformationStrategy) transform}
+		 *            (otherwise, in case of a hash collision in the store an
+		 *            {@link IllegalStateException} will be thrown).
+		 * @return this builder.
+		 */
+		public Builder<T> store(final ChunkedHashStore<T> chunkedHashStore) {
+			this.chunkedHashStore = chunkedHashStore;
+			return this;
+		}
+
+		/**
+		 * Specifies the columns of values assigned to the {@linkplain #keys(Iterable) keys}.
+		 *
+		 * @param values
+		 *            a nonempty list of columns, each containing a value for each key, in the same order
+		 *            of the {@linkplain #keys(Iterable) keys}; each column must be a {@link LongList} or a {@link LongBigList}.
+		 * @return this builder.
+		 */
+		public Builder<T> values(final LongIterable... values) {
+			this.values = values;
+			return this;
+		}
+
+		/**
+		 * Specifies the {@linkplain Codec codecs} that will be used to encode the
+		 * columns. The default is a {@linkplain Huffman} codec with default parameters for all columns.
+		 *
+		 * @param codecs either a codec for each column, or a single codec that will be used for all columns.
+		 * @return this builder.
+		 */
+		public Builder<T> codecs(final Codec... codecs) {
+			this.codecs = codecs;
+			return this;
+		}
+
+		/**
+		 * Builds a new function.
+		 *
+		 * @return a {@link GV3CompressedMultiFunction} instance with the specified
+		 *         parameters.
+		 * @throws IllegalStateException
+		 *             if called more than once.
+		 */
+		public GV3CompressedMultiFunction<T> build() throws IOException {
+			if (built) throw new IllegalStateException("This builder has been already used");
+			built = true;
+			if (values == null || values.length == 0) throw new IllegalArgumentException("You must specify at least one column of values");
+			for (final LongIterable v : values) if (!(v instanceof LongList) && !(v instanceof LongBigList)) throw new IllegalArgumentException("Columns must be instances of LongList or LongBigList");
+			final Codec[] codecs = new Codec[values.length];
+			if (this.codecs == null) for (int i = 0; i < codecs.length; i++) codecs[i] = new Codec.Huffman();
+			else if (this.codecs.length == 1) for (int i = 0; i < codecs.length; i++) codecs[i] = this.codecs[0];
+			else if (this.codecs.length == values.length) System.arraycopy(this.codecs, 0, codecs, 0, codecs.length);
+			else throw new IllegalArgumentException("You specified " + this.codecs.length + " codecs for " + values.length + " columns");
+			if (transform == null) {
+				if (chunkedHashStore != null) transform = chunkedHashStore.transform();
+				else throw new IllegalArgumentException("You must specify a TransformationStrategy, either explicitly or via a given ChunkedHashStore");
+			}
+			return new GV3CompressedMultiFunction<>(keys, transform, values, tempDir, chunkedHashStore, codecs);
+		}
+	}
+
+	/** The logarithm of the desired chunk size. */
+	public final static int LOG2_CHUNK_SIZE = GV3CompressedFunction.LOG2_CHUNK_SIZE;
+	/** The shift for chunks. */
+	private final int chunkShift;
+	/** The number of keys. */
+	protected final long n;
+	/** The seed used to generate the initial hash triple. */
+	protected final long globalSeed;
+	/**
+	 * A long containing three values per chunk:
+	 * <ul>
+	 * <li>the top {@link GV3CompressedFunction#SEED_BITS} bits contain the seed (note that it must
+	 * not be shifted right);
+	 * <li>the remaining lower bits contain the starting position in
+	 * {@link #data} of the bits associated with the chunk.
+	 * </ul>
+	 */
+	protected final long[] offsetAndSeed;
+	protected final LongArrayBitVector data;
+	/**
+	 * The transformation strategy to turn objects of type <code>T</code> into
+	 * bit vectors.
+	 */
+	protected final TransformationStrategy<? super T> transform;
+	/** The decoders that will be used to yield output values, one per column. */
+	protected final Codec.Decoder[] decoder;
+	/** The maximum codeword length of each column. */
+	protected final int[] width;
+	/** The offset of the window of each column in the overall window of a key. */
+	protected final int[] offset;
+	/** The overall width of the window of a key (the sum of {@link #width}). */
+	protected final int globalWidth;
+	/** The value returned for keys that are not in the domain of the function, if detected. */
+	protected long defRetValue;
+
+	/**
+	 * Creates a new function for the given keys and columns of values.
+	 *
+	 * @param keys
+	 *            the keys in the domain of the function, or {@code null}.
+	 * @param transform
+	 *            a transformation strategy for the keys.
+	 * @param values
+	 *            the columns, each a {@link LongList} or a {@link LongBigList} containing a value for each key.
+	 * @param tempDir
+	 *            a temporary directory for the store files, or {@code null}
+	 *            for the standard temporary directory.
+	 * @param chunkedHashStore
+	 *            a chunked hash store containing the keys associated with their ranks, or {@code null};
+	 *            the store can be unchecked, but in this case <code>keys</code>
+	 *            and <code>transform</code> must be non-{@code null}.
+	 * @param codec
+	 *            the codecs used to encode the columns.
+	 */
+	@SuppressWarnings("resource")
+	protected GV3CompressedMultiFunction(final Iterable<? extends T> keys, final TransformationStrategy<? super T> transform, final LongIterable[] values, final File tempDir, ChunkedHashStore<T> chunkedHashStore, final Codec[] codec) throws IOException {
+		Objects.requireNonNull(codec, "Null codecs");
+		this.transform = transform;
+		final int numColumns = values.length;
+		final ProgressLogger pl = new ProgressLogger(LOGGER);
+		pl.displayLocalSpeed = true;
+		pl.displayFreeMemory = true;
+		pl.itemsName = "keys";
+		final GV3CompressedConstruction<T> construction = new GV3CompressedConstruction<>(keys, transform, null, tempDir, chunkedHashStore, pl);
+		n = construction.chunkedHashStore.size();
+		defRetValue = -1;
+		decoder = new Codec.Decoder[numColumns];
+		width = new int[numColumns];
+		offset = new int[numColumns];
+		if (n == 0) {
+			globalSeed = chunkShift = globalWidth = 0;
+			data = null;
+			offsetAndSeed = null;
+			construction.close();
+			return;
+		}
+
+		final Codec.Coder[] coder = new Codec.Coder[numColumns];
+		int w = 0;
+		for (int c = 0; c < numColumns; c++) {
+			final Long2LongOpenHashMap frequencies = new Long2LongOpenHashMap();
+			for(final long v : values[c]) frequencies.addTo(v, 1);
+			coder[c] = codec[c].getCoder(frequencies);
+			decoder[c] = coder[c].getDecoder();
+			width[c] = coder[c].maxCodewordLength();
+			offset[c] = w;
+			w += width[c];
+		}
+		globalWidth = w;
+
+		construction.solve(values, coder);
+		chunkShift = construction.chunkShift;
+		globalSeed = construction.globalSeed;
+		offsetAndSeed = construction.offsetAndSeed;
+		data = construction.data;
+		LOGGER.info("Completed.");
+
+		LOGGER.info("Actual bit cost per element: " + (double) numBits() / n);
+		construction.close();
+	}
+
+	/** Computes the positions of the windows associated with a key.
+	 *
+	 * @param o a key.
+	 * @param e an array of three elements that will be filled with the positions of the three windows associated with {@code o}.
+	 * @return false if the key is detected not to belong to the domain of the function.
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean windows(final Object o, final long[] e) {
+		final long[] h = new long[3];
+		final int[] p = new int[3];
+		Hashes.spooky4(transform.toBitVector((T) o), globalSeed, h);
+		final int chunk = chunkShift == Long.SIZE ? 0 : (int) (h[0] >>> chunkShift);
+		final long olc = offsetAndSeed[chunk];
+		final long chunkOffset = olc & GV3CompressedFunction.OFFSET_MASK;
+		final long nextChunkOffset = offsetAndSeed[chunk + 1] & GV3CompressedFunction.OFFSET_MASK;
+		Linear3SystemSolver.tripleToEquation(h, olc & GV3CompressedFunction.SEED_MASK, (int)(nextChunkOffset - chunkOffset - globalWidth), p);
+		if (p[0] == -1) return false;
+		e[0] = p[0] + chunkOffset;
+		e[1] = p[1] + chunkOffset;
+		e[2] = p[2] + chunkOffset;
+		return true;
+	}
+
+	/** Returns the value associated with a key in a given column.
+	 *
+	 * @param o a key.
+	 * @param column a column.
+	 * @return the value associated with {@code o} in the given column.
+	 */
+	public long getLong(final Object o, final int column) {
+		if (n == 0) return defRetValue;
+		final long[] e = new long[3];
+		if (!windows(o, e)) return defRetValue;
+		final long[] bits = data.bits();
+		final int w = width[column];
+		final long mask = w == 0 ? 0 : -1L >>> Long.SIZE - w;
+		return decoder[column].decode(BitRanges.getLong(bits, e[0] + offset[column], w, mask) ^ BitRanges.getLong(bits, e[1] + offset[column], w, mask) ^ BitRanges.getLong(bits, e[2] + offset[column], w, mask));
+	}
+
+	/** Returns the values associated with a key in all columns.
+	 *
+	 * <p>The key is hashed, and the table of chunk offsets and seeds is accessed, just once.
+	 *
+	 * @param o a key.
+	 * @param result an array of at least {@link #numColumns()} elements that will be filled with the values associated with {@code o}
+	 * (or with the {@linkplain #defaultReturnValue() default return value}, if {@code o} is detected not to belong to the domain of the function).
+	 * @return {@code result}.
+	 */
+	public long[] get(final Object o, final long[] result) {
+		final int numColumns = width.length;
+		final long[] e = new long[3];
+		if (n == 0 || !windows(o, e)) {
+			for (int c = 0; c < numColumns; c++) result[c] = defRetValue;
+			return result;
+		}
+		final long[] bits = data.bits();
+		for (int c = 0; c < numColumns; c++) {
+			final int w = width[c];
+			final long mask = w == 0 ? 0 : -1L >>> Long.SIZE - w;
+			result[c] = decoder[c].decode(BitRanges.getLong(bits, e[0] + offset[c], w, mask) ^ BitRanges.getLong(bits, e[1] + offset[c], w, mask) ^ BitRanges.getLong(bits, e[2] + offset[c], w, mask));
+		}
+		return result;
+	}
+
+	/** Returns the number of columns of this function.
+	 *
+	 * @return the number of columns of this function.
+	 */
+	public int numColumns() {
+		return width.length;
+	}
+
+	/** Sets the value returned for keys that are detected not to belong to the domain of the function.
+	 *
+	 * @param defRetValue the new default return value.
+	 */
+	public void defaultReturnValue(final long defRetValue) {
+		this.defRetValue = defRetValue;
+	}
+
+	/** Returns the value returned for keys that are detected not to belong to the domain of the function.
+	 *
+	 * @return the default return value.
+	 */
+	public long defaultReturnValue() {
+		return defRetValue;
+	}
+
+	/**
+	 * Returns the number of keys in the function domain.
+	 *
+	 * @return the number of the keys in the function domain.
+	 */
+	@Override
+	public long size64() {
+		return n;
+	}
+
+	@Override
+	@Deprecated
+	public int size() {
+		return (int) Math.min(n,  Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns the number of bits used by this structure.
+	 *
+	 * @return the number of bits used by this structure.
+	 */
+	public long numBits() {
+		if (n == 0) return 0;
+		long numBits = data.size64() + offsetAndSeed.length * (long) Long.SIZE;
+		for (final Codec.Decoder d : decoder) numBits += d.numBits();
+		return numBits;
+	}
+}
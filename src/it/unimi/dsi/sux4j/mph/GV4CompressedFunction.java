@@ -29,6 +29,7 @@ import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutionException;
@@ -326,6 +327,8 @@ public class GV4CompressedFunction<T> extends AbstractObject2LongFunction<T> imp
 	public final static int DELTA_TIMES_256 = (int) Math.floor(DELTA * 256);
 	/** The logarithm of the desired chunk size. */
 	public final static int LOG2_CHUNK_SIZE = 10;
+	/** The number of keys processed at a time by {@link #getLongs(List, long[])}. */
+	private static final int BATCH_SIZE = 128;
 	/** The shift for chunks. */
 	private final int chunkShift;
 	/** The number of keys. */
@@ -482,6 +485,8 @@ public class GV4CompressedFunction<T> extends AbstractObject2LongFunction<T> imp
 					Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
 					long chunkTime = 0;
 					long outputTime = 0;
+					// Each thread resets and reuses the same solver for all its chunks
+					final Linear4SystemSolver solver = new Linear4SystemSolver(0, 0);
 					for(;;) {
 						long start = System.nanoTime();
 						final Pair<Chunk, Integer> chunkLength = chunkQueue.take();
@@ -496,7 +501,7 @@ public class GV4CompressedFunction<T> extends AbstractObject2LongFunction<T> imp
 						final int numEquations = chunkLength.getSecond().intValue();
 						final int numVariables = (int) (offsetAndSeed[chunk.index() + 1] - offsetAndSeed[chunk.index()] & OFFSET_MASK);
 						long seed = 0;
-						final Linear4SystemSolver solver = new Linear4SystemSolver(numVariables, numEquations);
+						solver.reset(numVariables, numEquations);
 
 						for(;;) {
 							final boolean solved = solver.generateAndSolve(chunk, seed, chunk.valueList(indirect ? values : null), coder, numVariables - globalMaxCodewordLength, globalMaxCodewordLength);
@@ -602,6 +607,70 @@ public class GV4CompressedFunction<T> extends AbstractObject2LongFunction<T> imp
 		return decoder.decode(code);
 	}
 
+	/** Computes the values associated with a list of keys.
+	 *
+	 * <p>This method returns the same results of repeated calls to {@link #getLong(Object)}, but
+	 * it processes keys in blocks: it hashes all keys in a block, then computes all equations, then
+	 * reads all bit ranges, and finally decodes the values. In this way the cache misses of
+	 * different keys overlap, and no object is allocated per key.
+	 *
+	 * @param keys a list of keys.
+	 * @param result an array of at least {@code keys.size()} elements that will be filled with the values
+	 * associated with the keys.
+	 */
+	@SuppressWarnings("unchecked")
+	public void getLongs(final List<? extends T> keys, final long[] result) {
+		final int size = keys.size();
+		if (result.length < size) throw new IllegalArgumentException("The result array has length " + result.length + ", but there are " + size + " keys");
+		if (n == 0) {
+			Arrays.fill(result, 0, size, defRetValue);
+			return;
+		}
+
+		final int w = globalMaxCodewordLength;
+		final long mask = w == 0 ? 0 : -1L >>> Long.SIZE - w;
+		final long[] bits = data.bits();
+		final long[][] triple = new long[BATCH_SIZE][3];
+		final int[] chunk = new int[BATCH_SIZE];
+		final long[] position = new long[4 * BATCH_SIZE];
+		final long[] code = new long[BATCH_SIZE];
+		final int[] e = new int[4];
+		final long[] hash = new long[4];
+
+		for (int start = 0; start < size; start += BATCH_SIZE) {
+			final int length = Math.min(BATCH_SIZE, size - start);
+
+			// First pass: hashing
+			for (int i = 0; i < length; i++) {
+				final long[] h = triple[i];
+				Hashes.spooky4(transform.toBitVector((T)keys.get(start + i)), globalSeed, h);
+				chunk[i] = chunkShift == Long.SIZE ? 0 : (int)(h[0] >>> chunkShift);
+			}
+
+			// Second pass: equations
+			for (int i = 0, j = 0; i < length; i++, j += 4) {
+				final long olc = offsetAndSeed[chunk[i]];
+				final long chunkOffset = olc & OFFSET_MASK;
+				final long nextChunkOffset = offsetAndSeed[chunk[i] + 1] & OFFSET_MASK;
+				Linear4SystemSolver.tripleToEquation(triple[i], olc & SEED_MASK, (int)(nextChunkOffset - chunkOffset - w), e, hash);
+				if (e[0] == -1) position[j] = -1;
+				else {
+					position[j] = e[0] + chunkOffset;
+					position[j + 1] = e[1] + chunkOffset;
+					position[j + 2] = e[2] + chunkOffset;
+					position[j + 3] = e[3] + chunkOffset;
+				}
+			}
+
+			// Third pass: gathering bit ranges
+			for (int i = 0, j = 0; i < length; i++, j += 4) if (position[j] != -1) code[i] = BitRanges.getLong(bits, position[j], w, mask) ^ BitRanges.getLong(bits, position[j + 1], w, mask) ^
+					BitRanges.getLong(bits, position[j + 2], w, mask) ^ BitRanges.getLong(bits, position[j + 3], w, mask);
+
+			// Fourth pass: decoding
+			for (int i = 0, j = 0; i < length; i++, j += 4) result[start + i] = position[j] == -1 ? defRetValue : decoder.decode(code[i]);
+		}
+	}
+
 	/**
 	 * Returns the number of keys in the function domain.
 	 *
@@ -643,8 +712,9 @@ public class GV4CompressedFunction<T> extends AbstractObject2LongFunction<T> imp
 						new Switch("utf32", JSAP.NO_SHORTFLAG, "utf-32", "Use UTF-32 internally (handles surrogate pairs)."),
 						new Switch("byteArray", 'b', "byte-array", "Create a function on byte arrays (no character encoding)."),
 						new Switch("zipped", 'z', "zipped", "The string list is compressed in gzip format."),
-						new FlaggedOption("codec", JSAP.STRING_PARSER, "HUFFMAN", JSAP.NOT_REQUIRED, 'C', "codec", "The name of the codec to use (UNARY, BINARY, GAMMA, HUFFMAN, LLHUFFMAN)."),
+						new FlaggedOption("codec", JSAP.STRING_PARSER, "HUFFMAN", JSAP.NOT_REQUIRED, 'C', "codec", "The name of the codec to use (UNARY, BINARY, GAMMA, DELTA, GOLOMB, RICE, HUFFMAN, LLHUFFMAN, BOUNDEDHUFFMAN, AUTO); LLHUFFMAN limits the length of the decoding table, whereas BOUNDEDHUFFMAN limits the length of codewords."),
 						new FlaggedOption("limit", JSAP.INTEGER_PARSER, "20", JSAP.NOT_REQUIRED, 'l', "limit", "Decoding-table length limit for the LLHUFFMAN codec."),
+						new FlaggedOption("lookupTableBits", JSAP.INTEGER_PARSER, "0", JSAP.NOT_REQUIRED, 't', "lookup-table-bits", "If positive, the HUFFMAN, LLHUFFMAN and BOUNDEDHUFFMAN codecs will decode short codewords using a lookup table indexed by this number of bits."),
 						new FlaggedOption("values", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.NOT_REQUIRED, 'v', "values", "A binary file in DataInput format containing a long for each string (otherwise, the values will be the ordinal positions of the strings)."),
 						new UnflaggedOption("function", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "The filename for the serialised GOV function."),
 						new UnflaggedOption("stringFile", JSAP.STRING_PARSER, "-", JSAP.NOT_REQUIRED, JSAP.NOT_GREEDY, "The name of a file containing a newline-separated list of strings, or - for standard input; in the first case, strings will not be loaded into core memory."), });
@@ -661,6 +731,7 @@ public class GV4CompressedFunction<T> extends AbstractObject2LongFunction<T> imp
 		final boolean iso = jsapResult.getBoolean("iso");
 		final boolean utf32 = jsapResult.getBoolean("utf32");
 		final int limit = jsapResult.getInt("limit");
+		final int lookupTableBits = jsapResult.getInt("lookupTableBits");
 
 		Codec codec = null;
 		switch (jsapResult.getString("codec")) {
@@ -673,11 +744,26 @@ public class GV4CompressedFunction<T> extends AbstractObject2LongFunction<T> imp
 		case "GAMMA":
 			codec = new Codec.Gamma();
 			break;
+		case "DELTA":
+			codec = new Codec.Delta();
+			break;
+		case "GOLOMB":
+			codec = new Codec.Golomb();
+			break;
+		case "RICE":
+			codec = new Codec.Rice();
+			break;
 		case "HUFFMAN":
-			codec = new Codec.Huffman();
+			codec = new Codec.Huffman(Integer.MAX_VALUE, 1, lookupTableBits);
 			break;
 		case "LLHUFFMAN":
-			codec = new Codec.Huffman(limit);
+			codec = new Codec.Huffman(limit, 0.99, lookupTableBits);
+			break;
+		case "BOUNDEDHUFFMAN":
+			codec = new Codec.LengthLimitedHuffman(62, 0.01, lookupTableBits);
+			break;
+		case "AUTO":
+			codec = new Codec.Auto();
 			break;
 		default:
 			throw new IllegalArgumentException("Unknown codec \"" + jsapResult.getString("codec") + "\"");
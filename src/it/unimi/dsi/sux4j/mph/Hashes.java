@@ -2169,19 +2169,75 @@ public class Hashes {
 	 * @see #spooky4(BitVector, long)
 	 */
 	public static long[] preprocessSpooky4(final BitVector bv, final long seed) {
+		return preprocessSpooky4(bv, seed, null, 0);
+	}
+
+	/**
+	 * Preprocesses a bit vector so that SpookyHash 4-word-state can be computed
+	 * in constant time on all prefixes, reusing the state of a bit vector sharing
+	 * a prefix with the given one.
+	 *
+	 * <p>Each group of four words of state depends only on a prefix of the bit vector,
+	 * so when hashing a sequence of keys with long common prefixes (e.g., sorted keys)
+	 * the part of the state depending only on the common prefix need not be recomputed.
+	 *
+	 * @param bv
+	 *            a bit vector.
+	 * @param seed
+	 *            a seed for the hash.
+	 * @param state
+	 *            the state returned by a previous call to this method (or to
+	 *            {@link #preprocessSpooky4(BitVector, long)}) with the same seed, or {@code null}.
+	 * @param lcp
+	 *            the length of the longest common prefix between {@code bv} and
+	 *            the bit vector used to compute {@code state} (ignored if {@code state} is {@code null}).
+	 * @return an array containing the four internal words of state during the
+	 *         hash computation, which might be {@code state} itself, if it was large enough;
+	 *         it can be passed to
+	 *         {@link #spooky4(BitVector, long, long, long[], long[])} (and
+	 *         analogous methods).
+	 * @see #preprocessSpooky4(BitVector, long)
+	 */
+	public static long[] preprocessSpooky4(final BitVector bv, final long seed, long[] state, final long lcp) {
 		final long length = bv.length();
-		if (length < Long.SIZE * 2) return null;
-		final long[] state = new long[4 * (int) (length + Long.SIZE * 2) / (4 * Long.SIZE)];
+		if (length < Long.SIZE * 2) return state;
+		final int stateLength = 4 * (int) (length + Long.SIZE * 2) / (4 * Long.SIZE);
+		// The k-th group of four words of state depends on the first 2 + 4k words of the bit vector.
+		final int reusable = state == null || lcp < Long.SIZE * 2 ? 0 : 4 * (int) ((lcp - Long.SIZE * 2) / (4 * Long.SIZE) + 1);
+
+		if (state == null || state.length < stateLength) {
+			final long[] newState = new long[stateLength];
+			if (reusable != 0) System.arraycopy(state, 0, newState, 0, reusable);
+			state = newState;
+		}
 
 		long h0, h1, h2, h3;
-		h0 = seed;
-		h1 = seed;
-		h2 = ARBITRARY_BITS;
-		h3 = ARBITRARY_BITS;
-
-		long remaining = length;
-		long pos = 0;
-		int p = 0;
+		long remaining, pos;
+		int p;
+
+		if (reusable == 0) {
+			h0 = seed;
+			h1 = seed;
+			h2 = ARBITRARY_BITS;
+			h3 = ARBITRARY_BITS;
+			remaining = length;
+			pos = 0;
+			p = 0;
+		}
+		else {
+			p = reusable;
+			h0 = state[p - 4];
+			h1 = state[p - 3];
+			h2 = state[p - 2];
+			h3 = state[p - 1];
+			pos = (p / 4 - 1) * 4L * Long.SIZE;
+			remaining = length - pos;
+			if (remaining < Long.SIZE * 6) return state;
+			h0 += bv.getLong(pos + 2 * Long.SIZE, pos + 3 * Long.SIZE);
+			h1 += bv.getLong(pos + 3 * Long.SIZE, pos + 4 * Long.SIZE);
+			remaining -= 4 * Long.SIZE;
+			pos += 4 * Long.SIZE;
+		}
 
 		for (;;) {
 			h2 += bv.getLong(pos + 0 * Long.SIZE, pos + 1 * Long.SIZE);
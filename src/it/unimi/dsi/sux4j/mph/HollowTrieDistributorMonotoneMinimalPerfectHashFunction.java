@@ -43,8 +43,10 @@ import com.martiansoftware.jsap.stringparsers.ForNameStringParser;
  */
 
 import it.unimi.dsi.bits.BitVector;
+import it.unimi.dsi.bits.BitVectors;
 import it.unimi.dsi.bits.Fast;
 import it.unimi.dsi.bits.HuTuckerTransformationStrategy;
+import it.unimi.dsi.bits.LongArrayBitVector;
 import it.unimi.dsi.bits.TransformationStrategies;
 import it.unimi.dsi.bits.TransformationStrategy;
 import it.unimi.dsi.fastutil.Size64;
@@ -53,12 +55,19 @@ import it.unimi.dsi.fastutil.longs.AbstractLongBigList;
 import it.unimi.dsi.io.FastBufferedReader;
 import it.unimi.dsi.io.FileLinesCollection;
 import it.unimi.dsi.io.LineIterator;
+import it.unimi.dsi.io.OfflineIterable;
 import it.unimi.dsi.lang.MutableString;
 import it.unimi.dsi.logging.ProgressLogger;
 
 /** A monotone minimal perfect hash implementation based on fixed-size bucketing that uses
  * a {@linkplain HollowTrieDistributor hollow trie} as a distributor.
  *
+ * <p>This function can be built {@linkplain #HollowTrieDistributorMonotoneMinimalPerfectHashFunction(Iterable, TransformationStrategy, File, boolean) enumerating
+ * the elements just once}, but, differently from {@link LcpMonotoneMinimalPerfectHashFunction} and its variants, in
+ * this case the whole bit vectors obtained from the elements are spilled to a temporary file: the distributor
+ * must walk its trie using each key to compute the behaviour of the key at its exit node, so bucket delimiters,
+ * longest common prefixes and signatures are not sufficient. The temporary file has thus about the size of the
+ * transformed keys.
  */
 
 public class HollowTrieDistributorMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFunction<T> implements Size64, Serializable {
@@ -109,6 +118,25 @@ public class HollowTrieDistributorMonotoneMinimalPerfectHashFunction<T> extends
 	 * by the {@link HollowTrieDistributor}, or {@code null} for the default temporary directory.
 	 */
 	public HollowTrieDistributorMonotoneMinimalPerfectHashFunction(final Iterable<? extends T> elements, final TransformationStrategy<? super T> transform, File tempDir) throws IOException {
+		this(elements, transform, tempDir, false);
+	}
+
+	/** Creates a new hollow-trie-based monotone minimal perfect hash function using the given
+	 * elements, transformation strategy, and temporary directory, possibly enumerating the elements just once.
+	 *
+	 * <p>The construction of the distributor requires several scans of the elements. If {@code singlePass} is true,
+	 * {@code elements} will be enumerated just once (e.g., because they are read from a stream), and the
+	 * bit vectors obtained from the elements will be spilled to a temporary file that will be used for all subsequent scans.
+	 * Note that the file contains the bit vectors in full, and that it is created in the default temporary directory, not in {@code tempDir}.
+	 *
+	 * @param elements the elements among which the trie must be able to rank.
+	 * @param transform a transformation strategy that must turn the elements in <code>elements</code> into a list of
+	 * distinct, prefix-free, lexicographically increasing (in iteration order) bit vectors.
+	 * @param tempDir a directory for the temporary files created during construction
+	 * by the {@link HollowTrieDistributor}, or {@code null} for the default temporary directory.
+	 * @param singlePass if true, {@code elements} will be enumerated just once.
+	 */
+	public HollowTrieDistributorMonotoneMinimalPerfectHashFunction(final Iterable<? extends T> elements, final TransformationStrategy<? super T> transform, File tempDir, final boolean singlePass) throws IOException {
 
 		this.transform = transform;
 
@@ -116,8 +144,11 @@ public class HollowTrieDistributorMonotoneMinimalPerfectHashFunction<T> extends
 		long totalLength = 0;
 		long c = 0;
 		BitVector bv;
+		@SuppressWarnings("resource")
+		final OfflineIterable<BitVector, LongArrayBitVector> spilledBitVectors = singlePass ? new OfflineIterable<>(BitVectors.OFFLINE_SERIALIZER, LongArrayBitVector.getInstance()) : null;
 		for(final T s: elements) {
 			bv = transform.toBitVector(s);
+			if (singlePass) spilledBitVectors.add(bv);
 			maxLength = Math.max(maxLength, bv.length());
 			totalLength += bv.length();
 			c++;
@@ -130,6 +161,7 @@ public class HollowTrieDistributorMonotoneMinimalPerfectHashFunction<T> extends
 			bucketSize = log2BucketSize = 0;
 			distributor = null;
 			offset = null;
+			if (singlePass) spilledBitVectors.close();
 			return;
 		}
 
@@ -142,7 +174,7 @@ public class HollowTrieDistributorMonotoneMinimalPerfectHashFunction<T> extends
 		final int bucketMask = bucketSize - 1;
 		LOGGER.debug("Bucket size: " + bucketSize);
 
-		final Iterable<BitVector> bitVectors = TransformationStrategies.wrap(elements, transform);
+		final Iterable<? extends BitVector> bitVectors = singlePass ? spilledBitVectors : TransformationStrategies.wrap(elements, transform);
 		distributor = new HollowTrieDistributor<>(bitVectors, log2BucketSize, TransformationStrategies.identity(), tempDir);
 		offset = new GOV3Function.Builder<BitVector>().keys(bitVectors).transform(TransformationStrategies.identity()).values(new AbstractLongBigList() {
 			@Override
@@ -155,6 +187,7 @@ public class HollowTrieDistributorMonotoneMinimalPerfectHashFunction<T> extends
 			}
 		}, log2BucketSize).build();
 
+		if (singlePass) spilledBitVectors.close();
 
 		LOGGER.debug("Forecast bit cost per element: " + (GOV3Function.C * (1 / Math.log(2) + 2 + Fast.log2(Math.log(2) / GOV3Function.C)) + Fast.log2(2 + Fast.log2(averageLength + 1))));
 		LOGGER.info("Actual bit cost per element: " + (double)numBits() / size);
@@ -28,8 +28,18 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Serializable;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.GZIPInputStream;
 
 import org.slf4j.Logger;
@@ -67,12 +77,19 @@ import it.unimi.dsi.io.OfflineIterable;
 import it.unimi.dsi.lang.MutableString;
 import it.unimi.dsi.logging.ProgressLogger;
 import it.unimi.dsi.sux4j.io.ChunkedHashStore;
+import it.unimi.dsi.util.concurrent.ReorderingBlockingQueue;
 
 /** A monotone minimal perfect hash implementation based on fixed-size bucketing that uses
  * longest common prefixes as distributors.
  *
  * <p>See the {@linkplain it.unimi.dsi.sux4j.mph package overview} for a comparison with other implementations.
  * Similarly to a {@link GOV3Function}, an instance of this class may be <em>{@linkplain Builder#signed(int) signed}</em>.
+ *
+ * <h2>Multithreading</h2>
+ *
+ * <p>Construction is multithreaded: keys are scanned once and grouped into segments made of whole buckets, which are hashed
+ * and checked in parallel; then, the two inner functions are built concurrently. The number of threads
+ * is the same used by {@link GOV3Function}, and can be set through the system property {@value GOV3Function#NUMBER_OF_THREADS_PROPERTY}.
  */
 
 public class LcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFunction<T> implements Size64, Serializable {
@@ -80,6 +97,10 @@ public class LcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFuncti
 	private static final Logger LOGGER = LoggerFactory.getLogger(LcpMonotoneMinimalPerfectHashFunction.class);
 	private static final boolean DEBUG = false;
 	private static final boolean ASSERTS = false;
+	/** The approximate number of keys in a segment processed by a construction thread. */
+	private static final int SEGMENT_SIZE = 1024;
+	/** A marker for the end of the segment queue. */
+	private static final Segment END_OF_SEGMENT_QUEUE = new Segment(-1, -1, null);
 
 	/** The number of keys. */
 	protected final long n;
@@ -110,6 +131,7 @@ public class LcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFuncti
 		protected long numKeys = -1;
 		protected int signatureWidth;
 		protected File tempDir;
+		protected boolean singlePass;
 		/** Whether {@link #build()} has already been called. */
 		protected boolean built;
 
@@ -168,6 +190,20 @@ public class LcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFuncti
 			return this;
 		}
 
+		/** Specifies that the {@linkplain #keys(Iterable) keys} must be enumerated just once (e.g., because they are read from a stream).
+		 *
+		 * <p>In this case, the {@linkplain #numKeys(long) number of keys} must be specified, unless the set of keys implements {@link Size64} or {@link Collection}.
+		 * Everything needed after the first scan (longest common prefixes, their lengths and the hashes of the keys) is kept in
+		 * temporary storage. Since the keys cannot be scanned again, a duplicate triple in the {@link ChunkedHashStore} (an
+		 * event of negligible probability if the keys are distinct) will cause an {@link IllegalStateException}.
+		 *
+		 * @return this builder.
+		 */
+		public Builder<T> singlePass() {
+			this.singlePass = true;
+			return this;
+		}
+
 		/** Builds an LCP monotone minimal perfect hash function.
 		 *
 		 * @return an {@link LcpMonotoneMinimalPerfectHashFunction} instance with the specified parameters.
@@ -176,7 +212,7 @@ public class LcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFuncti
 		public LcpMonotoneMinimalPerfectHashFunction<T> build() throws IOException {
 			if (built) throw new IllegalStateException("This builder has been already used");
 			built = true;
-			return new LcpMonotoneMinimalPerfectHashFunction<>(keys, numKeys, transform, signatureWidth, tempDir);
+			return new LcpMonotoneMinimalPerfectHashFunction<>(keys, numKeys, transform, signatureWidth, tempDir, singlePass);
 		}
 	}
 
@@ -188,9 +224,10 @@ public class LcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFuncti
 	 * @param transform a transformation strategy for the keys.
 	 * @param signatureWidth a signature width, or 0 for no signature.
 	 * @param tempDir a temporary directory for the store files, or {@code null} for the standard temporary directory.
+	 * @param singlePass if true, {@code keys} will be enumerated just once.
 	 */
 	@SuppressWarnings("unused")
-	protected LcpMonotoneMinimalPerfectHashFunction(final Iterable<? extends T> keys, final long numKeys, final TransformationStrategy<? super T> transform, final int signatureWidth, final File tempDir) throws IOException {
+	protected LcpMonotoneMinimalPerfectHashFunction(final Iterable<? extends T> keys, final long numKeys, final TransformationStrategy<? super T> transform, final int signatureWidth, final File tempDir, final boolean singlePass) throws IOException {
 		final ProgressLogger pl = new ProgressLogger(LOGGER);
 		pl.displayLocalSpeed = true;
 		pl.displayFreeMemory = true;
@@ -199,6 +236,7 @@ public class LcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFuncti
 		if (numKeys == -1) {
 			if (keys instanceof Size64) n = ((Size64)keys).size64();
 			else if (keys instanceof Collection) n = ((Collection<?>)keys).size();
+			else if (singlePass) throw new IllegalArgumentException("You must specify the number of keys for a single-pass construction");
 			else {
 				long c = 0;
 				for(final T dummy: keys) c++;
@@ -226,51 +264,77 @@ public class LcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFuncti
 
 		final long numBuckets = (n + bucketSize - 1) / bucketSize;
 
-		final LongArrayBitVector prev = LongArrayBitVector.getInstance();
-		final LongArrayBitVector curr = LongArrayBitVector.getInstance();
-		int currLcp = 0;
 		@SuppressWarnings("resource")
 		final OfflineIterable<BitVector, LongArrayBitVector> lcps = new OfflineIterable<>(BitVectors.OFFLINE_SERIALIZER, LongArrayBitVector.getInstance());
 		final int[][] lcpLengths = IntBigArrays.newBigArray(numBuckets);
-		int maxLcp = 0;
-		long maxLength = 0;
+		final AtomicInteger maxLcp = new AtomicInteger();
+		final AtomicLong maxLength = new AtomicLong();
 
 		pl.expectedUpdates = n;
 
 		@SuppressWarnings("resource")
 		final ChunkedHashStore<BitVector> chunkedHashStore = new ChunkedHashStore<>(TransformationStrategies.identity(), tempDir, pl);
-		chunkedHashStore.reset(Util.randomSeed());
+		final long storeSeed = Util.randomSeed();
+		chunkedHashStore.reset(storeSeed);
+
+		final int numberOfThreads = Integer.parseInt(System.getProperty(GOV3Function.NUMBER_OF_THREADS_PROPERTY, Integer.toString(Math.min(16, Runtime.getRuntime().availableProcessors()))));
+		final int bucketsPerSegment = Math.max(1, SEGMENT_SIZE >>> log2BucketSize);
+		final long numSegments = (numBuckets + bucketsPerSegment - 1) / bucketsPerSegment;
+		final ArrayBlockingQueue<Segment> segmentQueue = new ArrayBlockingQueue<>(numberOfThreads * 8);
+		final ReorderingBlockingQueue<Segment> scannedQueue = new ReorderingBlockingQueue<>(numberOfThreads * 16);
+		final ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads + 2);
+		final ExecutorCompletionService<Void> executorCompletionService = new ExecutorCompletionService<>(executorService);
 
 		pl.start("Scanning collection...");
 
-		final Iterator<? extends T> iterator = keys.iterator();
-		for(long b = 0; b < numBuckets; b++) {
-			prev.replace(transform.toBitVector(iterator.next()));
-			chunkedHashStore.add(prev);
-			pl.lightUpdate();
-			maxLength = Math.max(maxLength, prev.length());
-			currLcp = (int)prev.length();
-			final int currBucketSize = (int)Math.min(bucketSize, n - b * bucketSize);
-
-			for(int i = 0; i < currBucketSize - 1; i++) {
-				curr.replace(transform.toBitVector(iterator.next()));
-				chunkedHashStore.add(curr);
-				pl.lightUpdate();
-				final int prefix = (int)curr.longestCommonPrefixLength(prev);
-				if (prefix == prev.length() && prefix == curr.length()) throw new IllegalArgumentException("The input bit vectors are not distinct@" + (b * bucketSize + i) + " (\"" + curr + "\" = \"" + prev + "\")");
-				if (prefix == prev.length() || prefix == curr.length()) throw new IllegalArgumentException("The input bit vectors are not prefix-free@" + (b * bucketSize + i) + " (\"" + curr + "\" is a prefix or a suffix of \"" + prev + "\")");
-				if (prev.getBoolean(prefix)) throw new IllegalArgumentException("The input bit vectors are not lexicographically sorted @" + (b * bucketSize + i) + " (\"" + curr + "\" < \"" + prev + "\")");
-
-				currLcp = Math.min(prefix, currLcp);
-				prev.replace(curr);
+		// Reads the keys, turning them into bit vectors that are grouped into bucket-aligned segments.
+		executorCompletionService.submit(() -> {
+			final Iterator<? extends T> iterator = keys.iterator();
+			for(long s = 0; s < numSegments; s++) {
+				final long firstBucket = s * bucketsPerSegment;
+				final int segmentKeys = (int)Math.min((long)bucketsPerSegment << log2BucketSize, n - (firstBucket << log2BucketSize));
+				final LongArrayBitVector[] bitVectors = new LongArrayBitVector[segmentKeys];
+				for(int i = 0; i < segmentKeys; i++) bitVectors[i] = LongArrayBitVector.copy(transform.toBitVector(iterator.next()));
+				segmentQueue.put(new Segment(s, firstBucket, bitVectors));
+			}
+			// In case of failure, the remaining tasks are interrupted by waitForAll().
+			for(int i = numberOfThreads; i-- != 0;) segmentQueue.put(END_OF_SEGMENT_QUEUE);
+			return null;
+		});
 
-				maxLength = Math.max(maxLength, prev.length());
+		// Hashes the keys of each segment, checks their order and computes bucket LCPs.
+		for(int i = numberOfThreads; i-- != 0;) executorCompletionService.submit(() -> {
+			for(;;) {
+				final Segment segment = segmentQueue.take();
+				if (segment == END_OF_SEGMENT_QUEUE) return null;
+				segment.process(bucketSize, storeSeed);
+				maxLcp.accumulateAndGet(segment.maxLcp, Math::max);
+				maxLength.accumulateAndGet(segment.maxLength, Math::max);
+				scannedQueue.put(segment, segment.index);
 			}
+		});
 
-			lcps.add(prev.subVector(0, currLcp));
-			IntBigArrays.set(lcpLengths, b, currLcp);
-			maxLcp = Math.max(maxLcp, currLcp);
-		}
+		// Adds triples to the store and LCPs to the offline list in bucket order.
+		executorCompletionService.submit(() -> {
+			for(long s = 0; s < numSegments; s++) {
+				final Segment segment = scannedQueue.take();
+				final long firstKey = segment.firstBucket << log2BucketSize;
+				final long[] triple = new long[3];
+				for(int i = 0; i < segment.bitVectors.length; i++) {
+					System.arraycopy(segment.triples, 3 * i, triple, 0, 3);
+					chunkedHashStore.add(triple, firstKey + i);
+					pl.lightUpdate();
+				}
+				for(int b = 0; b < segment.lcpLength.length; b++) {
+					final int lastKey = Math.min((b + 1) << log2BucketSize, segment.bitVectors.length) - 1;
+					lcps.add(segment.bitVectors[lastKey].subVector(0, segment.lcpLength[b]));
+					IntBigArrays.set(lcpLengths, segment.firstBucket + b, segment.lcpLength[b]);
+				}
+			}
+			return null;
+		});
+
+		waitForAll(executorService, executorCompletionService, numberOfThreads + 2);
 
 		pl.done();
 
@@ -280,22 +344,44 @@ public class LcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFuncti
 			assert s.size() == lcps.size64() : s.size() + " != " + lcps.size64(); // No duplicates.
 		}
 
-		LOGGER.info("Generating the map from keys to LCP lengths and offsets...");
-		// Build function assigning the lcp length and the bucketing data to each element.
-		offsetLcpLength = new GOV3Function.Builder<BitVector>().keys(TransformationStrategies.wrap(keys, transform)).transform(TransformationStrategies.identity()).store(chunkedHashStore).values(new AbstractLongBigList() {
-			@Override
-			public long getLong(long index) {
-				return IntBigArrays.get(lcpLengths, index >>> log2BucketSize) << log2BucketSize | index & bucketSizeMask;
-			}
-			@Override
-			public long size64() {
-				return n;
-			}
-		}, log2BucketSize + Fast.length(maxLcp)).indirect().build();
+		// The two inner functions are independent, so we build them concurrently.
+		final ExecutorService innerExecutorService = Executors.newFixedThreadPool(2);
+		final Future<GOV3Function<BitVector>> offsetLcpLengthFuture = innerExecutorService.submit(() -> {
+			LOGGER.info("Generating the map from keys to LCP lengths and offsets...");
+			// Build function assigning the lcp length and the bucketing data to each element.
+			// In a single-pass construction we cannot provide the keys to recover from a duplicate triple.
+			return new GOV3Function.Builder<BitVector>().keys(singlePass ? null : TransformationStrategies.wrap(keys, transform)).transform(TransformationStrategies.identity()).store(chunkedHashStore).values(new AbstractLongBigList() {
+				@Override
+				public long getLong(long index) {
+					return IntBigArrays.get(lcpLengths, index >>> log2BucketSize) << log2BucketSize | index & bucketSizeMask;
+				}
+				@Override
+				public long size64() {
+					return n;
+				}
+			}, log2BucketSize + Fast.length(maxLcp.get())).indirect().build();
+		});
 
-		LOGGER.info("Generating the map from LCPs to buckets...");
-		// Build function assigning each lcp to its bucket.
-		lcp2Bucket = new GOV3Function.Builder<BitVector>().keys(lcps).transform(TransformationStrategies.identity()).tempDir(tempDir).build();
+		final Future<GOV3Function<BitVector>> lcp2BucketFuture = innerExecutorService.submit(() -> {
+			LOGGER.info("Generating the map from LCPs to buckets...");
+			// Build function assigning each lcp to its bucket.
+			return new GOV3Function.Builder<BitVector>().keys(lcps).transform(TransformationStrategies.identity()).tempDir(tempDir).build();
+		});
+
+		try {
+			offsetLcpLength = offsetLcpLengthFuture.get();
+			lcp2Bucket = lcp2BucketFuture.get();
+		} catch (final InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+			if (cause instanceof IOException) throw (IOException)cause;
+			throw new RuntimeException(cause);
+		}
+		finally {
+			innerExecutorService.shutdown();
+		}
 
 		if (DEBUG) {
 			int p = 0;
@@ -329,7 +415,7 @@ public class LcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFuncti
 			}
 		}
 
-		LOGGER.debug("Forecast bit cost per element: " + (log2(E) + GOV3Function.C - log2(log2(E)) + log2(1 + log2(n)) + log2(maxLength - log2(1 + log2(n)))));
+		LOGGER.debug("Forecast bit cost per element: " + (log2(E) + GOV3Function.C - log2(log2(E)) + log2(1 + log2(n)) + log2(maxLength.get() - log2(1 + log2(n)))));
 		LOGGER.info("Actual bit cost per element: " + (double)numBits() / n);
 
 		if (signatureWidth != 0) {
@@ -344,6 +430,100 @@ public class LcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFuncti
 		chunkedHashStore.close();
 	}
 
+	/** Waits for the completion of a given number of tasks, interrupting all tasks if one of them fails.
+	 *
+	 * @param executorService the executor service running the tasks; it will be shut down.
+	 * @param executorCompletionService a completion service wrapping {@code executorService}.
+	 * @param numberOfTasks the number of tasks submitted to {@code executorCompletionService}.
+	 */
+	private static void waitForAll(final ExecutorService executorService, final ExecutorCompletionService<Void> executorCompletionService, final int numberOfTasks) throws IOException {
+		try {
+			for(int i = numberOfTasks; i-- != 0;) executorCompletionService.take().get();
+		} catch (final InterruptedException e) {
+			executorService.shutdownNow();
+			throw new RuntimeException(e);
+		} catch (final ExecutionException e) {
+			executorService.shutdownNow();
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+			if (cause instanceof IOException) throw (IOException)cause;
+			throw new RuntimeException(cause);
+		}
+		finally {
+			executorService.shutdown();
+		}
+	}
+
+	/** A segment of consecutive keys made of a whole number of buckets.
+	 *
+	 * <p>Segments are created by the thread scanning the keys, {@linkplain #process(int, long) processed} in parallel, and
+	 * finally consumed in order. */
+	private static final class Segment {
+		/** The index of this segment. */
+		private final long index;
+		/** The first bucket of this segment. */
+		private final long firstBucket;
+		/** The keys of this segment, as bit vectors. */
+		private final LongArrayBitVector[] bitVectors;
+		/** The triples associated with {@link #bitVectors}, stored consecutively. */
+		private long[] triples;
+		/** The length of the longest common prefix of each bucket of this segment. */
+		private int[] lcpLength;
+		/** The maximum value in {@link #lcpLength}. */
+		private int maxLcp;
+		/** The maximum length of a bit vector in {@link #bitVectors}. */
+		private long maxLength;
+
+		private Segment(final long index, final long firstBucket, final LongArrayBitVector[] bitVectors) {
+			this.index = index;
+			this.firstBucket = firstBucket;
+			this.bitVectors = bitVectors;
+		}
+
+		/** Hashes the keys of this segment and computes the longest common prefix of each bucket.
+		 *
+		 * @param bucketSize the bucket size.
+		 * @param seed the seed of the {@link ChunkedHashStore}.
+		 * @throws IllegalArgumentException if the keys in a bucket are not distinct, prefix-free and lexicographically sorted.
+		 */
+		private void process(final int bucketSize, final long seed) {
+			final int numKeys = bitVectors.length;
+			final long firstKey = firstBucket * bucketSize;
+			final long[] triple = new long[3];
+			triples = new long[3 * numKeys];
+			lcpLength = new int[(numKeys + bucketSize - 1) / bucketSize];
+
+			for(int i = 0; i < numKeys; i++) {
+				Hashes.spooky4(bitVectors[i], seed, triple);
+				System.arraycopy(triple, 0, triples, 3 * i, 3);
+			}
+
+			for(int b = 0; b < lcpLength.length; b++) {
+				final int first = b * bucketSize;
+				final int last = Math.min(first + bucketSize, numKeys);
+				LongArrayBitVector prev = bitVectors[first];
+				maxLength = Math.max(maxLength, prev.length());
+				int currLcp = (int)prev.length();
+
+				for(int i = first + 1; i < last; i++) {
+					final LongArrayBitVector curr = bitVectors[i];
+					final int prefix = (int)curr.longestCommonPrefixLength(prev);
+					if (prefix == prev.length() && prefix == curr.length()) throw new IllegalArgumentException("The input bit vectors are not distinct@" + (firstKey + i - 1) + " (\"" + curr + "\" = \"" + prev + "\")");
+					if (prefix == prev.length() || prefix == curr.length()) throw new IllegalArgumentException("The input bit vectors are not prefix-free@" + (firstKey + i - 1) + " (\"" + curr + "\" is a prefix or a suffix of \"" + prev + "\")");
+					if (prev.getBoolean(prefix)) throw new IllegalArgumentException("The input bit vectors are not lexicographically sorted @" + (firstKey + i - 1) + " (\"" + curr + "\" < \"" + prev + "\")");
+
+					currLcp = Math.min(prefix, currLcp);
+					prev = curr;
+
+					maxLength = Math.max(maxLength, prev.length());
+				}
+
+				lcpLength[b] = currLcp;
+				maxLcp = Math.max(maxLcp, currLcp);
+			}
+		}
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	public long getLong(final Object o) {
@@ -360,6 +540,58 @@ public class LcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFuncti
 		return result < 0 || result >= n ? defRetValue : result;
 	}
 
+	/** Computes the values associated with a list of keys.
+	 *
+	 * <p>This method returns the same results of repeated calls to {@link #getLong(Object)},
+	 * but it is significantly faster when keys are sorted (more precisely, when their images
+	 * under the transformation strategy are in lexicographical order), as it is the case, for instance,
+	 * in a merge join. The hash state of the part of a key shared with the previous key
+	 * is not recomputed, and the bucket of the previous key is reused when the two keys share the bucket prefix.
+	 * Unsorted keys yield correct results, albeit with no speedup.
+	 *
+	 * @param keys a list of keys, preferably sorted.
+	 * @param result an array of at least {@code keys.size()} elements that will be filled with the values
+	 * associated with the keys.
+	 */
+	public void getLongs(final List<? extends T> keys, final long[] result) {
+		final int size = keys.size();
+		if (result.length < size) throw new IllegalArgumentException("The result array has length " + result.length + ", but there are " + size + " keys");
+		if (n == 0) {
+			Arrays.fill(result, 0, size, defRetValue);
+			return;
+		}
+		final LongArrayBitVector prev = LongArrayBitVector.getInstance();
+		final long[] triple = new long[3];
+		long[] state = null;
+		long prevPrefix = -1, prevBucket = -1;
+
+		for(int i = 0; i < size; i++) {
+			final BitVector bitVector = transform.toBitVector(keys.get(i));
+			final long lcp = i == 0 ? 0 : bitVector.longestCommonPrefixLength(prev);
+			state = Hashes.preprocessSpooky4(bitVector, seed, state, lcp);
+			Hashes.spooky4(bitVector, bitVector.length(), seed, state, triple);
+			prev.replace(bitVector);
+
+			final long value = offsetLcpLength.getLongByTriple(triple);
+			final long prefix = value >>> log2BucketSize;
+			if (prefix > bitVector.length()) {
+				result[i] = defRetValue;
+				prevPrefix = -1;
+				continue;
+			}
+
+			if (prefix != prevPrefix || lcp < prefix) {
+				prevBucket = lcp2Bucket.getLong(bitVector.subVector(0, prefix));
+				prevPrefix = prefix;
+			}
+
+			final long r = (prevBucket << log2BucketSize) + (value & bucketSizeMask);
+			if (signatureMask != 0) result[i] = r < 0 || r >= n || signatures.getLong(r) != (triple[0] & signatureMask) ? defRetValue : r;
+			// Out-of-set strings can generate bizarre 3-hyperedges.
+			else result[i] = r < 0 || r >= n ? defRetValue : r;
+		}
+	}
+
 	@Override
 	public long size64() {
 		return n;
@@ -418,7 +650,7 @@ public class LcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFuncti
 				: utf32
 					? TransformationStrategies.prefixFreeUtf32()
 					: TransformationStrategies.prefixFreeUtf16();
-		BinIO.storeObject(new LcpMonotoneMinimalPerfectHashFunction<CharSequence>(collection, -1, transformationStrategy, signatureWidth, tempDir), functionName);
+		BinIO.storeObject(new LcpMonotoneMinimalPerfectHashFunction<CharSequence>(collection, -1, transformationStrategy, signatureWidth, tempDir, false), functionName);
 		LOGGER.info("Completed.");
 	}
 }
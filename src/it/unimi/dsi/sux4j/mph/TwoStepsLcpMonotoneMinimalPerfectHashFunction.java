@@ -63,6 +63,7 @@ import it.unimi.dsi.io.OfflineIterable;
 import it.unimi.dsi.lang.MutableString;
 import it.unimi.dsi.logging.ProgressLogger;
 import it.unimi.dsi.sux4j.io.ChunkedHashStore;
+import it.unimi.dsi.sux4j.io.ChunkedHashStore.DuplicateException;
 import it.unimi.dsi.util.XoRoShiRo128PlusRandomGenerator;
 
 /** A monotone minimal perfect hash implementation based on fixed-size bucketing that uses
@@ -88,6 +89,7 @@ public class TwoStepsLcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHa
 		protected long numKeys = -1;
 		protected int signatureWidth;
 		protected File tempDir;
+		protected boolean singlePass;
 		/** Whether {@link #build()} has already been called. */
 		protected boolean built;
 
@@ -146,6 +148,20 @@ public class TwoStepsLcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHa
 			return this;
 		}
 
+		/** Specifies that the {@linkplain #keys(Iterable) keys} must be enumerated just once (e.g., because they are read from a stream).
+		 *
+		 * <p>In this case, the {@linkplain #numKeys(long) number of keys} must be specified, unless the set of keys implements {@link Size64} or {@link Collection}.
+		 * Everything needed after the first scan (longest common prefixes, their lengths and the hashes of the keys) is kept in
+		 * temporary storage. Since the keys cannot be scanned again, a duplicate triple in the {@link ChunkedHashStore} (an
+		 * event of negligible probability if the keys are distinct) will cause an {@link IllegalStateException}.
+		 *
+		 * @return this builder.
+		 */
+		public Builder<T> singlePass() {
+			this.singlePass = true;
+			return this;
+		}
+
 		/** Builds a two-steps LCP monotone minimal perfect hash function.
 		 *
 		 * @return a {@link TwoStepsLcpMonotoneMinimalPerfectHashFunction} instance with the specified parameters.
@@ -154,7 +170,7 @@ public class TwoStepsLcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHa
 		public TwoStepsLcpMonotoneMinimalPerfectHashFunction<T> build() throws IOException {
 			if (built) throw new IllegalStateException("This builder has been already used");
 			built = true;
-			return new TwoStepsLcpMonotoneMinimalPerfectHashFunction<>(keys, numKeys, transform, signatureWidth, tempDir);
+			return new TwoStepsLcpMonotoneMinimalPerfectHashFunction<>(keys, numKeys, transform, signatureWidth, tempDir, singlePass);
 		}
 	}
 
@@ -191,9 +207,10 @@ public class TwoStepsLcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHa
 	 * @param transform a transformation strategy for the keys.
 	 * @param signatureWidth a signature width, or 0 for no signature.
 	 * @param tempDir a temporary directory for the store files, or {@code null} for the standard temporary directory.
+	 * @param singlePass if true, {@code keys} will be enumerated just once.
 	 */
 	@SuppressWarnings("unused")
-	protected TwoStepsLcpMonotoneMinimalPerfectHashFunction(final Iterable<? extends T> keys, final long numKeys, final TransformationStrategy<? super T> transform, final int signatureWidth, final File tempDir) throws IOException {
+	protected TwoStepsLcpMonotoneMinimalPerfectHashFunction(final Iterable<? extends T> keys, final long numKeys, final TransformationStrategy<? super T> transform, final int signatureWidth, final File tempDir, final boolean singlePass) throws IOException {
 		final ProgressLogger pl = new ProgressLogger(LOGGER);
 		pl.displayLocalSpeed = true;
 		pl.displayFreeMemory = true;
@@ -203,6 +220,7 @@ public class TwoStepsLcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHa
 		if (numKeys == -1) {
 			if (keys instanceof Size64) n = ((Size64)keys).size64();
 			else if (keys instanceof Collection) n = ((Collection<?>)keys).size();
+			else if (singlePass) throw new IllegalArgumentException("You must specify the number of keys for a single-pass construction");
 			else {
 				long c = 0;
 				for(final T dummy: keys) c++;
@@ -241,7 +259,7 @@ public class TwoStepsLcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHa
 		long maxLength = 0;
 
 		@SuppressWarnings("resource")
-		final ChunkedHashStore<BitVector> chunkedHashStore = new ChunkedHashStore<>(TransformationStrategies.identity(), pl);
+		final ChunkedHashStore<BitVector> chunkedHashStore = new ChunkedHashStore<>(TransformationStrategies.identity(), tempDir, pl);
 		chunkedHashStore.reset(r.nextLong());
 		pl.expectedUpdates = n;
 		pl.start("Scanning collection...");
@@ -278,7 +296,15 @@ public class TwoStepsLcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHa
 		pl.done();
 
 		// We must be sure that both functions are built on the same store.
-		chunkedHashStore.checkAndRetry(TransformationStrategies.wrap(keys, transform));
+		if (singlePass) {
+			try {
+				chunkedHashStore.check();
+			}
+			catch(final DuplicateException e) {
+				throw new IllegalStateException("The chunked hash store contains a duplicate triple, but the keys cannot be scanned again");
+			}
+		}
+		else chunkedHashStore.checkAndRetry(TransformationStrategies.wrap(keys, transform));
 		this.seed = chunkedHashStore.seed();
 
 		if (ASSERTS) {
@@ -461,7 +487,7 @@ public class TwoStepsLcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHa
 					? TransformationStrategies.prefixFreeUtf32()
 					: TransformationStrategies.prefixFreeUtf16();
 
-		BinIO.storeObject(new TwoStepsLcpMonotoneMinimalPerfectHashFunction<CharSequence>(collection, -1, transformationStrategy, signatureWidth, tempDir), functionName);
+		BinIO.storeObject(new TwoStepsLcpMonotoneMinimalPerfectHashFunction<CharSequence>(collection, -1, transformationStrategy, signatureWidth, tempDir, false), functionName);
 		LOGGER.info("Completed.");
 	}
 }
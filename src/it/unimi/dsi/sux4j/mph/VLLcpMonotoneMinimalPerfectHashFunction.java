@@ -114,8 +114,25 @@ public class VLLcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFunc
 		this(iterable, -1, transform);
 	}
 
-	@SuppressWarnings("unused")
 	public VLLcpMonotoneMinimalPerfectHashFunction(final Iterable<? extends T> iterable, final int numElements, final TransformationStrategy<? super T> transform) throws IOException {
+		this(iterable, numElements, transform, false);
+	}
+
+	/** Creates a new variable-length LCP monotone minimal perfect hash function for the given elements.
+	 *
+	 * <p>If {@code singlePass} is true, the elements will be enumerated just once (e.g., because they are read from a stream):
+	 * longest common prefixes and hashes are kept in temporary storage, and the number of elements must be specified unless
+	 * {@code iterable} implements {@link Size64} or {@link Collection}. Since the elements cannot be scanned again,
+	 * a duplicate triple in the {@link ChunkedHashStore} (an event of negligible probability if the elements are distinct)
+	 * will cause an {@link IllegalStateException}.
+	 *
+	 * @param iterable the elements to hash.
+	 * @param numElements the number of elements, or -1 if the number of elements is not known.
+	 * @param transform a transformation strategy for the elements.
+	 * @param singlePass if true, {@code iterable} will be enumerated just once.
+	 */
+	@SuppressWarnings("unused")
+	public VLLcpMonotoneMinimalPerfectHashFunction(final Iterable<? extends T> iterable, final long numElements, final TransformationStrategy<? super T> transform, final boolean singlePass) throws IOException {
 
 		final ProgressLogger pl = new ProgressLogger(LOGGER);
 		pl.displayLocalSpeed = true;
@@ -126,6 +143,7 @@ public class VLLcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFunc
 		if (numElements == -1) {
 			if (iterable instanceof Size64) n = ((Size64)iterable).size64();
 			else if (iterable instanceof Collection) n = ((Collection<?>)iterable).size();
+			else if (singlePass) throw new IllegalArgumentException("You must specify the number of elements for a single-pass construction");
 			else {
 				long c = 0;
 				for(final T dummy: iterable) c++;
@@ -219,7 +237,8 @@ public class VLLcpMonotoneMinimalPerfectHashFunction<T> extends AbstractHashFunc
 
 		lcps.close();
 
-		final Iterable<BitVector> bitVectors = TransformationStrategies.wrap(iterable, transform);
+		// In a single-pass construction we cannot provide the elements to recover from a duplicate triple.
+		final Iterable<BitVector> bitVectors = singlePass ? null : TransformationStrategies.wrap(iterable, transform);
 		// Build mph on elements.
 		mph = new GOVMinimalPerfectHashFunction.Builder<BitVector>().keys(bitVectors).transform(TransformationStrategies.identity()).store(chunkedHashStore).build();
 		this.seed = chunkedHashStore.seed();
@@ -21,6 +21,7 @@ package it.unimi.dsi.sux4j.mph.codec;
  */
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 import com.google.common.primitives.Longs;
 
@@ -29,6 +30,7 @@ import it.unimi.dsi.fastutil.longs.Long2IntMap;
 import it.unimi.dsi.fastutil.longs.Long2IntMaps;
 import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongMaps;
 import it.unimi.dsi.fastutil.longs.LongArrays;
 import it.unimi.dsi.sux4j.mph.GV3CompressedFunction;
 
@@ -263,14 +265,330 @@ public interface Codec {
 		}
 	}
 
-	/** A Huffman codec with length-limiting capabilities and a fast canonical decoder. */
+	/** A codec based on Elias's &delta; code (starting at zero).
+	 *
+	 * <p>This code is preferable to {@linkplain Gamma &gamma;} when symbols are large
+	 * but still skewed towards small values, as its codewords are asymptotically shorter.
+	 */
+	public static class Delta implements Codec {
+		protected static class Coder implements Codec.Coder {
+			private final int maxCodewordLength;
+
+			protected final static class Decoder implements Codec.Decoder {
+				private static final long serialVersionUID = 0L;
+				private final int maxCodewordLengthMinus64;
+				private final int maxCodewordLengthMinusOne;
+
+				public Decoder(final int maxCodewordLength) {
+					this.maxCodewordLengthMinus64 = maxCodewordLength - 64;
+					this.maxCodewordLengthMinusOne = maxCodewordLength - 1;
+				}
+
+				@Override
+				public long decode(final long code) {
+					// The &gamma;-coded length of the symbol plus one
+					final int shift = maxCodewordLengthMinusOne - 2 * (maxCodewordLengthMinus64 + Long.numberOfLeadingZeros(code));
+					final int msb = (int)(code >>> shift) - 1;
+					return (1L << msb | code >>> shift - msb & (1L << msb) - 1) - 1;
+				}
+
+				@Override
+				public long numBits() {
+					return 2 * Integer.SIZE;
+				}
+			}
+
+			public Coder(final int maxCodewordLength) {
+				this.maxCodewordLength = maxCodewordLength;
+			}
+
+			@Override
+			public long encode(long symbol) {
+				symbol++;
+				final int msb = Fast.mostSignificantBit(symbol);
+				return Long.reverse((long)(msb + 1) << msb | symbol & (1L << msb) - 1) >>> 64 - length(symbol);
+			}
+
+			@Override
+			public int codewordLength(final long symbol) {
+				return length(symbol + 1);
+			}
+
+			private static int length(final long x) {
+				final int msb = Fast.mostSignificantBit(x);
+				return 2 * Fast.mostSignificantBit(msb + 1) + 1 + msb;
+			}
+
+			@Override
+			public int maxCodewordLength() {
+				return maxCodewordLength;
+			}
+
+			@Override
+			public Decoder getDecoder() {
+				return new Decoder(maxCodewordLength);
+			}
+		}
+
+		@Override
+		public Coder getCoder(final Long2LongMap frequencies) {
+			assert Longs.min(frequencies.values().toLongArray()) > 0;
+			final int maxCodewordLength = Coder.length(Longs.max(frequencies.keySet().toLongArray()) + 1);
+			if (maxCodewordLength > Long.SIZE) throw new IllegalArgumentException("Codeword length must not exceed " + Long.SIZE);
+			return new Coder(maxCodewordLength);
+		}
+	}
+
+	/** A Golomb codec (starting at zero).
+	 *
+	 * <p>A symbol <var>x</var> is coded as &lfloor;<var>x</var>&nbsp;/&nbsp;<var>b</var>&rfloor; in unary, followed by
+	 * <var>x</var>&nbsp;mod&nbsp;<var>b</var> in truncated binary, where <var>b</var> is the <em>modulus</em> of the code.
+	 * If no modulus is specified at construction time, the codec will choose the modulus minimizing the coded length
+	 * among values close to the optimal one for a geometric distribution with the same mean.
+	 *
+	 * @see Rice
+	 */
+	public static class Golomb implements Codec {
+		/** The modulus, or 0 if the modulus must be chosen depending on the frequencies. */
+		private final long modulus;
+
+		/** Creates a new Golomb codec with given modulus.
+		 *
+		 * @param modulus the modulus of the code, or 0 if the modulus should be computed automatically.
+		 */
+		public Golomb(final long modulus) {
+			if (modulus < 0 || modulus > 1L << 62) throw new IllegalArgumentException("Illegal modulus: " + modulus);
+			this.modulus = modulus;
+		}
+
+		/** Creates a new Golomb codec choosing its modulus automatically. */
+		public Golomb() {
+			this(0);
+		}
+
+		protected static class Coder implements Codec.Coder {
+			private final long modulus;
+			private final int log2Modulus;
+			/** The number of remainders coded with {@link #log2Modulus} &minus; 1 bits. */
+			private final long threshold;
+			private final int maxCodewordLength;
+
+			protected final static class Decoder implements Codec.Decoder {
+				private static final long serialVersionUID = 0L;
+				private final long modulus;
+				private final int log2Modulus;
+				private final long threshold;
+				private final int maxCodewordLengthMinus64;
+				private final int maxCodewordLengthMinusOne;
+
+				public Decoder(final long modulus, final int log2Modulus, final long threshold, final int maxCodewordLength) {
+					this.modulus = modulus;
+					this.log2Modulus = log2Modulus;
+					this.threshold = threshold;
+					this.maxCodewordLengthMinus64 = maxCodewordLength - 64;
+					this.maxCodewordLengthMinusOne = maxCodewordLength - 1;
+				}
+
+				@Override
+				public long decode(final long code) {
+					final int quotient = maxCodewordLengthMinus64 + Long.numberOfLeadingZeros(code);
+					// The number of bits following the unary part
+					final int rest = maxCodewordLengthMinusOne - quotient;
+					final int k = log2Modulus;
+					if (threshold == 0) return quotient * modulus + (code >>> rest - k & (1L << k) - 1);
+					final long r = code >>> rest - k + 1 & (1L << k - 1) - 1;
+					if (r < threshold) return quotient * modulus + r;
+					return quotient * modulus + (code >>> rest - k & (1L << k) - 1) - threshold;
+				}
+
+				@Override
+				public long numBits() {
+					return 2 * Long.SIZE + 3 * Integer.SIZE;
+				}
+			}
+
+			public Coder(final long modulus, final int maxCodewordLength) {
+				this.modulus = modulus;
+				this.log2Modulus = Fast.ceilLog2(modulus);
+				this.threshold = (1L << log2Modulus) - modulus;
+				this.maxCodewordLength = maxCodewordLength;
+			}
+
+			@Override
+			public long encode(final long symbol) {
+				final long quotient = symbol / modulus;
+				final long remainder = symbol % modulus;
+				final int width = remainder < threshold ? log2Modulus - 1 : log2Modulus;
+				return Long.reverse(1L << width | (remainder < threshold ? remainder : remainder + threshold)) >>> 64 - (int)(quotient + 1 + width);
+			}
+
+			@Override
+			public int codewordLength(final long symbol) {
+				return (int)length(symbol, modulus, log2Modulus, threshold);
+			}
+
+			/** Returns the length of a codeword; note that the result might exceed the range of an integer. */
+			private static long length(final long symbol, final long modulus, final int log2Modulus, final long threshold) {
+				return symbol / modulus + 1 + (symbol % modulus < threshold ? log2Modulus - 1 : log2Modulus);
+			}
+
+			@Override
+			public int maxCodewordLength() {
+				return maxCodewordLength;
+			}
+
+			@Override
+			public Decoder getDecoder() {
+				return new Decoder(modulus, log2Modulus, threshold, maxCodewordLength);
+			}
+		}
+
+		/** Returns the overall number of bits used by a Golomb code with given modulus to code symbols with given frequencies.
+		 *
+		 * @param symbol an array of symbols.
+		 * @param frequency the frequency of each symbol in {@code symbol}.
+		 * @param modulus a modulus.
+		 * @return the overall coded length, or {@link Long#MAX_VALUE} if some codeword would be longer than {@link Long#SIZE} bits.
+		 */
+		protected static long codedLength(final long[] symbol, final long[] frequency, final long modulus) {
+			final int log2Modulus = Fast.ceilLog2(modulus);
+			final long threshold = (1L << log2Modulus) - modulus;
+			long overallLength = 0;
+			for (int i = symbol.length; i-- != 0;) {
+				final long length = Coder.length(symbol[i], modulus, log2Modulus, threshold);
+				if (length > Long.SIZE) return Long.MAX_VALUE;
+				overallLength += length * frequency[i];
+			}
+			return overallLength;
+		}
+
+		/** Returns a coder for a given modulus.
+		 *
+		 * @param symbol an array of symbols.
+		 * @param modulus a modulus.
+		 * @return a Golomb coder with given modulus.
+		 */
+		protected static Coder getCoder(final long[] symbol, final long modulus) {
+			final int log2Modulus = Fast.ceilLog2(modulus);
+			final long threshold = (1L << log2Modulus) - modulus;
+			long maxCodewordLength = 0;
+			for (final long s : symbol) maxCodewordLength = Math.max(maxCodewordLength, Coder.length(s, modulus, log2Modulus, threshold));
+			if (maxCodewordLength > Long.SIZE) throw new IllegalArgumentException("Codeword length must not exceed " + Long.SIZE);
+			return new Coder(modulus, (int)maxCodewordLength);
+		}
+
+		@Override
+		public Coder getCoder(final Long2LongMap frequencies) {
+			assert Longs.min(frequencies.values().toLongArray()) > 0;
+			final long[] symbol = new long[frequencies.size()];
+			final long[] frequency = new long[frequencies.size()];
+			int i = 0;
+			double sum = 0, count = 0;
+			for (final Long2LongMap.Entry e : Long2LongMaps.fastIterable(frequencies)) {
+				symbol[i] = e.getLongKey();
+				frequency[i++] = e.getLongValue();
+				sum += (double)e.getLongKey() * e.getLongValue();
+				count += e.getLongValue();
+			}
+
+			if (modulus != 0) return getCoder(symbol, modulus);
+
+			// The modulus that would be optimal for a geometric distribution with the same mean
+			final long optimal = Math.min(1L << 61, Math.max(1, (long)Math.ceil(Math.log(2) * sum / count)));
+			// A modulus that always works, as all quotients are at most one
+			long best = Math.max(1, Long.highestOneBit(Longs.max(symbol)));
+			long bestLength = codedLength(symbol, frequency, best);
+			for (long m = Math.max(1, optimal / 2), step = Math.max(1, optimal / 32); m <= 2 * optimal; m += step) {
+				final long length = codedLength(symbol, frequency, m);
+				if (length < bestLength) {
+					bestLength = length;
+					best = m;
+				}
+			}
+
+			return getCoder(symbol, best);
+		}
+	}
+
+	/** A Rice codec (starting at zero), that is, a {@linkplain Golomb Golomb codec} whose modulus is a power of two.
+	 *
+	 * <p>If no modulus is specified at construction time, the codec will choose the one minimizing the coded length.
+	 */
+	public static class Rice implements Codec {
+		/** The base-2 logarithm of the modulus, or -1 if the modulus must be chosen depending on the frequencies. */
+		private final int log2Modulus;
+
+		/** Creates a new Rice codec with given modulus.
+		 *
+		 * @param log2Modulus the base-2 logarithm of the modulus of the code, or -1 if the modulus should be computed automatically.
+		 */
+		public Rice(final int log2Modulus) {
+			if (log2Modulus < -1 || log2Modulus > 62) throw new IllegalArgumentException("Illegal modulus logarithm: " + log2Modulus);
+			this.log2Modulus = log2Modulus;
+		}
+
+		/** Creates a new Rice codec choosing its modulus automatically. */
+		public Rice() {
+			this(-1);
+		}
+
+		@Override
+		public Golomb.Coder getCoder(final Long2LongMap frequencies) {
+			assert Longs.min(frequencies.values().toLongArray()) > 0;
+			final long[] symbol = new long[frequencies.size()];
+			final long[] frequency = new long[frequencies.size()];
+			int i = 0;
+			for (final Long2LongMap.Entry e : Long2LongMaps.fastIterable(frequencies)) {
+				symbol[i] = e.getLongKey();
+				frequency[i++] = e.getLongValue();
+			}
+
+			if (log2Modulus != -1) return Golomb.getCoder(symbol, 1L << log2Modulus);
+
+			int best = 62;
+			long bestLength = Golomb.codedLength(symbol, frequency, 1L << best);
+			for (int k = 0; k < 62; k++) {
+				final long length = Golomb.codedLength(symbol, frequency, 1L << k);
+				if (length < bestLength) {
+					bestLength = length;
+					best = k;
+				}
+			}
+
+			return Golomb.getCoder(symbol, 1L << best);
+		}
+	}
+
+	/** A Huffman codec with length-limiting capabilities and a fast canonical decoder.
+	 *
+	 * <p>Optionally, the decoder can use a lookup table of 2<sup><var>k</var></sup> entries indexed by
+	 * the first <var>k</var> bits of the stream, which decodes directly codewords of length at most <var>k</var>,
+	 * falling back to the canonical decoder only for longer codewords. When the distribution of symbols
+	 * is skewed but the number of distinct symbols is large, this approach avoids the linear scan
+	 * of the canonical decoder for most lookups.
+	 */
 	public static class Huffman implements Codec {
 		private final int maxDecodingTableLength;
 		private final double entropyThreshold;
+		private final int lookupTableBits;
 
-		public Huffman(final int maxDecodingTableLength, final double entropyThreshold) {
+		/** Creates a new Huffman codec.
+		 *
+		 * @param maxDecodingTableLength the maximum length of the table of the canonical decoder.
+		 * @param entropyThreshold the fraction of the coded length that must be accounted by the symbols
+		 * with a length-unlimited codeword.
+		 * @param lookupTableBits if positive, the decoder will use a lookup table of
+		 * 2<sup>{@code lookupTableBits}</sup> entries (capped by the maximum codeword length).
+		 */
+		public Huffman(final int maxDecodingTableLength, final double entropyThreshold, final int lookupTableBits) {
+			if (lookupTableBits < 0 || lookupTableBits > 30) throw new IllegalArgumentException("Illegal number of lookup-table bits: " + lookupTableBits);
 			this.maxDecodingTableLength = maxDecodingTableLength;
 			this.entropyThreshold = entropyThreshold;
+			this.lookupTableBits = lookupTableBits;
+		}
+
+		public Huffman(final int maxDecodingTableLength, final double entropyThreshold) {
+			this(maxDecodingTableLength, entropyThreshold, 0);
 		}
 
 		public Huffman(final int maxDepth) {
@@ -286,8 +604,9 @@ public interface Codec {
 			private final int[] codewordLength;
 			private final long[] symbol;
 			private final Long2IntMap symbol2Rank;
+			private final int lookupTableBits;
 
-			protected final static class Decoder implements Codec.Decoder {
+			protected static class Decoder implements Codec.Decoder {
 				private static final long serialVersionUID = 0L;
 
 				private final long[] lastCodeWordPlusOne;
@@ -326,11 +645,55 @@ public interface Codec {
 
 			}
 
+			/** A canonical decoder using a lookup table for short codewords. */
+			protected final static class TableDecoder extends Decoder {
+				private static final long serialVersionUID = 0L;
+
+				/** For each possible value of the first bits of the stream, the rank of the symbol whose codeword is a prefix of those bits, or -1. */
+				private final int[] table;
+				/** The shift that leaves in the stream the bits used to index {@link #table}. */
+				private final int tableShift;
+				/** The first block of the canonical decoder containing codewords that cannot be decoded using {@link #table}. */
+				private final int firstBlock;
+
+				public TableDecoder(final long[] lastCodeWordPlusOne, final int[] howManyUpToBlock, final int[] shift, final long[] symbol, final int[] table, final int tableShift, final int firstBlock) {
+					super(lastCodeWordPlusOne, howManyUpToBlock, shift, symbol);
+					this.table = table;
+					this.tableShift = tableShift;
+					this.firstBlock = firstBlock;
+				}
+
+				@Override
+				public long decode(final long value) {
+					final long[] symbol = super.symbol;
+					final int rank = table[(int)(value >>> tableShift)];
+					if (rank >= 0) return symbol[rank];
+
+					final long[] lastCodeWordPlusOne = super.lastCodeWordPlusOne;
+					for (int curr = firstBlock;; curr++) {
+						if (value < lastCodeWordPlusOne[curr]) {
+							final int s = super.shift[curr];
+							return symbol[(int)((value >>> s) - (lastCodeWordPlusOne[curr] >>> s)) + super.howManyUpToBlock[curr]];
+						}
+					}
+				}
+
+				@Override
+				public long numBits() {
+					return super.numBits() + Integer.SIZE * (long)table.length;
+				}
+			}
+
 			public Coder(final long[] codeWord, final int[] codewordLength, final long[] symbol, final Long2IntMap symbol2Rank) {
+				this(codeWord, codewordLength, symbol, symbol2Rank, 0);
+			}
+
+			public Coder(final long[] codeWord, final int[] codewordLength, final long[] symbol, final Long2IntMap symbol2Rank, final int lookupTableBits) {
 				this.codeword = codeWord;
 				this.codewordLength = codewordLength;
 				this.symbol = symbol;
 				this.symbol2Rank = symbol2Rank;
+				this.lookupTableBits = lookupTableBits;
 			}
 
 			@Override
@@ -367,6 +730,12 @@ public interface Codec {
 				final int[] howManyUpToBlock = new int[decodingTableLength];
 				final long[] lastCodeWordPlusOne = new long[decodingTableLength];
 
+				// The lookup table, if any, is indexed by the first k bits of the stream.
+				final int k = Math.min(lookupTableBits, w);
+				final int[] table = k != 0 && size > 1 ? new int[1 << k] : null;
+				if (table != null) Arrays.fill(table, -1);
+				int firstBlock = 0;
+
 				int p = -1, l = -1, prevL = 0;
 				long word = 0;
 
@@ -384,7 +753,10 @@ public interface Codec {
 						shift[++p] = w - l;
 						word <<= l - prevL;
 						prevL = l;
+						if (l <= k) firstBlock = p + 1;
 					}
+					// Fill the entries of the lookup table whose index starts with the current codeword
+					if (l <= k) Arrays.fill(table, (int)(word << k - l), (int)(word + 1 << k - l), i);
 					word++;
 					//System.err.println("word*: " + StringUtils.leftPad(Long.toBinaryString(word), 64, '0'));
 				}
@@ -404,6 +776,7 @@ public interface Codec {
 				//System.err.println("Symbol: " + Arrays.toString(symbol));
 				//System.err.println("Last code word plus one: " + Arrays.toString(LongArrayList.wrap(lastCodeWordPlusOne).stream().map(x -> StringUtils.leftPad(Long.toBinaryString(x), 64, '0')).toArray(String[]::new)));
 
+				if (table != null) return new TableDecoder(lastCodeWordPlusOne, howManyUpToBlock, shift, symbol, table, w - k, firstBlock);
 				return new Decoder(lastCodeWordPlusOne, howManyUpToBlock, shift, symbol);
 			}
 		}
@@ -412,7 +785,7 @@ public interface Codec {
 		public Coder getCoder(final Long2LongMap frequencies) {
 			assert Longs.min(frequencies.values().toLongArray()) > 0;
 			final int size = frequencies.size();
-			if (size == 0 || size == 1) return new Coder(new long[0], new int[0], new long[0], Long2IntMaps.EMPTY_MAP);
+			if (size == 0 || size == 1) return new Coder(new long[0], new int[0], new long[0], Long2IntMaps.EMPTY_MAP, lookupTableBits);
 			final long[] symbol = new long[size];
 			frequencies.keySet().toArray(symbol);
 			// Sort symbols by frequency
@@ -515,25 +888,209 @@ public interface Codec {
 				if (cutpoint >= size - 2) break; // No need for a second pass.
 			}
 
+			return new Coder(canonicalCodewords(length), length, symbol, symbol2Rank, lookupTableBits);
+		}
+
+		/** Computes the (reversed) codewords of a canonical code.
+		 *
+		 * @param length a nondecreasing array of codeword lengths satisfying Kraft's inequality.
+		 * @return the codewords of the canonical code with the given lengths, in the format returned by {@link Codec.Coder#encode(long)}.
+		 */
+		protected static long[] canonicalCodewords(final int[] length) {
+			final int size = length.length;
 			final long[] codeword = new long[size];
 
-			int s = 0;
 			long value = 0;
 			int currentLength = length[0];
 			codeword[0] = 0;
 
 			for (int i = 1; i < size; i++) {
-				s = i;
 				if (length[i] == currentLength) value++;
 				else {
 					value++;
 					value <<= length[i] - currentLength;
 					currentLength = length[i];
 				}
-				codeword[s] = Long.reverse(value) >>> 64 - currentLength;
+				codeword[i] = Long.reverse(value) >>> 64 - currentLength;
+			}
+
+			return codeword;
+		}
+	}
+
+	/** A Huffman codec with a bound on the length of codewords.
+	 *
+	 * <p>Differently from {@link Huffman}, which limits the length of the table of the decoder, this codec
+	 * limits the maximum length of a codeword, which in turn bounds the width of the stream read by the decoder.
+	 * Lengths beyond the bound are clamped, and Kraft's inequality is restored by lengthening the
+	 * codewords of the least frequent symbols among those shorter than the bound.
+	 *
+	 * <p>If a maximum redundancy is specified, the codec will use the smallest bound (not larger than
+	 * the one specified at construction time) such that the coded length exceeds the coded length of an optimal
+	 * (i.e., length-unlimited) Huffman code, which is within one bit per symbol from the empirical entropy,
+	 * by at most the given fraction.
+	 */
+	public static class LengthLimitedHuffman implements Codec {
+		private final int maxCodewordLength;
+		private final double maxRedundancy;
+		private final int lookupTableBits;
+
+		/** Creates a new length-limited Huffman codec.
+		 *
+		 * @param maxCodewordLength the maximum length of a codeword.
+		 * @param maxRedundancy if positive, the bound on the length of a codeword will be lowered as long as the
+		 * coded length does not exceed the optimal one by more than the given fraction.
+		 * @param lookupTableBits if positive, the decoder will use a lookup table of
+		 * 2<sup>{@code lookupTableBits}</sup> entries (capped by the maximum codeword length).
+		 */
+		public LengthLimitedHuffman(final int maxCodewordLength, final double maxRedundancy, final int lookupTableBits) {
+			if (maxCodewordLength < 1 || maxCodewordLength > 62) throw new IllegalArgumentException("Illegal maximum codeword length: " + maxCodewordLength);
+			if (maxRedundancy < 0) throw new IllegalArgumentException("Illegal maximum redundancy: " + maxRedundancy);
+			if (lookupTableBits < 0 || lookupTableBits > 30) throw new IllegalArgumentException("Illegal number of lookup-table bits: " + lookupTableBits);
+			this.maxCodewordLength = maxCodewordLength;
+			this.maxRedundancy = maxRedundancy;
+			this.lookupTableBits = lookupTableBits;
+		}
+
+		public LengthLimitedHuffman(final int maxCodewordLength) {
+			this(maxCodewordLength, 0, 0);
+		}
+
+		public LengthLimitedHuffman() {
+			this(62, 0.01, 0);
+		}
+
+		/** Limits the length of the codewords of a code.
+		 *
+		 * @param optimalLength a nondecreasing array of codeword lengths satisfying Kraft's inequality.
+		 * @param maxLength the maximum length of a codeword; it must be at least the ceiling of the base-2 logarithm of the length of {@code optimalLength}.
+		 * @return a nondecreasing array of codeword lengths bounded by {@code maxLength} satisfying Kraft's inequality.
+		 */
+		protected static int[] limit(final int[] optimalLength, final int maxLength) {
+			final int[] length = optimalLength.clone();
+			// The Kraft sum in units of 2^-maxLength; clamped lengths make it exceed 2^maxLength by at most length.length
+			long kraft = 0;
+			for (int i = 0; i < length.length; i++) {
+				if (length[i] > maxLength) length[i] = maxLength;
+				kraft += 1L << maxLength - length[i];
 			}
 
-			return new Coder(codeword, length, symbol, symbol2Rank);
+			int j = length.length;
+			while (j-- != 0 && length[j] == maxLength);
+			for (final long target = 1L << maxLength; kraft > target;) {
+				kraft -= 1L << maxLength - length[j] - 1;
+				if (++length[j] == maxLength) j--;
+			}
+
+			return length;
+		}
+
+		private static long codedLength(final int[] length, final long[] frequency) {
+			long overallLength = 0;
+			for (int i = length.length; i-- != 0;) overallLength += length[i] * frequency[i];
+			return overallLength;
+		}
+
+		@Override
+		public Huffman.Coder getCoder(final Long2LongMap frequencies) {
+			final Huffman.Coder optimal = new Huffman(Integer.MAX_VALUE, 1, lookupTableBits).getCoder(frequencies);
+			final int size = frequencies.size();
+			if (size <= 1) return optimal;
+			if (Fast.ceilLog2(size) > maxCodewordLength) throw new IllegalArgumentException("Cannot code " + size + " symbols using codewords of at most " + maxCodewordLength + " bits");
+
+			final long[] symbol = optimal.symbol;
+			final long[] frequency = new long[size];
+			for (int i = 0; i < size; i++) frequency[i] = frequencies.get(symbol[i]);
+
+			final int upperBound = Math.min(maxCodewordLength, optimal.maxCodewordLength());
+			final long optimalLength = codedLength(optimal.codewordLength, frequency);
+			int[] length;
+			for (int l = maxRedundancy == 0 ? upperBound : Fast.ceilLog2(size);; l++) {
+				length = limit(optimal.codewordLength, l);
+				if (l == upperBound || codedLength(length, frequency) <= (1 + maxRedundancy) * optimalLength) break;
+			}
+
+			return new Huffman.Coder(Huffman.canonicalCodewords(length), length, symbol, optimal.symbol2Rank, lookupTableBits);
+		}
+	}
+
+	/** A codec choosing, among a list of candidate codecs, the one minimizing the estimated overall number of bits,
+	 * that is, the sum of the coded length of the symbols and of the {@linkplain Decoder#numBits() size of the decoder}.
+	 *
+	 * <p>Candidates whose codewords would be longer than {@link Long#SIZE} bits, or that cannot handle
+	 * the given frequencies, are skipped.
+	 */
+	public static class Auto implements Codec {
+		private final Codec[] candidate;
+
+		/** Creates a new automatic codec choosing among the given candidates.
+		 *
+		 * @param candidate a nonempty list of candidate codecs.
+		 */
+		public Auto(final Codec... candidate) {
+			if (candidate.length == 0) throw new IllegalArgumentException("No candidate codecs");
+			this.candidate = candidate;
+		}
+
+		/** Creates a new automatic codec choosing among {@link Binary}, {@link Gamma}, {@link Delta}, {@link Golomb},
+		 * {@link Rice}, {@link Huffman} and {@link LengthLimitedHuffman} (all with their default parameters). */
+		public Auto() {
+			this(new Binary(), new Gamma(), new Delta(), new Golomb(), new Rice(), new Huffman(), new LengthLimitedHuffman());
+		}
+
+		/** Returns the estimated overall number of bits used by a coder.
+		 *
+		 * @param coder a coder.
+		 * @param frequencies a map from symbols to frequencies.
+		 * @return the overall coded length of the symbols plus the number of bits of the decoder.
+		 */
+		public static long estimatedBits(final Codec.Coder coder, final Long2LongMap frequencies) {
+			long bits = coder.getDecoder().numBits();
+			for (final Long2LongMap.Entry e : Long2LongMaps.fastIterable(frequencies)) bits += e.getLongValue() * coder.codewordLength(e.getLongKey());
+			return bits;
+		}
+
+		private int best(final Long2LongMap frequencies, final Codec.Coder[] coder) {
+			int best = -1;
+			long bestBits = Long.MAX_VALUE;
+			for (int i = 0; i < candidate.length; i++) {
+				final Codec.Coder c;
+				final long bits;
+				try {
+					c = candidate[i].getCoder(frequencies);
+					// Huffman coders cannot handle less than two symbols
+					if (frequencies.size() <= 1 && (c instanceof Huffman.Coder)) continue;
+					final int w = c.maxCodewordLength();
+					if (w <= 0 || w > Long.SIZE) continue;
+					bits = estimatedBits(c, frequencies);
+				}
+				catch(final IllegalArgumentException e) {
+					continue;
+				}
+				if (bits < bestBits) {
+					best = i;
+					bestBits = bits;
+					coder[0] = c;
+				}
+			}
+			if (best == -1) throw new IllegalArgumentException("No candidate codec can code the given frequencies");
+			return best;
+		}
+
+		/** Returns the candidate codec minimizing the estimated overall number of bits.
+		 *
+		 * @param frequencies a map from symbols to frequencies.
+		 * @return the best candidate codec for {@code frequencies}.
+		 */
+		public Codec best(final Long2LongMap frequencies) {
+			return candidate[best(frequencies, new Codec.Coder[1])];
+		}
+
+		@Override
+		public Codec.Coder getCoder(final Long2LongMap frequencies) {
+			final Codec.Coder[] coder = new Codec.Coder[1];
+			best(frequencies, coder);
+			return coder[0];
 		}
 	}
 }
@@ -30,7 +30,9 @@ import it.unimi.dsi.Util;
 import it.unimi.dsi.bits.BitVector;
 import it.unimi.dsi.bits.LongArrayBitVector;
 import it.unimi.dsi.bits.TransformationStrategy;
+import it.unimi.dsi.fastutil.booleans.BooleanArrays;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
 import it.unimi.dsi.fastutil.longs.LongBigList;
 import it.unimi.dsi.sux4j.mph.GOV3Function;
 import it.unimi.dsi.sux4j.mph.GOVMinimalPerfectHashFunction;
@@ -60,7 +62,7 @@ import it.unimi.dsi.sux4j.mph.codec.Codec;
  * it will generate a random linear
  * system on <b>F</b><sub>3</sub> with three variables per equation;
  * to compute the constant term, the system is viewed as a 3-hypergraph on the set of variable,
- * and it is <em>{@linkplain Orient3Hypergraph#orient(int[][], int[], int[], int[], int[], int[]) oriented}</em>&mdash;to
+ * and it is <em>{@linkplain Orient3Hypergraph#orient(int, int, int[], int[], int[], int[]) oriented}</em>&mdash;to
  * each equation with associate one of its variables, and distinct equations are associated with distinct
  * variables. The index (0, 1 or 2) of the variable associated to an equation becomes the constant part.
  * This kind of system is useful for computing a {@link GOVMinimalPerfectHashFunction}.
@@ -139,15 +141,15 @@ public class Linear3SystemSolver {
 	private static final int INITIAL_QUEUE_SIZE = 1024;
 
 	/** The number of vertices in the hypergraph. */
-	private final int numVertices;
+	private int numVertices;
 	/** The number of edges in the hypergraph. */
-	private final int numEdges;
+	private int numEdges;
 	/** For each vertex, the XOR of the indices of incident 3-hyperedges. */
-	private final int[] edge;
+	private int[] edge;
 	/** The hinge stack. At the end of a peeling phase, it contains the hinges in reverse order. */
-	private final int[] stack;
+	private int[] stack;
 	/** The degree of each vertex of the intermediate 3-hypergraph. */
-	private final int[] d;
+	private int[] d;
 	/** Whether we ever called {@link #generateAndSort(Iterator, long)} or {@link #generateAndSort(Iterator, TransformationStrategy, long)}. */
 	private boolean neverUsed;
 	/** Initial top of the edge stack. */
@@ -155,9 +157,11 @@ public class Linear3SystemSolver {
 	/** The stack used for peeling the graph. */
 	private final IntArrayList visitStack;
 	/** Three parallel arrays containing each one of the three vertices of a hyperedge. */
-	private final int[][] edge2Vertex;
+	private int[][] edge2Vertex;
 	/** For each edge, whether it has been peeled. */
-	private final boolean[] peeled;
+	private boolean[] peeled;
+	/** The orientation algorithm for the non-peeled part of the hypergraph, created and reused on demand. */
+	private Orient3Hypergraph orient3Hypergraph;
 	/** The vector of solutions. */
 	public long[] solution;
 	/** The number of generated unsolvable systems. */
@@ -185,11 +189,31 @@ public class Linear3SystemSolver {
 		neverUsed = true;
 	}
 
+	/** Resets this solver so that it can be used for a system with a different number of variables and equations.
+	 *
+	 * <p>Internal arrays are enlarged only if necessary, so a solver reused on systems of similar size
+	 * (e.g., the chunks of a chunked construction) allocates no further memory, except for the solution.
+	 *
+	 * @param numVariables the new number of variables.
+	 * @param numEquations the new number of equations.
+	 */
+	public void reset(final int numVariables, final int numEquations) {
+		this.numVertices = numVariables;
+		this.numEdges = numEquations;
+		peeled = BooleanArrays.grow(peeled, numEquations, 0);
+		edge = IntArrays.grow(edge, numVariables, 0);
+		for(int i = 3; i-- != 0;) edge2Vertex[i] = IntArrays.grow(edge2Vertex[i], numEquations, 0);
+		stack = IntArrays.grow(stack, numEquations, 0);
+		d = IntArrays.grow(d, numVariables, 0);
+		// Arrays might contain data from previous uses
+		neverUsed = false;
+	}
+
 	private final void cleanUpIfNecessary() {
 		if (! neverUsed) {
-			Arrays.fill(d, 0);
-			Arrays.fill(edge, 0);
-			Arrays.fill(peeled, false);
+			Arrays.fill(d, 0, numVertices, 0);
+			Arrays.fill(edge, 0, numVertices, 0);
+			Arrays.fill(peeled, 0, numEdges, false);
 			unorientable = unsolvable = 0;
 		}
 		neverUsed = false;
@@ -218,11 +242,24 @@ public class Linear3SystemSolver {
 	 * @see #bitVectorToEquation(BitVector, long, int, int[])
 	 */
 	public static void tripleToEquation(final long[] triple, final long seed, final int numVariables, final int e[]) {
+		tripleToEquation(triple, seed, numVariables, e, new long[3]);
+	}
+
+	/** Turns a triple of longs into an equation using a given array to store intermediate hashes.
+	 *
+	 * <p>This method is equivalent to {@link #tripleToEquation(long[], long, int, int[])}, but it does not allocate objects.
+	 *
+	 * @param triple a triple of intermediate hashes.
+	 * @param seed the seed for the hash function.
+	 * @param numVariables the number of variables in the system.
+	 * @param e an array to store the resulting equation.
+	 * @param hash an array of length 3 that will be used to store intermediate hashes.
+	 */
+	public static void tripleToEquation(final long[] triple, final long seed, final int numVariables, final int e[], final long[] hash) {
 		if (numVariables == 0) {
 			e[0] = e[1] = e[2] = -1;
 			return;
 		}
-		final long[] hash = new long[3];
 		Hashes.spooky4(triple, seed, hash);
 		final int shift = Long.numberOfLeadingZeros(numVariables);
 		final long mask = (1L << shift) - 1;
@@ -360,11 +397,11 @@ public class Linear3SystemSolver {
 
 			if (! peelingCompleted) {
 
-				final int[][] vertex2Edge = new int[d.length][];
+				final int[][] vertex2Edge = new int[numVertices][];
 				for(int i = vertex2Edge.length; i-- != 0;) vertex2Edge[i] = new int[d[i]];
-				final int[] p = new int[d.length];
-				final int[] c = new int[d.length - top];
-				Arrays.fill(d, 0);
+				final int[] p = new int[numVertices];
+				final long[] c = new long[numEdges - top];
+				Arrays.fill(d, 0, numVertices, 0);
 
 				for (int i = 0, j = 0; i < numEdges; i++) {
 					if (! peeled[i]) {
@@ -375,11 +412,11 @@ public class Linear3SystemSolver {
 						final int v2 = edge2Vertex2[i];
 						vertex2Edge[v2][p[v2]++] = j;
 
-						c[j++] = (int)valueList.getLong(i);
+						c[j++] = valueList.getLong(i);
 					}
 				}
 
-				if (! Modulo3System.lazyGaussianElimination(vertex2Edge, c, Util.identity(numVertices), solution)) {
+				if (! Modulo2System.lazyGaussianElimination(vertex2Edge, c, Util.identity(numVertices), solution)) {
 					unsolvable++;
 					if (LOGGER.isDebugEnabled()) LOGGER.debug("System is unsolvable");
 					return false;
@@ -405,30 +442,31 @@ public class Linear3SystemSolver {
 			if (! peelingCompleted) {
 				final int nonPeeled = numEdges - top;
 				final int[] remEdge2Vertex0 = new int[nonPeeled], remEdge2Vertex1 = new int[nonPeeled], remEdge2Vertex2 = new int[nonPeeled];
-				final int[][] edges = new int[d.length][];
+				final int[][] edges = new int[numVertices][];
 				final boolean[] peeled = this.peeled;
 				for(int i = edges.length; i-- != 0;) edges[i] = new int[d[i]];
-				Arrays.fill(d, 0);
+				final int[] degree = new int[numVertices];
 
 				// Compress the edge representation eliminating peeled edges.
 				for (int i = 0, j = 0; i < numEdges; i++) {
 					if (! peeled[i]) {
 						final int v0 = edge2Vertex0[i];
 						remEdge2Vertex0[j] = v0;
-						edges[v0][d[v0]++] = j;
+						edges[v0][degree[v0]++] = j;
 						final int v1 = edge2Vertex1[i];
 						remEdge2Vertex1[j] = v1;
-						edges[v1][d[v1]++] = j;
+						edges[v1][degree[v1]++] = j;
 						final int v2 = edge2Vertex2[i];
 						remEdge2Vertex2[j] = v2;
-						edges[v2][d[v2]++] = j;
+						edges[v2][degree[v2]++] = j;
 
 						j++;
 					}
 				}
 
 				final int[] hinge = new int[nonPeeled];
-				if (! Orient3Hypergraph.orient(edges, d, remEdge2Vertex0, remEdge2Vertex1, remEdge2Vertex2, hinge)) {
+				if (orient3Hypergraph == null) orient3Hypergraph = new Orient3Hypergraph();
+				if (! orient3Hypergraph.orient(numVertices, nonPeeled, remEdge2Vertex0, remEdge2Vertex1, remEdge2Vertex2, hinge)) {
 					if (LOGGER.isDebugEnabled()) LOGGER.debug("Hypergraph cannot be oriented");
 					unorientable++;
 					return false;
@@ -500,10 +538,29 @@ public class Linear3SystemSolver {
 	}
 
 	public boolean generateAndSolve(final Iterable<long[]> triples, final long seed, final LongBigList valueList, final Codec.Coder coder, final int m, final int w) {
-		return generateAndSolve(triples, seed, valueList, coder, m, w);
+		return generateAndSolve(triples, seed, valueList, coder, m, w, false);
 	}
 
 	public boolean generateAndSolve(final Iterable<long[]> triples, final long seed, final LongBigList valueList, final Codec.Coder coder, final int m, final int w, final boolean peelOnly) {
+		return generateAndSolve(triples, seed, new LongBigList[] { valueList }, new Codec.Coder[] { coder }, m, w, peelOnly);
+	}
+
+	/** Generates and solves a system whose equations represent the codewords of several columns of values.
+	 *
+	 * <p>For each key, the codeword of the value in column <var>c</var> is stored in a window of
+	 * {@link Codec.Coder#maxCodewordLength() coder[<var>c</var>].maxCodewordLength()} bits starting
+	 * after the windows of the previous columns, and the codeword starts at the highest bit of the window.
+	 *
+	 * @param triples the triples associated with the keys.
+	 * @param seed the seed used to generate equations.
+	 * @param valueList the values, one list per column.
+	 * @param coder the coders, one per column.
+	 * @param m the number of variables, excluding the last {@code w}.
+	 * @param w the overall width of the windows of all columns.
+	 * @param peelOnly if true, the method will fail if peeling does not complete.
+	 * @return true if the system was solved.
+	 */
+	public boolean generateAndSolve(final Iterable<long[]> triples, final long seed, final LongBigList[] valueList, final Codec.Coder[] coder, final int m, final int w, final boolean peelOnly) {
 		// We cache all variables for faster access
 		final int[] d = this.d;
 		final int[] edge2Vertex0 = edge2Vertex[0],
@@ -514,27 +571,36 @@ public class Linear3SystemSolver {
 		final int[] e = new int[3];
 		final LongArrayBitVector convertedValues = LongArrayBitVector.getInstance();
 		int j = 0, i = 0;
+		// The last position of the window of each column
+		final int numColumns = coder.length;
+		final int[] last = new int[numColumns];
+		for (int c = 0, offset = 0; c < numColumns; c++) last[c] = (offset += coder[c].maxCodewordLength()) - 1;
+		assert last[numColumns - 1] <= w - 1;
+
 		final Iterator<long[]> iterator = triples.iterator();
 		while (iterator.hasNext()) {
 			final long[] next = iterator.next();
-			final long v = valueList.getLong(i++);
-			final long convertedLong = coder.encode(v);
-			final int lenCodeword = coder.codewordLength(v);
-			convertedValues.append(convertedLong, lenCodeword);
-
 			tripleToEquation(next, seed, m, e);
 
-			if (DEBUG) {
-				System.err.println("Edge <" + e[0] + "," + e[1] + "," + e[2] + "> = " + "chiave " + v);
-				System.err.println("hash(bv) = " + v);
-			}
-			for (int l = 0; l < lenCodeword; l++) {
-				if (DEBUG) System.err.println("	 [" + (e[0] + l) + "," + (e[1] + l) + "," + (e[2] + l) + "] = " + Long.toBinaryString(convertedLong));
-				d[edge2Vertex0[j] = e[0] + w - 1 - l]++;
-				d[edge2Vertex1[j] = e[1] + w - 1 - l]++;
-				d[edge2Vertex2[j] = e[2] + w - 1 - l]++;
-				xorEdge(j++);
+			for (int c = 0; c < numColumns; c++) {
+				final long v = valueList[c].getLong(i);
+				final long convertedLong = coder[c].encode(v);
+				final int lenCodeword = coder[c].codewordLength(v);
+				convertedValues.append(convertedLong, lenCodeword);
+
+				if (DEBUG) {
+					System.err.println("Edge <" + e[0] + "," + e[1] + "," + e[2] + "> = " + "chiave " + v);
+					System.err.println("hash(bv) = " + v);
+				}
+				for (int l = 0; l < lenCodeword; l++) {
+					if (DEBUG) System.err.println("	 [" + (e[0] + l) + "," + (e[1] + l) + "," + (e[2] + l) + "] = " + Long.toBinaryString(convertedLong));
+					d[edge2Vertex0[j] = e[0] + last[c] - l]++;
+					d[edge2Vertex1[j] = e[1] + last[c] - l]++;
+					d[edge2Vertex2[j] = e[2] + last[c] - l]++;
+					xorEdge(j++);
+				}
 			}
+			i++;
 		}
 
 		if (iterator.hasNext()) throw new IllegalStateException("This " + Linear3SystemSolver.class.getSimpleName() + " has " + numEdges + " edges, but the provided iterator returns more");
@@ -556,8 +622,8 @@ public class Linear3SystemSolver {
 				vertex2Edge[i] = new int[d[i]];
 
 			final int[] p = new int[maxNumVar];
-			final long[] c = new long[stack.length];
-			for (int i = 0; i < stack.length; i++) {
+			final long[] c = new long[numEdges];
+			for (int i = 0; i < numEdges; i++) {
 				if (!peeled[i]) {
 					final int v0 = edge2Vertex0[i];
 
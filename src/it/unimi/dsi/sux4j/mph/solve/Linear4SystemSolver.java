@@ -30,7 +30,9 @@ import it.unimi.dsi.Util;
 import it.unimi.dsi.bits.BitVector;
 import it.unimi.dsi.bits.LongArrayBitVector;
 import it.unimi.dsi.bits.TransformationStrategy;
+import it.unimi.dsi.fastutil.booleans.BooleanArrays;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
 import it.unimi.dsi.fastutil.longs.LongBigList;
 import it.unimi.dsi.sux4j.mph.GOV4Function;
 import it.unimi.dsi.sux4j.mph.Hashes;
@@ -124,15 +126,15 @@ public class Linear4SystemSolver {
 	private final static Logger LOGGER = LoggerFactory.getLogger(Linear4SystemSolver.class);
 
 	/** The number of vertices in the hypergraph. */
-	private final int numVariables;
+	private int numVariables;
 	/** The number of edges in the hypergraph. */
-	private final int numEdges;
+	private int numEdges;
 	/** For each vertex, the XOR of the indices of incident 3-hyperedges. */
-	public final int[] edge;
+	public int[] edge;
 	/** The hinge stack. At the end of a peeling phase, it contains the hinges in reverse order. */
-	public final int[] stack;
+	public int[] stack;
 	/** The degree of each vertex of the intermediate 3-hypergraph. */
-	private final int[] d;
+	private int[] d;
 	/** Whether we ever called {@link #generateAndSort(Iterator, long)} or {@link #generateAndSort(Iterator, TransformationStrategy, long)}. */
 	private boolean neverUsed;
 	/** Initial top of the edge stack. */
@@ -140,9 +142,9 @@ public class Linear4SystemSolver {
 	/** The stack used for peeling the graph. */
 	private final IntArrayList visitStack;
 	/** Three parallel arrays containing each one of the three vertices of a hyperedge. */
-	private final int[][] edge2Vertex;
+	private int[][] edge2Vertex;
 	/** For each edge, whether it has been peeled. */
-	private final boolean[] peeled;
+	private boolean[] peeled;
 	/** The vector of solutions. */
 	public long[] solution;
 	/** The number of generated unsolvable systems. */
@@ -169,11 +171,31 @@ public class Linear4SystemSolver {
 		neverUsed = true;
 	}
 
+	/** Resets this solver so that it can be used for a system with a different number of variables and equations.
+	 *
+	 * <p>Internal arrays are enlarged only if necessary, so a solver reused on systems of similar size
+	 * (e.g., the chunks of a chunked construction) allocates no further memory, except for the solution.
+	 *
+	 * @param numVariables the new number of variables.
+	 * @param numEquations the new number of equations.
+	 */
+	public void reset(final int numVariables, final int numEquations) {
+		this.numVariables = numVariables;
+		this.numEdges = numEquations;
+		peeled = BooleanArrays.grow(peeled, numEquations, 0);
+		edge = IntArrays.grow(edge, numVariables, 0);
+		for(int i = 4; i-- != 0;) edge2Vertex[i] = IntArrays.grow(edge2Vertex[i], numEquations, 0);
+		stack = IntArrays.grow(stack, numEquations, 0);
+		d = IntArrays.grow(d, numVariables, 0);
+		// Arrays might contain data from previous uses
+		neverUsed = false;
+	}
+
 	private final void cleanUpIfNecessary() {
 		if (! neverUsed) {
-			Arrays.fill(d, 0);
-			Arrays.fill(edge, 0);
-			Arrays.fill(peeled, false);
+			Arrays.fill(d, 0, numVariables, 0);
+			Arrays.fill(edge, 0, numVariables, 0);
+			Arrays.fill(peeled, 0, numEdges, false);
 			undirectable = unsolvable = 0;
 		}
 		neverUsed = false;
@@ -204,11 +226,24 @@ public class Linear4SystemSolver {
 	 * @see #bitVectorToEquation(BitVector, long, int, int[])
 	 */
 	public static void tripleToEquation(final long[] triple, final long seed, final int numVariables, final int e[]) {
+		tripleToEquation(triple, seed, numVariables, e, new long[4]);
+	}
+
+	/** Turns a triple of longs into an equation using a given array to store intermediate hashes.
+	 *
+	 * <p>This method is equivalent to {@link #tripleToEquation(long[], long, int, int[])}, but it does not allocate objects.
+	 *
+	 * @param triple a triple of intermediate hashes.
+	 * @param seed the seed for the hash function.
+	 * @param numVariables the number of variables in the system.
+	 * @param e an array to store the resulting equation.
+	 * @param hash an array of length 4 that will be used to store intermediate hashes.
+	 */
+	public static void tripleToEquation(final long[] triple, final long seed, final int numVariables, final int e[], final long[] hash) {
 		if (numVariables == 0) {
 			e[0] = e[1] = e[2] = e[3]  = -1;
 			return;
 		}
-		final long[] hash = new long[4];
 		Hashes.spooky4(triple, seed, hash);
 		final int shift = Long.numberOfLeadingZeros(numVariables);
 		final long mask = (1L << shift) - 1;
@@ -346,11 +381,11 @@ public class Linear4SystemSolver {
 
 		if (! peelingCompleted) {
 
-			final int[][] vertex2Edge = new int[d.length][];
+			final int[][] vertex2Edge = new int[numVariables][];
 			for(int i = vertex2Edge.length; i-- != 0;) vertex2Edge[i] = new int[d[i]];
-			final int[] p = new int[d.length];
-			final long[] c = new long[d.length - top];
-			Arrays.fill(d, 0);
+			final int[] p = new int[numVariables];
+			final long[] c = new long[numEdges - top];
+			Arrays.fill(d, 0, numVariables, 0);
 
 			for (int i = 0, j = 0; i < numEdges; i++) {
 				if (! peeled[i]) {
@@ -444,8 +479,8 @@ public class Linear4SystemSolver {
 				vertex2Edge[i] = new int[d[i]];
 			}
 			final int[] p = new int[numVariables];
-			final long[] c = new long[stack.length];
-			for (int i = 0; i < stack.length; i++) {
+			final long[] c = new long[numEdges];
+			for (int i = 0; i < numEdges; i++) {
 				if (! peeled[i]) {
 					final int v0 = edge2Vertex0[i];
 					final int v1 = edge2Vertex1[i];
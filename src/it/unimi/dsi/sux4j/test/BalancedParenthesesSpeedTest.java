@@ -0,0 +1,130 @@
+package it.unimi.dsi.sux4j.test;
+
+import com.martiansoftware.jsap.FlaggedOption;
+import com.martiansoftware.jsap.JSAP;
+import com.martiansoftware.jsap.JSAPException;
+import com.martiansoftware.jsap.JSAPResult;
+import com.martiansoftware.jsap.Parameter;
+import com.martiansoftware.jsap.SimpleJSAP;
+import com.martiansoftware.jsap.UnflaggedOption;
+
+import it.unimi.dsi.Util;
+import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.sux4j.bits.BalancedParentheses;
+import it.unimi.dsi.sux4j.bits.JacobsonBalancedParentheses;
+import it.unimi.dsi.sux4j.bits.RangeMinBalancedParentheses;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
+
+public class BalancedParenthesesSpeedTest {
+
+	/** Returns a random balanced string of parentheses with the given number of pairs, and stores the open parentheses in {@code open}. */
+	private static LongArrayBitVector randomParentheses(final XoRoShiRo128PlusRandom random, final int numPairs, final double p, final long[] open) {
+		final LongArrayBitVector bitVector = LongArrayBitVector.getInstance(2L * numPairs);
+		for(int o = 0, e = 0; bitVector.length() < 2L * numPairs;) {
+			if (o < numPairs && (e == 0 || random.nextDouble() < p)) {
+				open[o++] = bitVector.length();
+				bitVector.add(1);
+				e++;
+			}
+			else {
+				bitVector.add(0);
+				e--;
+			}
+		}
+		return bitVector;
+	}
+
+	private static long time(final String name, final BalancedParentheses balancedParentheses, final long[] pos) {
+		long u = 0;
+		final long time = - System.nanoTime();
+		for(final long p : pos) u += balancedParentheses.findClose(p);
+		final long elapsed = time + System.nanoTime();
+		System.err.println(name + ": " + Util.format(elapsed / 1E9) + "s, " + Util.format(elapsed / (double)pos.length) + " ns/findClose");
+		return u;
+	}
+
+	public static void main(final String[] arg) throws JSAPException {
+
+		final SimpleJSAP jsap = new SimpleJSAP(BalancedParenthesesSpeedTest.class.getName(), "Tests the speed of the in-word primitives of JacobsonBalancedParentheses, and of findClose() on random and deep trees. The in-word primitives used by findClose() can be chosen using the system property " + JacobsonBalancedParentheses.IN_WORD_PROPERTY + ".",
+				new Parameter[] {
+					new UnflaggedOption("numPairs", JSAP.INTSIZE_PARSER, "1Mi", JSAP.NOT_REQUIRED, JSAP.NOT_GREEDY, "The number of pairs of parentheses."),
+					new FlaggedOption("numOps", JSAP.INTSIZE_PARSER, "1Mi", JSAP.NOT_REQUIRED, 'o', "ops", "The number of operations of each kind."),
+		});
+
+		final JSAPResult jsapResult = jsap.parse(arg);
+		if (jsap.messagePrinted()) return;
+
+		final int numPairs = jsapResult.getInt("numPairs");
+		final int numOps = jsapResult.getInt("numOps");
+
+		System.err.println("Near-close variant: " + JacobsonBalancedParentheses.VARIANT_NAME[JacobsonBalancedParentheses.NEAR_CLOSE_VARIANT] + "; far-close variant: " + JacobsonBalancedParentheses.VARIANT_NAME[JacobsonBalancedParentheses.FAR_CLOSE_VARIANT]);
+
+		final XoRoShiRo128PlusRandom random = new XoRoShiRo128PlusRandom(0);
+		final long[] word = new long[numOps], farWord = new long[numOps];
+		final int[] k = new int[numOps];
+		for(int i = numOps; i-- != 0;) {
+			word[i] = random.nextLong() | 1;
+			farWord[i] = random.nextLong() & -2;
+			k[i] = random.nextInt(JacobsonBalancedParentheses.countFarClose(farWord[i], Long.SIZE));
+		}
+
+		final long[] randomOpen = new long[numPairs], deepOpen = new long[numPairs];
+		final LongArrayBitVector randomTree = randomParentheses(random, numPairs, .5, randomOpen);
+		// Opening with high probability yields long paths of nested parentheses
+		final LongArrayBitVector deepTree = randomParentheses(random, numPairs, .9, deepOpen);
+		final long[] randomPos = new long[numOps], deepPos = new long[numOps];
+		for(int i = numOps; i-- != 0;) {
+			randomPos[i] = randomOpen[random.nextInt(numPairs)];
+			deepPos[i] = deepOpen[random.nextInt(numPairs)];
+		}
+
+		final JacobsonBalancedParentheses randomJacobson = new JacobsonBalancedParentheses(randomTree, false, true, false);
+		final JacobsonBalancedParentheses deepJacobson = new JacobsonBalancedParentheses(deepTree, false, true, false);
+		final RangeMinBalancedParentheses randomRangeMin = new RangeMinBalancedParentheses(randomTree);
+		final RangeMinBalancedParentheses deepRangeMin = new RangeMinBalancedParentheses(deepTree);
+
+		long time, u = 0;
+
+		for(int r = 10; r-- != 0;) {
+			System.out.println("=== Near close ===");
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) u += JacobsonBalancedParentheses.findNearClose(word[i]);
+			time += System.nanoTime();
+			System.err.println("broadword: " + Util.format(time / (double)numOps) + " ns/word");
+
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) u += JacobsonBalancedParentheses.findNearClose2(word[i]);
+			time += System.nanoTime();
+			System.err.println("loop: " + Util.format(time / (double)numOps) + " ns/word");
+
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) u += JacobsonBalancedParentheses.findNearCloseTable(word[i]);
+			time += System.nanoTime();
+			System.err.println("table: " + Util.format(time / (double)numOps) + " ns/word");
+
+			System.out.println("=== Far close ===");
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) u += JacobsonBalancedParentheses.findFarClose(farWord[i], k[i]);
+			time += System.nanoTime();
+			System.err.println("broadword: " + Util.format(time / (double)numOps) + " ns/word");
+
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) u += JacobsonBalancedParentheses.findFarClose2(farWord[i], k[i]);
+			time += System.nanoTime();
+			System.err.println("loop: " + Util.format(time / (double)numOps) + " ns/word");
+
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) u += JacobsonBalancedParentheses.findFarCloseTable(farWord[i], k[i]);
+			time += System.nanoTime();
+			System.err.println("table: " + Util.format(time / (double)numOps) + " ns/word");
+
+			System.out.println("=== findClose() ===");
+			u += time("Jacobson, random", randomJacobson, randomPos);
+			u += time("Jacobson, deep", deepJacobson, deepPos);
+			u += time("Range-min, random", randomRangeMin, randomPos);
+			u += time("Range-min, deep", deepRangeMin, deepPos);
+		}
+
+		if (u == 0) System.out.println();
+	}
+}
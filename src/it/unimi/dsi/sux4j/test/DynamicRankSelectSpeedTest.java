@@ -0,0 +1,104 @@
+package it.unimi.dsi.sux4j.test;
+
+import com.martiansoftware.jsap.FlaggedOption;
+import com.martiansoftware.jsap.JSAP;
+import com.martiansoftware.jsap.JSAPException;
+import com.martiansoftware.jsap.JSAPResult;
+import com.martiansoftware.jsap.Parameter;
+import com.martiansoftware.jsap.SimpleJSAP;
+import com.martiansoftware.jsap.UnflaggedOption;
+
+import it.unimi.dsi.Util;
+import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.sux4j.bits.DynamicRankSelect;
+import it.unimi.dsi.sux4j.bits.Rank9;
+import it.unimi.dsi.sux4j.bits.SimpleSelect;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
+
+public class DynamicRankSelectSpeedTest {
+
+	public static void main(final String[] arg) throws JSAPException {
+
+		final SimpleJSAP jsap = new SimpleJSAP(DynamicRankSelectSpeedTest.class.getName(), "Tests the speed of updates and queries of a dynamic rank/select structure, and compares it with rebuilding static structures after each change.",
+				new Parameter[] {
+					new UnflaggedOption("numBits", JSAP.LONGSIZE_PARSER, "64Mi", JSAP.NOT_REQUIRED, JSAP.NOT_GREEDY, "The number of bits."),
+					new FlaggedOption("numOps", JSAP.INTSIZE_PARSER, "1Mi", JSAP.NOT_REQUIRED, 'o', "ops", "The number of operations of each kind."),
+					new FlaggedOption("rebuilds", JSAP.INTSIZE_PARSER, "10", JSAP.NOT_REQUIRED, 'r', "rebuilds", "The number of rebuilds of the static structures."),
+		});
+
+		final JSAPResult jsapResult = jsap.parse(arg);
+		if (jsap.messagePrinted()) return;
+
+		final long numBits = jsapResult.getLong("numBits");
+		final int numOps = jsapResult.getInt("numOps");
+		final int rebuilds = jsapResult.getInt("rebuilds");
+
+		final XoRoShiRo128PlusRandom random = new XoRoShiRo128PlusRandom(0);
+		final LongArrayBitVector bitVector = LongArrayBitVector.getInstance(numBits);
+		for(long i = numBits; i-- != 0;) bitVector.add(random.nextBoolean());
+
+		final long[] position = new long[numOps];
+		final long[] rank = new long[numOps];
+		final boolean[] value = new boolean[numOps];
+		for(int i = numOps; i-- != 0;) {
+			position[i] = (random.nextLong() >>> 1) % numBits;
+			rank[i] = (random.nextLong() >>> 1) % (numBits / 4);
+			value[i] = random.nextBoolean();
+		}
+
+		final DynamicRankSelect dynamic = new DynamicRankSelect(bitVector);
+		System.err.println("Overhead: " + Util.format(100.0 * dynamic.numBits() / numBits) + "%");
+		long time, u = 0;
+
+		for(int k = 10; k-- != 0;) {
+			System.out.println("=== Dynamic ===");
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) dynamic.set(position[i], value[i]);
+			time += System.nanoTime();
+			System.err.println(Util.format(time / 1E9) + "s, " + Util.format(time / (double)numOps) + " ns/set");
+
+			time = - System.nanoTime();
+			// Each insertion is followed by a deletion, so the length does not change
+			for(int i = 0; i < numOps; i++) {
+				dynamic.add(position[i], value[i]);
+				u += dynamic.removeBoolean(position[numOps - 1 - i]) ? 1 : 0;
+			}
+			time += System.nanoTime();
+			System.err.println(Util.format(time / 1E9) + "s, " + Util.format(time / (2.0 * numOps)) + " ns/insertion or deletion");
+
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) u += dynamic.rank(position[i]);
+			time += System.nanoTime();
+			System.err.println(Util.format(time / 1E9) + "s, " + Util.format(time / (double)numOps) + " ns/rank");
+
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) u += dynamic.select(rank[i]);
+			time += System.nanoTime();
+			System.err.println(Util.format(time / 1E9) + "s, " + Util.format(time / (double)numOps) + " ns/select");
+
+			System.out.println("=== Static (rebuilt after each change) ===");
+			Rank9 rank9 = null;
+			SimpleSelect simpleSelect = null;
+			time = - System.nanoTime();
+			for(int i = 0; i < rebuilds; i++) {
+				bitVector.set(position[i], value[i]);
+				rank9 = new Rank9(bitVector);
+				simpleSelect = new SimpleSelect(bitVector);
+			}
+			time += System.nanoTime();
+			System.err.println(Util.format(time / 1E9) + "s, " + Util.format(time / (double)rebuilds) + " ns/set");
+
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) u += rank9.rank(position[i]);
+			time += System.nanoTime();
+			System.err.println(Util.format(time / 1E9) + "s, " + Util.format(time / (double)numOps) + " ns/rank");
+
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) u += simpleSelect.select(rank[i]);
+			time += System.nanoTime();
+			System.err.println(Util.format(time / 1E9) + "s, " + Util.format(time / (double)numOps) + " ns/select");
+		}
+
+		if (u == 0) System.out.println();
+	}
+}
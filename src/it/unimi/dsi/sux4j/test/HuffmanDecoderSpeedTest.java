@@ -0,0 +1,81 @@
+package it.unimi.dsi.sux4j.test;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+import com.martiansoftware.jsap.FlaggedOption;
+import com.martiansoftware.jsap.JSAP;
+import com.martiansoftware.jsap.JSAPException;
+import com.martiansoftware.jsap.JSAPResult;
+import com.martiansoftware.jsap.Parameter;
+import com.martiansoftware.jsap.SimpleJSAP;
+import com.martiansoftware.jsap.UnflaggedOption;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import it.unimi.dsi.sux4j.mph.codec.Codec;
+import it.unimi.dsi.sux4j.mph.codec.Codec.Coder;
+import it.unimi.dsi.sux4j.mph.codec.Codec.Decoder;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandomGenerator;
+
+public class HuffmanDecoderSpeedTest {
+
+	public static void main(final String[] arg) throws JSAPException {
+
+		final SimpleJSAP jsap = new SimpleJSAP(HuffmanDecoderSpeedTest.class.getName(), "Tests the speed of the canonical Huffman decoder against the table-driven one on a Zipf-like distribution.",
+				new Parameter[] {
+					new UnflaggedOption("numSymbols", JSAP.INTSIZE_PARSER, "1Mi", JSAP.NOT_REQUIRED, JSAP.NOT_GREEDY, "The number of distinct symbols."),
+					new UnflaggedOption("exponent", JSAP.DOUBLE_PARSER, "1", JSAP.NOT_REQUIRED, JSAP.NOT_GREEDY, "The exponent of the Zipf-like distribution."),
+					new FlaggedOption("numPos", JSAP.INTSIZE_PARSER, "1Mi", JSAP.NOT_REQUIRED, 'p', "positions", "The number of codewords to decode."),
+					new FlaggedOption("limit", JSAP.INTEGER_PARSER, "20", JSAP.NOT_REQUIRED, 'l', "limit", "Decoding-table length limit."),
+					new FlaggedOption("lookupTableBits", JSAP.INTEGER_PARSER, "12", JSAP.NOT_REQUIRED, 't', "lookup-table-bits", "The number of bits indexing the lookup table."),
+		});
+
+		final JSAPResult jsapResult = jsap.parse(arg);
+		if (jsap.messagePrinted()) return;
+
+		final int numSymbols = jsapResult.getInt("numSymbols");
+		final double exponent = jsapResult.getDouble("exponent");
+		final int numPos = jsapResult.getInt("numPos");
+		final int limit = jsapResult.getInt("limit");
+		final int lookupTableBits = jsapResult.getInt("lookupTableBits");
+
+		final Long2LongOpenHashMap frequencies = new Long2LongOpenHashMap();
+		final long[] cumulative = new long[numSymbols];
+		for(int i = 0; i < numSymbols; i++) {
+			frequencies.put(i, (long)(1E12 / Math.pow(i + 1, exponent)) + 1);
+			cumulative[i] = (i == 0 ? 0 : cumulative[i - 1]) + frequencies.get(i);
+		}
+
+		final Coder canonicalCoder = new Codec.Huffman(limit, 0.99).getCoder(frequencies);
+		final Decoder canonical = canonicalCoder.getDecoder();
+		final Coder tableCoder = new Codec.Huffman(limit, 0.99, lookupTableBits).getCoder(frequencies);
+		final Decoder table = tableCoder.getDecoder();
+		final int w = canonicalCoder.maxCodewordLength();
+
+		// We draw symbols following the distribution, and generate the associated streams
+		final RandomGenerator random = new XoRoShiRo128PlusRandomGenerator(42);
+		final long[] stream = new long[numPos];
+		for(int i = 0; i < numPos; i++) {
+			final int p = LongArrays.binarySearch(cumulative, (long)(random.nextDouble() * cumulative[numSymbols - 1]));
+			final int s = Math.min(numSymbols - 1, p >= 0 ? p + 1 : -p - 1);
+			stream[i] = Long.reverse(canonicalCoder.encode(s)) >>> 64 - w;
+		}
+
+		long time;
+		for(int k = 10; k-- != 0;) {
+			System.out.println("=== Canonical ===");
+			time = - System.nanoTime();
+			long t = 0;
+			for(int i = 0; i < numPos; i++) t ^= canonical.decode(stream[i]);
+			time += System.nanoTime();
+			System.err.println(time / 1E9 + "s, " + time / (double)numPos + " ns/decode (" + canonical.numBits() + " bits) " + (t == 0 ? " " : ""));
+
+			System.out.println("=== Table ===");
+			time = - System.nanoTime();
+			t = 0;
+			for(int i = 0; i < numPos; i++) t ^= table.decode(stream[i]);
+			time += System.nanoTime();
+			System.err.println(time / 1E9 + "s, " + time / (double)numPos + " ns/decode (" + table.numBits() + " bits) " + (t == 0 ? " " : ""));
+		}
+	}
+}
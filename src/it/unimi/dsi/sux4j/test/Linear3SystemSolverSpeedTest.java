@@ -0,0 +1,76 @@
+package it.unimi.dsi.sux4j.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.martiansoftware.jsap.FlaggedOption;
+import com.martiansoftware.jsap.JSAP;
+import com.martiansoftware.jsap.JSAPException;
+import com.martiansoftware.jsap.JSAPResult;
+import com.martiansoftware.jsap.Parameter;
+import com.martiansoftware.jsap.SimpleJSAP;
+import com.martiansoftware.jsap.UnflaggedOption;
+
+import it.unimi.dsi.Util;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongBigList;
+import it.unimi.dsi.fastutil.longs.LongBigLists;
+import it.unimi.dsi.sux4j.mph.solve.Linear3SystemSolver;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
+
+public class Linear3SystemSolverSpeedTest {
+
+	public static void main(final String[] arg) throws JSAPException {
+
+		final SimpleJSAP jsap = new SimpleJSAP(Linear3SystemSolverSpeedTest.class.getName(), "Compares the speed of Linear3SystemSolver when a new instance is created for each system and when a single instance is reset and reused, on random 3-regular systems on F2, as solved by GOV3Function on each chunk.",
+				new Parameter[] {
+					new UnflaggedOption("numEquations", JSAP.INTSIZE_PARSER, "1000", JSAP.NOT_REQUIRED, JSAP.NOT_GREEDY, "The number of equations."),
+					new UnflaggedOption("ratio", JSAP.DOUBLE_PARSER, "1.10", JSAP.NOT_REQUIRED, JSAP.NOT_GREEDY, "The ratio between variables and equations."),
+					new FlaggedOption("systems", JSAP.INTSIZE_PARSER, "1000", JSAP.NOT_REQUIRED, 's', "systems", "The number of distinct systems to solve at each round."),
+		});
+
+		final JSAPResult jsapResult = jsap.parse(arg);
+		if (jsap.messagePrinted()) return;
+
+		final int numEquations = jsapResult.getInt("numEquations");
+		final int numVariables = (int)Math.ceil(numEquations * jsapResult.getDouble("ratio")) + 1;
+		final int numSystems = jsapResult.getInt("systems");
+
+		// Each system has its own triples and values; seeds are tried in sequence until the system is solvable
+		final XoRoShiRo128PlusRandom random = new XoRoShiRo128PlusRandom(0);
+		final List<List<long[]>> triples = new ArrayList<>();
+		final List<LongBigList> values = new ArrayList<>();
+		for(int s = 0; s < numSystems; s++) {
+			final List<long[]> t = new ArrayList<>(numEquations);
+			final LongArrayList v = new LongArrayList(numEquations);
+			for(int i = 0; i < numEquations; i++) {
+				t.add(new long[] { random.nextLong(), random.nextLong(), random.nextLong() });
+				v.add(random.nextLong() & 0xFFFFF);
+			}
+			triples.add(t);
+			values.add(LongBigLists.asBigList(v));
+		}
+
+		final Linear3SystemSolver reusedSolver = new Linear3SystemSolver(0, 0);
+		long time, seeds;
+
+		for(int k = 10; k-- != 0;) {
+			seeds = 0;
+			time = - System.nanoTime();
+			for(int s = 0; s < numSystems; s++) {
+				for(long seed = 0;; seed++, seeds++) if (new Linear3SystemSolver(numVariables, numEquations).generateAndSolve(triples.get(s), seed, values.get(s))) break;
+			}
+			time += System.nanoTime();
+			System.err.println("New solver:    " + Util.format(time / 1E9) + "s, " + Util.format(time / (double)numSystems / 1E3) + " \u00b5s/system (" + seeds + " failed seeds)");
+
+			seeds = 0;
+			time = - System.nanoTime();
+			for(int s = 0; s < numSystems; s++) {
+				reusedSolver.reset(numVariables, numEquations);
+				for(long seed = 0;; seed++, seeds++) if (reusedSolver.generateAndSolve(triples.get(s), seed, values.get(s))) break;
+			}
+			time += System.nanoTime();
+			System.err.println("Reused solver: " + Util.format(time / 1E9) + "s, " + Util.format(time / (double)numSystems / 1E3) + " \u00b5s/system (" + seeds + " failed seeds)");
+		}
+	}
+}
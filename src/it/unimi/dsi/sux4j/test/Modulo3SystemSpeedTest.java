@@ -0,0 +1,66 @@
+package it.unimi.dsi.sux4j.test;
+
+import java.util.Arrays;
+
+import com.martiansoftware.jsap.FlaggedOption;
+import com.martiansoftware.jsap.JSAP;
+import com.martiansoftware.jsap.JSAPException;
+import com.martiansoftware.jsap.JSAPResult;
+import com.martiansoftware.jsap.Parameter;
+import com.martiansoftware.jsap.SimpleJSAP;
+import com.martiansoftware.jsap.UnflaggedOption;
+
+import it.unimi.dsi.Util;
+import it.unimi.dsi.sux4j.mph.solve.Modulo3System;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
+
+public class Modulo3SystemSpeedTest {
+
+	public static void main(final String[] arg) throws JSAPException {
+
+		final SimpleJSAP jsap = new SimpleJSAP(Modulo3SystemSpeedTest.class.getName(), "Tests the speed of lazy Gaussian elimination on random 3-regular systems on F3.",
+				new Parameter[] {
+					new UnflaggedOption("numVars", JSAP.INTSIZE_PARSER, "2000", JSAP.NOT_REQUIRED, JSAP.NOT_GREEDY, "The number of variables."),
+					new UnflaggedOption("ratio", JSAP.DOUBLE_PARSER, ".85", JSAP.NOT_REQUIRED, JSAP.NOT_GREEDY, "The ratio between equations and variables."),
+					new FlaggedOption("repeats", JSAP.INTSIZE_PARSER, "100", JSAP.NOT_REQUIRED, 'r', "repeats", "The number of systems to solve at each round."),
+		});
+
+		final JSAPResult jsapResult = jsap.parse(arg);
+		if (jsap.messagePrinted()) return;
+
+		final int numVars = jsapResult.getInt("numVars");
+		final int numEquations = (int)(numVars * jsapResult.getDouble("ratio"));
+		final int repeats = jsapResult.getInt("repeats");
+
+		// A random 3-hypergraph: each equation has three (possibly repeated) variables
+		final XoRoShiRo128PlusRandom random = new XoRoShiRo128PlusRandom(0);
+		final int[][] edge = new int[numEquations][3];
+		final int[] c = new int[numEquations];
+		final int[] d = new int[numVars];
+		for(int i = 0; i < numEquations; i++) {
+			for(int j = 3; j-- != 0;) d[edge[i][j] = random.nextInt(numVars)]++;
+			c[i] = random.nextInt(3);
+		}
+
+		final int[][] var2Eq = new int[numVars][];
+		for(int v = numVars; v-- != 0;) var2Eq[v] = new int[d[v]];
+		Arrays.fill(d, 0);
+		for(int i = 0; i < numEquations; i++) for(final int v : edge[i]) var2Eq[v][d[v]++] = i;
+
+		final long[] solution = new long[numVars];
+		long time;
+		for(int k = 10; k-- != 0;) {
+			boolean solvable = true;
+			time = - System.nanoTime();
+			for(int i = 0; i < repeats; i++) solvable &= Modulo3System.lazyGaussianElimination(copy(var2Eq), c, Util.identity(numVars), solution);
+			time += System.nanoTime();
+			System.err.println(Util.format(time / 1E9) + "s, " + Util.format(time / (double)repeats / 1E3) + " \u00b5s/system" + (solvable ? "" : " (unsolvable)"));
+		}
+	}
+
+	private static int[][] copy(final int[][] a) {
+		final int[][] b = new int[a.length][];
+		for(int i = a.length; i-- != 0;) b[i] = a[i].clone();
+		return b;
+	}
+}
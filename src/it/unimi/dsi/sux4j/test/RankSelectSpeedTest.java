@@ -11,11 +11,15 @@ import com.martiansoftware.jsap.SimpleJSAP;
 import com.martiansoftware.jsap.UnflaggedOption;
 
 import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.fastutil.longs.LongBigArrays;
+import it.unimi.dsi.sux4j.bits.BigRankSelect;
+import it.unimi.dsi.sux4j.bits.FusedRankSelect;
 import it.unimi.dsi.sux4j.bits.HintedBsearchSelect;
 import it.unimi.dsi.sux4j.bits.Rank16;
 import it.unimi.dsi.sux4j.bits.Rank9;
 import it.unimi.dsi.sux4j.bits.Select9;
 import it.unimi.dsi.sux4j.bits.SimpleSelect;
+import it.unimi.dsi.sux4j.bits.SimpleSelectZero;
 import it.unimi.dsi.sux4j.bits.SparseSelect;
 import it.unimi.dsi.util.XoRoShiRo128PlusRandomGenerator;
 
@@ -48,10 +52,13 @@ public class RankSelectSpeedTest {
 
 		final long[] rankPosition = new long[numPos];
 		final long[] selectPosition = new long[numPos];
+		final long[] selectZeroPosition = new long[numPos];
+		final long[] result = new long[numPos];
 
 		for(int i = numPos; i-- != 0;) {
 			rankPosition[i] = (random.nextLong() & 0x7FFFFFFFFFFFFFFFL) % numBits;
 			selectPosition[i] = (random.nextLong() & 0x7FFFFFFFFFFFFFFFL) % c;
+			selectZeroPosition[i] = (random.nextLong() & 0x7FFFFFFFFFFFFFFFL) % (numBits - c);
 		}
 
 		long time;
@@ -63,6 +70,12 @@ public class RankSelectSpeedTest {
 			time += System.currentTimeMillis();
 			System.err.println(time / 1000.0 + "s, " + (time * 1E6) / numPos + " ns/rank");
 
+			System.out.println("=== Rank 9 (batch) ===");
+			time = - System.currentTimeMillis();
+			rank9.rank(rankPosition, result);
+			time += System.currentTimeMillis();
+			System.err.println(time / 1000.0 + "s, " + (time * 1E6) / numPos + " ns/rank");
+
 			System.out.println("=== Rank 16 ===");
 			final Rank16 rank16 = new Rank16(bitVector);
 			time = - System.currentTimeMillis();
@@ -84,6 +97,42 @@ public class RankSelectSpeedTest {
 			time += System.currentTimeMillis();
 			System.err.println(time / 1000.0 + "s, " + (time * 1E6) / numPos + " ns/select");
 
+			System.out.println("=== Select9 (batch) ===");
+			time = - System.currentTimeMillis();
+			select9.select(selectPosition, result);
+			time += System.currentTimeMillis();
+			System.err.println(time / 1000.0 + "s, " + (time * 1E6) / numPos + " ns/select");
+
+			System.out.println("=== Fused ===");
+			final FusedRankSelect fusedRankSelect = new FusedRankSelect(bitVector);
+			time = - System.currentTimeMillis();
+			for(int i = 0; i < numPos; i++) fusedRankSelect.rank(rankPosition[i]);
+			time += System.currentTimeMillis();
+			System.err.println(time / 1000.0 + "s, " + (time * 1E6) / numPos + " ns/rank");
+			time = - System.currentTimeMillis();
+			for(int i = 0; i < numPos; i++) fusedRankSelect.select(selectPosition[i]);
+			time += System.currentTimeMillis();
+			System.err.println(time / 1000.0 + "s, " + (time * 1E6) / numPos + " ns/select");
+			time = - System.currentTimeMillis();
+			for(int i = 0; i < numPos; i++) fusedRankSelect.selectZero(selectZeroPosition[i]);
+			time += System.currentTimeMillis();
+			System.err.println(time / 1000.0 + "s, " + (time * 1E6) / numPos + " ns/selectZero");
+
+			System.out.println("=== Big ===");
+			final BigRankSelect bigRankSelect = new BigRankSelect(LongBigArrays.wrap(bitVector.bits()), bitVector.length());
+			time = - System.currentTimeMillis();
+			for(int i = 0; i < numPos; i++) bigRankSelect.rank(rankPosition[i]);
+			time += System.currentTimeMillis();
+			System.err.println(time / 1000.0 + "s, " + (time * 1E6) / numPos + " ns/rank");
+			time = - System.currentTimeMillis();
+			for(int i = 0; i < numPos; i++) bigRankSelect.select(selectPosition[i]);
+			time += System.currentTimeMillis();
+			System.err.println(time / 1000.0 + "s, " + (time * 1E6) / numPos + " ns/select");
+			time = - System.currentTimeMillis();
+			for(int i = 0; i < numPos; i++) bigRankSelect.selectZero(selectZeroPosition[i]);
+			time += System.currentTimeMillis();
+			System.err.println(time / 1000.0 + "s, " + (time * 1E6) / numPos + " ns/selectZero");
+
 			System.out.println("=== Simple ===");
 			final SimpleSelect simpleSelect = new SimpleSelect(bitVector);
 			time = - System.currentTimeMillis();
@@ -91,6 +140,19 @@ public class RankSelectSpeedTest {
 			time += System.currentTimeMillis();
 			System.err.println(time / 1000.0 + "s, " + (time * 1E6) / numPos + " ns/select");
 
+			System.out.println("=== Simple (batch) ===");
+			time = - System.currentTimeMillis();
+			simpleSelect.select(selectPosition, result);
+			time += System.currentTimeMillis();
+			System.err.println(time / 1000.0 + "s, " + (time * 1E6) / numPos + " ns/select");
+
+			System.out.println("=== Simple zero ===");
+			final SimpleSelectZero simpleSelectZero = new SimpleSelectZero(bitVector);
+			time = - System.currentTimeMillis();
+			for(int i = 0; i < numPos; i++) simpleSelectZero.selectZero(selectZeroPosition[i]);
+			time += System.currentTimeMillis();
+			System.err.println(time / 1000.0 + "s, " + (time * 1E6) / numPos + " ns/selectZero");
+
 			System.out.println("=== Sparse ===");
 			final SparseSelect sparseSelect = new SparseSelect(bitVector);
 			time = - System.currentTimeMillis();
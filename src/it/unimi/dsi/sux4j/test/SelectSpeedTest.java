@@ -1,5 +1,7 @@
 package it.unimi.dsi.sux4j.test;
 
+import java.util.Arrays;
+
 import org.apache.commons.math3.random.RandomGenerator;
 
 import com.martiansoftware.jsap.FlaggedOption;
@@ -11,6 +13,7 @@ import com.martiansoftware.jsap.SimpleJSAP;
 import com.martiansoftware.jsap.UnflaggedOption;
 
 import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.sux4j.bits.AdaptiveSelect;
 import it.unimi.dsi.sux4j.bits.SimpleSelect;
 import it.unimi.dsi.util.XoRoShiRo128PlusRandomGenerator;
 
@@ -23,6 +26,7 @@ public class SelectSpeedTest {
 					new UnflaggedOption("numBits", JSAP.LONGSIZE_PARSER, "1Mi", JSAP.NOT_REQUIRED, JSAP.NOT_GREEDY, "The number of bits."),
 					new UnflaggedOption("density", JSAP.DOUBLE_PARSER, ".5", JSAP.NOT_REQUIRED, JSAP.NOT_GREEDY, "The density."),
 					new FlaggedOption("numPos", JSAP.INTSIZE_PARSER, "1Mi", JSAP.NOT_REQUIRED, 'p', "positions", "The number of positions to test"),
+					new FlaggedOption("distribution", JSAP.STRING_PARSER, "uniform", JSAP.NOT_REQUIRED, 'd', "distribution", "The distribution of ones: uniform; clustered (runs of random length up to 2^20 bits with twice the density or no ones); eliasfano (the upper bits of an Elias-Fano representation of quadratically skewed values; the density is ignored)."),
 					//new FlaggedOption("encoding", ForNameStringParser.getParser(Charset.class), "UTF-8", JSAP.NOT_REQUIRED, 'e', "encoding", "The term file encoding."),
 					//new Switch("zipped", 'z', "zipped", "The term list is compressed in gzip format."),
 					//new FlaggedOption("termFile", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.NOT_REQUIRED, 'o', "offline", "Read terms from this file (without loading them into core memory) instead of standard input."),
@@ -36,14 +40,44 @@ public class SelectSpeedTest {
 		final double density = jsapResult.getDouble("density");
 		final int numPos = jsapResult.getInt("numPos");
 
+		final String distribution = jsapResult.getString("distribution");
+
 		final RandomGenerator random = new XoRoShiRo128PlusRandomGenerator(42);
 		final LongArrayBitVector bitVector = LongArrayBitVector.getInstance().length(numBits);
 		long c = 0;
-		for(long i = numBits; i-- != 0;)
-			if (random.nextDouble() < density) {
-				bitVector.set(i);
-				c++;
+		switch(distribution) {
+		case "uniform":
+			for(long i = numBits; i-- != 0;)
+				if (random.nextDouble() < density) {
+					bitVector.set(i);
+					c++;
+				}
+			break;
+		case "clustered":
+			for(long i = 0; i < numBits;) {
+				final long end = Math.min(numBits, i + 1 + random.nextInt(1 << 20));
+				final double clusterDensity = random.nextBoolean() ? Math.min(1, 2 * density) : 0;
+				for(; i < end; i++)
+					if (random.nextDouble() < clusterDensity) {
+						bitVector.set(i);
+						c++;
+					}
 			}
+			break;
+		case "eliasfano":
+			// The upper bits of n values in [0..n) are stored by setting the bit of index x + i for the i-th value x
+			final int n = (int)Math.min(Integer.MAX_VALUE - 8, numBits / 2);
+			final long[] value = new long[n];
+			for(int i = n; i-- != 0;) {
+				final double x = random.nextDouble();
+				value[i] = (long)(x * x * n);
+			}
+			Arrays.sort(value);
+			for(int i = 0; i < n; i++) bitVector.set(value[i] + i);
+			c = n;
+			break;
+		default: throw new IllegalArgumentException("Unknown distribution " + distribution);
+		}
 
 		final long[] rankPosition = new long[numPos];
 		final long[] selectPosition = new long[numPos];
@@ -55,6 +89,8 @@ public class SelectSpeedTest {
 
 		long time;
 		final SimpleSelect simpleSelect = new SimpleSelect(bitVector);
+		final AdaptiveSelect adaptiveSelect = new AdaptiveSelect(bitVector);
+		System.err.println("Ones: " + c + "; additional space: simple " + 100.0 * simpleSelect.numBits() / numBits + "%, adaptive " + 100.0 * adaptiveSelect.numBits() / numBits + "%");
 		for(int k = 1000; k-- != 0;) {
 
 			System.out.println("=== Simple ===");
@@ -63,6 +99,12 @@ public class SelectSpeedTest {
 			time += System.currentTimeMillis();
 			System.err.println(time / 1000.0 + "s, " + (time * 1E6) / numPos + " ns/select");
 
+			System.out.println("=== Adaptive ===");
+			time = - System.currentTimeMillis();
+			for(int i = 0; i < numPos; i++) adaptiveSelect.select(selectPosition[i]);
+			time += System.currentTimeMillis();
+			System.err.println(time / 1000.0 + "s, " + (time * 1E6) / numPos + " ns/select");
+
 /*			System.out.println("=== Sparse ===");
 			SparseSelect sparseSelect = new SparseSelect(bitVector);
 			time = - System.currentTimeMillis();
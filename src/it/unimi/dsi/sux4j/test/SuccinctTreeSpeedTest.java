@@ -0,0 +1,109 @@
+package it.unimi.dsi.sux4j.test;
+
+import com.martiansoftware.jsap.FlaggedOption;
+import com.martiansoftware.jsap.JSAP;
+import com.martiansoftware.jsap.JSAPException;
+import com.martiansoftware.jsap.JSAPResult;
+import com.martiansoftware.jsap.Parameter;
+import com.martiansoftware.jsap.SimpleJSAP;
+import com.martiansoftware.jsap.UnflaggedOption;
+
+import it.unimi.dsi.Util;
+import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.sux4j.bits.JacobsonBalancedParentheses;
+import it.unimi.dsi.sux4j.bits.RangeMinBalancedParentheses;
+import it.unimi.dsi.sux4j.bits.SuccinctTree;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
+
+public class SuccinctTreeSpeedTest {
+
+	public static void main(final String[] arg) throws JSAPException {
+
+		final SimpleJSAP jsap = new SimpleJSAP(SuccinctTreeSpeedTest.class.getName(), "Tests the speed of balanced-parentheses primitives and of succinct-tree navigation on a random tree.",
+				new Parameter[] {
+					new UnflaggedOption("numNodes", JSAP.INTSIZE_PARSER, "16Mi", JSAP.NOT_REQUIRED, JSAP.NOT_GREEDY, "The number of nodes."),
+					new FlaggedOption("numOps", JSAP.INTSIZE_PARSER, "1Mi", JSAP.NOT_REQUIRED, 'o', "ops", "The number of operations of each kind."),
+					new FlaggedOption("open", JSAP.DOUBLE_PARSER, ".5", JSAP.NOT_REQUIRED, 'p', "open", "The probability of opening a parenthesis (larger values yield deeper trees)."),
+		});
+
+		final JSAPResult jsapResult = jsap.parse(arg);
+		if (jsap.messagePrinted()) return;
+
+		final int numNodes = jsapResult.getInt("numNodes");
+		final int numOps = jsapResult.getInt("numOps");
+		final double p = jsapResult.getDouble("open");
+
+		// A random tree: a root enclosing a random Dyck path
+		final XoRoShiRo128PlusRandom random = new XoRoShiRo128PlusRandom(0);
+		final LongArrayBitVector bitVector = LongArrayBitVector.getInstance(2L * numNodes);
+		final long[] nodes = new long[numNodes];
+		bitVector.add(1);
+		for(long open = 1, e = 0; bitVector.length() < 2L * numNodes - 1;) {
+			if (open < numNodes && (e == 0 || random.nextDouble() < p)) {
+				nodes[(int)open++] = bitVector.length();
+				bitVector.add(1);
+				e++;
+			}
+			else {
+				bitVector.add(0);
+				e--;
+			}
+		}
+		bitVector.add(0);
+
+		final long[] u = new long[numOps], v = new long[numOps], close = new long[numOps];
+		for(int i = numOps; i-- != 0;) {
+			u[i] = nodes[random.nextInt(numNodes)];
+			v[i] = nodes[random.nextInt(numNodes)];
+		}
+
+		final JacobsonBalancedParentheses jacobson = new JacobsonBalancedParentheses(bitVector);
+		final SuccinctTree tree = new SuccinctTree(bitVector);
+		final RangeMinBalancedParentheses rangeMin = tree.balancedParentheses();
+		for(int i = numOps; i-- != 0;) close[i] = rangeMin.findClose(u[i]);
+		System.err.println("Overhead: Jacobson " + Util.format(100.0 * jacobson.numBits() / bitVector.length()) + "%, range-min " + Util.format(100.0 * rangeMin.numBits() / bitVector.length()) + "%");
+		long time, w = 0;
+
+		for(int k = 10; k-- != 0;) {
+			System.out.println("=== Jacobson ===");
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) w += jacobson.findClose(u[i]);
+			time += System.nanoTime();
+			System.err.println(Util.format(time / 1E9) + "s, " + Util.format(time / (double)numOps) + " ns/findClose");
+
+			System.out.println("=== Range-min ===");
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) w += rangeMin.findClose(u[i]);
+			time += System.nanoTime();
+			System.err.println(Util.format(time / 1E9) + "s, " + Util.format(time / (double)numOps) + " ns/findClose");
+
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) w += rangeMin.findOpen(close[i]);
+			time += System.nanoTime();
+			System.err.println(Util.format(time / 1E9) + "s, " + Util.format(time / (double)numOps) + " ns/findOpen");
+
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) w += rangeMin.enclose(u[i]);
+			time += System.nanoTime();
+			System.err.println(Util.format(time / 1E9) + "s, " + Util.format(time / (double)numOps) + " ns/enclose");
+
+			System.out.println("=== Tree ===");
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) w += tree.nextSibling(u[i]);
+			time += System.nanoTime();
+			System.err.println(Util.format(time / 1E9) + "s, " + Util.format(time / (double)numOps) + " ns/nextSibling");
+
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) w += tree.depth(u[i]);
+			time += System.nanoTime();
+			System.err.println(Util.format(time / 1E9) + "s, " + Util.format(time / (double)numOps) + " ns/depth");
+
+			time = - System.nanoTime();
+			for(int i = 0; i < numOps; i++) w += tree.lca(u[i], v[i]);
+			time += System.nanoTime();
+			System.err.println(Util.format(time / 1E9) + "s, " + Util.format(time / (double)numOps) + " ns/lca");
+		}
+
+		if (w == 0) System.out.println();
+	}
+}
@@ -0,0 +1,130 @@
+package it.unimi.dsi.sux4j.bits;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
+
+public class AdaptiveSelectTest extends RankSelectTestCase {
+
+	@Test
+	public void testEmpty() {
+		for (final int length : new int[] { 0, 63, 64, 65, 128, 129 }) {
+			final AdaptiveSelect select = new AdaptiveSelect(new long[3], length);
+			assertEquals(-1, select.select(0));
+			assertEquals(-1, select.select(1));
+		}
+	}
+
+	@Test
+	public void testSingletonAndDoubleton() {
+		AdaptiveSelect select = new AdaptiveSelect(new long[] { 1L << 63, 0, 0 }, 129);
+		assertSelect(select);
+		assertEquals(63, select.select(0));
+		assertEquals(-1, select.select(1));
+
+		select = new AdaptiveSelect(new long[] { 1, 1, 0 }, 129);
+		assertSelect(select);
+		assertEquals(0, select.select(0));
+		assertEquals(64, select.select(1));
+		assertEquals(-1, select.select(2));
+	}
+
+	@Test
+	public void testAllSizes() {
+		for (int size = 0; size <= 4096; size++) {
+			LongArrayBitVector v = LongArrayBitVector.getInstance().length(size);
+			for (int i = (size + 1) / 2; i-- != 0;) v.set(i * 2);
+			AdaptiveSelect select = new AdaptiveSelect(v);
+			for (int i = (size + 1) / 2; i-- != 0;) assertEquals(i * 2, select.select(i));
+
+			v = LongArrayBitVector.getInstance().length(size);
+			v.fill(true);
+			select = new AdaptiveSelect(v);
+			for (int i = size; i-- != 0;) assertEquals(i, select.select(i));
+		}
+	}
+
+	@Test
+	public void testSparse() {
+		// Spans requiring 32-bit offsets
+		for (final int length : new int[] { 32 * 1024, 64 * 1024, 256 * 1024, 1024 * 1024 }) {
+			final LongArrayBitVector bitVector = LongArrayBitVector.getInstance().length(length);
+			bitVector.set(1);
+			bitVector.set(length / 3);
+			bitVector.set(length / 2);
+			bitVector.set(length - 1);
+			assertSelect(new AdaptiveSelect(bitVector));
+		}
+	}
+
+	@Test
+	public void testRandom() {
+		for (final LongArrayBitVector bitVector : randomBitVectors(1000000)) assertSelect(new AdaptiveSelect(bitVector));
+	}
+
+	@Test
+	public void testClustered() {
+		// Dense clusters separated by long runs of zeroes, so blocks have very different spans
+		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(0);
+		final LongArrayBitVector bitVector = LongArrayBitVector.getInstance();
+		while(bitVector.length() < 10000000) {
+			final int clusterLength = r.nextInt(1 << 16);
+			final double density = r.nextBoolean() ? .9 : .0001;
+			for (int i = 0; i < clusterLength; i++) bitVector.add(r.nextDouble() < density);
+		}
+		final AdaptiveSelect select = new AdaptiveSelect(bitVector);
+		assertSelect(select);
+		assertEquals(-1, select.select(bitVector.count()));
+	}
+
+	@Test
+	public void testLongGaps() {
+		// Runs of ones followed by gaps longer than the maximum scan, so the ones following some samples are spilled
+		for (final int gap : new int[] { 5000, 40000, 100000 }) {
+			for (final int run : new int[] { 1, 3, 100, 1000 }) {
+				final LongArrayBitVector bitVector = LongArrayBitVector.getInstance();
+				while(bitVector.length() < 2000000) {
+					for (int i = 0; i < run; i++) bitVector.add(true);
+					bitVector.length(bitVector.length() + gap);
+				}
+				final AdaptiveSelect select = new AdaptiveSelect(bitVector);
+				assertSelect(select);
+				assertEquals(-1, select.select(bitVector.count()));
+			}
+		}
+	}
+
+	@Test
+	public void testUniformSpace() {
+		// Evenly distributed bit vectors, including densities at which SimpleSelect uses the least space
+		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(0);
+		for (final double density : new double[] { .99, .9, .5, 1. / 3, .25, .1, 1. / 16, .01, 1. / 256, .001, .0001, .00001 }) {
+			for (final int length : new int[] { 1000000, 4000000 }) {
+				final LongArrayBitVector bitVector = LongArrayBitVector.getInstance(length);
+				for (int i = 0; i < length; i++) bitVector.add(r.nextDouble() < density);
+				final long adaptive = new AdaptiveSelect(bitVector).numBits(), simple = new SimpleSelect(bitVector).numBits();
+				assertTrue("Density " + density + ", length " + length + ": " + adaptive + " > " + simple, adaptive <= simple);
+			}
+		}
+	}
+
+	@Test
+	public void testBulk() {
+		final XoRoShiRo128PlusRandom random = new XoRoShiRo128PlusRandom(0);
+		final long[] s = new long[100000];
+		for(int i = s.length; i-- != 0;) s[i] = random.nextLong() & 0xF0F0F0F088884444L;
+		final AdaptiveSelect select = new AdaptiveSelect(s, s.length * Long.SIZE);
+
+		for(int i = 0; i < 1000; i++) {
+			final int from = random.nextInt(s.length - 100);
+			final int to = from + random.nextInt(100);
+			final int offset = random.nextInt(10);
+			final long[] dest = select.select(from, new long[to - from + offset + random.nextInt(10)], offset, to - from);
+			for(int j = from; j < to; j++) assertEquals("From: " + from + " to: " + to + " j: " + j, select.select(j), dest[offset + j - from]);
+		}
+	}
+}
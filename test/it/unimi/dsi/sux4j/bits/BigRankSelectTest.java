@@ -0,0 +1,89 @@
+package it.unimi.dsi.sux4j.bits;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.fastutil.longs.LongBigArrays;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
+
+public class BigRankSelectTest extends RankSelectTestCase {
+
+	private static BigRankSelect bigRankSelect(final LongArrayBitVector bitVector) {
+		return new BigRankSelect(LongBigArrays.wrap(bitVector.bits()), bitVector.length());
+	}
+
+	@Test
+	public void testEmpty() {
+		for (final int length : new int[] { 0, 63, 64, 65, 128, 129 }) {
+			final BigRankSelect rankSelect = new BigRankSelect(LongBigArrays.newBigArray(3), length);
+			for (int i = length + 1; i-- != 0;) assertEquals(0, rankSelect.rank(i));
+			assertEquals(-1, rankSelect.select(0));
+			assertSelectZero(rankSelect);
+			assertEquals(-1, rankSelect.selectZero(length));
+		}
+
+		final BigRankSelect rankSelect = bigRankSelect(allOnes());
+		assertRankAndSelect(rankSelect, rankSelect);
+		assertEquals(-1, rankSelect.selectZero(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooShort() {
+		new BigRankSelect(LongBigArrays.newBigArray(2), 129);
+	}
+
+	@Test
+	public void testAllSizes() {
+		for (int size = 0; size <= 4096; size++) {
+			final LongArrayBitVector v = LongArrayBitVector.getInstance().length(size);
+			for (int i = (size + 1) / 2; i-- != 0;) v.set(i * 2);
+			final BigRankSelect rankSelect = bigRankSelect(v);
+			assertEquals(v, rankSelect.bitVector());
+			for (int i = size + 1; i-- != 0;) assertEquals((i + 1) / 2, rankSelect.rank(i));
+			for (int i = (size + 1) / 2; i-- != 0;) assertEquals(i * 2, rankSelect.select(i));
+			for (int i = size / 2; i-- != 0;) assertEquals(i * 2 + 1, rankSelect.selectZero(i));
+		}
+	}
+
+	@Test
+	public void testRandom() {
+		for (final LongArrayBitVector bitVector : randomBitVectors(10000000)) {
+			final BigRankSelect rankSelect = bigRankSelect(bitVector);
+			assertRankAndSelect(rankSelect, rankSelect);
+			assertSelectZero(rankSelect);
+		}
+	}
+
+	@Test
+	public void testUneven() {
+		// Dense and sparse regions alternate, so that some inventory spans need exact spills
+		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(0);
+		final LongArrayBitVector bitVector = LongArrayBitVector.getInstance();
+		for (int i = 0; i < 1000000; i++) bitVector.add((i / 100000) % 2 == 0 ? r.nextInt(1000) == 0 : r.nextInt(1000) != 0);
+		final BigRankSelect rankSelect = bigRankSelect(bitVector);
+		assertRankAndSelect(rankSelect, rankSelect);
+		assertSelectZero(rankSelect);
+	}
+
+	@Test
+	public void testNumBits() {
+		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(0);
+		final LongArrayBitVector bitVector = LongArrayBitVector.getInstance();
+		for (int i = 0; i < 1000000; i++) bitVector.add(r.nextBoolean());
+		assertEquals(new FusedRankSelect(bitVector).numBits(), bigRankSelect(bitVector).numBits());
+	}
+
+	@Test
+	public void testSerialization() throws IOException, ClassNotFoundException {
+		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(0);
+		final LongArrayBitVector bitVector = LongArrayBitVector.getInstance();
+		for (int i = 0; i < 100000; i++) bitVector.add(r.nextBoolean());
+		final BigRankSelect rankSelect = storeAndLoad(bigRankSelect(bitVector));
+		assertRankAndSelect(rankSelect, rankSelect);
+		assertSelectZero(rankSelect);
+	}
+}
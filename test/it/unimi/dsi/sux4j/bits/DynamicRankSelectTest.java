@@ -0,0 +1,107 @@
+package it.unimi.dsi.sux4j.bits;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
+
+public class DynamicRankSelectTest extends RankSelectTestCase {
+
+	private static void assertSame(final LongArrayBitVector expected, final DynamicRankSelect dynamic, final XoRoShiRo128PlusRandom r) {
+		assertEquals(expected.length(), dynamic.length());
+		assertEquals(expected.count(), dynamic.count());
+		final Rank9 rank9 = new Rank9(expected);
+		final SimpleSelect select = new SimpleSelect(expected);
+		final SimpleSelectZero selectZero = new SimpleSelectZero(expected);
+		for (int i = 0; i < 1000; i++) {
+			final long pos = (r.nextLong() >>> 1) % (expected.length() + 1);
+			assertEquals(rank9.rank(pos), dynamic.rank(pos));
+			if (pos < expected.length()) assertEquals(expected.getBoolean(pos), dynamic.getBoolean(pos));
+			if (expected.count() != 0) {
+				final long rank = (r.nextLong() >>> 1) % expected.count();
+				assertEquals(select.select(rank), dynamic.select(rank));
+			}
+			if (expected.length() != expected.count()) {
+				final long zeroRank = (r.nextLong() >>> 1) % (expected.length() - expected.count());
+				assertEquals(selectZero.selectZero(zeroRank), dynamic.selectZero(zeroRank));
+			}
+		}
+		assertEquals(-1, dynamic.select(expected.count()));
+		assertEquals(-1, dynamic.selectZero(expected.length() - expected.count()));
+	}
+
+	@Test
+	public void testEmpty() {
+		final DynamicRankSelect dynamic = new DynamicRankSelect();
+		assertEquals(0, dynamic.length());
+		assertEquals(0, dynamic.rank(0));
+		assertEquals(-1, dynamic.select(0));
+		assertEquals(-1, dynamic.selectZero(0));
+		dynamic.add(true);
+		dynamic.add(false);
+		assertRankAndSelect(dynamic, dynamic);
+		assertSelectZero(dynamic);
+		dynamic.clear();
+		assertEquals(0, dynamic.length());
+		assertEquals(0, dynamic.count());
+	}
+
+	@Test
+	public void testFromBitVector() {
+		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(0);
+		for (final int size : new int[] { 0, 1, 63, 64, 65, 1535, 1536, 1537, 10000, 100000, 1000000 }) {
+			final LongArrayBitVector bitVector = LongArrayBitVector.getInstance(size);
+			for (int i = 0; i < size; i++) bitVector.add(r.nextBoolean());
+			final DynamicRankSelect dynamic = new DynamicRankSelect(bitVector);
+			assertEquals(bitVector, dynamic);
+			assertSame(bitVector, dynamic, r);
+		}
+	}
+
+	@Test
+	public void testRandomOperations() {
+		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(1);
+		final LongArrayBitVector expected = LongArrayBitVector.getInstance();
+		final DynamicRankSelect dynamic = new DynamicRankSelect();
+		// The vector first grows, then shrinks to nothing, so leaves and internal nodes are split and merged
+		for (final int phase : new int[] { 0, 1, 2 }) {
+			for (int i = 0; i < 300000; i++) {
+				final int op = r.nextInt(10);
+				final boolean value = r.nextInt(4) == 0;
+				if (op < (phase == 0 ? 6 : phase == 1 ? 3 : 2) || expected.length() == 0) {
+					final long pos = (r.nextLong() >>> 1) % (expected.length() + 1);
+					expected.add(pos, value);
+					dynamic.add(pos, value);
+				}
+				else if (op < (phase == 2 ? 9 : 6)) {
+					final long pos = (r.nextLong() >>> 1) % expected.length();
+					assertEquals(expected.removeBoolean(pos), dynamic.removeBoolean(pos));
+				}
+				else {
+					final long pos = (r.nextLong() >>> 1) % expected.length();
+					assertEquals(expected.set(pos, value), dynamic.set(pos, value));
+				}
+				if (i % 50000 == 0) assertSame(expected, dynamic, r);
+			}
+			assertEquals(expected, dynamic);
+			assertSame(expected, dynamic, r);
+		}
+		while (dynamic.length() != 0) assertEquals(expected.removeBoolean(expected.length() - 1), dynamic.removeBoolean(dynamic.length() - 1));
+		assertEquals(0, dynamic.count());
+	}
+
+	@Test
+	public void testSerialization() throws IOException, ClassNotFoundException {
+		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(0);
+		final LongArrayBitVector bitVector = LongArrayBitVector.getInstance();
+		for (int i = 0; i < 100000; i++) bitVector.add(r.nextBoolean());
+		final DynamicRankSelect dynamic = storeAndLoad(new DynamicRankSelect(bitVector));
+		assertEquals(bitVector, dynamic);
+		assertRankAndSelect(dynamic, dynamic);
+		assertSelectZero(dynamic);
+	}
+}
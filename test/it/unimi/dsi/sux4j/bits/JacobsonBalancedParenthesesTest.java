@@ -6,6 +6,7 @@ import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
 import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
 
 public class JacobsonBalancedParenthesesTest extends BalancedParenthesesTestCase {
 
@@ -225,4 +226,34 @@ public class JacobsonBalancedParenthesesTest extends BalancedParenthesesTestCase
 		// assertEquals(3, bp.enclose(5));
 
 	}
+
+	@Test
+	public void testTableVariants() {
+		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(0);
+		for(int t = 0; t < 1000000; t++) {
+			// Shifting makes near matches and missing far closes more likely
+			final long word = r.nextLong() >>> r.nextInt(Long.SIZE);
+			final long open = word | 1;
+			final int near = JacobsonBalancedParentheses.findNearClose2(open);
+			assertEquals(Long.toBinaryString(open), near, JacobsonBalancedParentheses.findNearCloseTable(open));
+			if (near < Long.SIZE) assertEquals(Long.toBinaryString(open), near, JacobsonBalancedParentheses.findNearClose(open));
+
+			for(int i = 0;; i++) {
+				final int result = JacobsonBalancedParentheses.findFarClose2(word, i);
+				if (result == -1) {
+					assertEquals(Long.SIZE, JacobsonBalancedParentheses.findFarCloseTable(word, i));
+					break;
+				}
+				assertEquals(Long.toBinaryString(word) + ", " + i, result, JacobsonBalancedParentheses.findFarCloseTable(word, i));
+			}
+		}
+	}
+
+	@Test
+	public void testVariants() {
+		assertTrue(JacobsonBalancedParentheses.NEAR_CLOSE_VARIANT < JacobsonBalancedParentheses.VARIANT_NAME.length);
+		assertTrue(JacobsonBalancedParentheses.FAR_CLOSE_VARIANT < JacobsonBalancedParentheses.VARIANT_NAME.length);
+		assertEquals(7, JacobsonBalancedParentheses.nearClose(parseSmall("(()(()))")));
+		assertEquals(3, JacobsonBalancedParentheses.farClose(parseSmall(")())", false), 1));
+	}
 }
@@ -0,0 +1,118 @@
+package it.unimi.dsi.sux4j.bits;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import it.unimi.dsi.bits.BitVector;
+import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.fastutil.io.BinIO;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
+
+public class MappedRankSelectTest extends RankSelectTestCase {
+
+	private MappedRankSelect map(final BitVector bitVector) throws IOException {
+		final File temp = File.createTempFile(getClass().getSimpleName(), "test");
+		temp.deleteOnExit();
+		MappedRankSelect.store(bitVector, temp.toString());
+		return new MappedRankSelect(temp.toString());
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		for (final int length : new int[] { 0, 63, 64, 65, 128, 129 }) {
+			final MappedRankSelect rankSelect = map(LongArrayBitVector.getInstance().length(length));
+			for (int i = length + 1; i-- != 0;) assertEquals(0, rankSelect.rank(i));
+			assertEquals(-1, rankSelect.select(0));
+			assertSelectZero(rankSelect);
+			assertEquals(-1, rankSelect.selectZero(length));
+		}
+
+		final MappedRankSelect rankSelect = map(allOnes());
+		assertRankAndSelect(rankSelect, rankSelect);
+		assertEquals(-1, rankSelect.selectZero(0));
+	}
+
+	@Test
+	public void testAllSizes() throws IOException {
+		for (int size = 0; size <= 1100; size++) {
+			final LongArrayBitVector v = LongArrayBitVector.getInstance().length(size);
+			for (int i = (size + 1) / 2; i-- != 0;) v.set(i * 2);
+			final MappedRankSelect rankSelect = map(v);
+			assertEquals(v, rankSelect.bitVector());
+			for (int i = size + 1; i-- != 0;) assertEquals((i + 1) / 2, rankSelect.rank(i));
+			for (int i = (size + 1) / 2; i-- != 0;) assertEquals(i * 2, rankSelect.select(i));
+			for (int i = size / 2; i-- != 0;) assertEquals(i * 2 + 1, rankSelect.selectZero(i));
+		}
+	}
+
+	@Test
+	public void testRandom() throws IOException {
+		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(1);
+		for (final LongArrayBitVector bitVector : randomBitVectors(1000000)) {
+			final MappedRankSelect rankSelect = map(bitVector);
+			assertEquals(bitVector, rankSelect.bitVector());
+			assertRankAndSelect(rankSelect, rankSelect);
+			assertSelectZero(rankSelect);
+			// Same results as the heap-based version
+			final FusedRankSelect fused = new FusedRankSelect(bitVector);
+			for (int i = 0; i < 1000; i++) {
+				final long pos = (r.nextLong() >>> 1) % (bitVector.length() + 1);
+				assertEquals(fused.rank(pos), rankSelect.rank(pos));
+			}
+		}
+	}
+
+	@Test
+	public void testConversion() throws IOException {
+		final File bitVectorFile = File.createTempFile(getClass().getSimpleName(), "test");
+		bitVectorFile.deleteOnExit();
+		final File rank9File = File.createTempFile(getClass().getSimpleName(), "test");
+		rank9File.deleteOnExit();
+		final List<LongArrayBitVector> bitVectors = randomBitVectors(100000);
+		for (int size = 0; size <= 1100; size += 7) bitVectors.add(LongArrayBitVector.getInstance().length(size));
+		bitVectors.add(allOnes());
+		for (final LongArrayBitVector bitVector : bitVectors) {
+			// The counts of a Rank9 are copied, and must give the same file
+			MappedRankSelect.store(bitVector, bitVectorFile.toString());
+			MappedRankSelect.store(new Rank9(bitVector), rank9File.toString());
+			assertArrayEquals(BinIO.loadBytes(bitVectorFile), BinIO.loadBytes(rank9File));
+
+			final SimpleSelect simpleSelect = new SimpleSelect(bitVector);
+			MappedRankSelect.store(simpleSelect, rank9File.toString());
+			final MappedRankSelect rankSelect = new MappedRankSelect(rank9File.toString());
+			final long numOnes = bitVector.count();
+			for (long i = 0; i < numOnes; i += 1 + numOnes / 1000) assertEquals(simpleSelect.select(i), rankSelect.select(i));
+		}
+	}
+
+	@Test
+	public void testByteOrder() throws IOException {
+		final File temp = File.createTempFile(getClass().getSimpleName(), "test");
+		temp.deleteOnExit();
+		MappedRankSelect.store(allOnes(), temp.toString());
+		try(final DataInputStream dis = new DataInputStream(new FileInputStream(temp))) {
+			// The header starts with the length of the bit vector
+			assertEquals(129, Long.reverseBytes(dis.readLong()));
+		}
+	}
+
+	@Test
+	public void testSerialization() throws IOException, ClassNotFoundException {
+		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(0);
+		final LongArrayBitVector bitVector = LongArrayBitVector.getInstance();
+		for (int i = 0; i < 100000; i++) bitVector.add(r.nextBoolean());
+		final MappedRankSelect rankSelect = map(bitVector);
+		final MappedRankSelect loaded = storeAndLoad(rankSelect);
+		assertEquals(rankSelect.numBits(), loaded.numBits());
+		assertRankAndSelect(loaded, loaded);
+		assertSelectZero(loaded);
+	}
+}
@@ -0,0 +1,163 @@
+package it.unimi.dsi.sux4j.bits;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import it.unimi.dsi.bits.BitVector;
+import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
+
+public class RangeMinBalancedParenthesesTest extends BalancedParenthesesTestCase {
+
+	/** Returns a random balanced string of parentheses; {@code p} is the probability of opening a parenthesis when possible. */
+	public static LongArrayBitVector randomParentheses(final XoRoShiRo128PlusRandom r, final long n, final double p) {
+		final LongArrayBitVector bv = LongArrayBitVector.getInstance(2 * n);
+		long open = 0, e = 0;
+		while(bv.length() < 2 * n) {
+			if (open < n && (e == 0 || r.nextDouble() < p)) {
+				bv.add(1);
+				open++;
+				e++;
+			}
+			else {
+				bv.add(0);
+				e--;
+			}
+		}
+		return bv;
+	}
+
+	private static void assertPrimitives(final RangeMinBalancedParentheses bp) {
+		final BitVector bits = bp.bitVector();
+		final long length = bits.length();
+		final LongArrayList stack = new LongArrayList();
+		final long[] match = new long[(int)length], enclose = new long[(int)length];
+
+		for(int i = 0; i < length; i++) {
+			assertEquals("Excess at position " + i, stack.size(), bp.excess(i));
+			if (bits.getBoolean(i)) {
+				enclose[i] = stack.isEmpty() ? -1 : stack.topLong();
+				stack.push(i);
+			}
+			else {
+				final long open = stack.popLong();
+				match[i] = open;
+				match[(int)open] = i;
+				enclose[i] = enclose[(int)open];
+			}
+		}
+		assertEquals(0, bp.excess(length));
+
+		for(int i = 0; i < length; i++) {
+			if (bits.getBoolean(i)) assertEquals("Finding closing for position " + i, match[i], bp.findClose(i));
+			else assertEquals("Finding opening for position " + i, match[i], bp.findOpen(i));
+			assertEquals("Enclosing position " + i, enclose[i], bp.enclose(i));
+		}
+	}
+
+	@Test
+	public void testSimple() {
+		RangeMinBalancedParentheses bp = new RangeMinBalancedParentheses(parse("()", true));
+		assertBalancedParentheses(bp);
+		assertEquals(1, bp.findClose(0));
+		assertEquals(0, bp.findOpen(1));
+		assertEquals(-1, bp.enclose(0));
+		assertEquals(-1, bp.enclose(1));
+
+		bp = new RangeMinBalancedParentheses(parse("(())", true));
+		assertBalancedParentheses(bp);
+		assertEquals(3, bp.findClose(0));
+		assertEquals(2, bp.findClose(1));
+		assertEquals(1, bp.findOpen(2));
+		assertEquals(0, bp.findOpen(3));
+		assertEquals(0, bp.enclose(1));
+		assertEquals(0, bp.enclose(2));
+
+		bp = new RangeMinBalancedParentheses(parse("(()())", true));
+		assertBalancedParentheses(bp);
+		assertEquals(5, bp.findClose(0));
+		assertEquals(2, bp.findClose(1));
+		assertEquals(4, bp.findClose(3));
+		assertEquals(3, bp.findOpen(4));
+		assertEquals(0, bp.enclose(3));
+		assertEquals(0, bp.enclose(4));
+		assertPrimitives(bp);
+	}
+
+	@Test
+	public void testEmpty() {
+		final RangeMinBalancedParentheses bp = new RangeMinBalancedParentheses(LongArrayBitVector.getInstance());
+		assertEquals(0, bp.excess(0));
+		assertEquals(-1, bp.forwardSearch(0, -1));
+		assertEquals(-1, bp.backwardSearch(0, -1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnbalancedNegative() {
+		new RangeMinBalancedParentheses(parse("())(", false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnbalancedPositive() {
+		new RangeMinBalancedParentheses(parse("(()", false));
+	}
+
+	@Test
+	public void testDeep() {
+		for(final int n : new int[] { 1, 31, 32, 33, 255, 256, 257, 2048, 10000, 50000 }) {
+			final LongArrayBitVector bv = LongArrayBitVector.getInstance(2 * n);
+			for(int i = 0; i < n; i++) bv.add(1);
+			for(int i = 0; i < n; i++) bv.add(0);
+			final RangeMinBalancedParentheses bp = new RangeMinBalancedParentheses(bv);
+			assertBalancedParentheses(bp);
+			assertPrimitives(bp);
+		}
+	}
+
+	@Test
+	public void testFlat() {
+		for(final int n : new int[] { 1, 31, 32, 33, 255, 256, 257, 2048, 10000, 50000 }) {
+			final LongArrayBitVector bv = LongArrayBitVector.getInstance(2 * n + 2);
+			bv.add(1);
+			for(int i = 0; i < n; i++) {
+				bv.add(1);
+				bv.add(0);
+			}
+			bv.add(0);
+			final RangeMinBalancedParentheses bp = new RangeMinBalancedParentheses(bv);
+			assertPrimitives(bp);
+		}
+	}
+
+	@Test
+	public void testRandom() {
+		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(0);
+		for(final double p : new double[] { .3, .5, .52, .7 }) {
+			for(final int n : new int[] { 1, 2, 10, 100, 256, 257, 1000, 10000, 100000 }) {
+				final RangeMinBalancedParentheses bp = new RangeMinBalancedParentheses(randomParentheses(r, n, p));
+				assertBalancedParentheses(bp);
+				assertPrimitives(bp);
+			}
+		}
+	}
+
+	@Test
+	public void testRangeMinExcess() {
+		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(0);
+		for(final int n : new int[] { 10, 1000, 100000 }) {
+			final RangeMinBalancedParentheses bp = new RangeMinBalancedParentheses(randomParentheses(r, n, .52));
+			final long length = bp.bitVector().length();
+			final long[] excess = new long[(int)length + 1];
+			for(int i = 0; i < length; i++) excess[i + 1] = excess[i] + (bp.bitVector().getBoolean(i) ? 1 : -1);
+			for(int k = 0; k < 1000; k++) {
+				final int from = r.nextInt((int)length + 1);
+				final int to = from + r.nextInt((int)Math.min(length + 1 - from, k % 2 == 0 ? 1000 : Integer.MAX_VALUE));
+				long min = Long.MAX_VALUE;
+				for(int i = from; i <= to; i++) min = Math.min(min, excess[i]);
+				assertEquals("[" + from + ".." + to + "]", min, bp.rangeMinExcess(from, to));
+			}
+		}
+	}
+}
@@ -1,12 +1,90 @@
 package it.unimi.dsi.sux4j.bits;
 
 import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 import it.unimi.dsi.bits.BitVector;
+import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.fastutil.io.BinIO;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
 
 public abstract class RankSelectTestCase {
+
+	/** Densities for random bit vectors: extreme densities make samples far apart, and thus exercise binary search. */
+	private static final double[] DENSITIES = { .5, .1, .9, .001, .999 };
+
+	/** Returns random bit vectors with a few densities and sizes 10, 100, &hellip; up to a maximum. */
+	protected static List<LongArrayBitVector> randomBitVectors(final int maxSize) {
+		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(1);
+		final List<LongArrayBitVector> bitVectors = new ArrayList<>();
+		for (final double density : DENSITIES) {
+			for (int size = 10; size <= maxSize; size *= 10) {
+				final LongArrayBitVector bitVector = LongArrayBitVector.getInstance(size);
+				for (int i = 0; i < size; i++) bitVector.add(r.nextDouble() < density);
+				bitVectors.add(bitVector);
+			}
+		}
+		return bitVectors;
+	}
+
+	/** Returns a bit vector of length 129 containing just ones. */
+	protected static LongArrayBitVector allOnes() {
+		return LongArrayBitVector.wrap(new long[] { -1L, -1L, 1 }, 129);
+	}
+
+	/** Stores an object in a temporary file and loads it back. */
+	@SuppressWarnings("unchecked")
+	protected <T> T storeAndLoad(final T object) throws IOException, ClassNotFoundException {
+		final File temp = File.createTempFile(getClass().getSimpleName(), "test");
+		temp.deleteOnExit();
+		BinIO.storeObject(object, temp);
+		return (T)BinIO.loadObject(temp);
+	}
+
+	/** Returns the integers in [0..n], plus a few larger values, in random order. */
+	private static long[] queries(final long n) {
+		final long[] queries = new long[(int)Math.min(n, 1 << 20) + 3];
+		for(int i = queries.length - 3; i-- != 0;) queries[i] = i * (n / (queries.length - 3));
+		queries[queries.length - 3] = n;
+		queries[queries.length - 2] = n + 1;
+		queries[queries.length - 1] = n + 100;
+		LongArrays.shuffle(queries, new XoRoShiRo128PlusRandom(0));
+		return queries;
+	}
+
+	public void assertBatchRank(Rank rank) {
+		final long length = rank.bitVector().length();
+		final long[] positions = queries(length);
+		for(int i = positions.length; i-- != 0;) positions[i] = Math.min(positions[i], length);
+		final long[] out = new long[positions.length];
+		rank.rank(positions, out);
+		for(int i = 0; i < positions.length; i++) assertEquals("Ranking " + positions[i], rank.rank(positions[i]), out[i]);
+	}
+
+	public void assertBatchSelect(Select select, long count) {
+		final long[] ranks = queries(count);
+		final long[] out = new long[ranks.length];
+		select.select(ranks, out);
+		for(int i = 0; i < ranks.length; i++) assertEquals("Selecting " + ranks[i], select.select(ranks[i]), out[i]);
+	}
+
+	public void assertBatchSelectZero(SelectZero selectZero, long count) {
+		final long[] zeroRanks = queries(count);
+		final long[] out = new long[zeroRanks.length];
+		selectZero.selectZero(zeroRanks, out);
+		for(int i = 0; i < zeroRanks.length; i++) assertEquals("Selecting " + zeroRanks[i], selectZero.selectZero(zeroRanks[i]), out[i]);
+	}
+
 	public void assertRankAndSelect(Rank rank, Select select) {
 		final long length = rank.bitVector().length();
 		final BitVector bits = rank.bitVector();
+		assertBatchRank(rank);
+		assertBatchSelect(select, rank.count());
 
 		for(int j = 0, i = 0; i < length; i++) {
 			assertEquals("Ranking " + i, j, rank.rank(i));
@@ -21,6 +99,7 @@ public abstract class RankSelectTestCase {
 	public void assertSelect(Select s) {
 		final BitVector bits = s.bitVector();
 		final long length = bits.length();
+		assertBatchSelect(s, bits.count());
 
 		for(int j = 0, i = 0; i < length; i++) {
 			if (bits.getBoolean(i)) {
@@ -34,6 +113,7 @@ public abstract class RankSelectTestCase {
 	public void assertSelectZero(SelectZero s) {
 		final BitVector bits = s.bitVector();
 		final long length = bits.length();
+		assertBatchSelectZero(s, length - bits.count());
 
 		for(int j = 0, i = 0; i < length; i++) {
 			if (! bits.getBoolean(i)) {
@@ -47,6 +127,7 @@ public abstract class RankSelectTestCase {
 	public void assertRank(Rank rank) {
 		final long length = rank.bitVector().length();
 		final BitVector bits = rank.bitVector();
+		assertBatchRank(rank);
 
 		for(long j = 0, i = 0; i < length; i++) {
 			assertEquals("Ranking " + i, j, rank.rank(i));
@@ -215,4 +215,23 @@ public class SparseRankTest extends RankSelectTestCase {
 		SparseRank rank = select.getRank();
 		assertRankAndSelect(rank, select);
 	}
+
+	@Test
+	public void testDenseBuckets() {
+		// Clustered ones yield buckets with hundreds of elements, spanning several words of upper bits
+		final Random r = new XoRoShiRo128PlusRandom(0);
+		for(final int clusterSize : new int[] { 1, 63, 64, 65, 500, 5000 }) {
+			final LongArrayBitVector bitVector = LongArrayBitVector.getInstance().length(1 << 20);
+			for(int c = 0; c < 4; c++) {
+				final int start = r.nextInt((1 << 20) - clusterSize);
+				for(int i = 0; i < clusterSize; i++) bitVector.set(start + i);
+			}
+			final SparseRank rank = new SparseRank(bitVector);
+			for(long j = 0, i = 0; i < bitVector.length(); i++) {
+				assertEquals("Ranking " + i, j, rank.rank(i));
+				if (bitVector.getBoolean(i)) j++;
+			}
+			assertEquals(bitVector.count(), rank.rank(bitVector.length()));
+		}
+	}
 }
@@ -0,0 +1,133 @@
+package it.unimi.dsi.sux4j.bits;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import it.unimi.dsi.bits.BitVector;
+import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.fastutil.io.BinIO;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
+
+public class SuccinctTreeTest {
+
+	/** Returns the balanced-parentheses representation of a random tree with {@code n} nodes (a random Dyck path enclosed in a root). */
+	private static LongArrayBitVector randomTree(final XoRoShiRo128PlusRandom r, final int n, final double p) {
+		final LongArrayBitVector bv = LongArrayBitVector.getInstance(2 * n);
+		bv.add(1);
+		bv.append(RangeMinBalancedParenthesesTest.randomParentheses(r, n - 1, p));
+		bv.add(0);
+		return bv;
+	}
+
+	private static void assertTree(final SuccinctTree tree) {
+		final BitVector bits = tree.balancedParentheses().bitVector();
+		final int length = (int)bits.length();
+		final long[] parent = new long[length], close = new long[length], depth = new long[length], preorder = new long[length];
+		final long[] firstChild = new long[length], lastChild = new long[length], nextSibling = new long[length];
+		final LongArrayList stack = new LongArrayList();
+		int count = 0;
+		for(int i = 0; i < length; i++) {
+			if (bits.getBoolean(i)) {
+				parent[i] = stack.isEmpty() ? -1 : stack.topLong();
+				depth[i] = stack.size();
+				preorder[i] = count++;
+				firstChild[i] = lastChild[i] = nextSibling[i] = -1;
+				if (parent[i] != -1) {
+					final int p = (int)parent[i];
+					if (lastChild[p] == -1) firstChild[p] = i;
+					else nextSibling[(int)lastChild[p]] = i;
+					lastChild[p] = i;
+				}
+				stack.push(i);
+			}
+			else close[(int)stack.popLong()] = i;
+		}
+
+		assertEquals(length / 2, tree.numNodes());
+		for(int i = 0; i < length; i++) {
+			if (! bits.getBoolean(i)) continue;
+			assertEquals("Parent of " + i, parent[i], tree.parent(i));
+			assertEquals("Depth of " + i, depth[i], tree.depth(i));
+			assertEquals("Preorder of " + i, preorder[i], tree.preorder(i));
+			assertEquals("First child of " + i, firstChild[i], tree.firstChild(i));
+			assertEquals("Next sibling of " + i, nextSibling[i], tree.nextSibling(i));
+			assertEquals("Leaf " + i, firstChild[i] == -1, tree.isLeaf(i));
+			assertEquals("Subtree size of " + i, (close[i] - i + 1) / 2, tree.subtreeSize(i));
+		}
+	}
+
+	private static long naiveLca(final SuccinctTree tree, long u, long v) {
+		while(tree.depth(u) > tree.depth(v)) u = tree.parent(u);
+		while(tree.depth(v) > tree.depth(u)) v = tree.parent(v);
+		while(u != v) {
+			u = tree.parent(u);
+			v = tree.parent(v);
+		}
+		return u;
+	}
+
+	@Test
+	public void testSimple() {
+		// ((()())())
+		final SuccinctTree tree = new SuccinctTree(BalancedParenthesesTestCase.parse("((()())())", true));
+		assertEquals(5, tree.numNodes());
+		assertEquals(0, tree.root());
+		assertEquals(1, tree.firstChild(0));
+		assertEquals(2, tree.firstChild(1));
+		assertEquals(-1, tree.firstChild(2));
+		assertEquals(4, tree.nextSibling(2));
+		assertEquals(7, tree.nextSibling(1));
+		assertEquals(-1, tree.nextSibling(7));
+		assertEquals(-1, tree.nextSibling(0));
+		assertEquals(1, tree.parent(4));
+		assertEquals(0, tree.parent(7));
+		assertEquals(-1, tree.parent(0));
+		assertEquals(2, tree.depth(4));
+		assertEquals(3, tree.subtreeSize(1));
+		assertEquals(1, tree.lca(2, 4));
+		assertEquals(0, tree.lca(4, 7));
+		assertEquals(1, tree.lca(1, 4));
+		assertTrue(tree.isAncestor(0, 4));
+		assertFalse(tree.isAncestor(7, 4));
+		assertTree(tree);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testForest() {
+		new SuccinctTree(BalancedParenthesesTestCase.parse("()()", true));
+	}
+
+	@Test
+	public void testRandom() throws IOException, ClassNotFoundException {
+		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(0);
+		for(final double p : new double[] { .3, .5, .6 }) {
+			for(final int n : new int[] { 1, 2, 10, 100, 1000, 10000, 100000 }) {
+				SuccinctTree tree = new SuccinctTree(randomTree(r, n, p));
+				assertTree(tree);
+
+				final long[] nodes = new long[n];
+				final BitVector bits = tree.balancedParentheses().bitVector();
+				for(int i = 0, k = 0; k < n; i++) if (bits.getBoolean(i)) nodes[k++] = i;
+				for(int k = 0; k < 1000; k++) {
+					final long u = nodes[r.nextInt(n)], v = nodes[r.nextInt(n)];
+					assertEquals("LCA of " + u + " and " + v, naiveLca(tree, u, v), tree.lca(u, v));
+				}
+
+				if (n == 1000) {
+					final File temp = File.createTempFile(getClass().getSimpleName(), "test");
+					temp.deleteOnExit();
+					BinIO.storeObject(tree, temp);
+					tree = (SuccinctTree)BinIO.loadObject(temp);
+					assertTree(tree);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package it.unimi.dsi.sux4j.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import it.unimi.dsi.bits.TransformationStrategies;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
+
+public class ChunkedHashStoreTest {
+
+	@Test
+	public void testValue2FrequencyMap() throws IOException {
+		final Random r = new XoRoShiRo128PlusRandom(0);
+		final ChunkedHashStore<CharSequence> chunkedHashStore = new ChunkedHashStore<>(TransformationStrategies.utf16(), null, -1, null);
+		chunkedHashStore.reset(r.nextLong());
+		final Long2LongOpenHashMap expected = new Long2LongOpenHashMap();
+		for (int i = 0; i < 100000; i++) {
+			final long value = Long.numberOfTrailingZeros(r.nextLong()) + (i % 1000 == 0 ? i : 0);
+			chunkedHashStore.add(Integer.toString(i), value);
+			expected.addTo(value, 1);
+		}
+		assertEquals(expected, chunkedHashStore.value2FrequencyMap());
+
+		// The map must be updated after an addition
+		chunkedHashStore.add("-1", -1);
+		expected.addTo(-1, 1);
+		assertEquals(expected, chunkedHashStore.value2FrequencyMap());
+
+		// ...and cleared after a reset
+		chunkedHashStore.reset(r.nextLong());
+		chunkedHashStore.add("0", 0);
+		assertEquals(new Long2LongOpenHashMap(new long[] { 0 }, new long[] { 1 }), chunkedHashStore.value2FrequencyMap());
+		chunkedHashStore.close();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testNoValue2FrequencyMap() throws IOException {
+		final ChunkedHashStore<CharSequence> chunkedHashStore = new ChunkedHashStore<>(TransformationStrategies.utf16(), null, 0, null);
+		try {
+			chunkedHashStore.value2FrequencyMap();
+		}
+		finally {
+			chunkedHashStore.close();
+		}
+	}
+}
@@ -3,11 +3,24 @@ package it.unimi.dsi.sux4j.io;
 import static org.junit.Assert.assertEquals;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 
+import it.unimi.dsi.fastutil.io.BinIO;
+import it.unimi.dsi.fastutil.io.FastBufferedInputStream;
+import it.unimi.dsi.fastutil.io.FastBufferedInputStream.LineTerminator;
+import it.unimi.dsi.lang.MutableString;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
+
 public class FileLinesListTest {
 
 	@Test
@@ -51,4 +64,102 @@ public class FileLinesListTest {
 		 *).toString());
 		 */
 	}
+
+	@Test
+	public void testConcurrent() throws Exception {
+		final File t = File.createTempFile(FileLinesListTest.class.getName(), "tmp");
+		t.deleteOnExit();
+
+		final Random r = new XoRoShiRo128PlusRandom(0);
+		final byte[] terminator[] = { { '\n' }, { '\r' }, { '\r', '\n' } };
+		for (final boolean lastTerminated : new boolean[] { true, false }) {
+			final FileOutputStream fos = new FileOutputStream(t);
+			for (int i = 0; i < 10000; i++) {
+				for (int j = r.nextInt(100); j-- != 0;) fos.write('a' + r.nextInt(26));
+				if (i < 9999 || lastTerminated) fos.write(terminator[r.nextInt(terminator.length)]);
+			}
+			fos.close();
+
+			for (final EnumSet<LineTerminator> terminators : Arrays.asList(FastBufferedInputStream.ALL_TERMINATORS, EnumSet.of(LineTerminator.LF), EnumSet.of(LineTerminator.CR), EnumSet.of(LineTerminator.CR_LF), EnumSet.of(LineTerminator.LF, LineTerminator.CR_LF))) {
+				final FileLinesList fll = new FileLinesList(t.toString(), "ASCII", FastBufferedInputStream.DEFAULT_BUFFER_SIZE, terminators);
+				final FileLinesList concurrentFll = new FileLinesList(t.toString(), "ASCII", FastBufferedInputStream.DEFAULT_BUFFER_SIZE, terminators, true);
+				final FileLinesBigList concurrentFlbl = new FileLinesBigList(t.toString(), "ASCII", FastBufferedInputStream.DEFAULT_BUFFER_SIZE, terminators, true);
+				assertEquals(fll.size(), concurrentFll.size());
+				assertEquals(fll.size(), concurrentFlbl.size64());
+				final MutableString[] line = new MutableString[fll.size()];
+				for (int i = 0; i < fll.size(); i++) {
+					line[i] = fll.get(i);
+					assertEquals(line[i], concurrentFll.get(i));
+					assertEquals(line[i], concurrentFlbl.get(i));
+				}
+
+				final ExecutorService executorService = Executors.newFixedThreadPool(4);
+				final Future<?>[] future = new Future<?>[4];
+				for (int k = 0; k < future.length; k++) {
+					final int seed = k;
+					future[k] = executorService.submit(() -> {
+						final Random random = new XoRoShiRo128PlusRandom(seed);
+						for (int i = 0; i < 10000; i++) {
+							final int index = random.nextInt(line.length);
+							assertEquals(line[index], concurrentFll.get(index));
+							assertEquals(line[index], concurrentFlbl.get(index));
+						}
+					});
+				}
+				for (final Future<?> f : future) f.get();
+				executorService.shutdown();
+				fll.close();
+				concurrentFll.close();
+				concurrentFlbl.close();
+			}
+		}
+	}
+
+	@Test
+	public void testSerialization() throws Exception {
+		final File t = File.createTempFile(FileLinesListTest.class.getName(), "tmp");
+		t.deleteOnExit();
+		final File s = File.createTempFile(FileLinesListTest.class.getName(), "ser");
+		s.deleteOnExit();
+
+		final Random r = new XoRoShiRo128PlusRandom(0);
+		final FileOutputStream fos = new FileOutputStream(t);
+		for (int i = 0; i < 1000; i++) {
+			for (int j = r.nextInt(100); j-- != 0;) fos.write('a' + r.nextInt(26));
+			fos.write('\n');
+		}
+		fos.close();
+
+		for (final boolean concurrent : new boolean[] { false, true }) {
+			final FileLinesList fll = new FileLinesList(t.toString(), "ASCII", FastBufferedInputStream.DEFAULT_BUFFER_SIZE, FastBufferedInputStream.ALL_TERMINATORS, concurrent);
+			final FileLinesBigList flbl = new FileLinesBigList(t.toString(), "ASCII", FastBufferedInputStream.DEFAULT_BUFFER_SIZE, FastBufferedInputStream.ALL_TERMINATORS, concurrent);
+			BinIO.storeObject(fll, s);
+			final FileLinesList loadedFll = (FileLinesList)BinIO.loadObject(s);
+			BinIO.storeObject(flbl, s);
+			final FileLinesBigList loadedFlbl = (FileLinesBigList)BinIO.loadObject(s);
+			assertEquals(fll.size(), loadedFll.size());
+			assertEquals(fll.size(), loadedFlbl.size64());
+			assertEquals(fll, loadedFll);
+
+			final ExecutorService executorService = Executors.newFixedThreadPool(concurrent ? 4 : 1);
+			final Future<?>[] future = new Future<?>[concurrent ? 4 : 1];
+			for (int k = 0; k < future.length; k++) {
+				final int seed = k;
+				future[k] = executorService.submit(() -> {
+					final Random random = new XoRoShiRo128PlusRandom(seed);
+					for (int i = 0; i < 10000; i++) {
+						final int index = random.nextInt(fll.size());
+						assertEquals(fll.get(index), loadedFll.get(index));
+						assertEquals(fll.get(index), loadedFlbl.get(index));
+					}
+				});
+			}
+			for (final Future<?> f : future) f.get();
+			executorService.shutdown();
+			fll.close();
+			flbl.close();
+			loadedFll.close();
+			loadedFlbl.close();
+		}
+	}
 }
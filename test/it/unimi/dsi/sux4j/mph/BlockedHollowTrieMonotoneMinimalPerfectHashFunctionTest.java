@@ -0,0 +1,91 @@
+package it.unimi.dsi.sux4j.mph;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import it.unimi.dsi.bits.BitVector;
+import it.unimi.dsi.bits.LongArrayBitVector;
+import it.unimi.dsi.bits.TransformationStrategies;
+import it.unimi.dsi.fastutil.io.BinIO;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
+
+public class BlockedHollowTrieMonotoneMinimalPerfectHashFunctionTest {
+
+	@Test
+	public void testEmpty() {
+		final BlockedHollowTrieMonotoneMinimalPerfectHashFunction<BitVector> hollowTrie = new BlockedHollowTrieMonotoneMinimalPerfectHashFunction<>(HollowTrieMonotoneMinimalPerfectHashFunctionTest.listOf(new int[][] {}), TransformationStrategies.identity());
+		assertEquals(-1, hollowTrie.getLong(LongArrayBitVector.of(0)));
+		assertEquals(-1, hollowTrie.getLong(LongArrayBitVector.of(1)));
+		assertEquals(0, hollowTrie.size64());
+	}
+
+	@Test
+	public void testSingleton() {
+		final BlockedHollowTrieMonotoneMinimalPerfectHashFunction<BitVector> hollowTrie = new BlockedHollowTrieMonotoneMinimalPerfectHashFunction<>(
+				HollowTrieMonotoneMinimalPerfectHashFunctionTest.listOf(new int[][] { { 0 } }).iterator(), TransformationStrategies.identity());
+
+		assertEquals(0, hollowTrie.getLong(LongArrayBitVector.of(0)));
+		assertEquals(1, hollowTrie.size64());
+	}
+
+	@Test
+	public void testSimple() {
+		final BlockedHollowTrieMonotoneMinimalPerfectHashFunction<BitVector> hollowTrie = new BlockedHollowTrieMonotoneMinimalPerfectHashFunction<>(
+				HollowTrieMonotoneMinimalPerfectHashFunctionTest.listOf(new int[][] { { 0, 0, 0, 0, 0 }, { 0, 1, 0, 0, 0 }, { 0, 1, 0, 1, 0, 0 }, { 0, 1, 0, 1, 0, 1 }, { 0, 1, 1, 1, 0 } }).iterator(), TransformationStrategies.identity());
+
+		assertEquals(0, hollowTrie.getLong(LongArrayBitVector.of(0, 0, 0, 0, 0)));
+		assertEquals(1, hollowTrie.getLong(LongArrayBitVector.of(0, 1, 0, 0, 0)));
+		assertEquals(2, hollowTrie.getLong(LongArrayBitVector.of(0, 1, 0, 1, 0, 0)));
+		assertEquals(3, hollowTrie.getLong(LongArrayBitVector.of(0, 1, 0, 1, 0, 1)));
+		assertEquals(4, hollowTrie.getLong(LongArrayBitVector.of(0, 1, 1, 1, 0)));
+		assertEquals(5, hollowTrie.size64());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testRandom() throws IOException, ClassNotFoundException {
+		final Random r = new XoRoShiRo128PlusRandom(3);
+		for (final int n : new int[] { 10, 100, 10000 }) {
+			for (final int maxLength : new int[] { 20, 100, 1000 }) {
+				final LongArrayBitVector[] bitVector = new LongArrayBitVector[n];
+				for (int i = 0; i < n; i++) {
+					bitVector[i] = LongArrayBitVector.getInstance();
+					// Variable lengths make for unbalanced tries
+					for (int l = 20 + r.nextInt(maxLength); l-- != 0;) bitVector[i].add(r.nextBoolean());
+				}
+
+				Arrays.sort(bitVector);
+				// Remove duplicates (the transformation strategy will make the vectors prefix-free)
+				int m = 1;
+				for (int i = 1; i < n; i++) if (! bitVector[i].equals(bitVector[m - 1])) bitVector[m++] = bitVector[i];
+				final LongArrayBitVector[] keys = Arrays.copyOf(bitVector, m);
+
+				final HollowTrieMonotoneMinimalPerfectHashFunction<LongArrayBitVector> hollowTrie = new HollowTrieMonotoneMinimalPerfectHashFunction<>(Arrays.asList(keys), TransformationStrategies.prefixFree());
+				BlockedHollowTrieMonotoneMinimalPerfectHashFunction<LongArrayBitVector> blocked = new BlockedHollowTrieMonotoneMinimalPerfectHashFunction<>(hollowTrie);
+
+				for (int i = 0; i < m; i++) assertEquals(i, blocked.getLong(keys[i]));
+				assertEquals(m, blocked.size64());
+
+				// Out-of-set keys must behave exactly as in a hollow trie
+				for (int i = 1000; i-- != 0;) {
+					final LongArrayBitVector bv = LongArrayBitVector.getInstance();
+					for (int l = r.nextInt(2 * maxLength); l-- != 0;) bv.add(r.nextBoolean());
+					assertEquals(hollowTrie.getLong(bv), blocked.getLong(bv));
+				}
+
+				final File temp = File.createTempFile(getClass().getSimpleName(), "test");
+				temp.deleteOnExit();
+				BinIO.storeObject(blocked, temp);
+				blocked = (BlockedHollowTrieMonotoneMinimalPerfectHashFunction<LongArrayBitVector>)BinIO.loadObject(temp);
+
+				for (int i = 0; i < m; i++) assertEquals(i, blocked.getLong(keys[i]));
+			}
+		}
+	}
+}
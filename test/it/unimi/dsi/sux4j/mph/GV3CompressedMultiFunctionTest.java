@@ -0,0 +1,92 @@
+package it.unimi.dsi.sux4j.mph;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import it.unimi.dsi.bits.TransformationStrategies;
+import it.unimi.dsi.fastutil.io.BinIO;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongBigLists;
+import it.unimi.dsi.sux4j.io.ChunkedHashStore;
+import it.unimi.dsi.sux4j.mph.codec.Codec;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
+
+public class GV3CompressedMultiFunctionTest {
+
+	private static void check(final int size, final String[] s, final GV3CompressedMultiFunction<CharSequence> f, final long[][] value) {
+		final long[] result = new long[value.length];
+		for (int i = size; i-- != 0;) {
+			f.get(s[i], result);
+			for (int c = 0; c < value.length; c++) {
+				assertEquals("column " + c + ", i = " + i, value[c][i], result[c]);
+				assertEquals("column " + c + ", i = " + i, value[c][i], f.getLong(s[i], c));
+			}
+		}
+		// test for string outside keyset
+		for (int i = 0; i < 100; i++) f.get("DEAD" + size + i, result);
+	}
+
+	private static long[][] columns(final int size) {
+		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(0);
+		final long[][] value = new long[3][size];
+		for (int i = 0; i < size; i++) {
+			value[0][i] = r.nextLong() >>> 44;
+			value[1][i] = Long.numberOfTrailingZeros(r.nextLong());
+			value[2][i] = r.nextInt(3);
+		}
+		return value;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testColumns() throws IOException, ClassNotFoundException {
+		for (final int size : new int[] { 0, 1000, 10000 }) {
+			final String[] s = new String[size];
+			for (int i = s.length; i-- != 0;) s[i] = Integer.toString(i);
+			final long[][] value = columns(size);
+			GV3CompressedMultiFunction<CharSequence> f = new GV3CompressedMultiFunction.Builder<CharSequence>().keys(Arrays.asList(s)).transform(TransformationStrategies.utf16())
+					.values(LongArrayList.wrap(value[0]), LongArrayList.wrap(value[1]), LongArrayList.wrap(value[2]))
+					.codecs(new Codec.Binary(), new Codec.Huffman(), new Codec.Gamma()).build();
+			assertEquals(3, f.numColumns());
+			assertEquals(size, f.size64());
+			check(size, s, f, value);
+
+			final File temp = File.createTempFile(getClass().getSimpleName(), "test");
+			temp.deleteOnExit();
+			BinIO.storeObject(f, temp);
+			f = (GV3CompressedMultiFunction<CharSequence>) BinIO.loadObject(temp);
+			check(size, s, f, value);
+		}
+	}
+
+	@Test
+	public void testSingleCodecAndStore() throws IOException {
+		final int size = 10000;
+		final String[] s = new String[size];
+		for (int i = s.length; i-- != 0;) s[i] = Integer.toString(i);
+		final long[][] value = columns(size);
+		final ChunkedHashStore<CharSequence> chunkedHashStore = new ChunkedHashStore<>(TransformationStrategies.utf16(), null, -1, null);
+		chunkedHashStore.reset(0);
+		chunkedHashStore.addAll(Arrays.asList(s).iterator());
+		final GV3CompressedMultiFunction<CharSequence> f = new GV3CompressedMultiFunction.Builder<CharSequence>().keys(Arrays.asList(s)).store(chunkedHashStore)
+				.values(LongBigLists.asBigList(LongArrayList.wrap(value[1])), LongArrayList.wrap(value[2])).codecs(new Codec.Huffman()).build();
+		chunkedHashStore.close();
+		check(size, s, f, new long[][] { value[1], value[2] });
+
+		// A single column behaves like a compressed function
+		final GV3CompressedMultiFunction<CharSequence> g = new GV3CompressedMultiFunction.Builder<CharSequence>().keys(Arrays.asList(s)).transform(TransformationStrategies.utf16())
+				.values(LongArrayList.wrap(value[1])).build();
+		check(size, s, g, new long[][] { value[1] });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWrongNumberOfCodecs() throws IOException {
+		new GV3CompressedMultiFunction.Builder<CharSequence>().keys(Arrays.asList("a", "b")).transform(TransformationStrategies.utf16())
+				.values(LongArrayList.wrap(new long[2]), LongArrayList.wrap(new long[2]), LongArrayList.wrap(new long[2])).codecs(new Codec.Binary(), new Codec.Gamma()).build();
+	}
+}
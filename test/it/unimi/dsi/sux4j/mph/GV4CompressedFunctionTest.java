@@ -247,4 +247,26 @@ public class GV4CompressedFunctionTest {
 		assertEquals(l.getLong(3), mph.getLong("d"));
 	}
 
+	@Test
+	public void testGetLongs() throws IOException {
+		for (final Codec codec : new Codec[] { new Codec.Binary(), new Codec.Gamma(), new Codec.Huffman() }) {
+			for (final int size : new int[] { 0, 1000, 10000 }) {
+				final String[] s = new String[size];
+				for (int i = s.length; i-- != 0;) s[i] = Integer.toString(i);
+				final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(0);
+				final long[] v = new long[size];
+				for (int i = 0; i < size; i++) v[i] = codec instanceof Codec.Binary ? r.nextLong() >>> 44 : Long.numberOfTrailingZeros(r.nextLong());
+				final GV4CompressedFunction<CharSequence> mph = new GV4CompressedFunction.Builder<CharSequence>().keys(Arrays.asList(s)).codec(codec).transform(TransformationStrategies.utf16()).values(LongArrayList.wrap(v)).build();
+				mph.defaultReturnValue(-1);
+
+				// Keys and non-keys
+				final String[] t = Arrays.copyOf(s, size + 1000);
+				for (int i = 0; i < 1000; i++) t[size + i] = "DEAD" + size + i;
+				Collections.shuffle(Arrays.asList(t), r);
+				final long[] result = new long[t.length];
+				mph.getLongs(Arrays.asList(t), result);
+				for (int i = 0; i < t.length; i++) assertEquals(mph.getLong(t[i]), result[i]);
+			}
+		}
+	}
 }
@@ -3,6 +3,7 @@ package it.unimi.dsi.sux4j.mph;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import java.util.Arrays;
 import java.util.Random;
 
 import org.junit.Test;
@@ -105,4 +106,31 @@ public class HashesTest {
 			}
 		}
 	}
+
+	@Test
+	public void testSpooky4IncrementalPreprocessing() {
+		final Random r = new XoRoShiRo128PlusRandom(1);
+		final LongArrayBitVector prev = LongArrayBitVector.getInstance();
+		long[] state = null;
+		for (int t = 0; t < 10000; t++) {
+			// Keep a random prefix of the previous vector, and append random bits
+			final LongArrayBitVector bv = LongArrayBitVector.copy(prev.subVector(0, r.nextInt((int)prev.length() + 1)));
+			for (int i = r.nextInt(1000); i-- != 0;) bv.add(r.nextBoolean());
+			state = Hashes.preprocessSpooky4(bv, 0, state, t == 0 ? 0 : bv.longestCommonPrefixLength(prev));
+			final long[] expected = Hashes.preprocessSpooky4(bv, 0);
+			if (expected == null) assertEquals(0, bv.length() >>> 7);
+			else {
+				// Only the first groups of state are actually computed
+				final int computed = 4 * (int)((bv.length() - 128) / 256 + 1);
+				assertArrayEquals(Arrays.copyOf(expected, computed), Arrays.copyOf(state, computed));
+			}
+			final long[] h = new long[4];
+			Hashes.spooky4(bv, bv.length(), 0, state, h);
+			final long[] k = new long[4];
+			Hashes.spooky4(bv, 0, k);
+			assertArrayEquals(k, h);
+			prev.replace(bv);
+		}
+	}
+
 }
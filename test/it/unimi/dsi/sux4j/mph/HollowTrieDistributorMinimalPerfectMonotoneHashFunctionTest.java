@@ -108,4 +108,14 @@ public class HollowTrieDistributorMinimalPerfectMonotoneHashFunctionTest {
 					assertEquals(i, mph.getLong(s[i]));
 			}
 	}
+
+	@Test
+	public void testSinglePass() throws IOException {
+		final String[] s = new String[10000];
+		for (int i = s.length; i-- != 0;) s[i] = binary(i);
+		final Iterable<String> keys = SinglePassKeys.of(s);
+
+		final HollowTrieDistributorMonotoneMinimalPerfectHashFunction<String> mph = new HollowTrieDistributorMonotoneMinimalPerfectHashFunction<>(keys, TransformationStrategies.prefixFreeUtf16(), null, true);
+		for (int i = s.length; i-- != 0;) assertEquals(i, mph.getLong(s[i]));
+	}
 }
@@ -1,5 +1,7 @@
 package it.unimi.dsi.sux4j.mph;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.sux4j.mph.solve.Orient3Hypergraph;
@@ -33,6 +35,7 @@ public class HypergraphSolverTest {
 	}
 
 	@Test
+	@SuppressWarnings("deprecation")
 	public void smallTest() {
 		int[] vertex0 = { 0, 1, 2, 3 };
 		int[] vertex1 = { 1, 2, 0, 1 };
@@ -43,6 +46,16 @@ public class HypergraphSolverTest {
 	}
 
 	@Test
+	public void smallInstanceTest() {
+		int[] vertex0 = { 0, 1, 2, 3 };
+		int[] vertex1 = { 1, 2, 0, 1 };
+		int[] vertex2 = { 2, 3, 4, 0 };
+		int[] hinges = new int[vertex1.length];
+		assertTrue(new Orient3Hypergraph().orient(5, vertex0.length, vertex0, vertex1, vertex2, hinges));
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
 	public void randomTest() {
 		XoRoShiRo128PlusRandomGenerator random = new XoRoShiRo128PlusRandomGenerator(1);
 		for(int n : new int[] { 5, 10, 100, 1000 }) {
@@ -89,4 +102,130 @@ public class HypergraphSolverTest {
 			}
 		}
 	}
+
+	@Test
+	public void randomInstanceTest() {
+		XoRoShiRo128PlusRandomGenerator random = new XoRoShiRo128PlusRandomGenerator(1);
+		for(int n : new int[] { 5, 10, 100, 1000 }) {
+			for(int count = 0; count < 10; count++) {
+				final int size = (int)(.9 * n);
+				int[] vertex0 = new int[size];
+				int[] vertex1 = new int[size];
+				int[] vertex2 = new int[size];
+				int[] hinges = new int[size];
+				IntOpenHashSet edge[] = new IntOpenHashSet[size];
+
+				int v, w;
+				for (int i = 0; i < size; i++) {
+					boolean alreadySeen;
+					do {
+						vertex0[i] = i;
+
+						do v = random.nextInt(n); while(v == i);
+						vertex1[i] = v;
+
+						do w = random.nextInt(n); while(w == i || w == v);
+						vertex2[i] = w;
+
+						edge[i] = new IntOpenHashSet();
+						edge[i].add(i);
+						edge[i].add(v);
+						edge[i].add(w);
+
+						alreadySeen = false;
+						for(int j = 0; j < i; j++)
+							if (edge[j].equals(edge[i])) {
+							alreadySeen = true;
+							break;
+						}
+					} while(alreadySeen);
+				}
+
+				assertTrue("size: " + n + ", count: " + count, new Orient3Hypergraph().orient(n, size, vertex0, vertex1, vertex2, hinges));
+			}
+		}
+	}
+
+	@Test
+	public void testReuse() {
+		XoRoShiRo128PlusRandomGenerator random = new XoRoShiRo128PlusRandomGenerator(1);
+		// A single instance is reused on hypergraphs of increasing and decreasing size
+		final Orient3Hypergraph orient3Hypergraph = new Orient3Hypergraph();
+		int successes = 0;
+		for(int n : new int[] { 5, 1000, 10, 10000, 100, 1 }) {
+			for(int count = 0; count < 10; count++) {
+				final int size = (int)(.8 * n);
+				int[] vertex0 = new int[size];
+				int[] vertex1 = new int[size];
+				int[] vertex2 = new int[size];
+				int[] hinges = new int[size];
+				for (int i = 0; i < size; i++) {
+					vertex0[i] = random.nextInt(n);
+					do vertex1[i] = random.nextInt(n); while(vertex1[i] == vertex0[i]);
+					do vertex2[i] = random.nextInt(n); while(vertex2[i] == vertex0[i] || vertex2[i] == vertex1[i]);
+				}
+
+				// A reused instance must behave as a fresh one, failures included
+				final boolean oriented = orient3Hypergraph.orient(n, size, vertex0, vertex1, vertex2, hinges);
+				final int[] freshHinges = new int[size];
+				assertEquals("size: " + n + ", count: " + count, new Orient3Hypergraph().orient(n, size, vertex0, vertex1, vertex2, freshHinges), oriented);
+				if (! oriented) continue;
+				successes++;
+				assertArrayEquals(freshHinges, hinges);
+				final IntOpenHashSet seen = new IntOpenHashSet();
+				for(int i = 0; i < size; i++) {
+					assertTrue(hinges[i] == vertex0[i] || hinges[i] == vertex1[i] || hinges[i] == vertex2[i]);
+					assertTrue(seen.add(hinges[i]));
+				}
+			}
+		}
+		// At density .8 almost all hypergraphs are orientable
+		assertTrue(Integer.toString(successes), successes >= 55);
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testDeprecatedAgainstPrecomputed() {
+		// Hinges computed by the implementation of the deprecated method in Sux4J 4.1.0
+		final XoRoShiRo128PlusRandomGenerator random = new XoRoShiRo128PlusRandomGenerator(0);
+		final int n = 40, size = 32;
+		final int[] vertex0 = new int[size], vertex1 = new int[size], vertex2 = new int[size], hinges = new int[size], d = new int[n];
+		for (int i = 0; i < size; i++) {
+			vertex0[i] = random.nextInt(n);
+			do vertex1[i] = random.nextInt(n); while(vertex1[i] == vertex0[i]);
+			do vertex2[i] = random.nextInt(n); while(vertex2[i] == vertex0[i] || vertex2[i] == vertex1[i]);
+			d[vertex0[i]]++;
+			d[vertex1[i]]++;
+			d[vertex2[i]]++;
+		}
+
+		assertTrue(Orient3Hypergraph.orient(vertex2Edge(n, vertex0, vertex1, vertex2), d, vertex0, vertex1, vertex2, hinges));
+		assertArrayEquals(new int[] { 10, 8, 37, 12, 6, 13, 28, 19, 25, 33, 2, 11, 29, 16, 1, 15, 4, 27, 35, 14, 7, 39, 30, 18, 22, 20, 17, 32, 36, 38, 9, 21 }, hinges);
+		// The degree array is consumed
+		assertArrayEquals(new int[n], d);
+
+		// With incidence lists in increasing order the deprecated method yields the same hinges as an instance
+		final Orient3Hypergraph orient3Hypergraph = new Orient3Hypergraph();
+		for(final int m : new int[] { 5, 1000, 10, 10000, 100, 1 }) {
+			for(int count = 0; count < 10; count++) {
+				final int s = (int)(.8 * m);
+				final int[] v0 = new int[s], v1 = new int[s], v2 = new int[s], h = new int[s], deprecatedHinges = new int[s];
+				for (int i = 0; i < s; i++) {
+					v0[i] = random.nextInt(m);
+					do v1[i] = random.nextInt(m); while(v1[i] == v0[i]);
+					do v2[i] = random.nextInt(m); while(v2[i] == v0[i] || v2[i] == v1[i]);
+				}
+
+				final boolean oriented = orient3Hypergraph.orient(m, s, v0, v1, v2, h);
+				final int[][] edges = vertex2Edge(m, v0, v1, v2);
+				final int[] degree = new int[m];
+				for(int v = 0; v < m; v++) {
+					Arrays.sort(edges[v]);
+					degree[v] = edges[v].length;
+				}
+				assertEquals(oriented, Orient3Hypergraph.orient(edges, degree, v0, v1, v2, deprecatedHinges));
+				if (oriented) assertArrayEquals(h, deprecatedHinges);
+			}
+		}
+	}
 }
@@ -68,4 +68,42 @@ public class LcpMonotoneMinimalPerfectHashFunctionTest {
 		LcpMonotoneMinimalPerfectHashFunction<String> mph = new LcpMonotoneMinimalPerfectHashFunction.Builder<String>().keys(Arrays.asList(new String[] {})).transform(TransformationStrategies.prefixFreeUtf16()).build();
 		assertEquals(-1, mph.getLong(""));
 	}
+
+	@Test
+	public void testSinglePass() throws IOException {
+		final String[] s = new String[10000];
+		for (int i = s.length; i-- != 0;) s[i] = binary(i);
+		final Iterable<String> keys = SinglePassKeys.of(s);
+
+		final LcpMonotoneMinimalPerfectHashFunction<String> mph = new LcpMonotoneMinimalPerfectHashFunction.Builder<String>().keys(keys).numKeys(s.length).transform(TransformationStrategies.prefixFreeUtf16()).singlePass().build();
+		check(s, s.length, mph, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSinglePassWithoutNumKeys() throws IOException {
+		final String[] s = { "a", "b" };
+		final Iterable<String> keys = SinglePassKeys.of(s);
+
+		new LcpMonotoneMinimalPerfectHashFunction.Builder<String>().keys(keys).transform(TransformationStrategies.prefixFreeUtf16()).singlePass().build();
+	}
+
+	@Test
+	public void testGetLongs() throws IOException {
+		final String[] s = new String[10000];
+		for (int i = s.length; i-- != 0;) s[i] = binary(i);
+		for (final int signatureWidth: new int[] { 0, 32 }) {
+			final LcpMonotoneMinimalPerfectHashFunction<String> mph = new LcpMonotoneMinimalPerfectHashFunction.Builder<String>().keys(Arrays.asList(s)).transform(TransformationStrategies.prefixFreeUtf16()).signed(signatureWidth).build();
+			final long[] result = new long[s.length];
+			mph.getLongs(Arrays.asList(s), result);
+			for (int i = s.length; i-- != 0;) assertEquals(i, result[i]);
+
+			// Unsorted keys, and keys out of the set
+			final String[] t = new String[2 * s.length];
+			for (int i = t.length; i-- != 0;) t[i] = binary((int)((i * 0x9E3779B97F4A7C15L) >>> 49));
+			final long[] r = new long[t.length];
+			mph.getLongs(Arrays.asList(t), r);
+			for (int i = t.length; i-- != 0;) assertEquals(t[i], mph.getLong(t[i]), r[i]);
+		}
+	}
+
 }
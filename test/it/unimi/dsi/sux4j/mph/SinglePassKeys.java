@@ -0,0 +1,28 @@
+package it.unimi.dsi.sux4j.mph;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/** A test helper returning an {@link Iterable} that can be enumerated only once. */
+public final class SinglePassKeys {
+
+	private SinglePassKeys() {}
+
+	/** Returns an iterable over the given keys that throws an {@link IllegalStateException} if enumerated twice.
+	 *
+	 * @param keys the keys.
+	 * @return an iterable over {@code keys} that can be enumerated only once.
+	 */
+	@SafeVarargs
+	public static <T> Iterable<T> of(final T... keys) {
+		return new Iterable<T>() {
+			private boolean used;
+			@Override
+			public Iterator<T> iterator() {
+				if (used) throw new IllegalStateException("Keys enumerated twice");
+				used = true;
+				return Arrays.asList(keys).iterator();
+			}
+		};
+	}
+}
@@ -66,4 +66,14 @@ public class TwoStepsLcpMonotoneMinimalPerfectHashFunctionTest {
 		TwoStepsLcpMonotoneMinimalPerfectHashFunction<String> mph = new TwoStepsLcpMonotoneMinimalPerfectHashFunction.Builder<String>().keys(Arrays.asList(new String[] {})).transform(TransformationStrategies.prefixFreeUtf16()).build();
 		assertEquals(-1, mph.getLong(""));
 	}
+
+	@Test
+	public void testSinglePass() throws IOException {
+		final String[] s = new String[10000];
+		for (int i = s.length; i-- != 0;) s[i] = binary(i);
+		final Iterable<String> keys = SinglePassKeys.of(s);
+
+		final TwoStepsLcpMonotoneMinimalPerfectHashFunction<String> mph = new TwoStepsLcpMonotoneMinimalPerfectHashFunction.Builder<String>().keys(keys).numKeys(s.length).transform(TransformationStrategies.prefixFreeUtf16()).singlePass().build();
+		check(s, s.length, mph, 0);
+	}
 }
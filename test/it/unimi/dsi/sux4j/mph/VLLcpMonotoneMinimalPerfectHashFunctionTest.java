@@ -59,4 +59,14 @@ public class VLLcpMonotoneMinimalPerfectHashFunctionTest {
 			assertEquals(i, mph.getLong(s[i]));
 
 	}
+
+	@Test
+	public void testSinglePass() throws IOException {
+		final String[] s = new String[10000];
+		for (int i = s.length; i-- != 0;) s[i] = binary(i);
+		final Iterable<String> keys = SinglePassKeys.of(s);
+
+		final VLLcpMonotoneMinimalPerfectHashFunction<String> mph = new VLLcpMonotoneMinimalPerfectHashFunction<>(keys, s.length, TransformationStrategies.prefixFreeUtf16(), true);
+		for (int i = s.length; i-- != 0;) assertEquals(i, mph.getLong(s[i]));
+	}
 }
@@ -128,4 +128,24 @@ public class ZFastTrieDistributorMonotoneMinimalPerfectHashFunctionTest {
 			}
 		}
 	}
+
+	@Test
+	public void testGetLongs() throws IOException {
+		final String[] s = new String[10000];
+		for (int i = s.length; i-- != 0;) s[i] = binary(i);
+		for (final int signatureWidth: new int[] { 0, 32 }) {
+			final ZFastTrieDistributorMonotoneMinimalPerfectHashFunction<String> mph = new ZFastTrieDistributorMonotoneMinimalPerfectHashFunction<>(Arrays.asList(s), TransformationStrategies.prefixFreeIso(), 3, signatureWidth, null);
+			final long[] result = new long[s.length];
+			mph.getLongs(Arrays.asList(s), result);
+			for (int i = s.length; i-- != 0;) assertEquals(i, result[i]);
+
+			// Unsorted keys, and keys out of the set
+			final String[] t = new String[2 * s.length];
+			for (int i = t.length; i-- != 0;) t[i] = binary((int)((i * 0x9E3779B97F4A7C15L) >>> 49));
+			final long[] r = new long[t.length];
+			mph.getLongs(Arrays.asList(t), r);
+			for (int i = t.length; i-- != 0;) assertEquals(t[i], mph.getLong(t[i]), r[i]);
+		}
+	}
+
 }
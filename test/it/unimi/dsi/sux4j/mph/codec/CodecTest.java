@@ -1,6 +1,9 @@
 package it.unimi.dsi.sux4j.mph.codec;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -10,6 +13,7 @@ import it.unimi.dsi.sux4j.mph.codec.Codec.Binary;
 import it.unimi.dsi.sux4j.mph.codec.Codec.Coder;
 import it.unimi.dsi.sux4j.mph.codec.Codec.Decoder;
 import it.unimi.dsi.sux4j.mph.codec.Codec.Huffman;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
 
 public class CodecTest {
 
@@ -103,4 +107,171 @@ public class CodecTest {
 			assertEquals(i, decoded);
 		}
 	}
+
+	@Test
+	public void testHuffmanLookupTable() {
+		final Random r = new XoRoShiRo128PlusRandom(0);
+		final int size = 10000;
+		final long[] symbols = new long[size];
+		final long[] frequency = new long[size];
+		// A Zipf-like distribution
+		for (int i = 0; i < size; i++) {
+			symbols[i] = r.nextLong() & -1L >>> 1;
+			frequency[i] = 1000000 / (i + 1) + 1;
+		}
+		final Long2LongOpenHashMap frequencies = new Long2LongOpenHashMap(symbols, frequency);
+
+		for (final Huffman huffman : new Huffman[] { new Huffman(Integer.MAX_VALUE, 1, 1), new Huffman(Integer.MAX_VALUE, 1, 8), new Huffman(Integer.MAX_VALUE, 1, 30), new Huffman(5, 0.99, 4), new Huffman(5, 0.99, 10) }) {
+			final Coder coder = huffman.getCoder(frequencies);
+			final Decoder decoder = coder.getDecoder();
+			final int w = coder.maxCodewordLength();
+			for (final long l: frequencies.keySet()) {
+				final long encoded = coder.encode(l);
+				final int length = coder.codewordLength(l);
+				// The bits following the codeword are random
+				final long longEncoded = Long.reverse(encoded) >>> 64 - w | r.nextLong() & (1L << w - length) - 1;
+				assertEquals(l, decoder.decode(longEncoded));
+			}
+		}
+	}
+
+	private static void assertDecodes(final Coder coder, final Iterable<Long> symbols, final Random r) {
+		final Decoder decoder = coder.getDecoder();
+		final int w = coder.maxCodewordLength();
+		for (final long l: symbols) {
+			final long encoded = coder.encode(l);
+			final int length = coder.codewordLength(l);
+			assertTrue(length <= w);
+			// The bits following the codeword are random
+			final long longEncoded = Long.reverse(encoded) >>> 64 - w | r.nextLong() & (1L << w - length) - 1;
+			assertEquals(l, decoder.decode(longEncoded));
+		}
+	}
+
+	@Test
+	public void testDelta() {
+		final Random r = new XoRoShiRo128PlusRandom(0);
+		final Long2LongOpenHashMap frequencies = new Long2LongOpenHashMap(new long[] { 6, 9, 1, 2, 4, 5, 3, 4, 7, 10000000 }, new long[] { 64, 32, 16, 1, 8, 4, 20, 2, 1, 10 });
+		final Coder coder = new Codec.Delta().getCoder(frequencies);
+		final Decoder decoder = coder.getDecoder();
+		for (int i = 0; i < 10000000; i++) {
+			final long encoded = coder.encode(i);
+			assertEquals(i, decoder.decode(Long.reverse(encoded) >>> 64 - coder.maxCodewordLength()));
+		}
+		assertDecodes(coder, frequencies.keySet(), r);
+
+		// Large symbols
+		frequencies.put((1L << 50) + 12345, 1);
+		assertDecodes(new Codec.Delta().getCoder(frequencies), frequencies.keySet(), r);
+	}
+
+	@Test
+	public void testGolomb() {
+		final Random r = new XoRoShiRo128PlusRandom(0);
+		final Long2LongOpenHashMap frequencies = new Long2LongOpenHashMap();
+		for (int i = 0; i < 1000; i++) frequencies.put(i, 1 + (long)(1000000 * Math.pow(.99, i)));
+		for (final long modulus : new long[] { 0, 20, 31, 32, 69, 1000, 1024 }) {
+			final Coder coder = new Codec.Golomb(modulus).getCoder(frequencies);
+			assertDecodes(coder, frequencies.keySet(), r);
+		}
+
+		final Long2LongOpenHashMap small = new Long2LongOpenHashMap();
+		for (int i = 0; i < 40; i++) small.put(i, 1 + (long)(1000000 * Math.pow(.9, i)));
+		for (final long modulus : new long[] { 0, 1, 2, 3, 5, 7, 8 }) {
+			final Coder coder = new Codec.Golomb(modulus).getCoder(small);
+			assertDecodes(coder, small.keySet(), r);
+		}
+
+		// The automatic choice must be better than moduli far from the optimal one
+		final Codec.Golomb.Coder coder = new Codec.Golomb().getCoder(frequencies);
+		assertTrue(Codec.Auto.estimatedBits(coder, frequencies) < Codec.Auto.estimatedBits(new Codec.Golomb(20).getCoder(frequencies), frequencies));
+		assertTrue(Codec.Auto.estimatedBits(coder, frequencies) < Codec.Auto.estimatedBits(new Codec.Golomb(1000).getCoder(frequencies), frequencies));
+
+		// Large symbols force a large modulus
+		frequencies.put(1L << 60, 1);
+		assertDecodes(new Codec.Golomb().getCoder(frequencies), frequencies.keySet(), r);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testGolombTooLong() {
+		new Codec.Golomb(1).getCoder(new Long2LongOpenHashMap(new long[] { 0, 100 }, new long[] { 1, 1 }));
+	}
+
+	@Test
+	public void testRice() {
+		final Random r = new XoRoShiRo128PlusRandom(0);
+		final Long2LongOpenHashMap frequencies = new Long2LongOpenHashMap();
+		for (int i = 0; i < 1000; i++) frequencies.put(i, 1 + (long)(1000000 * Math.pow(.99, i)));
+		for (final int log2Modulus : new int[] { -1, 5, 6, 10, 62 }) {
+			final Coder coder = new Codec.Rice(log2Modulus).getCoder(frequencies);
+			assertDecodes(coder, frequencies.keySet(), r);
+		}
+		final long auto = Codec.Auto.estimatedBits(new Codec.Rice().getCoder(frequencies), frequencies);
+		for (int log2Modulus = 5; log2Modulus < 12; log2Modulus++) assertTrue(auto <= Codec.Auto.estimatedBits(new Codec.Rice(log2Modulus).getCoder(frequencies), frequencies));
+	}
+
+	@Test
+	public void testLengthLimitedHuffmanMaxLength() {
+		final Random r = new XoRoShiRo128PlusRandom(0);
+		final int size = 40;
+		final long[] symbols = new long[size];
+		final long[] frequency = new long[size];
+		for (int i = 0; i < size; i++) {
+			symbols[i] = i;
+			frequency[i] = 1L << i;
+		}
+		final Long2LongOpenHashMap frequencies = new Long2LongOpenHashMap(symbols, frequency);
+		assertEquals(size - 1, new Codec.Huffman().getCoder(frequencies).maxCodewordLength());
+
+		for (int maxLength = 6; maxLength < 40; maxLength++) {
+			final Coder coder = new Codec.LengthLimitedHuffman(maxLength).getCoder(frequencies);
+			assertEquals(maxLength, coder.maxCodewordLength());
+			assertDecodes(coder, frequencies.keySet(), r);
+		}
+
+		final Coder optimal = new Codec.Huffman().getCoder(frequencies);
+		final Coder tuned = new Codec.LengthLimitedHuffman(62, 0.01, 4).getCoder(frequencies);
+		assertTrue(tuned.maxCodewordLength() < optimal.maxCodewordLength());
+		assertTrue(Codec.Auto.estimatedBits(tuned, frequencies) - tuned.getDecoder().numBits() <= 1.01 * (Codec.Auto.estimatedBits(optimal, frequencies) - optimal.getDecoder().numBits()));
+		assertDecodes(tuned, frequencies.keySet(), r);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testLengthLimitedHuffmanTooShort() {
+		final Long2LongOpenHashMap frequencies = new Long2LongOpenHashMap();
+		for (int i = 0; i < 9; i++) frequencies.put(i, 1);
+		new Codec.LengthLimitedHuffman(3).getCoder(frequencies);
+	}
+
+	@Test
+	public void testAuto() {
+		final Random r = new XoRoShiRo128PlusRandom(0);
+		final Codec.Auto auto = new Codec.Auto();
+
+		// Few distinct, very skewed large symbols: Huffman
+		Long2LongOpenHashMap frequencies = new Long2LongOpenHashMap(new long[] { 1L << 40, 1L << 50, 3, 1L << 60 }, new long[] { 1000000, 1000, 10, 1 });
+		assertTrue(auto.best(frequencies) instanceof Codec.Huffman);
+		assertDecodes(auto.getCoder(frequencies), frequencies.keySet(), r);
+
+		// Geometric distribution over many symbols: Golomb
+		frequencies = new Long2LongOpenHashMap();
+		for (int i = 0; i < 100000 && (long)(100 * Math.pow(.9999, i)) != 0; i++) frequencies.put(i, (long)(100 * Math.pow(.9999, i)));
+		assertTrue(auto.best(frequencies).toString(), auto.best(frequencies) instanceof Codec.Golomb);
+		assertDecodes(auto.getCoder(frequencies), frequencies.keySet(), r);
+
+		// Uniform distribution over many symbols: binary
+		frequencies = new Long2LongOpenHashMap();
+		for (int i = 0; i < 1 << 16; i++) frequencies.put(i, 1);
+		assertTrue(auto.best(frequencies).toString(), auto.best(frequencies) instanceof Codec.Binary);
+
+		// A single symbol
+		frequencies = new Long2LongOpenHashMap(new long[] { 5 }, new long[] { 10 });
+		assertDecodes(auto.getCoder(frequencies), frequencies.keySet(), r);
+
+		// The chosen coder is never worse than any of the candidates
+		frequencies = new Long2LongOpenHashMap(new long[] { 6, 9, 1, 2, 4, 5, 3, 4, 7, 1000 }, new long[] { 64, 32, 16, 1, 8, 4, 20, 2, 1, 10 });
+		final long best = Codec.Auto.estimatedBits(auto.getCoder(frequencies), frequencies);
+		for (final Codec codec : new Codec[] { new Codec.Binary(), new Codec.Gamma(), new Codec.Delta(), new Codec.Golomb(), new Codec.Rice(), new Codec.Huffman() })
+			assertTrue(best <= Codec.Auto.estimatedBits(codec.getCoder(frequencies), frequencies));
+	}
 }
@@ -0,0 +1,61 @@
+package it.unimi.dsi.sux4j.mph.solve;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongBigList;
+import it.unimi.dsi.fastutil.longs.LongBigLists;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandom;
+
+public class Linear3SystemSolverTest {
+
+	private static List<long[]> triples(final XoRoShiRo128PlusRandom r, final int size) {
+		final List<long[]> triples = new ArrayList<>();
+		for(int i = 0; i < size; i++) triples.add(new long[] { r.nextLong(), r.nextLong(), r.nextLong() });
+		return triples;
+	}
+
+	@Test
+	public void testReset() {
+		final XoRoShiRo128PlusRandom r = new XoRoShiRo128PlusRandom(0);
+		// A single solver is reset to systems of increasing and decreasing size
+		final Linear3SystemSolver reused3 = new Linear3SystemSolver(0, 0);
+		final Linear4SystemSolver reused4 = new Linear4SystemSolver(0, 0);
+		for(final int size : new int[] { 1, 1000, 10, 5000, 100, 0, 2000 }) {
+			final List<long[]> triples = triples(r, size);
+			final LongArrayList values = new LongArrayList();
+			for(int i = 0; i < size; i++) values.add(r.nextLong() & 0xFFFF);
+			final LongBigList valueList = LongBigLists.asBigList(values);
+
+			for(long seed = 0; seed < 3; seed++) {
+				// F2
+				int numVariables = (int)Math.ceil(1.10 * size) + 1;
+				Linear3SystemSolver solver = new Linear3SystemSolver(numVariables, size);
+				reused3.reset(numVariables, size);
+				assertEquals(solver.generateAndSolve(triples, seed, valueList), reused3.generateAndSolve(triples, seed, valueList));
+				assertEquals(solver.numPeeled, reused3.numPeeled);
+				assertArrayEquals(solver.solution, reused3.solution);
+
+				// F3
+				numVariables = (int)Math.ceil(1.23 * size) + 1;
+				solver = new Linear3SystemSolver(numVariables, size);
+				reused3.reset(numVariables, size);
+				assertEquals(solver.generateAndSolve(triples, seed, null), reused3.generateAndSolve(triples, seed, null));
+				assertEquals(solver.unorientable, reused3.unorientable);
+				assertArrayEquals(solver.solution, reused3.solution);
+
+				numVariables = (int)Math.ceil(1.03 * size) + 1;
+				final Linear4SystemSolver solver4 = new Linear4SystemSolver(numVariables, size);
+				reused4.reset(numVariables, size);
+				assertEquals(solver4.generateAndSolve(triples, seed, valueList), reused4.generateAndSolve(triples, seed, valueList));
+				assertArrayEquals(solver4.solution, reused4.solution);
+			}
+		}
+	}
+}
@@ -145,4 +145,48 @@ public class Modulo2SystemTest {
 		}
 	}
 
+	@Test
+	public void testBlockedAgainstPlain() {
+		final XoRoShiRo128PlusRandomGenerator random = new XoRoShiRo128PlusRandomGenerator(2);
+		for(final int size: new int[] { 1, 5, 64, 100, 1000, 3000 }) {
+			// Sparse and dense systems, below and above the number of variables
+			for(final double density : new double[] { 3. / size, .5 })
+				for(final double ratio : new double[] { .5, .9, 1.1 }) {
+					final Modulo2System system = new Modulo2System(size);
+					for(int i = 0; i < Math.max(1, (int)(ratio * size)); i++) {
+						final Modulo2Equation equation = new Modulo2Equation(random.nextLong(), size);
+						for(int v = 0; v < size; v++) if (random.nextDouble() < density) equation.add(v);
+						// Plain elimination does not accept empty equations
+						if (equation.variables().length == 0) equation.add(random.nextInt(size));
+						system.add(equation);
+					}
+
+					final long[] plain = new long[size], blocked = new long[size];
+					final boolean solvable = system.copy().plainGaussianElimination(plain);
+					assertEquals("size = " + size + ", density = " + density + ", ratio = " + ratio, solvable, system.copy().blockedGaussianElimination(blocked));
+					if (solvable) {
+						assertTrue(system.check(plain));
+						assertTrue(system.check(blocked));
+					}
+				}
+		}
+	}
+
+	@Test
+	public void testLazyLargeCore() {
+		// Close to the threshold, lazy Gaussian elimination leaves a dense system large enough to be blocked
+		final XoRoShiRo128PlusRandomGenerator random = new XoRoShiRo128PlusRandomGenerator(3);
+		final int size = 20000;
+		final Modulo2System system = new Modulo2System(size);
+		for(int i = 0; i < 88 * size / 100; i++) {
+			final int x = random.nextInt(size);
+			int v, w;
+			do v = random.nextInt(size); while(v == x);
+			do w = random.nextInt(size); while(w == x || w == v);
+			system.add(new Modulo2Equation(random.nextLong(), size).add(x).add(v).add(w));
+		}
+		final long[] solution = new long[size];
+		assertTrue(system.copy().lazyGaussianElimination(solution));
+		assertTrue(system.check(solution));
+	}
 }
@@ -185,4 +185,25 @@ public class Modulo3SystemTest {
 		}
 	}
 
+	@Test
+	public void testLargeCore() {
+		// Close to the threshold, lazy Gaussian elimination leaves a large dense system
+		final XoRoShiRo128PlusRandomGenerator random = new XoRoShiRo128PlusRandomGenerator(2);
+		for(final int size: new int[] { 100, 1000, 3000 }) {
+			final Modulo3System system = new Modulo3System(size);
+			for(int i = 0; i < 85 * size / 100; i++) {
+				final int x = random.nextInt(size);
+				int v, w;
+				do v = random.nextInt(size); while(v == x);
+				do w = random.nextInt(size); while(w == x || w == v);
+				system.add(new Modulo3Equation(random.nextInt(3), size).add(x, 1 + random.nextInt(2)).add(v, 1 + random.nextInt(2)).add(w, 1 + random.nextInt(2)));
+			}
+			final long[] solution = new long[size];
+			final boolean solvable = system.copy().gaussianElimination(solution);
+			if (solvable) assertTrue(system.check(solution));
+			Arrays.fill(solution, 0);
+			assertEquals(solvable, system.copy().lazyGaussianElimination(solution));
+			if (solvable) assertTrue(system.check(solution));
+		}
+	}
 }